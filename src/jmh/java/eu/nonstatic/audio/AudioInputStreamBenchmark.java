@@ -0,0 +1,101 @@
+/**
+ * Audiolib
+ * Copyright (C) 2022 NonStatic
+ *
+ * This file is part of audiolib.
+ * Audiolib is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *  is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License along with . If not, see <https://www.gnu.org/licenses/>.
+ */
+package eu.nonstatic.audio;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Header-parsing-like workload: a 4 bytes tag, then a handful of LE/BE integers, over and over.
+ * legacy is what AudioInputStream used to do (one array + one ByteBuffer per value),
+ * synchronized is the current AudioInputStream, unsynchronized is what the info suppliers use.
+ * Run with: gradle jmh
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AudioInputStreamBenchmark {
+
+  private static final int RECORD_SIZE = 4 + 2 + 4 + 8 + 2 + 4; // tag, 16LE, 32LE, 64LE, 16BE, 32BE
+  private static final int RECORDS = 4096;
+  private static final String TAG = "OggS";
+  private static final byte[] TAG_BYTES = TAG.getBytes(StandardCharsets.US_ASCII);
+
+  private byte[] data;
+
+  @Setup
+  public void setup() {
+    data = new byte[RECORD_SIZE * RECORDS];
+    ThreadLocalRandom.current().nextBytes(data);
+    for (int i = 0; i < RECORDS; i++) {
+      System.arraycopy(TAG_BYTES, 0, data, i * RECORD_SIZE, TAG_BYTES.length);
+    }
+  }
+
+  @Benchmark
+  public long legacy(Blackhole bh) throws IOException {
+    try (AudioInputStream ais = new AudioInputStream(new ByteArrayInputStream(data), "legacy")) {
+      long sum = 0;
+      for (int i = 0; i < RECORDS; i++) {
+        bh.consume(TAG.equals(ais.readString(4)));
+        sum += ByteBuffer.wrap(ais.readNBytesStrict(2)).order(ByteOrder.LITTLE_ENDIAN).getShort();
+        sum += ByteBuffer.wrap(ais.readNBytesStrict(4)).order(ByteOrder.LITTLE_ENDIAN).getInt();
+        sum += ByteBuffer.wrap(ais.readNBytesStrict(8)).order(ByteOrder.LITTLE_ENDIAN).getLong();
+        sum += ByteBuffer.wrap(ais.readNBytesStrict(2)).order(ByteOrder.BIG_ENDIAN).getShort();
+        sum += ByteBuffer.wrap(ais.readNBytesStrict(4)).order(ByteOrder.BIG_ENDIAN).getInt();
+      }
+      return sum;
+    }
+  }
+
+  @Benchmark
+  public long synchronizedStream(Blackhole bh) throws IOException {
+    return readRecords(new AudioInputStream(new ByteArrayInputStream(data), "synchronized"), bh);
+  }
+
+  @Benchmark
+  public long unsynchronizedStream(Blackhole bh) throws IOException {
+    return readRecords(new UnsynchronizedAudioInputStream(new ByteArrayInputStream(data), "unsynchronized"), bh);
+  }
+
+  private static long readRecords(AudioInputStream ais, Blackhole bh) throws IOException {
+    try (ais) {
+      long sum = 0;
+      for (int i = 0; i < RECORDS; i++) {
+        bh.consume(ais.readMagic(TAG_BYTES));
+        sum += ais.read16bitLE();
+        sum += ais.read32bitLE();
+        sum += ais.read64bitLE();
+        sum += ais.read16bitBE();
+        sum += ais.read32bitBE();
+      }
+      return sum;
+    }
+  }
+}
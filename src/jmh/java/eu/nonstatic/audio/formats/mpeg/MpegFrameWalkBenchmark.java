@@ -0,0 +1,100 @@
+/**
+ * Audiolib
+ * Copyright (C) 2022 NonStatic
+ *
+ * This file is part of audiolib.
+ * Audiolib is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *  is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License along with . If not, see <https://www.gnu.org/licenses/>.
+ */
+package eu.nonstatic.audio.formats.mpeg;
+
+import eu.nonstatic.audio.AudioInputStream;
+import eu.nonstatic.audio.UnsynchronizedAudioInputStream;
+import eu.nonstatic.audio.formats.mpeg.MpegAudioInfoSupplier.FrameDetails;
+import eu.nonstatic.audio.formats.mpeg.MpegAudioInfoSupplier.FrameInfos;
+import eu.nonstatic.audio.formats.mpeg.MpegAudioInfoSupplier.MalformedFrameException;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Frame walk over a synthetic MPEG 1 Layer III stream (alternating 128 and 192kbps @ 44.1kHz, padding on and off).
+ * legacy is what the walk used to do (one FrameDetails per frame, map lookups to decode, boxed counters),
+ * walker is the current table driven, allocation-free walk.
+ * Run with: gradle jmh
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MpegFrameWalkBenchmark {
+
+  private static final int FRAMES = 10_000;
+  private static final int[] HEADERS = {0xFFFB9064, 0xFFFBB264, 0xFFFB9264, 0xFFFBB064}; // 128kbps, 192kbps+padding, 128kbps+padding, 192kbps
+
+  private final Mp3AudioInfoSupplier supplier = new Mp3AudioInfoSupplier();
+  private byte[] data;
+
+  @Setup
+  public void setup() {
+    int[] lengths = new int[HEADERS.length];
+    int size = 0;
+    for (int i = 0; i < FRAMES; i++) {
+      int header = HEADERS[i % HEADERS.length];
+      int bitRate = (header & 0xF000) == 0x9000 ? 128 : 192;
+      int length = 144 * bitRate * 1000 / 44100 + ((header >> 9) & 0x1);
+      lengths[i % HEADERS.length] = length;
+      size += length;
+    }
+
+    data = new byte[size];
+    int offset = 0;
+    for (int i = 0; i < FRAMES; i++) {
+      int header = HEADERS[i % HEADERS.length];
+      data[offset] = (byte) (header >>> 24);
+      data[offset + 1] = (byte) (header >>> 16);
+      data[offset + 2] = (byte) (header >>> 8);
+      data[offset + 3] = (byte) header;
+      offset += lengths[i % HEADERS.length];
+    }
+  }
+
+  @Benchmark
+  public Map<Integer, Long> legacy() throws IOException, MalformedFrameException {
+    try (AudioInputStream ais = new UnsynchronizedAudioInputStream(new ByteArrayInputStream(data), "legacy")) {
+      Map<Integer, Long> sampleCounts = new HashMap<>();
+      Map<Short, Integer> channelsCounts = new HashMap<>();
+      FrameDetails frameDetails;
+      while ((frameDetails = supplier.readFrame(ais)) != null) {
+        int sampleCount = frameDetails.sampleCount;
+        sampleCounts.compute(frameDetails.sampleRate, (k, v) -> (v == null) ? sampleCount : v + sampleCount);
+        channelsCounts.compute(frameDetails.numChannels, (k, v) -> (v == null) ? 1 : v + 1);
+      }
+      return sampleCounts;
+    }
+  }
+
+  @Benchmark
+  public long walker() throws IOException, MalformedFrameException {
+    try (AudioInputStream ais = new UnsynchronizedAudioInputStream(new ByteArrayInputStream(data), "walker")) {
+      FrameInfos frameInfos = new FrameInfos(0);
+      while (supplier.walkFrame(ais, frameInfos));
+      return frameInfos.frameCount;
+    }
+  }
+}
@@ -0,0 +1,72 @@
+/**
+ * Audiolib
+ * Copyright (C) 2022 NonStatic
+ *
+ * This file is part of audiolib.
+ * Audiolib is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *  is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License along with . If not, see <https://www.gnu.org/licenses/>.
+ */
+package eu.nonstatic.audio.formats.ogg;
+
+import eu.nonstatic.audio.formats.AudioFormatException;
+import eu.nonstatic.audio.formats.ogg.OggInfoSupplier.Mode;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Walk of a synthetic Ogg Vorbis stream (about 3MB in 15KB pages), with and without CRC checks,
+ * plus the CRC alone, slice-by-8 vs byte per byte.
+ * Run with: gradle jmh
+ */
+@State(Scope.Thread)
+@BenchmarkMode(org.openjdk.jmh.annotations.Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OggChecksumBenchmark {
+
+  private static final int DATA_PAGES = 200;
+  private static final int PACKETS_PER_PAGE = 50;
+  private static final int PACKET_SIZE = 300;
+
+  private final OggInfoSupplier walkingSupplier = new OggInfoSupplier(Mode.VERIFY);
+  private final OggInfoSupplier checkingSupplier = new OggInfoSupplier(Mode.CHECKSUM);
+  private byte[] data;
+
+  @Setup
+  public void setup() {
+    data = SyntheticVorbis.stream(DATA_PAGES, PACKETS_PER_PAGE, PACKET_SIZE);
+  }
+
+  @Benchmark
+  public OggStreamsInfos walk() throws IOException, AudioFormatException {
+    return walkingSupplier.getStreamsInfos(new ByteArrayInputStream(data), "walk");
+  }
+
+  @Benchmark
+  public OggStreamsInfos walkWithChecksums() throws IOException, AudioFormatException {
+    return checkingSupplier.getStreamsInfos(new ByteArrayInputStream(data), "checksums");
+  }
+
+  @Benchmark
+  public int sliceBy8() {
+    return OggCrc.checksum(data, 0, data.length);
+  }
+
+  @Benchmark
+  public int bytewise() {
+    return OggCrc.updateBytewise(0, data, 0, data.length);
+  }
+}
@@ -0,0 +1,60 @@
+/**
+ * Audiolib
+ * Copyright (C) 2022 NonStatic
+ *
+ * This file is part of audiolib.
+ * Audiolib is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *  is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License along with . If not, see <https://www.gnu.org/licenses/>.
+ */
+package eu.nonstatic.audio.formats.ogg;
+
+import eu.nonstatic.audio.formats.AudioFormatException;
+import eu.nonstatic.audio.formats.ogg.OggInfoSupplier.Mode;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Walk of synthetic Ogg Vorbis streams made of many small pages, where the per page overhead dominates.
+ * Run with: gradle jmh
+ */
+@State(Scope.Thread)
+@BenchmarkMode(org.openjdk.jmh.annotations.Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OggPageWalkBenchmark {
+
+  private static final int DATA_PAGES = 20_000;
+
+  @Param({"1", "8"})
+  private int packetsPerPage;
+
+  @Param({"40", "200"})
+  private int packetSize;
+
+  private final OggInfoSupplier walkingSupplier = new OggInfoSupplier(Mode.VERIFY);
+  private byte[] data;
+
+  @Setup
+  public void setup() {
+    data = SyntheticVorbis.stream(DATA_PAGES, packetsPerPage, packetSize);
+  }
+
+  @Benchmark
+  public OggStreamsInfos walk() throws IOException, AudioFormatException {
+    return walkingSupplier.getStreamsInfos(new ByteArrayInputStream(data), "walk");
+  }
+}
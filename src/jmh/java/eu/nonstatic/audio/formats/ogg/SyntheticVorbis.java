@@ -0,0 +1,82 @@
+/**
+ * Audiolib
+ * Copyright (C) 2022 NonStatic
+ *
+ * This file is part of audiolib.
+ * Audiolib is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *  is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License along with . If not, see <https://www.gnu.org/licenses/>.
+ */
+package eu.nonstatic.audio.formats.ogg;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Builds a single stream Ogg Vorbis file: bos page, comment and setup headers page, then data pages of random packets.
+ */
+final class SyntheticVorbis {
+
+  private static final int SERIAL_NUMBER = 0x1234;
+
+  private SyntheticVorbis() {}
+
+  static byte[] stream(int dataPages, int packetsPerPage, int packetSize) {
+    Random random = new Random(42);
+    ByteArrayOutputStream bos = new ByteArrayOutputStream();
+    int seq = 0;
+    OggPages.writePage(bos, SERIAL_NUMBER, 0x2, 0, seq++, List.of(identPacket()));
+    OggPages.writePage(bos, SERIAL_NUMBER, 0x0, 0, seq++, List.of(headerPacket(3, new byte[9]), headerPacket(5, setupModes())));
+    for (int p = 0; p < dataPages; p++) {
+      List<byte[]> packets = new ArrayList<>();
+      for (int i = 0; i < packetsPerPage; i++) {
+        byte[] packet = new byte[packetSize];
+        random.nextBytes(packet);
+        packet[0] &= ~0x1; // data packet
+        packets.add(packet);
+      }
+      OggPages.writePage(bos, SERIAL_NUMBER, p == dataPages - 1 ? 0x4 : 0x0, (p + 1) * 1024L, seq++, packets);
+    }
+    return bos.toByteArray();
+  }
+
+  static byte[] identPacket() {
+    return ByteBuffer.allocate(30).order(ByteOrder.LITTLE_ENDIAN)
+        .put((byte) 1).put("vorbis".getBytes(StandardCharsets.US_ASCII))
+        .putInt(0) // version
+        .put((byte) 2) // channels
+        .putInt(44100)
+        .putInt(0).putInt(128000).putInt(0) // bitrates
+        .put((byte) 0xB8) // blocksizes
+        .put((byte) 1) // framing
+        .array();
+  }
+
+  /**
+   * A setup header reduced to a byte of whatever followed by the mode table: a short block mode and a long block mode, then the framing bit
+   */
+  static byte[] setupModes() {
+    BitSet bits = new BitSet();
+    int position = 8;
+    bits.set(position); // mode count - 1 on 6 bits
+    position += 6;
+    position += 1 + 16 + 16 + 8; // blockflag 0, windowtype, transformtype, mapping 0
+    bits.set(position); // blockflag 1
+    position += 1 + 16 + 16;
+    bits.set(position); // mapping 1
+    position += 8;
+    bits.set(position); // framing
+    return Arrays.copyOf(bits.toByteArray(), position / 8 + 1);
+  }
+
+  static byte[] headerPacket(int type, byte[] payload) {
+    return OggPages.packet((char) type + "vorbis", payload);
+  }
+}
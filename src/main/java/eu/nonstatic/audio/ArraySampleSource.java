@@ -0,0 +1,54 @@
+/**
+ * Audiolib
+ * Copyright (C) 2022 NonStatic
+ *
+ * This file is part of audiolib.
+ * Audiolib is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *  is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License along with . If not, see <https://www.gnu.org/licenses/>.
+ */
+package eu.nonstatic.audio;
+
+import javax.sound.sampled.AudioFormat;
+
+/**
+ * A sampling already in memory, handed over block by block
+ */
+final class ArraySampleSource implements SampleSource {
+
+  private final Sampling sampling;
+  private int position; // from the sampling's start
+
+  ArraySampleSource(Sampling sampling) {
+    this.sampling = sampling;
+  }
+
+  @Override
+  public AudioFormat format() {
+    return sampling.format();
+  }
+
+  @Override
+  public int read(double[] samples, int off, int len) {
+    int left = sampling.length() - position;
+    if (left <= 0) {
+      return len == 0 ? 0 : -1;
+    }
+    int read = Math.min(len, left);
+    System.arraycopy(sampling.samples(), sampling.start() + position, samples, off, read);
+    position += read;
+    return read;
+  }
+
+  @Override
+  public long skip(long n) {
+    int skipped = (int) Math.max(0, Math.min(n, sampling.length() - position));
+    position += skipped;
+    return skipped;
+  }
+
+  @Override
+  public void close() {
+    // nothing to release
+  }
+}
@@ -16,6 +16,7 @@ import edu.princeton.cs.algs4.FFT;
 import eu.nonstatic.audio.formats.AudioInfo;
 import java.io.IOException;
 import java.util.Arrays;
+import java.util.function.Consumer;
 import javax.sound.sampled.AudioFormat;
 
 /**
@@ -213,6 +214,25 @@ public record AudioAnalyzer(int windowFrames, int overlapFrames) {
     return fftBuffer;
   }
 
+  /**
+   * Same windows as fftSliding(double[]) over the whole source, the last one being zero-padded,
+   * but handed to the consumer as they come so that only one window is held at a time
+   */
+  public void fftSliding(SampleSource source, Consumer<Complex[]> consumer) throws IOException {
+    int hop = windowFrames - overlapFrames;
+    double[] window = new double[windowFrames];
+    int filled = source.readFully(window, 0, windowFrames);
+    while (filled > overlapFrames) {
+      consumer.accept(fft(window, 0, filled));
+      if (filled <= hop) {
+        break;
+      }
+      System.arraycopy(window, hop, window, 0, filled - hop);
+      filled -= hop;
+      filled += source.readFully(window, filled, windowFrames - filled);
+    }
+  }
+
   /**
    * @param fis
    * @param ai
@@ -9,18 +9,15 @@
  */
 package eu.nonstatic.audio;
 
-import static java.nio.ByteOrder.BIG_ENDIAN;
-import static java.nio.ByteOrder.LITTLE_ENDIAN;
-
 import java.io.BufferedInputStream;
 import java.io.EOFException;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
-import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.Arrays;
 import lombok.Getter;
 
 /**
@@ -51,35 +48,49 @@ public class AudioInputStream extends BufferedInputStream {
     this.name = name;
   }
 
+  public AudioInputStream(InputStream is, String name, int size) {
+    super(is, size);
+    this.name = name;
+  }
+
+  /**
+   * Entry point for the info suppliers: a stream which already is an untouched AudioInputStream
+   * (eg: a {@link MappedAudioInputStream}) is used as is, anything else gets wrapped.
+   */
+  public static AudioInputStream of(InputStream is, String name) {
+    if(is instanceof AudioInputStream ais && ais.location() == 0) {
+      return ais;
+    } else {
+      return new UnsynchronizedAudioInputStream(is, name);
+    }
+  }
+
   public short read16bitLE() throws IOException {
-    return ByteBuffer.wrap(readNBytesStrict(2)).order(LITTLE_ENDIAN).getShort();
+    return (short) readLE(2);
   }
 
   public int read32bitLE() throws IOException {
-    return ByteBuffer.wrap(readNBytesStrict(4)).order(LITTLE_ENDIAN).getInt();
+    return (int) readLE(4);
   }
 
   public long read64bitLE() throws IOException {
-    return ByteBuffer.wrap(readNBytesStrict(8)).order(LITTLE_ENDIAN).getLong();
+    return readLE(8);
   }
 
   public short read16bitBE() throws IOException {
-    return ByteBuffer.wrap(readNBytesStrict(2)).order(BIG_ENDIAN).getShort();
+    return (short) readBE(2);
   }
 
   public int read24bitBE() throws IOException {
-    return ByteBuffer.allocate(4).order(BIG_ENDIAN)
-        .put((byte) 0).put(readNBytesStrict(3))
-        .flip()
-        .getInt();
+    return (int) readBE(3);
   }
 
   public int read32bitBE() throws IOException {
-    return ByteBuffer.wrap(readNBytesStrict(4)).order(BIG_ENDIAN).getInt();
+    return (int) readBE(4);
   }
 
   public long read64bitBE() throws IOException {
-    return ByteBuffer.wrap(readNBytesStrict(8)).order(BIG_ENDIAN).getLong();
+    return readBE(8);
   }
 
   /**
@@ -89,9 +100,8 @@ public class AudioInputStream extends BufferedInputStream {
    * @return the converted float
    */
   public double readExtendedFloatBE() throws IOException {
-    ByteBuffer bb = ByteBuffer.wrap(readNBytesStrict(10)).order(BIG_ENDIAN);
-    short high = bb.getShort();
-    long low = bb.getLong();
+    short high = read16bitBE();
+    long low = read64bitBE();
 
     long e = (((high & 0x7FFFL) - 0x3FFFL) + 0x3FFL) & 0x7FFL;
     long ld = ((high & 0x8000L) << 48)
@@ -100,6 +110,101 @@ public class AudioInputStream extends BufferedInputStream {
     return Double.longBitsToDouble(ld);
   }
 
+  /**
+   * Reads magic.length bytes and compares them to magic, without building any String nor array.
+   * The bytes are consumed whether they match or not, the same way readString(magic.length).equals(...) would.
+   * @return true if the bytes match
+   */
+  public synchronized boolean readMagic(byte[] magic) throws IOException {
+    return decodeMagic(magic);
+  }
+
+  /**
+   * Looks ahead without consuming anything, when the byte is already at hand
+   * @param offset from the current location
+   * @return the unsigned byte, -1 when it isn't buffered, which doesn't mean the EOF is there
+   */
+  public synchronized int peek(int offset) {
+    return peekBuffered(offset);
+  }
+
+  /**
+   * @param len number of bytes to read, up to 8
+   * @return the unsigned little endian value
+   */
+  protected synchronized long readLE(int len) throws IOException {
+    return decodeLE(len);
+  }
+
+  /**
+   * @param len number of bytes to read, up to 8
+   * @return the unsigned big endian value
+   */
+  protected synchronized long readBE(int len) throws IOException {
+    return decodeBE(len);
+  }
+
+  /**
+   * The decodeXX methods read straight from the internal buffer when it holds enough bytes,
+   * else fall back on byte per byte reads (which will refill it). No allocation happens either way.
+   * They are not synchronized, callers have to be.
+   */
+  protected final long decodeLE(int len) throws IOException {
+    long value = 0;
+    byte[] buffer = buf;
+    if(buffer != null && count - pos >= len) {
+      for(int i = pos + len - 1; i >= pos; i--) {
+        value = (value << 8) | (buffer[i] & 0xffL);
+      }
+      pos += len;
+      advance(len);
+    } else {
+      for(int i = 0; i < len; i++) {
+        value |= (long) readStrict() << (i << 3);
+      }
+    }
+    return value;
+  }
+
+  protected final long decodeBE(int len) throws IOException {
+    long value = 0;
+    byte[] buffer = buf;
+    if(buffer != null && count - pos >= len) {
+      for(int i = pos; i < pos + len; i++) {
+        value = (value << 8) | (buffer[i] & 0xffL);
+      }
+      pos += len;
+      advance(len);
+    } else {
+      for(int i = 0; i < len; i++) {
+        value = (value << 8) | readStrict();
+      }
+    }
+    return value;
+  }
+
+  protected final boolean decodeMagic(byte[] magic) throws IOException {
+    int len = magic.length;
+    boolean matches;
+    byte[] buffer = buf;
+    if(buffer != null && count - pos >= len) {
+      matches = Arrays.equals(buffer, pos, pos + len, magic, 0, len);
+      pos += len;
+      advance(len);
+    } else {
+      matches = true;
+      for (byte b : magic) {
+        matches &= readStrict() == (b & 0xff);
+      }
+    }
+    return matches;
+  }
+
+  protected final int peekBuffered(int offset) {
+    byte[] buffer = buf;
+    return buffer != null && offset >= 0 && offset < count - pos ? buffer[pos + offset] & 0xff : -1;
+  }
+
   public String readString(int len) throws IOException {
     return new String(readNBytesStrict(len), StandardCharsets.US_ASCII); // BIG ENDIAN
   }
@@ -123,13 +228,44 @@ public class AudioInputStream extends BufferedInputStream {
     return location;
   }
 
+  /**
+   * @return the total size of the stream when known up front, -1 otherwise
+   */
+  public long size() {
+    return -1;
+  }
+
+  /**
+   * @return the number of bytes left: exact when the size is known, else only an estimate, as per {@link #available()}
+   */
+  public long remaining() throws IOException {
+    long size = size();
+    return size >= 0 ? size - location : available();
+  }
+
+  public boolean isSeekable() {
+    return false;
+  }
+
+  /**
+   * Moves to the given location. A stream which isn't seekable can only move forward, by skipping.
+   * When actually seeking, the mark is lost.
+   * @throws EOFException when the location is past the end
+   */
+  public void seek(long location) throws IOException {
+    if(location < this.location) {
+      throw new IOException("Cannot seek backwards from " + this.location + " to " + location + ": " + name);
+    }
+    skipNBytes(location - this.location);
+  }
+
   // Those delegates just to update the location
 
   @Override
   public synchronized int read() throws IOException {
     int read = super.read();
     if(read != -1) {
-      this.location++;
+      advance(1);
     }
     return read;
   }
@@ -137,7 +273,7 @@ public class AudioInputStream extends BufferedInputStream {
   public int readStrict() throws IOException {
     int read = super.read();
     if(read != -1) {
-      this.location++;
+      advance(1);
       return read;
     } else {
       throw new EOFException("location: " + location);
@@ -148,7 +284,7 @@ public class AudioInputStream extends BufferedInputStream {
   public synchronized int read(byte[] b, int off, int len) throws IOException {
     int read = super.read(b, off, len);
     if(read > 0) { // EOF will give -1
-      this.location += read;
+      advance(read);
     }
     return read;
   }
@@ -156,14 +292,14 @@ public class AudioInputStream extends BufferedInputStream {
   @Override
   public synchronized long skip(long n) throws IOException {
     long skipped = super.skip(n);
-    this.location += skipped;
+    advance(skipped);
     return skipped;
   }
 
   @Override
   public synchronized void mark(int readlimit) {
     super.mark(readlimit);
-    this.markedAt = location();
+    marked();
   }
 
   public long markedAt() {
@@ -173,6 +309,29 @@ public class AudioInputStream extends BufferedInputStream {
   @Override
   public synchronized void reset() throws IOException {
     super.reset();
+    rewound();
+  }
+
+  // Location bookkeeping, also used by subclasses doing their own buffering
+
+  protected final void advance(long n) {
+    this.location += n;
+  }
+
+  protected final void marked() {
+    this.markedAt = location;
+  }
+
+  protected final void relocated(long location) {
+    this.location = location;
+    this.markedAt = -1;
+
+    if(location < chunkedAt) {
+      dechunk();
+    }
+  }
+
+  protected final void rewound() {
     this.location = markedAt;
     this.markedAt = -1;
 
@@ -24,6 +24,8 @@ public class AudioIssue implements Serializable {
 
   public static final String META_SKIPPED = "skipped";
   public static final String META_MESSAGE = "message";
+  public static final String META_EXPECTED = "expected";
+  public static final String META_ACTUAL = "actual";
 
   private final long location;
   private final Type type;
@@ -68,6 +70,15 @@ public class AudioIssue implements Serializable {
     return new AudioIssue(location, Type.EOF, exception);
   }
 
+  /**
+   * Checksum values are given as hex strings
+   */
+  public static AudioIssue checksum(long location, long expected, long actual) {
+    return new AudioIssue(location, Type.CHECKSUM, null,
+        Map.of(META_EXPECTED, Long.toHexString(expected), META_ACTUAL, Long.toHexString(actual))
+    );
+  }
+
   public static AudioIssue other(long location, @NonNull Throwable throwable) {
     return new AudioIssue(location, Type.OTHER, throwable);
   }
@@ -78,6 +89,6 @@ public class AudioIssue implements Serializable {
 
 
   public enum Type {
-    SYNC, FORMAT, EOF, OTHER
+    SYNC, FORMAT, EOF, CHECKSUM, OTHER
   }
 }
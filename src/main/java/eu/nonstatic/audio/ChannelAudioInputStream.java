@@ -0,0 +1,95 @@
+/**
+ * Audiolib
+ * Copyright (C) 2022 NonStatic
+ *
+ * This file is part of audiolib.
+ * Audiolib is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *  is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License along with . If not, see <https://www.gnu.org/licenses/>.
+ */
+package eu.nonstatic.audio;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Buffered {@link AudioInputStream} over a channel, whose size is known up front and which can seek.
+ * Locations are relative to the channel's position at creation, so that a format embedded at some offset reads the same.
+ * Skips past the buffer become channel repositioning instead of reads.
+ * This is how files are read by default: unlike a mapping, nothing outlives the stream once closed,
+ * and a read blocking on I/O doesn't pin a virtual thread's carrier.
+ * Closing the stream closes the channel.
+ * Not thread safe.
+ */
+public class ChannelAudioInputStream extends UnsynchronizedAudioInputStream {
+
+  private static final int DEFAULT_BUFFER_SIZE = 8192; // BufferedInputStream's
+
+  private final SeekableByteChannel channel;
+  private final long origin;
+  private final long size;
+
+
+  public ChannelAudioInputStream(SeekableByteChannel channel, String name) throws IOException {
+    this(channel, name, DEFAULT_BUFFER_SIZE);
+  }
+
+  /**
+   * @return a stream on the file, to be closed by the caller
+   */
+  public static ChannelAudioInputStream open(Path file) throws IOException {
+    return new ChannelAudioInputStream(FileChannel.open(file, StandardOpenOption.READ), file.toString());
+  }
+
+  /**
+   * @param bufferSize how much each read from the channel asks for
+   */
+  public ChannelAudioInputStream(SeekableByteChannel channel, String name, int bufferSize) throws IOException {
+    super(Channels.newInputStream(channel), name, bufferSize);
+    this.channel = channel;
+    this.origin = channel.position();
+    this.size = channel.size() - origin;
+  }
+
+  @Override
+  public long size() {
+    return size;
+  }
+
+  @Override
+  public boolean isSeekable() {
+    return true;
+  }
+
+  @Override
+  public void seek(long location) throws IOException {
+    if(location < 0 || location > size) {
+      throw new EOFException("Cannot seek to " + location + ", size is " + size + ": " + name);
+    }
+    long bufferStart = location() - pos;
+    if(location >= bufferStart && location <= bufferStart + count) { // still in the buffer
+      pos = (int) (location - bufferStart);
+    } else {
+      channel.position(origin + location);
+      pos = count = 0;
+    }
+    markpos = -1;
+    relocated(location);
+  }
+
+  @Override
+  public long skip(long n) throws IOException {
+    if(n <= count - pos || markpos >= 0) { // in the buffer, or needs to be kept in it for a reset
+      return super.skip(n);
+    } else {
+      long skipped = Math.min(n, size - location());
+      seek(location() + skipped);
+      return skipped;
+    }
+  }
+}
@@ -0,0 +1,52 @@
+/**
+ * Audiolib
+ * Copyright (C) 2022 NonStatic
+ *
+ * This file is part of audiolib.
+ * Audiolib is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *  is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License along with . If not, see <https://www.gnu.org/licenses/>.
+ */
+package eu.nonstatic.audio;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * {@link RangeReader} over a local file, through positional reads.
+ * Thread safe.
+ */
+public class FileRangeReader implements RangeReader {
+
+  private final FileChannel channel;
+  private final long size;
+
+  public FileRangeReader(Path file) throws IOException {
+    this.channel = FileChannel.open(file, StandardOpenOption.READ);
+    this.size = channel.size();
+  }
+
+  @Override
+  public long size() {
+    return size;
+  }
+
+  @Override
+  public ByteBuffer read(long offset, int length) throws IOException {
+    ByteBuffer bb = ByteBuffer.allocate((int) Math.max(0, Math.min(length, size - offset)));
+    while(bb.hasRemaining()) {
+      if(channel.read(bb, offset + bb.position()) < 0) {
+        break;
+      }
+    }
+    return bb.flip();
+  }
+
+  @Override
+  public void close() throws IOException {
+    channel.close();
+  }
+}
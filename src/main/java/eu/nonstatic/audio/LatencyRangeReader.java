@@ -0,0 +1,69 @@
+/**
+ * Audiolib
+ * Copyright (C) 2022 NonStatic
+ *
+ * This file is part of audiolib.
+ * Audiolib is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *  is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License along with . If not, see <https://www.gnu.org/licenses/>.
+ */
+package eu.nonstatic.audio;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.NonNull;
+
+/**
+ * Stand-in for a remote {@link RangeReader}: each read waits for the given latency before going to the wrapped reader.
+ * Counts the round trips and the bytes they carried, so that what a supplier costs against an object storage can be measured locally.
+ * Thread safe if the wrapped reader is.
+ */
+public class LatencyRangeReader implements RangeReader {
+
+  private final RangeReader reader;
+  private final Duration latency;
+  private final AtomicLong roundTrips = new AtomicLong();
+  private final AtomicLong bytesRead = new AtomicLong();
+
+  public LatencyRangeReader(@NonNull RangeReader reader, @NonNull Duration latency) {
+    this.reader = reader;
+    this.latency = latency;
+  }
+
+  @Override
+  public long size() throws IOException {
+    return reader.size();
+  }
+
+  @Override
+  public ByteBuffer read(long offset, int length) throws IOException {
+    if(!latency.isZero()) {
+      try {
+        Thread.sleep(latency.toMillis(), latency.toNanosPart() % 1_000_000);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new InterruptedIOException("Interrupted while reading range at " + offset);
+      }
+    }
+    ByteBuffer bb = reader.read(offset, length);
+    roundTrips.incrementAndGet();
+    bytesRead.addAndGet(bb.remaining());
+    return bb;
+  }
+
+  public long getRoundTrips() {
+    return roundTrips.get();
+  }
+
+  public long getBytesRead() {
+    return bytesRead.get();
+  }
+
+  @Override
+  public void close() throws IOException {
+    reader.close();
+  }
+}
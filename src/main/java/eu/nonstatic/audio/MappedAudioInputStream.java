@@ -0,0 +1,262 @@
+/**
+ * Audiolib
+ * Copyright (C) 2022 NonStatic
+ *
+ * This file is part of audiolib.
+ * Audiolib is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *  is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License along with . If not, see <https://www.gnu.org/licenses/>.
+ */
+package eu.nonstatic.audio;
+
+import static java.nio.ByteOrder.BIG_ENDIAN;
+import static java.nio.ByteOrder.LITTLE_ENDIAN;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Objects;
+
+/**
+ * {@link AudioInputStream} reading from a file mapped in memory instead of a buffered stream:
+ * skips only move the position, reads come straight from the page cache, and there's no locking.
+ * mark/reset has no read limit since the whole file is at hand.
+ * A single mapping can't exceed 2GB, see {@link #open(Path)} for larger files.
+ * Closing the stream doesn't unmap the file, the mapping only goes away when the GC collects it: till then it counts against the process's
+ * mappings (vm.max_map_count on Linux) and, on Windows, keeps the file from being deleted or rewritten.
+ * So it's meant for the walks through a whole file, parsing headers goes through a {@link ChannelAudioInputStream}.
+ * Not thread safe.
+ */
+public class MappedAudioInputStream extends AudioInputStream {
+
+  static final long MIN_MAPPED_SIZE = 4L * 1024 * 1024; // below that, buffered reads cost about the same, and nothing lingers
+
+  private ByteBuffer be; // both views share the same mapping, only the byte order differs
+  private ByteBuffer le;
+  private final int limit;
+  private int position;
+  private int markPosition = -1;
+
+
+  public MappedAudioInputStream(Path file) throws IOException {
+    super(InputStream.nullInputStream(), file.toString(), 1);
+    try(FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) { // the mapping outlives the channel
+      long size = channel.size();
+      if(size > Integer.MAX_VALUE) {
+        throw new IOException("Cannot map more than 2GB: " + file);
+      }
+      this.be = channel.map(MapMode.READ_ONLY, 0, size).order(BIG_ENDIAN);
+    }
+    this.le = be.duplicate().order(LITTLE_ENDIAN);
+    this.limit = be.limit();
+  }
+
+  /**
+   * For walking through the whole file
+   * @return a mapped stream on the file, or a channel based one when it is too small to be worth mapping or too big to be mapped at once
+   */
+  public static AudioInputStream open(Path file) throws IOException {
+    long size = file.toFile().length();
+    if(size < MIN_MAPPED_SIZE || size > Integer.MAX_VALUE) {
+      return ChannelAudioInputStream.open(file);
+    } else {
+      return new MappedAudioInputStream(file);
+    }
+  }
+
+  @Override
+  public long size() {
+    return limit;
+  }
+
+  @Override
+  public boolean isSeekable() {
+    return true;
+  }
+
+  @Override
+  public void seek(long location) throws IOException {
+    getBufferIfOpen();
+    if(location < 0 || location > limit) {
+      throw new EOFException("Cannot seek to " + location + ", size is " + limit + ": " + name);
+    }
+    position = (int) location;
+    markPosition = -1;
+    relocated(location);
+  }
+
+  @Override
+  public boolean readMagic(byte[] magic) throws IOException {
+    ByteBuffer buffer = getBufferIfOpen();
+    int len = ensureAvailable(magic.length);
+    boolean matches = true;
+    for (int i = 0; i < len; i++) {
+      matches &= buffer.get(position + i) == magic[i];
+    }
+    move(len);
+    return matches;
+  }
+
+  /**
+   * The whole file being at hand, only going past the end gives -1
+   */
+  @Override
+  public int peek(int offset) {
+    ByteBuffer buffer = be;
+    return buffer != null && offset >= 0 && offset < limit - position ? buffer.get(position + offset) & 0xff : -1;
+  }
+
+  @Override
+  protected long readLE(int len) throws IOException {
+    ByteBuffer buffer = getLittleEndianIfOpen();
+    ensureAvailable(len);
+    long value;
+    switch (len) {
+      case 2: value = buffer.getShort(position) & 0xffffL; break;
+      case 4: value = buffer.getInt(position) & 0xffffffffL; break;
+      case 8: value = buffer.getLong(position); break;
+      default:
+        value = 0;
+        for (int i = len - 1; i >= 0; i--) {
+          value = (value << 8) | (buffer.get(position + i) & 0xffL);
+        }
+    }
+    move(len);
+    return value;
+  }
+
+  @Override
+  protected long readBE(int len) throws IOException {
+    ByteBuffer buffer = getBufferIfOpen();
+    ensureAvailable(len);
+    long value;
+    switch (len) {
+      case 2: value = buffer.getShort(position) & 0xffffL; break;
+      case 4: value = buffer.getInt(position) & 0xffffffffL; break;
+      case 8: value = buffer.getLong(position); break;
+      default:
+        value = 0;
+        for (int i = 0; i < len; i++) {
+          value = (value << 8) | (buffer.get(position + i) & 0xffL);
+        }
+    }
+    move(len);
+    return value;
+  }
+
+  @Override
+  public int read() throws IOException {
+    ByteBuffer buffer = getBufferIfOpen();
+    if(position >= limit) {
+      return -1;
+    }
+    int read = buffer.get(position) & 0xff;
+    move(1);
+    return read;
+  }
+
+  @Override
+  public int readStrict() throws IOException {
+    int read = read();
+    if(read != -1) {
+      return read;
+    } else {
+      throw new EOFException("location: " + location());
+    }
+  }
+
+  @Override
+  public int read(byte[] b, int off, int len) throws IOException {
+    ByteBuffer buffer = getBufferIfOpen();
+    Objects.checkFromIndexSize(off, len, b.length);
+    if(len == 0) {
+      return 0;
+    }
+    int avail = limit - position;
+    if(avail <= 0) {
+      return -1;
+    }
+    int n = Math.min(avail, len);
+    buffer.get(position, b, off, n);
+    move(n);
+    return n;
+  }
+
+  @Override
+  public long skip(long n) throws IOException {
+    getBufferIfOpen();
+    if(n <= 0) {
+      return 0;
+    }
+    int skipped = (int) Math.min(n, limit - position);
+    move(skipped);
+    return skipped;
+  }
+
+  @Override
+  public int available() throws IOException {
+    getBufferIfOpen();
+    return limit - position;
+  }
+
+  @Override
+  public void mark(int readlimit) {
+    markPosition = position;
+    marked();
+  }
+
+  @Override
+  public void reset() throws IOException {
+    getBufferIfOpen();
+    if(markPosition < 0) {
+      throw new IOException("Resetting to invalid mark");
+    }
+    position = markPosition;
+    rewound();
+  }
+
+  @Override
+  public void close() throws IOException {
+    be = null; // the mapping goes away with the last reference
+    le = null;
+    super.close();
+  }
+
+  private void move(int n) {
+    position += n;
+    advance(n);
+  }
+
+  /**
+   * Same behaviour as a stream reaching its end: whatever is left is consumed before the EOFException
+   */
+  private int ensureAvailable(int len) throws EOFException {
+    int avail = limit - position;
+    if(avail < len) {
+      move(avail);
+      throw new EOFException("location: " + location());
+    }
+    return len;
+  }
+
+  private ByteBuffer getBufferIfOpen() throws IOException {
+    ByteBuffer buffer = be;
+    if(buffer == null) {
+      throw new IOException("Stream closed");
+    }
+    return buffer;
+  }
+
+  private ByteBuffer getLittleEndianIfOpen() throws IOException {
+    ByteBuffer buffer = le;
+    if(buffer == null) {
+      throw new IOException("Stream closed");
+    }
+    return buffer;
+  }
+}
@@ -0,0 +1,101 @@
+/**
+ * Audiolib
+ * Copyright (C) 2022 NonStatic
+ *
+ * This file is part of audiolib.
+ * Audiolib is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *  is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License along with . If not, see <https://www.gnu.org/licenses/>.
+ */
+package eu.nonstatic.audio;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.NonWritableChannelException;
+import java.nio.channels.SeekableByteChannel;
+
+/**
+ * Seekable {@link AudioInputStream} over a {@link RangeReader}, the buffer size being the read-ahead:
+ * consecutive small reads are served by a single range, and skips past the buffer only move the position,
+ * so that each fill costs one round trip and skipped payloads are never fetched.
+ * Closing the stream leaves the reader open.
+ * Not thread safe.
+ */
+public class RangeAudioInputStream extends ChannelAudioInputStream {
+
+  public RangeAudioInputStream(RangeReader reader, String name, int readAhead) throws IOException {
+    super(new RangeChannel(reader), name, readAhead);
+  }
+
+  private static final class RangeChannel implements SeekableByteChannel {
+    private final RangeReader reader;
+    private long position;
+    private boolean open = true;
+
+    private RangeChannel(RangeReader reader) {
+      this.reader = reader;
+    }
+
+    @Override
+    public int read(ByteBuffer dst) throws IOException {
+      ensureOpen();
+      if(position >= reader.size()) {
+        return -1;
+      }
+      ByteBuffer range = reader.read(position, dst.remaining());
+      int read = range.remaining();
+      if(read == 0) {
+        return -1;
+      }
+      dst.put(range);
+      position += read;
+      return read;
+    }
+
+    @Override
+    public long position() throws IOException {
+      ensureOpen();
+      return position;
+    }
+
+    @Override
+    public SeekableByteChannel position(long newPosition) throws IOException {
+      ensureOpen();
+      position = newPosition;
+      return this;
+    }
+
+    @Override
+    public long size() throws IOException {
+      ensureOpen();
+      return reader.size();
+    }
+
+    @Override
+    public int write(ByteBuffer src) {
+      throw new NonWritableChannelException();
+    }
+
+    @Override
+    public SeekableByteChannel truncate(long size) {
+      throw new NonWritableChannelException();
+    }
+
+    @Override
+    public boolean isOpen() {
+      return open;
+    }
+
+    @Override
+    public void close() {
+      open = false;
+    }
+
+    private void ensureOpen() throws ClosedChannelException {
+      if(!open) {
+        throw new ClosedChannelException();
+      }
+    }
+  }
+}
@@ -0,0 +1,31 @@
+/**
+ * Audiolib
+ * Copyright (C) 2022 NonStatic
+ *
+ * This file is part of audiolib.
+ * Audiolib is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *  is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License along with . If not, see <https://www.gnu.org/licenses/>.
+ */
+package eu.nonstatic.audio;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Source of bytes read by ranges, typically an object storage blob where each read is a round trip.
+ * The info suppliers consume it through a {@link RangeAudioInputStream}, issuing one range per buffer fill.
+ */
+public interface RangeReader extends Closeable {
+
+  /**
+   * Expected to be known up front (eg: from a listing), it isn't counted as a round trip
+   */
+  long size() throws IOException;
+
+  /**
+   * @return a buffer holding up to length bytes starting at offset, fewer only at the end of the source, none past it
+   */
+  ByteBuffer read(long offset, int length) throws IOException;
+}
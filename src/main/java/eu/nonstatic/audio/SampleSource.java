@@ -0,0 +1,120 @@
+/**
+ * Audiolib
+ * Copyright (C) 2022 NonStatic
+ *
+ * This file is part of audiolib.
+ * Audiolib is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *  is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License along with . If not, see <https://www.gnu.org/licenses/>.
+ */
+package eu.nonstatic.audio;
+
+import eu.nonstatic.audio.formats.PcmView;
+import eu.nonstatic.timecode.TimeCode;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Optional;
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.AudioSystem;
+import javax.sound.sampled.UnsupportedAudioFileException;
+
+/**
+ * Mono samples pulled block by block, the streaming counterpart of {@link Sampling}:
+ * the memory needed depends on the block size, not on the length of the track.
+ * Samples are normalized to [-1, 1) and downmixed the same way {@link Sampling#mono(AudioInputStream)} does.
+ * A source is read once, from its start, and isn't thread safe.
+ */
+public interface SampleSource extends Closeable {
+
+  int DEFAULT_BLOCK_SIZE = 16 * 1024;
+
+  /**
+   * Receives the same block over and over, only its first len samples being meaningful
+   */
+  @FunctionalInterface
+  interface BlockConsumer {
+    void accept(double[] block, int len);
+  }
+
+  /**
+   * Plain PCM streams are decoded as they are read, other encodings are converted to 16 bit mono by AudioSystem first
+   */
+  static SampleSource of(AudioInputStream ais) {
+    return new StreamSampleSource(ais);
+  }
+
+  /**
+   * Uncompressed WAVE and AIFF files are read from a mapping of their samples, anything else goes through AudioSystem
+   */
+  static SampleSource of(Path file) throws IOException, UnsupportedAudioFileException {
+    Optional<PcmView> view = PcmView.find(file);
+    if (view.isPresent()) {
+      return new ViewSampleSource(view.get());
+    }
+    return new StreamSampleSource(AudioSystem.getAudioInputStream(file.toFile()));
+  }
+
+  static SampleSource of(Sampling sampling) {
+    return new ArraySampleSource(sampling);
+  }
+
+  /**
+   * @return 16 bit mono at the source's rate, as for {@link Sampling#format()}
+   */
+  AudioFormat format();
+
+  default float sampleRate() {
+    return format().getSampleRate();
+  }
+
+  /**
+   * @return the number of samples read, -1 at the end
+   */
+  int read(double[] buffer, int off, int len) throws IOException;
+
+  /**
+   * Skips samples, seeking rather than decoding when the source allows it
+   * @return the number of samples actually skipped, less than n at the end
+   */
+  long skip(long n) throws IOException;
+
+  /**
+   * Reads until the buffer is full or the source is over
+   * @return the number of samples read, 0 at the end
+   */
+  default int readFully(double[] buffer, int off, int len) throws IOException {
+    int total = 0;
+    while (total < len) {
+      int read = read(buffer, off + total, len - total);
+      if (read < 0) {
+        break;
+      }
+      total += read;
+    }
+    return total;
+  }
+
+  /**
+   * Hands the rest of the source over in blocks of blockSize samples, the last one excepted, all sharing the same array
+   */
+  default void blocks(int blockSize, BlockConsumer consumer) throws IOException {
+    double[] block = new double[blockSize];
+    int len;
+    while ((len = readFully(block, 0, blockSize)) > 0) {
+      consumer.accept(block, len);
+    }
+  }
+
+  /**
+   * Same cut as {@link Sampling#slice(TimeCode, Duration)} from the current position, which is the start for a fresh source.
+   * Going past the end only gives a shorter slice.
+   * Closing the slice closes this source.
+   */
+  default SampleSource slice(TimeCode start, Duration duration) throws IOException {
+    skip(Sampling.timeCodeToSamples(format(), start));
+    return new SlicedSampleSource(this, Sampling.durationToSamples(format(), duration));
+  }
+}
@@ -9,13 +9,20 @@
  */
 package eu.nonstatic.audio;
 
+import eu.nonstatic.audio.formats.PcmDecoder;
+import eu.nonstatic.audio.formats.PcmView;
 import eu.nonstatic.timecode.TimeCode;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
+import java.nio.file.Path;
 import java.time.Duration;
+import java.util.Arrays;
+import java.util.Optional;
 import javax.sound.sampled.AudioFormat;
 import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.AudioSystem;
+import javax.sound.sampled.UnsupportedAudioFileException;
 
 /**
  * @param samples
@@ -25,6 +32,9 @@ import javax.sound.sampled.AudioInputStream;
  */
 public record Sampling(double[] samples, int start, int length, AudioFormat format, boolean lenient) {
 
+  private static final int BLOCK_FRAMES = 64 * 1024;
+  private static final int MAX_ARRAY_SIZE = Integer.MAX_VALUE - 8;
+
   public Sampling {
     if(lenient) {
       start = Math.min(samples.length, Math.max(0, start));
@@ -48,7 +58,18 @@ public record Sampling(double[] samples, int start, int length, AudioFormat form
     this(samples, format, false);
   }
 
+  /**
+   * Plain PCM is decoded and downmixed here, block by block, at its full precision: no javax.sound.sampled conversion, nor whole stream copy.
+   * Other encodings are converted to 16 bit mono by AudioSystem first.
+   * The sampling's format is 16 bit mono either way, only its rate matters to the analysis.
+   * The stream is closed either way.
+   */
   public static Sampling mono(AudioInputStream ais) throws IOException {
+    Optional<PcmDecoder> decoder = PcmDecoder.of(ais.getFormat());
+    if(decoder.isPresent()) {
+      return mono(ais, decoder.get());
+    }
+
     try (AudioInputStream mis = AudioUtils.getMonoInputStream(ais)) {
       byte[] bytes = mis.readAllBytes();
       ByteBuffer buffer = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
@@ -64,6 +85,60 @@ public record Sampling(double[] samples, int start, int length, AudioFormat form
     }
   }
 
+  /**
+   * Uncompressed WAVE and AIFF files are read from a mapping of their samples, as located by our own suppliers,
+   * anything else goes through AudioSystem
+   */
+  public static Sampling mono(Path file) throws IOException, UnsupportedAudioFileException {
+    Optional<PcmView> view = PcmView.find(file);
+    if(view.isPresent()) {
+      return mono(view.get());
+    }
+    try (AudioInputStream ais = AudioSystem.getAudioInputStream(file.toFile())) {
+      return mono(ais);
+    }
+  }
+
+  public static Sampling mono(PcmView view) {
+    double[] samples = new double[Math.toIntExact(view.getFrameCount())];
+    view.readMono(0, samples, 0, samples.length);
+    return new Sampling(samples, monoFormat(view.getSampleRate()));
+  }
+
+  private static Sampling mono(AudioInputStream ais, PcmDecoder decoder) throws IOException {
+    try (AudioInputStream dis = ais) { // closed like the converted stream is
+      int frameSize = decoder.getFrameSize();
+      long frameLength = dis.getFrameLength();
+      double[] samples = new double[frameLength >= 0 && frameLength <= MAX_ARRAY_SIZE ? (int) frameLength : BLOCK_FRAMES];
+      byte[] block = new byte[BLOCK_FRAMES * frameSize];
+      ByteBuffer buffer = ByteBuffer.wrap(block).order(decoder.getByteOrder());
+
+      int count = 0;
+      int read;
+      while ((read = dis.readNBytes(block, 0, block.length)) > 0) { // javax streams only give whole frames
+        int frames = read / frameSize;
+        if (count + frames > samples.length) {
+          samples = Arrays.copyOf(samples, (int) Math.min(MAX_ARRAY_SIZE, Math.max(2L * samples.length, count + frames)));
+        }
+        decoder.mono(buffer, 0, frames, samples, count);
+        count += frames;
+      }
+      return new Sampling(count == samples.length ? samples : Arrays.copyOf(samples, count), monoFormat(dis.getFormat()));
+    }
+  }
+
+  /**
+   * The format samplings and sources report once decoded: 16 bit mono, whatever the precision of the samples
+   */
+  static AudioFormat monoFormat(float sampleRate) {
+    return new AudioFormat(sampleRate, 16, 1, true, false);
+  }
+
+  static AudioFormat monoFormat(AudioFormat format) {
+    AudioFormat monoFormat = AudioUtils.toSignedMonoPcmFormat(format);
+    return monoFormat.matches(format) ? format : monoFormat;
+  }
+
   public Sampling safe() {
     return new Sampling(samples, start, length, format, true);
   }
@@ -101,14 +176,29 @@ public record Sampling(double[] samples, int start, int length, AudioFormat form
   }
 
   private int timeCodeToSamples(TimeCode timeCode) {
-    return framesToSamples(timeCode.toFrameCount());
+    return timeCodeToSamples(format, timeCode);
   }
 
   private int framesToSamples(int frames) {
-    return (int) (format.getSampleRate() * format.getSampleSizeInBits() * frames) / (75 * 8);
+    return framesToSamples(format, frames);
   }
 
   private int durationToSamples(Duration duration) {
+    return durationToSamples(format, duration);
+  }
+
+  /**
+   * Shared with {@link SampleSource#slice(TimeCode, Duration)}, so that both cut at the same samples
+   */
+  static int timeCodeToSamples(AudioFormat format, TimeCode timeCode) {
+    return framesToSamples(format, timeCode.toFrameCount());
+  }
+
+  static int framesToSamples(AudioFormat format, int frames) {
+    return (int) (format.getSampleRate() * format.getSampleSizeInBits() * frames) / (75 * 8);
+  }
+
+  static int durationToSamples(AudioFormat format, Duration duration) {
     return (int)((format.getSampleRate() * duration.toMillis()) / 1000);
   }
 
@@ -0,0 +1,56 @@
+/**
+ * Audiolib
+ * Copyright (C) 2022 NonStatic
+ *
+ * This file is part of audiolib.
+ * Audiolib is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *  is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License along with . If not, see <https://www.gnu.org/licenses/>.
+ */
+package eu.nonstatic.audio;
+
+import java.io.IOException;
+import javax.sound.sampled.AudioFormat;
+
+/**
+ * Stops a source after a number of samples
+ */
+final class SlicedSampleSource implements SampleSource {
+
+  private final SampleSource source;
+  private long left;
+
+  SlicedSampleSource(SampleSource source, long length) {
+    this.source = source;
+    this.left = Math.max(0, length);
+  }
+
+  @Override
+  public AudioFormat format() {
+    return source.format();
+  }
+
+  @Override
+  public int read(double[] samples, int off, int len) throws IOException {
+    if (left == 0) {
+      return len == 0 ? 0 : -1;
+    }
+    int read = source.read(samples, off, (int) Math.min(len, left));
+    if (read > 0) {
+      left -= read;
+    }
+    return read;
+  }
+
+  @Override
+  public long skip(long n) throws IOException {
+    long skipped = source.skip(Math.min(n, left));
+    left -= skipped;
+    return skipped;
+  }
+
+  @Override
+  public void close() throws IOException {
+    source.close();
+  }
+}
@@ -0,0 +1,81 @@
+/**
+ * Audiolib
+ * Copyright (C) 2022 NonStatic
+ *
+ * This file is part of audiolib.
+ * Audiolib is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *  is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License along with . If not, see <https://www.gnu.org/licenses/>.
+ */
+package eu.nonstatic.audio;
+
+import eu.nonstatic.audio.formats.PcmDecoder;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioInputStream;
+
+/**
+ * Decodes a javax.sound.sampled stream as it is read, through a byte buffer of a fixed number of frames
+ */
+final class StreamSampleSource implements SampleSource {
+
+  private static final int BUFFER_FRAMES = 4 * 1024;
+
+  private final AudioInputStream ais;
+  private final AudioFormat format;
+  private final PcmDecoder decoder;
+  private final byte[] bytes;
+  private final ByteBuffer buffer;
+
+  StreamSampleSource(AudioInputStream ais) {
+    PcmDecoder pcmDecoder = PcmDecoder.of(ais.getFormat()).orElse(null);
+    if (pcmDecoder == null) {
+      ais = AudioUtils.getMonoInputStream(ais);
+      pcmDecoder = PcmDecoder.of(ais.getFormat()).orElseThrow(); // 16 bit signed
+    }
+    this.ais = ais;
+    this.format = Sampling.monoFormat(ais.getFormat());
+    this.decoder = pcmDecoder;
+    this.bytes = new byte[BUFFER_FRAMES * pcmDecoder.getFrameSize()];
+    this.buffer = ByteBuffer.wrap(bytes).order(pcmDecoder.getByteOrder());
+  }
+
+  @Override
+  public AudioFormat format() {
+    return format;
+  }
+
+  @Override
+  public int read(double[] samples, int off, int len) throws IOException {
+    if (len == 0) {
+      return 0;
+    }
+    int frameSize = decoder.getFrameSize();
+    int frames = ais.readNBytes(bytes, 0, Math.min(len, BUFFER_FRAMES) * frameSize) / frameSize; // javax streams only give whole frames
+    if (frames == 0) {
+      return -1;
+    }
+    decoder.mono(buffer, 0, frames, samples, off);
+    return frames;
+  }
+
+  @Override
+  public long skip(long n) throws IOException {
+    int frameSize = decoder.getFrameSize();
+    long skipped = 0;
+    while (skipped < n) {
+      long bytesSkipped = ais.skip((n - skipped) * frameSize);
+      if (bytesSkipped <= 0) {
+        break;
+      }
+      skipped += bytesSkipped / frameSize;
+    }
+    return skipped;
+  }
+
+  @Override
+  public void close() throws IOException {
+    ais.close();
+  }
+}
@@ -0,0 +1,117 @@
+/**
+ * Audiolib
+ * Copyright (C) 2022 NonStatic
+ *
+ * This file is part of audiolib.
+ * Audiolib is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *  is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License along with . If not, see <https://www.gnu.org/licenses/>.
+ */
+package eu.nonstatic.audio;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+
+/**
+ * Looks for a sync pattern (MPEG frame sync, Ogg capture pattern...) block by block instead of byte per byte.
+ * The pattern's lead byte is searched 8 bytes at a time, as in
+ * <a href="https://graphics.stanford.edu/~seander/bithacks.html#ZeroInWord">...</a>
+ * then every candidate is checked by the {@link Sync}, at first cheaply on the block, then thoroughly on the stream.
+ */
+public final class SyncScanner {
+
+  private static final int BLOCK_SIZE = 16 * 1024;
+  private static final VarHandle LONG_LE = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+  private static final long ONES = 0x0101010101010101L;
+  private static final long HIGHS = 0x8080808080808080L;
+
+  private SyncScanner() {}
+
+  public interface Sync {
+    /**
+     * @return the first byte of the pattern, the one searched in bulk
+     */
+    byte lead();
+
+    /**
+     * @return the number of bytes {@link #matches(byte[], int)} needs, from the lead byte on
+     */
+    int length();
+
+    /**
+     * Cheap check of the whole pattern, the lead byte being at offset
+     */
+    boolean matches(byte[] block, int offset);
+
+    /**
+     * Thorough check, eg: the header is consistent and so is the next one, to reject false syncs.
+     * The stream is at the candidate location, and must be given back at that same location.
+     */
+    boolean confirm(AudioInputStream ais) throws IOException;
+  }
+
+  /**
+   * Moves the stream to the next confirmed sync
+   * @param budget max number of bytes to skip
+   * @return the number of bytes skipped, or -1 if no sync was found within the budget
+   * @throws EOFException if the end of the stream comes first
+   */
+  public static long scan(AudioInputStream ais, Sync sync, long budget) throws IOException {
+    byte[] block = new byte[BLOCK_SIZE];
+    byte lead = sync.lead();
+    int length = sync.length();
+
+    long skipped = 0;
+    while (skipped <= budget) {
+      ais.mark(BLOCK_SIZE);
+      int read = ais.readNBytes(block, 0, BLOCK_SIZE);
+      ais.reset();
+      if (read < length) {
+        ais.skipNBytes(read);
+        throw new EOFException("location: " + ais.location());
+      }
+
+      long left = budget - skipped;
+      int end = (left < read - length ? (int) left : read - length) + 1; // candidates are before end
+      int position = 0; // where the stream is in the block
+      int offset = 0;
+      while ((offset = indexOf(block, lead, offset, end)) >= 0) {
+        if (sync.matches(block, offset)) {
+          ais.skipNBytes(offset - position);
+          position = offset;
+          if (sync.confirm(ais)) {
+            return skipped + offset;
+          }
+        }
+        offset++;
+      }
+      ais.skipNBytes(end - position);
+      skipped += end;
+    }
+    return -1;
+  }
+
+  /**
+   * @return the index of the first value in block, from included to excluded, -1 if none
+   */
+  static int indexOf(byte[] block, byte value, int from, int to) {
+    long pattern = (value & 0xFFL) * ONES;
+    int i = from;
+    for (; i <= to - Long.BYTES; i += Long.BYTES) {
+      long word = (long) LONG_LE.get(block, i) ^ pattern; // bytes equal to value become 0
+      long zeroes = (word - ONES) & ~word & HIGHS; // the lowest flagged byte is exact, higher ones may be false positives
+      if (zeroes != 0) {
+        return i + (Long.numberOfTrailingZeros(zeroes) >>> 3);
+      }
+    }
+    for (; i < to; i++) {
+      if (block[i] == value) {
+        return i;
+      }
+    }
+    return -1;
+  }
+}
@@ -0,0 +1,240 @@
+/**
+ * Audiolib
+ * Copyright (C) 2022 NonStatic
+ *
+ * This file is part of audiolib.
+ * Audiolib is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *  is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License along with . If not, see <https://www.gnu.org/licenses/>.
+ */
+package eu.nonstatic.audio;
+
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Same as {@link AudioInputStream} but without any locking: BufferedInputStream's methods are all synchronized,
+ * which is paid on every single byte while parsing headers. The info suppliers never share a stream between threads,
+ * so they use this one.
+ * The buffer handling is the same as BufferedInputStream's, on the very same inherited fields.
+ * Not thread safe, obviously.
+ */
+public class UnsynchronizedAudioInputStream extends AudioInputStream {
+
+  private static final int MAX_BUFFER_SIZE = Integer.MAX_VALUE - 8;
+
+
+  public UnsynchronizedAudioInputStream(File file) throws IOException {
+    this(file.toPath());
+  }
+
+  public UnsynchronizedAudioInputStream(Path file) throws IOException {
+    this(Files.newInputStream(file), file.toString());
+  }
+
+  public UnsynchronizedAudioInputStream(InputStream is, String name) {
+    super(is, name);
+  }
+
+  public UnsynchronizedAudioInputStream(InputStream is, String name, int size) {
+    super(is, name, size);
+  }
+
+  @Override
+  public boolean readMagic(byte[] magic) throws IOException {
+    return decodeMagic(magic);
+  }
+
+  @Override
+  public int peek(int offset) {
+    return peekBuffered(offset);
+  }
+
+  @Override
+  protected long readLE(int len) throws IOException {
+    return decodeLE(len);
+  }
+
+  @Override
+  protected long readBE(int len) throws IOException {
+    return decodeBE(len);
+  }
+
+  @Override
+  public int read() throws IOException {
+    if (pos >= count) {
+      fill();
+      if (pos >= count) {
+        return -1;
+      }
+    }
+    int read = getBufIfOpen()[pos++] & 0xff;
+    advance(1);
+    return read;
+  }
+
+  @Override
+  public int readStrict() throws IOException {
+    int read = read();
+    if(read != -1) {
+      return read;
+    } else {
+      throw new EOFException("location: " + location());
+    }
+  }
+
+  @Override
+  public int read(byte[] b, int off, int len) throws IOException {
+    getBufIfOpen();
+    Objects.checkFromIndexSize(off, len, b.length);
+    if (len == 0) {
+      return 0;
+    }
+
+    int n = 0;
+    while(true) {
+      int read = read1(b, off + n, len - n);
+      if (read <= 0) {
+        if(n == 0) {
+          return read;
+        }
+        break;
+      }
+      n += read;
+      if (n >= len || in == null || in.available() <= 0) {
+        break;
+      }
+    }
+    advance(n);
+    return n;
+  }
+
+  /**
+   * Reads into the array, reading from the underlying stream at most once
+   */
+  private int read1(byte[] b, int off, int len) throws IOException {
+    int avail = count - pos;
+    if (avail <= 0) {
+      // Large reads with no mark go straight to the underlying stream, no point in copying twice
+      if (len >= getBufIfOpen().length && markpos < 0) {
+        return getInIfOpen().read(b, off, len);
+      }
+      fill();
+      avail = count - pos;
+      if (avail <= 0) {
+        return -1;
+      }
+    }
+    int cnt = Math.min(avail, len);
+    System.arraycopy(getBufIfOpen(), pos, b, off, cnt);
+    pos += cnt;
+    return cnt;
+  }
+
+  @Override
+  public long skip(long n) throws IOException {
+    getBufIfOpen();
+    if (n <= 0) {
+      return 0;
+    }
+
+    long skipped;
+    long avail = (long) count - pos;
+    if (avail <= 0) {
+      if (markpos < 0) { // no mark to keep, the underlying stream can skip by itself
+        skipped = getInIfOpen().skip(n);
+      } else {
+        fill();
+        avail = (long) count - pos;
+        skipped = Math.max(0, Math.min(avail, n));
+        pos += (int) skipped;
+      }
+    } else {
+      skipped = Math.min(avail, n);
+      pos += (int) skipped;
+    }
+    advance(skipped);
+    return skipped;
+  }
+
+  @Override
+  public int available() throws IOException {
+    int n = count - pos;
+    int avail = getInIfOpen().available();
+    return n > (Integer.MAX_VALUE - avail) ? Integer.MAX_VALUE : n + avail;
+  }
+
+  @Override
+  public void mark(int readlimit) {
+    marklimit = readlimit;
+    markpos = pos;
+    marked();
+  }
+
+  @Override
+  public void reset() throws IOException {
+    getBufIfOpen();
+    if (markpos < 0) {
+      throw new IOException("Resetting to invalid mark");
+    }
+    pos = markpos;
+    rewound();
+  }
+
+  /**
+   * Same as BufferedInputStream#fill(), which is private
+   */
+  private void fill() throws IOException {
+    byte[] buffer = getBufIfOpen();
+    if (markpos < 0) {
+      pos = 0; // no mark: throw away the buffer
+    } else if (pos >= buffer.length) { // no room left in buffer
+      if (markpos > 0) { // can throw away early part of the buffer
+        int sz = pos - markpos;
+        System.arraycopy(buffer, markpos, buffer, 0, sz);
+        pos = sz;
+        markpos = 0;
+      } else if (buffer.length >= marklimit) {
+        markpos = -1; // buffer got too big, invalidate mark
+        pos = 0; // drop buffer contents
+      } else { // grow buffer
+        if (buffer.length >= MAX_BUFFER_SIZE) {
+          throw new OutOfMemoryError("Required array size too large");
+        }
+        int nsz = (pos <= MAX_BUFFER_SIZE - pos) ? pos * 2 : MAX_BUFFER_SIZE;
+        if (nsz > marklimit) {
+          nsz = marklimit;
+        }
+        buffer = Arrays.copyOf(buffer, nsz);
+        buf = buffer;
+      }
+    }
+    count = pos;
+    int n = getInIfOpen().read(buffer, pos, buffer.length - pos);
+    if (n > 0) {
+      count = n + pos;
+    }
+  }
+
+  private byte[] getBufIfOpen() throws IOException {
+    byte[] buffer = buf;
+    if (buffer == null) {
+      throw new IOException("Stream closed");
+    }
+    return buffer;
+  }
+
+  private InputStream getInIfOpen() throws IOException {
+    InputStream input = in;
+    if (input == null) {
+      throw new IOException("Stream closed");
+    }
+    return input;
+  }
+}
@@ -0,0 +1,55 @@
+/**
+ * Audiolib
+ * Copyright (C) 2022 NonStatic
+ *
+ * This file is part of audiolib.
+ * Audiolib is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *  is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License along with . If not, see <https://www.gnu.org/licenses/>.
+ */
+package eu.nonstatic.audio;
+
+import eu.nonstatic.audio.formats.PcmView;
+import javax.sound.sampled.AudioFormat;
+
+/**
+ * Reads a mapped file's samples in place: skipping is only moving the position
+ */
+final class ViewSampleSource implements SampleSource {
+
+  private final PcmView view;
+  private final AudioFormat format;
+  private long position; // in frames
+
+  ViewSampleSource(PcmView view) {
+    this.view = view;
+    this.format = Sampling.monoFormat(view.getSampleRate());
+  }
+
+  @Override
+  public AudioFormat format() {
+    return format;
+  }
+
+  @Override
+  public int read(double[] samples, int off, int len) {
+    if (position >= view.getFrameCount()) {
+      return len == 0 ? 0 : -1;
+    }
+    int read = view.readMono(position, samples, off, len);
+    position += read;
+    return read;
+  }
+
+  @Override
+  public long skip(long n) {
+    long skipped = Math.max(0, Math.min(n, view.getFrameCount() - position));
+    position += skipped;
+    return skipped;
+  }
+
+  @Override
+  public void close() {
+    // the mapping goes with the view
+  }
+}
@@ -10,9 +10,12 @@
 package eu.nonstatic.audio.detect;
 
 import eu.nonstatic.audio.AudioUtils;
+import eu.nonstatic.audio.FloatSampling;
+import eu.nonstatic.audio.SampleSource;
 import eu.nonstatic.audio.Sampling;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.Path;
 import javax.sound.sampled.AudioInputStream;
 import javax.sound.sampled.UnsupportedAudioFileException;
 
@@ -41,9 +44,32 @@ public record BpmDetector(double minBpm, double maxBpm) {
     return detect(AudioUtils.getMonoInputStream(is));
   }
 
+  /**
+   * Uncompressed WAVE and AIFF files are decoded without going through AudioSystem
+   */
+  public Bpm detect(Path file) throws IOException, UnsupportedAudioFileException {
+    try (SampleSource source = SampleSource.of(file)) {
+      return detect(source);
+    }
+  }
+
   public Bpm detect(AudioInputStream ais) throws IOException {
-    Sampling sampling = Sampling.mono(ais);
-    return detect(sampling);
+    try (SampleSource source = SampleSource.of(ais)) {
+      return detect(source);
+    }
+  }
+
+  /**
+   * Streams through the source: only the energy envelope is kept, some 1/256th of the samples
+   */
+  public Bpm detect(SampleSource source) throws IOException {
+    Tracker tracker = tracker(source.sampleRate());
+    source.blocks(SampleSource.DEFAULT_BLOCK_SIZE, tracker);
+    return tracker.bpm();
+  }
+
+  public Tracker tracker(float sampleRate) {
+    return new Tracker(sampleRate);
   }
 
   public Bpm detect(Sampling sampling) {
@@ -63,6 +89,26 @@ public record BpmDetector(double minBpm, double maxBpm) {
     return estimateBpm(envelope, frameRate);
   }
 
+  /**
+   * Single precision path: the filtering and the envelope work on floats, the envelope-sized autocorrelation stays in double
+   */
+  public Bpm detect(FloatSampling sampling) {
+    return detect(sampling.samples(), sampling.start(), sampling.length(), sampling.sampleRate());
+  }
+
+  public Bpm detect(float[] samples, float sampleRate) {
+    return detect(samples, 0, samples.length, sampleRate);
+  }
+
+  public Bpm detect(float[] samples, int start, int len, float sampleRate) {
+    float[] filtered = Filters.IIR.lowPass(samples, start, len, sampleRate, LOW_PASS_CUTOFF_HZ);
+
+    EnergyDetector energyDetector = new EnergyDetector();
+    double[] envelope = energyDetector.energyEnvelope(filtered);
+    double frameRate = sampleRate / energyDetector.hopSize();
+    return estimateBpm(envelope, frameRate);
+  }
+
   private Bpm estimateBpm(double[] envelope, double frameRate) {
     int minLag = (int) Math.floor(60.0 * frameRate / maxBpm);
     int maxLag = (int) Math.ceil(60.0 * frameRate / minBpm);
@@ -210,4 +256,35 @@ public record BpmDetector(double minBpm, double maxBpm) {
     }
     return bestLag + 0.5 * (y0 - y2) / denom;
   }
+
+  /**
+   * Low-passes the blocks it is fed and tracks their energy, which is all the estimation needs.
+   * Gives the same result as detect(double[], float) on the whole.
+   */
+  public final class Tracker implements SampleSource.BlockConsumer {
+
+    private final float sampleRate;
+    private final Filters.IIR.LowPass lowPass;
+    private final EnergyDetector energyDetector = new EnergyDetector();
+    private final EnergyDetector.Envelope envelope = energyDetector.envelope();
+    private double[] filtered = new double[0];
+
+    private Tracker(float sampleRate) {
+      this.sampleRate = sampleRate;
+      this.lowPass = new Filters.IIR.LowPass(sampleRate, LOW_PASS_CUTOFF_HZ);
+    }
+
+    @Override
+    public void accept(double[] block, int len) {
+      if (filtered.length < len) {
+        filtered = new double[len];
+      }
+      lowPass.filter(block, 0, len, filtered, 0);
+      envelope.add(filtered, 0, len);
+    }
+
+    public Bpm bpm() {
+      return estimateBpm(envelope.toArray(), sampleRate / energyDetector.hopSize());
+    }
+  }
 }
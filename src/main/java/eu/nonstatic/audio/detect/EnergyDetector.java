@@ -9,6 +9,7 @@
  */
 package eu.nonstatic.audio.detect;
 
+import java.util.Arrays;
 import java.util.LinkedList;
 import java.util.List;
 
@@ -27,7 +28,14 @@ public record EnergyDetector(int windowSize, int hopSize, int averageWindow, dou
   }
 
   public List<Integer> detectOnsets(double[] samples) {
-    double[] energy = energyEnvelope(samples);
+    return onsetsOf(energyEnvelope(samples));
+  }
+
+  public List<Integer> detectOnsets(float[] samples) {
+    return onsetsOf(energyEnvelope(samples));
+  }
+
+  private List<Integer> onsetsOf(double[] energy) {
     int numFrames = energy.length;
     if (numFrames == 0) {
       return List.of();
@@ -55,6 +63,34 @@ public record EnergyDetector(int windowSize, int hopSize, int averageWindow, dou
     return onsets;
   }
 
+  /**
+   * Float samples, squared in float and summed in double: a float sum over a whole window would lose the quiet samples
+   */
+  public double[] energyEnvelope(float[] samples) {
+    if (samples.length < windowSize) {
+      return new double[0];
+    }
+    int numFrames = (samples.length - windowSize) / hopSize + 1;
+    double[] energy = new double[numFrames];
+    for (int w = 0; w < numFrames; w++) {
+      double sum = 0;
+      int offset = w * hopSize;
+      for (int i = 0; i < windowSize; i++) {
+        float s = samples[offset + i];
+        sum += s * s;
+      }
+      energy[w] = Math.sqrt(sum / windowSize);
+    }
+    return energy;
+  }
+
+  /**
+   * @return an envelope to be fed block by block, giving the same values as {@link #energyEnvelope(double[])} on the whole
+   */
+  public Envelope envelope() {
+    return new Envelope(windowSize, hopSize);
+  }
+
   public double[] energyEnvelope(double[] samples) {
     if (samples.length < windowSize) {
       return new double[0];
@@ -72,4 +108,58 @@ public record EnergyDetector(int windowSize, int hopSize, int averageWindow, dou
     }
     return energy;
   }
+
+  /**
+   * Keeps only the last window of samples, in a ring, and computes the RMS every hopSize samples once it is full
+   */
+  public static final class Envelope {
+
+    private final int windowSize;
+    private final int hopSize;
+    private final double[] ring;
+    private int position; // next write in the ring, oldest sample once it is full
+    private int untilWindow; // samples to come before the next window is complete
+    private double[] energy = new double[1024];
+    private int size;
+
+    private Envelope(int windowSize, int hopSize) {
+      this.windowSize = windowSize;
+      this.hopSize = hopSize;
+      this.ring = new double[windowSize];
+      this.untilWindow = windowSize;
+    }
+
+    public void add(double[] samples, int start, int len) {
+      for (int i = start; i < start + len; i++) {
+        ring[position] = samples[i];
+        if (++position == windowSize) {
+          position = 0;
+        }
+        if (--untilWindow == 0) {
+          addWindow();
+          untilWindow = hopSize;
+        }
+      }
+    }
+
+    private void addWindow() {
+      double sum = 0;
+      for (int i = position; i < windowSize; i++) { // same summation order as over the whole array
+        double s = ring[i];
+        sum += s * s;
+      }
+      for (int i = 0; i < position; i++) {
+        double s = ring[i];
+        sum += s * s;
+      }
+      if (size == energy.length) {
+        energy = Arrays.copyOf(energy, size * 2);
+      }
+      energy[size++] = Math.sqrt(sum / windowSize);
+    }
+
+    public double[] toArray() {
+      return Arrays.copyOf(energy, size);
+    }
+  }
 }
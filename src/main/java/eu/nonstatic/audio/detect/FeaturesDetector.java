@@ -1,9 +1,11 @@
 package eu.nonstatic.audio.detect;
 
 import eu.nonstatic.audio.AudioUtils;
+import eu.nonstatic.audio.SampleSource;
 import eu.nonstatic.audio.Sampling;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.Path;
 import javax.sound.sampled.AudioInputStream;
 import javax.sound.sampled.UnsupportedAudioFileException;
 
@@ -16,9 +18,32 @@ public class FeaturesDetector {
     return detect(AudioUtils.getMonoInputStream(is));
   }
 
+  /**
+   * Uncompressed WAVE and AIFF files are decoded without going through AudioSystem
+   */
+  public Features detect(Path file) throws IOException, UnsupportedAudioFileException {
+    try (SampleSource source = SampleSource.of(file)) {
+      return detect(source);
+    }
+  }
+
   public Features detect(AudioInputStream ais) throws IOException {
-    Sampling sampling = Sampling.mono(ais);
-    return detect(sampling);
+    try (SampleSource source = SampleSource.of(ais)) {
+      return detect(source);
+    }
+  }
+
+  /**
+   * A single pass feeds both detectors
+   */
+  public Features detect(SampleSource source) throws IOException {
+    BpmDetector.Tracker tracker = bpmDetector.tracker(source.sampleRate());
+    KeyDetector.ChromaAccumulator accumulator = keyDetector.accumulator(source.sampleRate());
+    source.blocks(SampleSource.DEFAULT_BLOCK_SIZE, (block, len) -> {
+      tracker.accept(block, len);
+      accumulator.accept(block, len);
+    });
+    return new Features(tracker.bpm(), keyDetector.bestMatch(accumulator.chroma()));
   }
 
   public Features detect(Sampling sampling) {
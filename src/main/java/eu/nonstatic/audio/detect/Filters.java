@@ -14,6 +14,9 @@ package eu.nonstatic.audio.detect;
  * quality factor Q, are second-order RBJ-cookbook sections. Simpler first-order IIR variants are
  * also provided: lowPass and highPass (one cutoff), and bandPassFirstOrder / bandStopFirstOrder
  * (a low and a high edge frequency).
+ * Each filter also takes float[] samples, giving float[] back: the per-sample input arithmetic runs in float,
+ * the recursive state in double. Being recursive these filters run sample after sample anyway,
+ * so floats save memory and bandwidth rather than doubling any vector width.
  *
  * @see "https://www.w3.org/TR/audio-eq-cookbook/"
  */
@@ -34,27 +37,54 @@ public final class Filters {
 
     // First-order IIR low-pass: y[n] = y[n-1] + α (x[n] - y[n-1])
     public static double[] lowPass(double[] samples, int start, int len, float sampleRate, double cutoffHz) {
-      double rc = 1.0 / (2.0 * Math.PI * cutoffHz);
-      double dt = 1.0 / sampleRate;
-      double alpha = dt / (rc + dt);
       double[] out = new double[len];
-      double y = 0;
-      for (int i = 0; i < len; i++) {
-        y += alpha * (samples[start+i] - y);
-        out[i] = y;
-      }
+      new LowPass(sampleRate, cutoffHz).filter(samples, start, len, out, 0);
       return out;
     }
 
+    /**
+     * The same low-pass keeping its state from one block to the next, for streamed samples
+     */
+    public static final class LowPass {
+
+      private final double alpha;
+      private double y;
+
+      public LowPass(float sampleRate, double cutoffHz) {
+        double rc = 1.0 / (2.0 * Math.PI * cutoffHz);
+        double dt = 1.0 / sampleRate;
+        this.alpha = dt / (rc + dt);
+      }
+
+      public void filter(double[] samples, int start, int len, double[] out, int off) {
+        double y = this.y;
+        for (int i = 0; i < len; i++) {
+          y += alpha * (samples[start+i] - y);
+          out[off+i] = y;
+        }
+        this.y = y;
+      }
+
+      /**
+       * Floats in and out, the state staying in double so that rounding doesn't pile up through the recursion
+       */
+      public void filter(float[] samples, int start, int len, float[] out, int off) {
+        double y = this.y;
+        for (int i = 0; i < len; i++) {
+          y += alpha * (samples[start+i] - y);
+          out[off+i] = (float) y;
+        }
+        this.y = y;
+      }
+    }
+
     public static double[] highPass(double[] samples, float sampleRate, double cutoffHz) {
       return highPass(samples, 0, samples.length, sampleRate, cutoffHz);
     }
 
     // First-order IIR high-pass: y[n] = α (y[n-1] + x[n] - x[n-1]),  α = rc / (rc + dt)
     public static double[] highPass(double[] samples, int start, int len, float sampleRate, double cutoffHz) {
-      double rc = 1.0 / (2.0 * Math.PI * cutoffHz);
-      double dt = 1.0 / sampleRate;
-      double alpha = rc / (rc + dt);
+      double alpha = highPassAlpha(sampleRate, cutoffHz);
       double[] out = new double[len];
       double prevX = 0, prevY = 0;
       for (int i = 0; i < len; i++) {
@@ -90,6 +120,66 @@ public final class Filters {
       }
       return out;
     }
+
+    // Single precision counterparts: floats in and out, the filter state kept in double
+
+    public static float[] lowPass(float[] samples, float sampleRate, double cutoffHz) {
+      return lowPass(samples, 0, samples.length, sampleRate, cutoffHz);
+    }
+
+    public static float[] lowPass(float[] samples, int start, int len, float sampleRate, double cutoffHz) {
+      float[] out = new float[len];
+      new LowPass(sampleRate, cutoffHz).filter(samples, start, len, out, 0);
+      return out;
+    }
+
+    public static float[] highPass(float[] samples, float sampleRate, double cutoffHz) {
+      return highPass(samples, 0, samples.length, sampleRate, cutoffHz);
+    }
+
+    // The input difference is taken in float, only the feedback runs in double
+    public static float[] highPass(float[] samples, int start, int len, float sampleRate, double cutoffHz) {
+      double alpha = highPassAlpha(sampleRate, cutoffHz);
+      float[] out = new float[len];
+      float prevX = 0;
+      double prevY = 0;
+      for (int i = 0; i < len; i++) {
+        float x = samples[start+i];
+        double y = alpha * (prevY + (x - prevX));
+        out[i] = (float) y;
+        prevX = x;
+        prevY = y;
+      }
+      return out;
+    }
+
+    private static double highPassAlpha(float sampleRate, double cutoffHz) {
+      double rc = 1.0 / (2.0 * Math.PI * cutoffHz);
+      double dt = 1.0 / sampleRate;
+      return rc / (rc + dt);
+    }
+
+    public static float[] bandPass(float[] samples, float sampleRate, double lowCutoffHz, double highCutoffHz) {
+      return bandPass(samples, 0, samples.length, sampleRate, lowCutoffHz, highCutoffHz);
+    }
+
+    public static float[] bandPass(float[] samples, int start, int len, float sampleRate, double lowCutoffHz, double highCutoffHz) {
+      return lowPass(highPass(samples, start, len, sampleRate, lowCutoffHz), sampleRate, highCutoffHz);
+    }
+
+    public static float[] bandStop(float[] samples, float sampleRate, double lowCutoffHz, double highCutoffHz) {
+      return bandStop(samples, 0, samples.length, sampleRate, lowCutoffHz, highCutoffHz);
+    }
+
+    public static float[] bandStop(float[] samples, int start, int len, float sampleRate, double lowCutoffHz, double highCutoffHz) {
+      float[] low = lowPass(samples, start, len, sampleRate, lowCutoffHz);
+      float[] high = highPass(samples, start, len, sampleRate, highCutoffHz);
+      float[] out = new float[len];
+      for (int i = 0; i < len; i++) {
+        out[i] = low[i] + high[i];
+      }
+      return out;
+    }
   }
 
   /**
@@ -105,10 +195,7 @@ public final class Filters {
 
     // Second-order RBJ biquad low-pass: passes frequencies below cutoffHz, passes DC.
     public static double[] lowPass(double[] samples, int start, int len, float sampleRate, double cutoffHz, double q) {
-      double w0 = 2.0 * Math.PI * cutoffHz / sampleRate;
-      double cos = Math.cos(w0);
-      double alpha = Math.sin(w0) / (2.0 * q);
-      return biquad(samples, start, len, (1 - cos) / 2, 1 - cos, (1 - cos) / 2, 1 + alpha, -2 * cos, 1 - alpha);
+      return biquad(samples, start, len, Coefficients.lowPass(sampleRate, cutoffHz, q));
     }
 
     public static double[] highPass(double[] samples, float sampleRate, double cutoffHz, double q) {
@@ -117,10 +204,7 @@ public final class Filters {
 
     // Second-order RBJ biquad high-pass: rejects DC, passes frequencies above cutoffHz.
     public static double[] highPass(double[] samples, int start, int len, float sampleRate, double cutoffHz, double q) {
-      double w0 = 2.0 * Math.PI * cutoffHz / sampleRate;
-      double cos = Math.cos(w0);
-      double alpha = Math.sin(w0) / (2.0 * q);
-      return biquad(samples, start, len, (1 + cos) / 2, -(1 + cos), (1 + cos) / 2, 1 + alpha, -2 * cos, 1 - alpha);
+      return biquad(samples, start, len, Coefficients.highPass(sampleRate, cutoffHz, q));
     }
 
     public static double[] bandPass(double[] samples, float sampleRate, double centerHz, double q) {
@@ -129,10 +213,7 @@ public final class Filters {
 
     // Second-order RBJ biquad band-pass (constant 0 dB peak gain): passes a band around centerHz.
     public static double[] bandPass(double[] samples, int start, int len, float sampleRate, double centerHz, double q) {
-      double w0 = 2.0 * Math.PI * centerHz / sampleRate;
-      double cos = Math.cos(w0);
-      double alpha = Math.sin(w0) / (2.0 * q);
-      return biquad(samples, start, len, alpha, 0, -alpha, 1 + alpha, -2 * cos, 1 - alpha);
+      return biquad(samples, start, len, Coefficients.bandPass(sampleRate, centerHz, q));
     }
 
     public static double[] bandStop(double[] samples, float sampleRate, double centerHz, double q) {
@@ -141,16 +222,84 @@ public final class Filters {
 
     // Second-order RBJ biquad band-stop (notch): rejects a band around centerHz, passes the rest.
     public static double[] bandStop(double[] samples, int start, int len, float sampleRate, double centerHz, double q) {
-      double w0 = 2.0 * Math.PI * centerHz / sampleRate;
-      double cos = Math.cos(w0);
-      double alpha = Math.sin(w0) / (2.0 * q);
-      return biquad(samples, start, len, 1, -2 * cos, 1, 1 + alpha, -2 * cos, 1 - alpha);
+      return biquad(samples, start, len, Coefficients.bandStop(sampleRate, centerHz, q));
+    }
+
+    // Single precision counterparts: floats in and out, the filter state kept in double
+
+    public static float[] lowPass(float[] samples, float sampleRate, double cutoffHz, double q) {
+      return lowPass(samples, 0, samples.length, sampleRate, cutoffHz, q);
+    }
+
+    public static float[] lowPass(float[] samples, int start, int len, float sampleRate, double cutoffHz, double q) {
+      return biquad(samples, start, len, Coefficients.lowPass(sampleRate, cutoffHz, q));
+    }
+
+    public static float[] highPass(float[] samples, float sampleRate, double cutoffHz, double q) {
+      return highPass(samples, 0, samples.length, sampleRate, cutoffHz, q);
+    }
+
+    public static float[] highPass(float[] samples, int start, int len, float sampleRate, double cutoffHz, double q) {
+      return biquad(samples, start, len, Coefficients.highPass(sampleRate, cutoffHz, q));
+    }
+
+    public static float[] bandPass(float[] samples, float sampleRate, double centerHz, double q) {
+      return bandPass(samples, 0, samples.length, sampleRate, centerHz, q);
+    }
+
+    public static float[] bandPass(float[] samples, int start, int len, float sampleRate, double centerHz, double q) {
+      return biquad(samples, start, len, Coefficients.bandPass(sampleRate, centerHz, q));
+    }
+
+    public static float[] bandStop(float[] samples, float sampleRate, double centerHz, double q) {
+      return bandStop(samples, 0, samples.length, sampleRate, centerHz, q);
+    }
+
+    public static float[] bandStop(float[] samples, int start, int len, float sampleRate, double centerHz, double q) {
+      return biquad(samples, start, len, Coefficients.bandStop(sampleRate, centerHz, q));
     }
 
+    /**
+     * Cookbook coefficients, already normalized by a0
+     */
+    private record Coefficients(double b0, double b1, double b2, double a1, double a2) {
+
+      static Coefficients of(double b0, double b1, double b2, double a0, double a1, double a2) {
+        return new Coefficients(b0 / a0, b1 / a0, b2 / a0, a1 / a0, a2 / a0);
+      }
+
+      static Coefficients lowPass(float sampleRate, double cutoffHz, double q) {
+        double w0 = 2.0 * Math.PI * cutoffHz / sampleRate;
+        double cos = Math.cos(w0);
+        double alpha = Math.sin(w0) / (2.0 * q);
+        return of((1 - cos) / 2, 1 - cos, (1 - cos) / 2, 1 + alpha, -2 * cos, 1 - alpha);
+      }
+
+      static Coefficients highPass(float sampleRate, double cutoffHz, double q) {
+        double w0 = 2.0 * Math.PI * cutoffHz / sampleRate;
+        double cos = Math.cos(w0);
+        double alpha = Math.sin(w0) / (2.0 * q);
+        return of((1 + cos) / 2, -(1 + cos), (1 + cos) / 2, 1 + alpha, -2 * cos, 1 - alpha);
+      }
+
+      static Coefficients bandPass(float sampleRate, double centerHz, double q) {
+        double w0 = 2.0 * Math.PI * centerHz / sampleRate;
+        double cos = Math.cos(w0);
+        double alpha = Math.sin(w0) / (2.0 * q);
+        return of(alpha, 0, -alpha, 1 + alpha, -2 * cos, 1 - alpha);
+      }
+
+      static Coefficients bandStop(float sampleRate, double centerHz, double q) {
+        double w0 = 2.0 * Math.PI * centerHz / sampleRate;
+        double cos = Math.cos(w0);
+        double alpha = Math.sin(w0) / (2.0 * q);
+        return of(1, -2 * cos, 1, 1 + alpha, -2 * cos, 1 - alpha);
+      }
+    }
 
     // Direct Form I biquad: y[n] = (b0/a0)x[n] + (b1/a0)x[n-1] + (b2/a0)x[n-2] - (a1/a0)y[n-1] - (a2/a0)y[n-2]
-    private static double[] biquad(double[] samples, int start, int len, double b0, double b1, double b2, double a0, double a1, double a2) {
-      double nb0 = b0 / a0, nb1 = b1 / a0, nb2 = b2 / a0, na1 = a1 / a0, na2 = a2 / a0;
+    private static double[] biquad(double[] samples, int start, int len, Coefficients c) {
+      double nb0 = c.b0, nb1 = c.b1, nb2 = c.b2, na1 = c.a1, na2 = c.a2;
       double[] out = new double[len];
       double x1 = 0, x2 = 0, y1 = 0, y2 = 0;
       for (int i = 0; i < len; i++) {
@@ -164,5 +313,25 @@ public final class Filters {
       }
       return out;
     }
+
+    // Same, the feedforward taps in float and only the feedback path in double:
+    // a float one drifts with low cutoffs, whose poles sit close to the unit circle
+    private static float[] biquad(float[] samples, int start, int len, Coefficients c) {
+      float fb0 = (float) c.b0, fb1 = (float) c.b1, fb2 = (float) c.b2;
+      double na1 = c.a1, na2 = c.a2;
+      float[] out = new float[len];
+      float x1 = 0, x2 = 0;
+      double y1 = 0, y2 = 0;
+      for (int i = 0; i < len; i++) {
+        float x = samples[start+i];
+        double y = (fb0 * x + fb1 * x1 + fb2 * x2) - na1 * y1 - na2 * y2;
+        out[i] = (float) y;
+        x2 = x1;
+        x1 = x;
+        y2 = y1;
+        y1 = y;
+      }
+      return out;
+    }
   }
 }
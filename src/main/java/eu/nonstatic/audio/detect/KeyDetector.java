@@ -12,9 +12,11 @@ package eu.nonstatic.audio.detect;
 import edu.princeton.cs.algs4.Complex;
 import eu.nonstatic.audio.AudioAnalyzer;
 import eu.nonstatic.audio.AudioUtils;
+import eu.nonstatic.audio.SampleSource;
 import eu.nonstatic.audio.Sampling;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.Path;
 import javax.sound.sampled.AudioInputStream;
 import javax.sound.sampled.UnsupportedAudioFileException;
 
@@ -52,9 +54,32 @@ public record KeyDetector(int windowFrames, double minFrequency, double maxFrequ
     return detect(AudioUtils.getMonoInputStream(is));
   }
 
+  /**
+   * Uncompressed WAVE and AIFF files are decoded without going through AudioSystem
+   */
+  public Key detect(Path file) throws IOException, UnsupportedAudioFileException {
+    try (SampleSource source = SampleSource.of(file)) {
+      return detect(source);
+    }
+  }
+
   public Key detect(AudioInputStream ais) throws IOException {
-    Sampling sampling = Sampling.mono(ais);
-    return detect(sampling);
+    try (SampleSource source = SampleSource.of(ais)) {
+      return detect(source);
+    }
+  }
+
+  /**
+   * Streams through the source, one window at a time
+   */
+  public Key detect(SampleSource source) throws IOException {
+    ChromaAccumulator accumulator = accumulator(source.sampleRate());
+    source.blocks(SampleSource.DEFAULT_BLOCK_SIZE, accumulator);
+    return bestMatch(accumulator.chroma());
+  }
+
+  public ChromaAccumulator accumulator(float sampleRate) {
+    return new ChromaAccumulator(sampleRate);
   }
 
   public Key detect(Sampling sampling) {
@@ -86,18 +111,21 @@ public record KeyDetector(int windowFrames, double minFrequency, double maxFrequ
     for (int s = start; s + windowFrames <= start+len; s += hop) {
       // fft applies the Hanning window, runs the FFT and drops the conjugate
       // mirror; the remaining bin i carries the magnitude of frequency (i+1)*sampleRate/N.
-      Complex[] spectrum = analyzer.fft(samples, s, windowFrames);
-      for (int i = 0; i < spectrum.length; i++) {
-        double frequency = (i + 1) * sampleRate / windowFrames;
-        if (frequency < minFrequency || frequency > maxFrequency) {
-          continue;
-        }
-        chroma[pitchClass(frequency)] += spectrum[i].abs();
-      }
+      fold(analyzer.fft(samples, s, windowFrames), sampleRate, chroma);
     }
     return chroma;
   }
 
+  private void fold(Complex[] spectrum, float sampleRate, double[] chroma) {
+    for (int i = 0; i < spectrum.length; i++) {
+      double frequency = (i + 1) * sampleRate / windowFrames;
+      if (frequency < minFrequency || frequency > maxFrequency) {
+        continue;
+      }
+      chroma[pitchClass(frequency)] += spectrum[i].abs();
+    }
+  }
+
   /**
    * Correlates the chroma against all 24 key profiles and returns the best-matching key.
    */
@@ -175,4 +203,41 @@ public record KeyDetector(int windowFrames, double minFrequency, double maxFrequ
     }
     return true;
   }
+
+  /**
+   * Buffers one window of the blocks it is fed, folding its spectrum into the chroma each time it is full.
+   * Gives the same chroma as chroma(double[], float) on the whole.
+   */
+  public final class ChromaAccumulator implements SampleSource.BlockConsumer {
+
+    private final float sampleRate;
+    private final AudioAnalyzer analyzer = new AudioAnalyzer(windowFrames);
+    private final double[] window = new double[windowFrames];
+    private final double[] chroma = new double[PITCH_CLASSES];
+    private int filled;
+
+    private ChromaAccumulator(float sampleRate) {
+      this.sampleRate = sampleRate;
+    }
+
+    @Override
+    public void accept(double[] block, int len) {
+      int hop = windowFrames - analyzer.overlapFrames();
+      for (int off = 0; off < len; ) {
+        int count = Math.min(len - off, windowFrames - filled);
+        System.arraycopy(block, off, window, filled, count);
+        filled += count;
+        off += count;
+        if (filled == windowFrames) {
+          fold(analyzer.fft(window), sampleRate, chroma);
+          System.arraycopy(window, hop, window, 0, windowFrames - hop);
+          filled = windowFrames - hop;
+        }
+      }
+    }
+
+    public double[] chroma() {
+      return chroma.clone();
+    }
+  }
 }
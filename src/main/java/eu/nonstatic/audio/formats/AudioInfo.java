@@ -31,6 +31,13 @@ public interface AudioInfo {
     return (int) (getSampleRate() * getDuration().toNanos() / NANOS_PER_SECOND);
   }
 
+  /**
+   * Same as {@link #getFrameCount()}, for files whose frames don't fit in an int (eg: multi-hour RF64 recordings)
+   */
+  default long getLongFrameCount() {
+    return getFrameCount();
+  }
+
   default List<AudioIssue> getIssues() {
     return List.of();
   }
@@ -9,24 +9,58 @@
  */
 package eu.nonstatic.audio.formats;
 
+import eu.nonstatic.audio.ChannelAudioInputStream;
+import eu.nonstatic.audio.RangeAudioInputStream;
+import eu.nonstatic.audio.RangeReader;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
-import java.nio.file.Files;
+import java.nio.channels.SeekableByteChannel;
 import java.nio.file.Path;
 
 public interface AudioInfoSupplier<F extends AudioFormatEx> {
 
+  int DEFAULT_RANGE_READ_AHEAD = 64 * 1024;
+
   default F getInfos(File file) throws AudioInfoException, IOException {
     return getInfos(file.toPath());
   }
 
+  /**
+   * Through a {@link ChannelAudioInputStream}, suppliers walking whole files can override it to map them instead
+   */
   default F getInfos(Path file) throws AudioInfoException, IOException {
     String name = file.toString();
-    try(InputStream is = Files.newInputStream(file)) {
+    try(InputStream is = ChannelAudioInputStream.open(file)) {
       return getInfos(is, name);
     }
   }
 
+  /**
+   * Random access entry point, reading from the channel's current position.
+   * By default the channel goes through the stream path, as a seekable {@link ChannelAudioInputStream} whose size is known up front.
+   * Suppliers can override it to jump straight to what they need.
+   * The channel is left open.
+   */
+  default F getInfos(SeekableByteChannel channel, String name) throws AudioInfoException, IOException {
+    return getInfos(new ChannelAudioInputStream(channel, name), name);
+  }
+
+  /**
+   * Ranged entry point, each fill of a {@link RangeAudioInputStream} buffer of {@link #getRangeReadAhead()} bytes being one range.
+   * The reader is left open.
+   */
+  default F getInfos(RangeReader reader, String name) throws AudioInfoException, IOException {
+    return getInfos(new RangeAudioInputStream(reader, name, getRangeReadAhead()), name);
+  }
+
+  /**
+   * How many bytes a range asks for: formats whose infos are all in a small header override it so that it comes in one round trip,
+   * without fetching much more.
+   */
+  default int getRangeReadAhead() {
+    return DEFAULT_RANGE_READ_AHEAD;
+  }
+
   F getInfos(InputStream is, String name) throws AudioInfoException, IOException;
 }
\ No newline at end of file
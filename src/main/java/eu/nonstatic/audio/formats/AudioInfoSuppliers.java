@@ -10,6 +10,7 @@
 package eu.nonstatic.audio.formats;
 
 import eu.nonstatic.audio.AudioFileType;
+import eu.nonstatic.audio.AudioInputStream;
 import eu.nonstatic.audio.formats.aiff.AiffInfoSupplier;
 import eu.nonstatic.audio.formats.ape.ApeInfoSupplier;
 import eu.nonstatic.audio.formats.dts.DtsInfoSupplier;
@@ -19,7 +20,11 @@ import eu.nonstatic.audio.formats.mpeg.Mp3AudioInfoSupplier;
 import eu.nonstatic.audio.formats.ogg.OggInfoSupplier;
 import eu.nonstatic.audio.formats.wave.WaveInfoSupplier;
 import eu.nonstatic.audio.formats.xm.XmInfoSupplier;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.EnumMap;
+import java.util.Optional;
 import lombok.NonNull;
 
 public final class AudioInfoSuppliers {
@@ -38,6 +43,12 @@ public final class AudioInfoSuppliers {
     AUDIO_INFO_SUPPLIERS.put(AudioFileType.XM, new XmInfoSupplier());
   }
 
+  private static final byte[] ID3V2_TAG = "ID3".getBytes(StandardCharsets.US_ASCII);
+  private static final int ID3V2_HEADER_SIZE = 10; // same as the footer's
+  private static final int ID3V2_FOOTER_FLAG = 0x10;
+  private static final int MAX_PADDING = 4096; // more than taggers leave, so that a zero filled file isn't read to its end
+  private static final int PADDING_BLOCK_SIZE = 512;
+
   private AudioInfoSuppliers() {}
 
   public static AudioInfoSupplier getByFileName(String fileName) {
@@ -57,4 +68,117 @@ public final class AudioInfoSuppliers {
     }
     return ext;
   }
+
+  /**
+   * Dispatches on the content rather than on the name, whose extension is only used when no signature matched.
+   * The supplier gets the stream with the sniffed prefix still buffered, so those bytes aren't read twice.
+   */
+  public static AudioFormatEx getInfos(InputStream is, String name) throws AudioInfoException, IOException {
+    AudioInputStream ais = AudioInputStream.of(is, name);
+    long start = ais.location();
+    AudioFileType type = detect(ais).orElse(null);
+    AudioFileType extType = getTypeByFileName(name);
+    boolean sniffed = type != null && !(type == AudioFileType.WAVE && extType == AudioFileType.DTS); // DTS comes wrapped in RIFF
+    if(!sniffed) {
+      type = extType;
+    }
+    if(type == null) {
+      throw new AudioInfoException(new AudioFormatException(name, ais.location(), null, "Unrecognized content"));
+    }
+
+    boolean mpeg = type == AudioFileType.MP3 || type == AudioFileType.MP2;
+    if((mpeg || !sniffed) && ais.isSeekable()) {
+      ais.seek(start); // MPEG suppliers handle the tags themselves, and the extension's supplier gets the content as is
+    }
+    return AUDIO_INFO_SUPPLIERS.get(type).getInfos(ais, name);
+  }
+
+  /**
+   * Sniffs the file type out of a prefix of the stream, past the ID3v2 tags and zero padding some taggers and rippers leave in front of any format.
+   * The stream is left where the signature starts, the prefix being read under a mark then reset.
+   * At most {@value #MAX_PADDING} bytes of padding are skipped in all, past that there's no signature to find.
+   * @return the type whose signature was found, empty if none
+   */
+  public static Optional<AudioFileType> detect(AudioInputStream ais) throws IOException {
+    int padding = MAX_PADDING;
+    while(true) {
+      if(!skipID3v2(ais)) {
+        int skipped = skipPadding(ais, padding);
+        if(skipped == 0) {
+          break;
+        }
+        padding -= skipped;
+      }
+    }
+
+    byte[] prefix = new byte[AudioSignatures.MAX_LENGTH];
+    ais.mark(prefix.length);
+    int length = ais.readNBytes(prefix, 0, prefix.length);
+    ais.reset();
+    return Optional.ofNullable(AudioSignatures.match(prefix, length));
+  }
+
+  /**
+   * <a href="https://mutagen-specs.readthedocs.io/en/latest/id3/id3v2.4.0-structure.html">...</a>
+   */
+  private static boolean skipID3v2(AudioInputStream ais) throws IOException {
+    ais.mark(ID3V2_HEADER_SIZE);
+    byte[] header = ais.readNBytes(ID3V2_HEADER_SIZE);
+    if(header.length == ID3V2_HEADER_SIZE && isID3v2Header(header)) {
+      int size = (header[6] & 0x7f) << 21 | (header[7] & 0x7f) << 14 | (header[8] & 0x7f) << 7 | (header[9] & 0x7f); // synchsafe
+      boolean footer = (header[5] & ID3V2_FOOTER_FLAG) != 0;
+      ais.skipNBytes((long) size + (footer ? ID3V2_HEADER_SIZE : 0));
+      return true;
+    } else {
+      ais.reset();
+      return false;
+    }
+  }
+
+  private static boolean isID3v2Header(byte[] header) {
+    for (int i = 0; i < ID3V2_TAG.length; i++) {
+      if(header[i] != ID3V2_TAG[i]) {
+        return false;
+      }
+    }
+    // versions can't be 0xff, and sizes are made of 7 bit bytes
+    return header[3] != (byte) 0xff && header[4] != (byte) 0xff
+        && (header[6] | header[7] | header[8] | header[9]) >= 0;
+  }
+
+  /**
+   * Skips the zero bytes ahead, up to limit, reading them by blocks under a mark.
+   * @return the count of bytes skipped
+   */
+  private static int skipPadding(AudioInputStream ais, int limit) throws IOException {
+    byte[] block = new byte[Math.min(limit, PADDING_BLOCK_SIZE)];
+    int skipped = 0;
+    while(skipped < limit) {
+      int length = Math.min(block.length, limit - skipped);
+      ais.mark(length);
+      int read = ais.readNBytes(block, 0, length);
+      ais.reset();
+      int zeros = 0;
+      while(zeros < read && block[zeros] == 0x00) {
+        zeros++;
+      }
+      ais.skipNBytes(zeros);
+      skipped += zeros;
+      if(zeros < length) { // something else, or the end
+        break;
+      }
+    }
+    return skipped;
+  }
+
+  private static AudioFileType getTypeByFileName(String fileName) {
+    if(fileName == null) {
+      return null;
+    }
+    try {
+      return AudioFileType.ofExtension(getExt(fileName));
+    } catch(IllegalArgumentException e) {
+      return null;
+    }
+  }
 }
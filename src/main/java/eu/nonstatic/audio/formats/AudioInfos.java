@@ -9,8 +9,10 @@
  */
 package eu.nonstatic.audio.formats;
 
+import eu.nonstatic.audio.ChannelAudioInputStream;
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.file.Path;
 
 public final class AudioInfos {
@@ -24,4 +26,17 @@ public final class AudioInfos {
   public static AudioFormatEx get(File file) throws AudioInfoException, IOException {
     return AudioInfoSuppliers.getByFileName(file.getName()).getInfos(file);
   }
+
+  /**
+   * Same as {@link #get(Path)}, but going by the file's content rather than by its extension
+   */
+  public static AudioFormatEx detect(Path path) throws AudioInfoException, IOException {
+    try(InputStream is = ChannelAudioInputStream.open(path)) {
+      return AudioInfoSuppliers.getInfos(is, path.toString());
+    }
+  }
+
+  public static AudioFormatEx detect(File file) throws AudioInfoException, IOException {
+    return detect(file.toPath());
+  }
 }
@@ -0,0 +1,247 @@
+/**
+ * Audiolib
+ * Copyright (C) 2022 NonStatic
+ *
+ * This file is part of audiolib.
+ * Audiolib is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *  is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License along with . If not, see <https://www.gnu.org/licenses/>.
+ */
+package eu.nonstatic.audio.formats;
+
+import eu.nonstatic.audio.AudioFileType;
+import eu.nonstatic.audio.AudioInputStream;
+import eu.nonstatic.audio.ChannelAudioInputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Walks a directory tree, getting the infos of its files concurrently through {@link AudioInfoSuppliers#getInfos}, hence by content.
+ * At most concurrency files are being parsed at once: the walk waits for a permit before handing a file over,
+ * so that a library of millions of files never has more than that many pending.
+ * Results and failures go to the listener as soon as they're available, from the parsing threads.
+ * Files are read through a {@link ChannelAudioInputStream}: a channel read blocking a virtual thread gets its carrier compensated,
+ * where a page fault on a mapping wouldn't, so that as many reads as permits can really be in flight.
+ */
+@Slf4j
+public final class AudioLibraryScanner {
+
+  private static final int DEFAULT_CONCURRENCY = Math.max(4, Runtime.getRuntime().availableProcessors() * 2); // parsing is mostly waiting for I/O
+
+  private final int concurrency;
+  private final Predicate<Path> filter;
+  private final ChannelOpener opener;
+
+  @FunctionalInterface
+  interface ChannelOpener {
+    SeekableByteChannel open(Path file) throws IOException;
+  }
+
+  public AudioLibraryScanner() {
+    this(DEFAULT_CONCURRENCY);
+  }
+
+  /**
+   * Only scans the files with a known audio extension, their content deciding of the actual supplier
+   */
+  public AudioLibraryScanner(int concurrency) {
+    this(concurrency, AudioLibraryScanner::hasAudioExtension);
+  }
+
+  public AudioLibraryScanner(int concurrency, @NonNull Predicate<Path> filter) {
+    this(concurrency, filter, file -> FileChannel.open(file, StandardOpenOption.READ));
+  }
+
+  AudioLibraryScanner(int concurrency, @NonNull Predicate<Path> filter, @NonNull ChannelOpener opener) {
+    if(concurrency <= 0) {
+      throw new IllegalArgumentException("concurrency must be > 0: " + concurrency);
+    }
+    this.concurrency = concurrency;
+    this.filter = filter;
+    this.opener = opener;
+  }
+
+  /**
+   * Receives the outcome of each file, concurrently from the parsing threads, so implementations must be thread safe.
+   */
+  public interface Listener {
+    void scanned(Path file, AudioFormatEx infos);
+
+    /**
+     * @param e an {@link AudioInfoException}, an {@link IOException} (including those of the walk itself) or an unexpected RuntimeException
+     */
+    void failed(Path file, Exception e);
+  }
+
+  /**
+   * @param files how many were parsed successfully
+   * @param bytes their cumulated sizes
+   * @param busy the cumulated parsing time, across threads
+   */
+  public record FormatStats(long files, long bytes, Duration busy) {
+
+    /**
+     * Per parsing thread, that is how fast a single file of this format is handled
+     */
+    public double filesPerSecond() {
+      return busy.isZero() ? 0.0 : files * 1e9 / busy.toNanos();
+    }
+
+    public double bytesPerSecond() {
+      return busy.isZero() ? 0.0 : bytes * 1e9 / busy.toNanos();
+    }
+  }
+
+  /**
+   * @param formats by the type of the infos, regardless of the file extensions
+   * @param failures how many files failed, including those the walk couldn't visit
+   * @param elapsed wall clock time of the whole scan
+   */
+  public record ScanStats(Map<AudioFileType, FormatStats> formats, long failures, Duration elapsed) {
+
+    public long files() {
+      return formats.values().stream().mapToLong(FormatStats::files).sum();
+    }
+
+    public double filesPerSecond() {
+      return elapsed.isZero() ? 0.0 : files() * 1e9 / elapsed.toNanos();
+    }
+  }
+
+  /**
+   * Blocks until all files under root have been parsed and the listener notified
+   */
+  public ScanStats scan(@NonNull Path root, @NonNull Listener listener) throws IOException {
+    long start = System.nanoTime();
+    Accumulator accumulator = new Accumulator();
+    Semaphore permits = new Semaphore(concurrency);
+    ExecutorService executor = ScanExecutors.newExecutor(concurrency);
+    boolean done = false;
+    try {
+      Files.walkFileTree(root, new SimpleFileVisitor<>() {
+        @Override
+        public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+          if(attrs.isRegularFile() && filter.test(file)) {
+            acquire(permits, 1);
+            try {
+              executor.execute(() -> {
+                try {
+                  scanFile(file, attrs.size(), opener, listener, accumulator);
+                } finally {
+                  permits.release();
+                }
+              });
+            } catch(RuntimeException e) { // rejected
+              permits.release();
+              throw e;
+            }
+          }
+          return FileVisitResult.CONTINUE;
+        }
+
+        @Override
+        public FileVisitResult visitFileFailed(Path file, IOException e) {
+          accumulator.failures.increment();
+          listener.failed(file, e);
+          return FileVisitResult.CONTINUE;
+        }
+      });
+      acquire(permits, concurrency); // all files done
+      done = true;
+    } finally {
+      executor.shutdown();
+      if(!done) { // the files already handed over still reach the listener before the walk's failure goes up
+        permits.acquireUninterruptibly(concurrency);
+      }
+    }
+
+    ScanStats stats = accumulator.toStats(Duration.ofNanos(System.nanoTime() - start));
+    log.debug("Scanned {} files from {} in {}, {} failures", stats.files(), root, stats.elapsed(), stats.failures());
+    return stats;
+  }
+
+  private static void scanFile(Path file, long size, ChannelOpener opener, Listener listener, Accumulator accumulator) {
+    AudioFormatEx infos;
+    long start = System.nanoTime();
+    try(AudioInputStream ais = new ChannelAudioInputStream(opener.open(file), file.toString())) {
+      infos = AudioInfoSuppliers.getInfos(ais, file.toString()); // by content, as AudioInfos.detect does
+    } catch(AudioInfoException | IOException | RuntimeException e) {
+      accumulator.failures.increment();
+      listener.failed(file, e);
+      return;
+    }
+    accumulator.add(infos.getType(), size, System.nanoTime() - start);
+    listener.scanned(file, infos);
+  }
+
+  private static void acquire(Semaphore permits, int count) throws InterruptedIOException {
+    try {
+      permits.acquire(count);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while scanning");
+    }
+  }
+
+  private static boolean hasAudioExtension(Path file) {
+    try {
+      AudioInfoSuppliers.getByFileName(file.getFileName().toString());
+      return true;
+    } catch(IllegalArgumentException e) {
+      return false;
+    }
+  }
+
+  private static final class Accumulator {
+    private final Map<AudioFileType, Counters> counters = new EnumMap<>(AudioFileType.class);
+    private final LongAdder failures = new LongAdder();
+
+    private Accumulator() {
+      for (AudioFileType type : AudioFileType.values()) {
+        counters.put(type, new Counters()); // never modified afterwards, so reads needn't be synchronized
+      }
+    }
+
+    private void add(AudioFileType type, long size, long nanos) {
+      Counters c = counters.get(type);
+      c.files.incrementAndGet();
+      c.bytes.addAndGet(size);
+      c.nanos.addAndGet(nanos);
+    }
+
+    private ScanStats toStats(Duration elapsed) {
+      Map<AudioFileType, FormatStats> formats = new EnumMap<>(AudioFileType.class);
+      counters.forEach((type, c) -> {
+        if(c.files.get() > 0) {
+          formats.put(type, new FormatStats(c.files.get(), c.bytes.get(), Duration.ofNanos(c.nanos.get())));
+        }
+      });
+      return new ScanStats(Collections.unmodifiableMap(formats), failures.sum(), elapsed);
+    }
+  }
+
+  private static final class Counters {
+    private final AtomicLong files = new AtomicLong();
+    private final AtomicLong bytes = new AtomicLong();
+    private final AtomicLong nanos = new AtomicLong();
+  }
+}
@@ -0,0 +1,131 @@
+/**
+ * Audiolib
+ * Copyright (C) 2022 NonStatic
+ *
+ * This file is part of audiolib.
+ * Audiolib is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *  is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License along with . If not, see <https://www.gnu.org/licenses/>.
+ */
+package eu.nonstatic.audio.formats;
+
+import eu.nonstatic.audio.AudioFileType;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Byte trie of the signatures the files start with, a byte of -1 matching any value.
+ * Matching walks the prefix once, trying exact bytes before wildcards.
+ */
+final class AudioSignatures {
+
+  private static final int ANY = -1;
+
+  private static final Node ROOT = new Node();
+  static final int MAX_LENGTH;
+
+  private static final class Node {
+    private Node[] children; // by unsigned byte, allocated when needed
+    private Node any;
+    private AudioFileType type; // where a signature ends
+
+    private Node child(int b) {
+      if(b == ANY) {
+        return any != null ? any : (any = new Node());
+      }
+      if(children == null) {
+        children = new Node[256];
+      }
+      Node child = children[b];
+      return child != null ? child : (children[b] = new Node());
+    }
+  }
+
+  static {
+    int maxLength = 0;
+    maxLength = Math.max(maxLength, add(AudioFileType.WAVE, "RIFF????WAVE"));
+    maxLength = Math.max(maxLength, add(AudioFileType.WAVE, "RF64????WAVE"));
+    maxLength = Math.max(maxLength, add(AudioFileType.WAVE, "BW64????WAVE"));
+    maxLength = Math.max(maxLength, add(AudioFileType.AIFF, "FORM????AIFF"));
+    maxLength = Math.max(maxLength, add(AudioFileType.AIFF, "FORM????AIFC"));
+    maxLength = Math.max(maxLength, add(AudioFileType.FLAC, "fLaC"));
+    maxLength = Math.max(maxLength, add(AudioFileType.OGG, "OggS"));
+    maxLength = Math.max(maxLength, add(AudioFileType.APE, "MAC "));
+    maxLength = Math.max(maxLength, add(AudioFileType.XM, "Extended Module: "));
+    maxLength = Math.max(maxLength, addMpegSyncs());
+    MAX_LENGTH = maxLength;
+  }
+
+  private AudioSignatures() {}
+
+  /**
+   * @param signature ASCII, '?' for any byte
+   * @return the signature's length
+   */
+  private static int add(AudioFileType type, String signature) {
+    byte[] bytes = signature.getBytes(StandardCharsets.US_ASCII);
+    int[] values = new int[bytes.length];
+    for (int i = 0; i < bytes.length; i++) {
+      values[i] = bytes[i] == '?' ? ANY : bytes[i] & 0xff;
+    }
+    return add(type, values);
+  }
+
+  private static int add(AudioFileType type, int... signature) {
+    Node node = ROOT;
+    for (int b : signature) {
+      node = node.child(b);
+    }
+    node.type = type;
+    return signature.length;
+  }
+
+  /**
+   * 11 bits of sync, then what a frame header can't do without: a known version, layer II or III, a bitrate and a sampling rate.
+   * <a href="http://www.mp3-tech.org/programmer/frame_header.html">...</a>
+   */
+  private static int addMpegSyncs() {
+    int length = 0;
+    for (int second = 0xe0; second <= 0xff; second++) {
+      int version = (second >> 3) & 0x3;
+      int layer = (second >> 1) & 0x3;
+      AudioFileType type = layer == 0x1 ? AudioFileType.MP3 : layer == 0x2 ? AudioFileType.MP2 : null;
+      if(version == 0x1 || type == null) { // reserved version, layer I
+        continue;
+      }
+      for (int third = 0; third <= 0xff; third++) {
+        int bitrateIndex = third >> 4;
+        int samplingRateIndex = (third >> 2) & 0x3;
+        if(bitrateIndex != 0x0 && bitrateIndex != 0xf && samplingRateIndex != 0x3) { // free, bad, reserved
+          length = add(type, 0xff, second, third);
+        }
+      }
+    }
+    return length;
+  }
+
+  /**
+   * @return the type whose signature starts the prefix, null if none
+   */
+  static AudioFileType match(byte[] prefix, int length) {
+    return match(ROOT, prefix, 0, length);
+  }
+
+  private static AudioFileType match(Node node, byte[] prefix, int offset, int length) {
+    if(node.type != null) {
+      return node.type;
+    } else if(offset >= length) {
+      return null;
+    }
+    AudioFileType type = null;
+    if(node.children != null) {
+      Node child = node.children[prefix[offset] & 0xff];
+      if(child != null) {
+        type = match(child, prefix, offset + 1, length);
+      }
+    }
+    if(type == null && node.any != null) {
+      type = match(node.any, prefix, offset + 1, length);
+    }
+    return type;
+  }
+}
@@ -0,0 +1,137 @@
+/**
+ * Audiolib
+ * Copyright (C) 2022 NonStatic
+ *
+ * This file is part of audiolib.
+ * Audiolib is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *  is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License along with . If not, see <https://www.gnu.org/licenses/>.
+ */
+package eu.nonstatic.audio.formats;
+
+import static java.nio.ByteOrder.BIG_ENDIAN;
+import static java.nio.ByteOrder.LITTLE_ENDIAN;
+
+import eu.nonstatic.audio.formats.PcmView.SampleType;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Optional;
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioFormat.Encoding;
+import lombok.Getter;
+
+/**
+ * Decodes interleaved PCM frames of a given layout, straight out of a ByteBuffer whose order is {@link #getByteOrder()}.
+ * Integer samples are normalized to [-1, 1), floating point ones are given as is, all at their full precision.
+ * Stateless, hence thread safe.
+ */
+@Getter
+public final class PcmDecoder {
+
+  private final SampleType sampleType;
+  private final ByteOrder byteOrder;
+  private final int channels;
+  private final int frameSize;
+  private final double scale; // normalizes integer samples
+
+  public PcmDecoder(SampleType sampleType, ByteOrder byteOrder, int channels) {
+    if (channels <= 0) {
+      throw new IllegalArgumentException("channels: " + channels);
+    }
+    this.sampleType = sampleType;
+    this.byteOrder = byteOrder;
+    this.channels = channels;
+    this.frameSize = channels * sampleType.getBytes();
+    this.scale = sampleType.isFloat() ? 1.0 : 1.0 / (1L << (sampleType.getBytes() * 8 - 1));
+  }
+
+  /**
+   * @return a decoder for the javax.sound format, empty when it isn't plain PCM with samples in whole bytes (eg: µ-law, compressed, 12 bits)
+   */
+  public static Optional<PcmDecoder> of(AudioFormat format) {
+    int bits = format.getSampleSizeInBits();
+    Encoding encoding = format.getEncoding();
+    SampleType sampleType = null;
+    if (Encoding.PCM_SIGNED.equals(encoding) && bits % 8 == 0) {
+      sampleType = SampleType.signed(bits / 8);
+    } else if (Encoding.PCM_UNSIGNED.equals(encoding) && bits == 8) {
+      sampleType = SampleType.UNSIGNED_8;
+    } else if (Encoding.PCM_FLOAT.equals(encoding)) {
+      sampleType = bits == 32 ? SampleType.FLOAT_32 : bits == 64 ? SampleType.FLOAT_64 : null;
+    }
+    int channels = format.getChannels();
+    if (sampleType == null || channels <= 0 || format.getFrameSize() != channels * sampleType.getBytes()) {
+      return Optional.empty();
+    }
+    return Optional.of(new PcmDecoder(sampleType, format.isBigEndian() ? BIG_ENDIAN : LITTLE_ENDIAN, channels));
+  }
+
+  /**
+   * Averages the channels of each frame, in a single pass
+   * @param index of the first frame in src
+   */
+  public void mono(ByteBuffer src, int index, int frames, double[] dst, int off) {
+    if (channels == 1) {
+      for (int f = 0; f < frames; f++, index += frameSize) {
+        dst[off + f] = sampleAt(src, index);
+      }
+    } else {
+      int sampleSize = sampleType.getBytes();
+      for (int f = 0; f < frames; f++, index += frameSize) {
+        double sum = 0;
+        for (int c = 0, i = index; c < channels; c++, i += sampleSize) {
+          sum += sampleAt(src, i);
+        }
+        dst[off + f] = sum / channels;
+      }
+    }
+  }
+
+  /**
+   * Single precision counterpart, summing the channels in double all the same
+   */
+  public void mono(ByteBuffer src, int index, int frames, float[] dst, int off) {
+    if (channels == 1) {
+      for (int f = 0; f < frames; f++, index += frameSize) {
+        dst[off + f] = (float) sampleAt(src, index);
+      }
+    } else {
+      int sampleSize = sampleType.getBytes();
+      for (int f = 0; f < frames; f++, index += frameSize) {
+        double sum = 0;
+        for (int c = 0, i = index; c < channels; c++, i += sampleSize) {
+          sum += sampleAt(src, i);
+        }
+        dst[off + f] = (float) (sum / channels);
+      }
+    }
+  }
+
+  /**
+   * @return the normalized sample at that byte index
+   */
+  public double sampleAt(ByteBuffer src, int index) {
+    return switch (sampleType) {
+      case FLOAT_32 -> src.getFloat(index);
+      case FLOAT_64 -> src.getDouble(index);
+      default -> intAt(src, index) * scale;
+    };
+  }
+
+  /**
+   * @return the raw integer sample at that byte index, centered on 0 for unsigned 8 bits
+   * @throws IllegalStateException for floating point samples
+   */
+  public int intAt(ByteBuffer src, int index) {
+    return switch (sampleType) {
+      case UNSIGNED_8 -> (src.get(index) & 0xff) - 0x80;
+      case SIGNED_8 -> src.get(index);
+      case SIGNED_16 -> src.getShort(index);
+      case SIGNED_24 -> byteOrder == BIG_ENDIAN
+          ? src.get(index) << 16 | (src.get(index + 1) & 0xff) << 8 | src.get(index + 2) & 0xff
+          : src.get(index + 2) << 16 | (src.get(index + 1) & 0xff) << 8 | src.get(index) & 0xff;
+      case SIGNED_32 -> src.getInt(index);
+      default -> throw new IllegalStateException("Floating point samples: " + sampleType);
+    };
+  }
+}
@@ -0,0 +1,297 @@
+/**
+ * Audiolib
+ * Copyright (C) 2022 NonStatic
+ *
+ * This file is part of audiolib.
+ * Audiolib is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *  is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License along with . If not, see <https://www.gnu.org/licenses/>.
+ */
+package eu.nonstatic.audio.formats;
+
+import static java.nio.ByteOrder.BIG_ENDIAN;
+import static java.nio.ByteOrder.LITTLE_ENDIAN;
+
+import eu.nonstatic.audio.AudioFileType;
+import eu.nonstatic.audio.AudioInputStream;
+import eu.nonstatic.audio.ChannelAudioInputStream;
+import eu.nonstatic.audio.formats.aiff.AiffInfo;
+import eu.nonstatic.audio.formats.wave.WaveFormat;
+import eu.nonstatic.audio.formats.wave.WaveInfo;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Optional;
+import lombok.Getter;
+
+/**
+ * Samples of an uncompressed WAVE or AIFF file, read straight from a read-only mapping of its data chunk:
+ * no byte[] in between, nor any copy beyond the page cache.
+ * Samples are addressed by frame and channel, a frame being {@link #getFrameStride()} bytes and a sample within it {@link #getChannelStride()}.
+ * Integer samples are normalized to [-1, 1) by the get(Float|Double) accessors, floating point ones are given as is.
+ * Data chunks over 1GB are mapped in several segments cut on frame boundaries, so that multi-gigabyte RF64 files are fine too.
+ * Thread safe, as long as the file isn't modified meanwhile.
+ */
+public final class PcmView {
+
+  private static final int MAX_SEGMENT_SIZE = 1 << 30;
+
+  public enum SampleType {
+    UNSIGNED_8(1), SIGNED_8(1), SIGNED_16(2), SIGNED_24(3), SIGNED_32(4), FLOAT_32(4), FLOAT_64(8);
+
+    @Getter
+    private final int bytes;
+
+    SampleType(int bytes) {
+      this.bytes = bytes;
+    }
+
+    public boolean isFloat() {
+      return this == FLOAT_32 || this == FLOAT_64;
+    }
+
+    static SampleType signed(int bytes) {
+      return switch (bytes) {
+        case 1 -> SIGNED_8;
+        case 2 -> SIGNED_16;
+        case 3 -> SIGNED_24;
+        case 4 -> SIGNED_32;
+        default -> null;
+      };
+    }
+  }
+
+  @Getter
+  private final float sampleRate;
+  @Getter
+  private final long frameCount;
+  private final PcmDecoder decoder;
+  private final int frameStride;
+  private final int framesPerSegment;
+  private final ByteBuffer[] segments;
+
+  private PcmView(PcmDecoder decoder, float sampleRate, long frameCount, ByteBuffer[] segments, int framesPerSegment) {
+    this.decoder = decoder;
+    this.sampleRate = sampleRate;
+    this.frameCount = frameCount;
+    this.frameStride = decoder.getFrameSize();
+    this.segments = segments;
+    this.framesPerSegment = framesPerSegment;
+  }
+
+  /**
+   * Gets the infos going by the file's content, then maps its samples
+   */
+  public static PcmView open(Path file) throws AudioInfoException, IOException {
+    return open(file, AudioInfos.detect(file));
+  }
+
+  /**
+   * Same as {@link #open(Path)}, for callers having another way to get at the samples
+   * @return the view when the file's content is uncompressed WAVE or AIFF, empty otherwise
+   */
+  public static Optional<PcmView> find(Path file) throws IOException {
+    try (AudioInputStream ais = ChannelAudioInputStream.open(file)) {
+      AudioFileType type = AudioInfoSuppliers.detect(ais).orElse(null);
+      if (type != AudioFileType.WAVE && type != AudioFileType.AIFF) {
+        return Optional.empty();
+      }
+      return Optional.of(open(file, AudioInfoSuppliers.getInfos(ais, file.toString())));
+    } catch (AudioInfoException e) {
+      return Optional.empty();
+    }
+  }
+
+  /**
+   * @param infos as given by the WAVE or AIFF supplier for that very file
+   * @throws AudioInfoException when the samples are compressed, or of a size not handled
+   */
+  public static PcmView open(Path file, AudioFormatEx infos) throws AudioInfoException, IOException {
+    String name = file.toString();
+    SampleType sampleType;
+    ByteOrder byteOrder;
+    long dataLocation;
+    long dataSize;
+    if (infos instanceof WaveInfo wave) {
+      sampleType = getSampleType(wave);
+      byteOrder = LITTLE_ENDIAN;
+      dataLocation = wave.getDataLocation();
+      dataSize = wave.getAudioSize();
+    } else if (infos instanceof AiffInfo aiff) {
+      sampleType = getSampleType(aiff);
+      byteOrder = aiff.isBigEndian() ? BIG_ENDIAN : LITTLE_ENDIAN;
+      dataLocation = aiff.getDataLocation();
+      dataSize = Integer.toUnsignedLong(aiff.getFrameCount()) * aiff.getChannels() * (sampleType != null ? sampleType.bytes : 0);
+      if (dataLocation < 0) {
+        throw new AudioInfoException(new AudioFormatException(name, 0, AudioFileType.AIFF, "No SSND chunk"));
+      }
+    } else {
+      throw new AudioInfoException(new AudioFormatException(name, 0, infos.getType(), "No PCM view for this type"));
+    }
+    if (sampleType == null || infos.getChannels() <= 0) {
+      throw new AudioInfoException(new AudioFormatException(name, dataLocation, infos.getType(),
+          "No PCM view for " + infos.getEncoding() + " " + infos.getSampleSizeInBits() + " bits"));
+    }
+    return map(file, new PcmDecoder(sampleType, byteOrder, infos.getChannels()), infos.getSampleRate(), dataLocation, dataSize);
+  }
+
+  private static SampleType getSampleType(WaveInfo wave) {
+    short format = wave.getFormat();
+    if (format == WaveFormat.EXTENSIBLE.getValue() && wave.getSubFormat() != null) {
+      format = wave.getSubFormat();
+    }
+    int bits = wave.getSampleSizeInBits();
+    if (format == WaveFormat.PCM.getValue()) {
+      return bits == 8 ? SampleType.UNSIGNED_8 : bits % 8 == 0 ? SampleType.signed(bits / 8) : null;
+    } else if (format == WaveFormat.IEEE_FLOAT.getValue()) {
+      return bits == 32 ? SampleType.FLOAT_32 : bits == 64 ? SampleType.FLOAT_64 : null;
+    } else {
+      return null;
+    }
+  }
+
+  /**
+   * AIFF samples are left-justified in whole bytes, AIFC names the encoding
+   */
+  private static SampleType getSampleType(AiffInfo aiff) {
+    int bytes = (aiff.getSampleSizeInBits() + 7) / 8;
+    return switch (aiff.getCompression()) {
+      case "NONE", "twos", "sowt" -> SampleType.signed(bytes);
+      case "in24" -> SampleType.SIGNED_24;
+      case "in32" -> SampleType.SIGNED_32;
+      case "raw " -> SampleType.UNSIGNED_8;
+      case "fl32", "FL32" -> SampleType.FLOAT_32;
+      case "fl64", "FL64" -> SampleType.FLOAT_64;
+      default -> null;
+    };
+  }
+
+  private static PcmView map(Path file, PcmDecoder decoder, float sampleRate, long dataLocation, long dataSize) throws IOException {
+    int frameStride = decoder.getFrameSize();
+    int framesPerSegment = MAX_SEGMENT_SIZE / frameStride;
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) { // the mappings outlive the channel
+      long available = Math.max(0, Math.min(dataSize, channel.size() - dataLocation)); // truncated files are common
+      long frameCount = available / frameStride;
+      int nbSegments = (int) ((frameCount + framesPerSegment - 1) / framesPerSegment);
+      ByteBuffer[] segments = new ByteBuffer[nbSegments];
+      for (int s = 0; s < nbSegments; s++) {
+        long frames = Math.min(framesPerSegment, frameCount - (long) s * framesPerSegment);
+        long position = dataLocation + (long) s * framesPerSegment * frameStride;
+        segments[s] = channel.map(MapMode.READ_ONLY, position, frames * frameStride).order(decoder.getByteOrder());
+      }
+      return new PcmView(decoder, sampleRate, frameCount, segments, framesPerSegment);
+    }
+  }
+
+  public SampleType getSampleType() {
+    return decoder.getSampleType();
+  }
+
+  public ByteOrder getByteOrder() {
+    return decoder.getByteOrder();
+  }
+
+  public int getChannels() {
+    return decoder.getChannels();
+  }
+
+  /**
+   * @return the bytes from one frame to the next, all channels interleaved
+   */
+  public int getFrameStride() {
+    return frameStride;
+  }
+
+  /**
+   * @return the bytes from one channel's sample to the next one's, within a frame
+   */
+  public int getChannelStride() {
+    return decoder.getSampleType().getBytes();
+  }
+
+  /**
+   * @return the raw integer sample, centered on 0 for unsigned 8 bits
+   * @throws IllegalStateException for floating point samples
+   */
+  public int getInt(long frame, int channel) {
+    checkIndex(frame, channel, frameCount);
+    return decoder.intAt(segments[(int) (frame / framesPerSegment)], index(frame, channel));
+  }
+
+  public float getFloat(long frame, int channel) {
+    return (float) getDouble(frame, channel);
+  }
+
+  public double getDouble(long frame, int channel) {
+    checkIndex(frame, channel, frameCount);
+    return decoder.sampleAt(segments[(int) (frame / framesPerSegment)], index(frame, channel));
+  }
+
+  /**
+   * Bulk read of one channel, normalized.
+   * @return the number of samples read, less than len at the end of the data
+   */
+  public int read(int channel, long frame, float[] dst, int off, int len) {
+    checkIndex(frame, channel, frameCount + 1);
+    int n = (int) Math.min(len, frameCount - frame);
+    int read = 0;
+    while (read < n) {
+      long f = frame + read;
+      ByteBuffer segment = segments[(int) (f / framesPerSegment)];
+      int count = (int) Math.min(n - read, framesPerSegment - f % framesPerSegment);
+      int index = index(f, channel);
+      for (int i = 0; i < count; i++, index += frameStride) {
+        dst[off + read + i] = (float) decoder.sampleAt(segment, index);
+      }
+      read += count;
+    }
+    return read;
+  }
+
+  /**
+   * Bulk read of all channels averaged, normalized.
+   * @return the number of samples read, less than len at the end of the data
+   */
+  public int readMono(long frame, double[] dst, int off, int len) {
+    checkIndex(frame, 0, frameCount + 1);
+    int n = (int) Math.min(len, frameCount - frame);
+    int read = 0;
+    while (read < n) {
+      long f = frame + read;
+      int count = (int) Math.min(n - read, framesPerSegment - f % framesPerSegment);
+      decoder.mono(segments[(int) (f / framesPerSegment)], index(f, 0), count, dst, off + read);
+      read += count;
+    }
+    return read;
+  }
+
+  /**
+   * Single precision counterpart of {@link #readMono(long, double[], int, int)}
+   */
+  public int readMono(long frame, float[] dst, int off, int len) {
+    checkIndex(frame, 0, frameCount + 1);
+    int n = (int) Math.min(len, frameCount - frame);
+    int read = 0;
+    while (read < n) {
+      long f = frame + read;
+      int count = (int) Math.min(n - read, framesPerSegment - f % framesPerSegment);
+      decoder.mono(segments[(int) (f / framesPerSegment)], index(f, 0), count, dst, off + read);
+      read += count;
+    }
+    return read;
+  }
+
+  private int index(long frame, int channel) {
+    return (int) (frame % framesPerSegment) * frameStride + channel * getChannelStride();
+  }
+
+  private void checkIndex(long frame, int channel, long frameLimit) {
+    if (frame < 0 || frame >= frameLimit || channel < 0 || channel >= getChannels()) {
+      throw new IndexOutOfBoundsException("Frame " + frame + "/" + frameCount + ", channel " + channel + "/" + getChannels());
+    }
+  }
+}
@@ -21,15 +21,17 @@ public class AiffInfo extends AudioFormatEx {
   private final String name;
   private final int frameCount;
   private final String compression;
+  private final long dataLocation; // of the first sample, -1 if unknown
 
   @Builder
-  public AiffInfo(String name, int channels, float sampleRate, int sampleSizeInBits, int frameCount, String compression, boolean bigEndian) {
+  public AiffInfo(String name, int channels, float sampleRate, int sampleSizeInBits, int frameCount, String compression, boolean bigEndian, long dataLocation) {
     super(new Encoding(compression.toUpperCase(Locale.ROOT)), sampleRate,
         sampleSizeInBits, channels, (sampleSizeInBits * channels)/8, sampleRate, bigEndian);
     this.name = name;
     this.frameCount = frameCount;
     this.compression = compression;
     this.bigEndian = bigEndian;
+    this.dataLocation = dataLocation;
   }
 
   @Override
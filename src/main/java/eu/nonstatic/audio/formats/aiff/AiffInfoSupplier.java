@@ -18,16 +18,19 @@ import eu.nonstatic.audio.formats.AudioInfoSupplier;
 import java.io.EOFException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import lombok.extern.slf4j.Slf4j;
 
 @Slf4j
 public class AiffInfoSupplier implements AudioInfoSupplier<AiffInfo> {
 
+  private static final byte[] FORM_ID = "FORM".getBytes(StandardCharsets.US_ASCII);
+
   /**
    * <a href="https://www.mmsp.ece.mcgill.ca/Documents/AudioFormats/AIFF/Docs/AIFF-1.3.pdf">...</a>
    */
   public AiffInfo getInfos(InputStream is, String name) throws IOException, AudioInfoException {
-    AudioInputStream ais = new AudioInputStream(is, name);
+    AudioInputStream ais = AudioInputStream.of(is, name);
     try {
       boolean aifc = checkHeader(ais);
       return readInfos(ais, aifc);
@@ -38,9 +41,14 @@ public class AiffInfoSupplier implements AudioInfoSupplier<AiffInfo> {
     }
   }
 
+  @Override
+  public int getRangeReadAhead() {
+    return 4 * 1024; // COMM usually follows FORM, other chunks are skipped without being fetched
+  }
+
   private boolean checkHeader(AudioInputStream ais) throws AudioFormatException, IOException {
     long location = ais.location();
-    if (!"FORM".equals(ais.readString(4))) {
+    if (!ais.readMagic(FORM_ID)) {
       throw new AudioFormatException(ais.getName(), location, AudioFileType.AIFF, "No AIFF FORM header");
     }
 
@@ -57,7 +65,9 @@ public class AiffInfoSupplier implements AudioInfoSupplier<AiffInfo> {
   }
 
   private AiffInfo readInfos(AudioInputStream ais, boolean aifc) throws AudioFormatException, IOException {
-    findChunk(ais, "COMM");
+    SoundData soundData = new SoundData();
+    long commSize = findChunk(ais, "COMM", soundData);
+    long commEnd = ais.location() + commSize + (commSize & 1);
     short numChannels = ais.read16bitBE();
     int frameCount = ais.read32bitBE();
     short sampleSizeInBits = ais.read16bitBE();
@@ -74,6 +84,16 @@ public class AiffInfoSupplier implements AudioInfoSupplier<AiffInfo> {
       compression = "NONE";
     }
 
+    if(soundData.location < 0 && ais.isSeekable()) { // SSND usually comes right after COMM
+      try {
+        ais.seek(commEnd);
+        findChunk(ais, "SSND", soundData);
+        soundData.read(ais);
+      } catch(AudioFormatException | EOFException e) { // the infos don't depend on it
+        log.debug("No SSND chunk: {}", ais.getName());
+      }
+    }
+
     return AiffInfo.builder()
         .name(ais.getName())
         .channels(numChannels)
@@ -82,22 +102,45 @@ public class AiffInfoSupplier implements AudioInfoSupplier<AiffInfo> {
         .sampleRate((float) sampleRate)
         .compression(compression)
         .bigEndian(bigEndian)
+        .dataLocation(soundData.location)
         .build();
   }
 
-  private void findChunk(AudioInputStream ais, String name) throws AudioFormatException, IOException {
+  /**
+   * Goes to the content of the chunk, noting where the sound data is when going past SSND
+   * @return the chunk size
+   */
+  private long findChunk(AudioInputStream ais, String name, SoundData soundData) throws AudioFormatException, IOException {
     try {
       while (true) {
-        String ckName = ais.readString(4);
-        int ckSize = ais.read32bitBE();
-        if (name.equals(ckName)) {
-          break;
+        String ckId = ais.readString(4);
+        long ckSize = ais.read32bitBE() & 0xFFFFFFFFL;
+        if (name.equals(ckId)) {
+          return ckSize;
+        } else if ("SSND".equals(ckId)) {
+          soundData.read(ais);
+          ais.skipNBytes(ckSize - SoundData.HEADER_SIZE + (ckSize & 1));
         } else {
-          ais.skipNBytes(ckSize);
+          ais.skipNBytes(ckSize + (ckSize & 1)); // chunks are word aligned
         }
       }
     } catch(EOFException e) {
       throw new AudioFormatException(ais.getName(), ais.location(), AudioFileType.AIFF, "Chunk " + name + " not found", e);
     }
   }
+
+  /**
+   * Where the first sample is: past the SSND offset and block size fields, plus that offset
+   */
+  private static final class SoundData {
+    private static final int HEADER_SIZE = 8;
+
+    private long location = -1;
+
+    private void read(AudioInputStream ais) throws IOException {
+      long offset = ais.read32bitBE() & 0xFFFFFFFFL;
+      ais.skipNBytes(4); // block size
+      location = ais.location() + offset;
+    }
+  }
 }
@@ -18,10 +18,13 @@ import eu.nonstatic.audio.formats.AudioInfoSupplier;
 import java.io.EOFException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import lombok.extern.slf4j.Slf4j;
 
 @Slf4j
 public class ApeInfoSupplier implements AudioInfoSupplier<ApeInfo> {
+  private static final byte[] MAC_ID = "MAC ".getBytes(StandardCharsets.US_ASCII);
+
   /* The earliest and latest file formats supported by this library */
   private static final short  APE_MIN_VERSION = 3800;
   private static final short  APE_MAX_VERSION = 3990;
@@ -35,7 +38,7 @@ public class ApeInfoSupplier implements AudioInfoSupplier<ApeInfo> {
 
   @Override
   public ApeInfo getInfos(InputStream is, String name) throws AudioInfoException, IOException {
-    AudioInputStream ais = new AudioInputStream(is, name);
+    AudioInputStream ais = AudioInputStream.of(is, name);
     try {
       checkHeader(ais);
       short version = ais.read16bitLE(); // 3800, 3990
@@ -121,9 +124,14 @@ public class ApeInfoSupplier implements AudioInfoSupplier<ApeInfo> {
     }
   }
 
+  @Override
+  public int getRangeReadAhead() {
+    return 1024; // descriptor and header, under 100 bytes
+  }
+
   private void checkHeader(AudioInputStream ais) throws AudioFormatException, IOException {
     long location = ais.location();
-    if (!"MAC ".equals(ais.readString(4))) {
+    if (!ais.readMagic(MAC_ID)) {
       throw new AudioFormatException(ais.getName(), location, AudioFileType.WAVE, "No MAC header");
     }
   }
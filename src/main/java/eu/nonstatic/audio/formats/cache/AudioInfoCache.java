@@ -0,0 +1,456 @@
+/**
+ * Audiolib
+ * Copyright (C) 2022 NonStatic
+ *
+ * This file is part of audiolib.
+ * Audiolib is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *  is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License along with . If not, see <https://www.gnu.org/licenses/>.
+ */
+package eu.nonstatic.audio.formats.cache;
+
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+import eu.nonstatic.audio.AudioFileType;
+import eu.nonstatic.audio.AudioIssue;
+import eu.nonstatic.audio.formats.AudioFormatEx;
+import eu.nonstatic.audio.formats.AudioFormatException;
+import eu.nonstatic.audio.formats.AudioInfoException;
+import eu.nonstatic.audio.formats.AudioInfoSupplier;
+import eu.nonstatic.audio.formats.AudioInfos;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+import javax.sound.sampled.AudioFormat.Encoding;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Persistent cache of the common infos of files, so that an unchanged file is a hash lookup instead of a parse.
+ * A file is deemed unchanged when its size, modification time and file key (when the file system has one) are the same as when it was parsed.
+ * Each file has an entry per source of its infos, detection by content or a supplier's class, since they needn't give the same infos.
+ * <p>
+ * The cache file is an append-only log of CRC-checked records, mapped in memory and loaded on open.
+ * A record torn by a crash is dropped along with whatever follows it.
+ * Entries beyond maxEntries are evicted least recently used first, and those not accessed for maxAge are dropped on open.
+ * An entry found more than maxAge / 2 after its recorded access gets a new record, so that it doesn't expire while in use, other hits don't write anything.
+ * Once superseded and evicted records outnumber the live ones, the file is compacted: rewritten aside then atomically moved over the old one,
+ * which is also what happens on close when there are any such records.
+ * <p>
+ * Infos found in the cache are {@link CachedAudioInfo}s named after the absolute path of the file.
+ * Thread safe, parsing happening outside the lock.
+ */
+@Slf4j
+public final class AudioInfoCache implements Closeable {
+
+  private static final int MAGIC = 0x414c4943; // ALIC
+  private static final int VERSION = 3;
+  private static final int HEADER_SIZE = 8;
+  private static final int MAX_RECORD_SIZE = 1 << 20; // way above any sane record, anything bigger is garbage
+  private static final int COMPACTION_SLACK = 1024; // dead records tolerated on top of the live ones
+  private static final String BY_CONTENT = "content"; // source of the infos from AudioInfos.detect
+
+  private final Path file;
+  private final int maxEntries;
+  private final Duration maxAge;
+  private final LinkedHashMap<Id, Entry> entries = new LinkedHashMap<>(16, 0.75f, true); // access ordered for LRU
+  private FileChannel channel;
+  private long records; // in the file, live or dead
+
+  /**
+   * @param source {@link #BY_CONTENT} or the class name of the supplier
+   */
+  private record Id(String path, String source) {}
+
+  private record Key(long size, long modified, String fileKey) {}
+
+  private record Entry(Key key, CachedAudioInfo info, long accessed) {}
+
+  @FunctionalInterface
+  private interface Parser {
+    AudioFormatEx parse(Path file) throws AudioInfoException, IOException;
+  }
+
+  private AudioInfoCache(Path file, int maxEntries, Duration maxAge) {
+    this.file = file;
+    this.maxEntries = maxEntries;
+    this.maxAge = maxAge;
+  }
+
+  /**
+   * Opens or creates the cache file. One that isn't a cache file, or of another version, is started over.
+   */
+  public static AudioInfoCache open(@NonNull Path file, int maxEntries, @NonNull Duration maxAge) throws IOException {
+    if(maxEntries <= 0) {
+      throw new IllegalArgumentException("maxEntries must be > 0: " + maxEntries);
+    }
+    AudioInfoCache cache = new AudioInfoCache(file, maxEntries, maxAge);
+    cache.load();
+    return cache;
+  }
+
+  /**
+   * Infos by content, see {@link AudioInfos#detect(Path)}
+   */
+  public AudioFormatEx get(Path file) throws AudioInfoException, IOException {
+    return getOrParse(file, BY_CONTENT, AudioInfos::detect);
+  }
+
+  /**
+   * Infos by the supplier, cached apart from those of other suppliers' classes and of {@link #get(Path)}
+   */
+  public AudioFormatEx get(Path file, AudioInfoSupplier<?> supplier) throws AudioInfoException, IOException {
+    return getOrParse(file, supplier.getClass().getName(), supplier::getInfos);
+  }
+
+  /**
+   * @return a supplier going through this cache when given a Path or File, streams having nothing to be keyed by
+   */
+  public AudioInfoSupplier<AudioFormatEx> cached(@NonNull AudioInfoSupplier<?> supplier) {
+    return new AudioInfoSupplier<>() {
+      @Override
+      public AudioFormatEx getInfos(Path file) throws AudioInfoException, IOException {
+        return get(file, supplier);
+      }
+
+      @Override
+      public AudioFormatEx getInfos(InputStream is, String name) throws AudioInfoException, IOException {
+        return supplier.getInfos(is, name);
+      }
+    };
+  }
+
+  public synchronized int size() {
+    return entries.size();
+  }
+
+  private AudioFormatEx getOrParse(Path file, String source, Parser parser) throws AudioInfoException, IOException {
+    String path = file.toAbsolutePath().normalize().toString();
+    Id id = new Id(path, source);
+    Key key = keyOf(file);
+    synchronized(this) {
+      Entry entry = entries.get(id); // most recently used from now on
+      if(entry != null && entry.key().equals(key)) {
+        long now = System.currentTimeMillis();
+        if(channel != null && now - entry.accessed() > maxAge.toMillis() / 2) {
+          put(id, new Entry(key, entry.info(), now));
+        }
+        return entry.info();
+      }
+    }
+
+    AudioFormatEx infos = parser.parse(file);
+    put(id, new Entry(key, toCached(path, infos), System.currentTimeMillis()));
+    return infos;
+  }
+
+  private static Key keyOf(Path file) throws IOException {
+    BasicFileAttributes attrs = Files.readAttributes(file, BasicFileAttributes.class);
+    Object fileKey = attrs.fileKey();
+    return new Key(attrs.size(), attrs.lastModifiedTime().to(TimeUnit.MICROSECONDS), fileKey != null ? fileKey.toString() : "");
+  }
+
+  private synchronized void put(Id id, Entry entry) throws IOException {
+    ensureOpen();
+    entries.put(id, entry);
+    append(id, entry);
+    evict();
+    if(records > 2L * entries.size() + COMPACTION_SLACK) {
+      compact();
+    }
+  }
+
+  private void evict() {
+    Iterator<Entry> it = entries.values().iterator();
+    while(entries.size() > maxEntries) {
+      it.next();
+      it.remove();
+    }
+  }
+
+  @Override
+  public synchronized void close() throws IOException {
+    if(channel != null) {
+      try {
+        if(records > entries.size()) { // some were superseded or evicted
+          compact();
+        }
+      } finally {
+        channel.close();
+        channel = null;
+      }
+    }
+  }
+
+  private void ensureOpen() throws IOException {
+    if(channel == null) {
+      throw new IOException("Cache is closed: " + file);
+    }
+  }
+
+  private void load() throws IOException {
+    long valid = 0;
+    long fileSize = Files.exists(file) ? Files.size(file) : 0;
+    if(fileSize > Integer.MAX_VALUE) {
+      log.warn("Cache file is too large, starting over: {}", file);
+    } else if(fileSize > 0) {
+      try(FileChannel ch = FileChannel.open(file, READ)) {
+        valid = readRecords(ch.map(MapMode.READ_ONLY, 0, fileSize), System.currentTimeMillis() - maxAge.toMillis());
+      }
+    }
+
+    channel = FileChannel.open(file, CREATE, READ, WRITE);
+    if(valid == 0) {
+      channel.truncate(0);
+      channel.write(header(), 0);
+      valid = HEADER_SIZE;
+    } else if(valid < fileSize) {
+      log.warn("Dropping {} bytes of torn records at {}: {}", fileSize - valid, valid, file);
+      channel.truncate(valid);
+    }
+    channel.position(valid);
+    evict();
+    if(records > entries.size()) {
+      compact();
+    }
+  }
+
+  /**
+   * @return where the last valid record ends, 0 if the file can't be used at all
+   */
+  private long readRecords(ByteBuffer bb, long cutoff) {
+    if(bb.remaining() < HEADER_SIZE || bb.getInt() != MAGIC || bb.getInt() != VERSION) {
+      log.warn("Not a cache file or not of version {}, starting over: {}", VERSION, file);
+      return 0;
+    }
+
+    CRC32 crc = new CRC32();
+    while(bb.remaining() >= Integer.BYTES) {
+      int start = bb.position();
+      int length = bb.getInt();
+      if(length <= 0 || length > MAX_RECORD_SIZE || bb.remaining() < length + Integer.BYTES) {
+        bb.position(start);
+        break;
+      }
+      ByteBuffer payload = bb.slice(bb.position(), length);
+      crc.reset();
+      crc.update(payload.duplicate());
+      bb.position(bb.position() + length);
+      if((int) crc.getValue() != bb.getInt()) {
+        bb.position(start);
+        break;
+      }
+
+      records++;
+      try {
+        readRecord(payload, cutoff);
+      } catch(RuntimeException e) { // checksum ok but undecodable, eg: an unknown enum constant
+        log.warn("Skipping undecodable record at {}: {}", start, e.toString());
+      }
+    }
+    return bb.position();
+  }
+
+  private void readRecord(ByteBuffer payload, long cutoff) {
+    String path = readString(payload);
+    Id id = new Id(path, readString(payload));
+    Key key = new Key(payload.getLong(), payload.getLong(), readString(payload));
+    long accessedAt = payload.getLong();
+
+    AudioFileType type = AudioFileType.valueOf(readString(payload));
+    Encoding encoding = new Encoding(readString(payload));
+    float sampleRate = payload.getFloat();
+    int sampleSizeInBits = payload.getInt();
+    int channels = payload.getInt();
+    int frameSize = payload.getInt();
+    float frameRate = payload.getFloat();
+    boolean bigEndian = payload.get() != 0;
+    Duration duration = Duration.ofNanos(payload.getLong());
+    long frameCount = payload.getLong();
+
+    int issueCount = payload.getInt();
+    List<AudioIssue> issues = new ArrayList<>(issueCount);
+    for (int i = 0; i < issueCount; i++) {
+      issues.add(readIssue(payload, path, type));
+    }
+
+    if(accessedAt >= cutoff) {
+      entries.put(id, new Entry(key, new CachedAudioInfo(path, type, encoding, sampleRate, sampleSizeInBits, channels, frameSize, frameRate, bigEndian,
+          duration, frameCount, issues), accessedAt));
+    } else {
+      entries.remove(id); // an older record may have been loaded
+    }
+  }
+
+  /**
+   * Issues come back with the same type, location and metas. Their causes only keep their message.
+   */
+  private static AudioIssue readIssue(ByteBuffer payload, String name, AudioFileType fileType) {
+    AudioIssue.Type type = AudioIssue.Type.valueOf(readString(payload));
+    long location = payload.getLong();
+    String message = readString(payload);
+    int metaCount = payload.getInt();
+    Map<String, Serializable> metas = metaCount < 0 ? null : new HashMap<>();
+    for (int i = 0; i < metaCount; i++) {
+      metas.put(readString(payload), readString(payload));
+    }
+
+    return switch(type) {
+      case SYNC -> AudioIssue.sync(location, Long.parseLong((String) metas.get(AudioIssue.META_SKIPPED)));
+      case CHECKSUM -> AudioIssue.checksum(location,
+          Long.parseUnsignedLong((String) metas.get(AudioIssue.META_EXPECTED), 16), Long.parseUnsignedLong((String) metas.get(AudioIssue.META_ACTUAL), 16));
+      case FORMAT -> AudioIssue.format(new AudioFormatException(name, location, fileType, message));
+      case EOF -> AudioIssue.eof(location, new EOFException(message));
+      case OTHER -> metas != null ? AudioIssue.other(location, metas) : AudioIssue.other(location, new IOException(message));
+    };
+  }
+
+  private void append(Id id, Entry entry) throws IOException {
+    ByteBuffer record = record(id, entry);
+    while(record.hasRemaining()) {
+      channel.write(record);
+    }
+    records++;
+  }
+
+  /**
+   * Rewrites the live entries aside, then moves the new file over the old one, so that a crash leaves either of them whole
+   */
+  private void compact() throws IOException {
+    Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+    try(FileChannel out = FileChannel.open(tmp, CREATE, WRITE, TRUNCATE_EXISTING)) {
+      out.write(header());
+      for (Map.Entry<Id, Entry> e : entries.entrySet()) {
+        ByteBuffer record = record(e.getKey(), e.getValue());
+        while(record.hasRemaining()) {
+          out.write(record);
+        }
+      }
+      out.force(true);
+    }
+    channel.close();
+    try {
+      Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    } finally {
+      channel = FileChannel.open(file, READ, WRITE);
+      channel.position(channel.size());
+    }
+    log.debug("Compacted {} records into {}: {}", records, entries.size(), file);
+    records = entries.size();
+  }
+
+  private static ByteBuffer header() {
+    return ByteBuffer.allocate(HEADER_SIZE).putInt(MAGIC).putInt(VERSION).flip();
+  }
+
+  private static ByteBuffer record(Id id, Entry entry) throws IOException {
+    ByteArrayOutputStream baos = new ByteArrayOutputStream(256);
+    DataOutputStream out = new DataOutputStream(baos);
+    out.writeInt(0); // length, set below
+    writeString(out, id.path());
+    writeString(out, id.source());
+    out.writeLong(entry.key().size());
+    out.writeLong(entry.key().modified());
+    writeString(out, entry.key().fileKey());
+    out.writeLong(entry.accessed());
+
+    CachedAudioInfo info = entry.info();
+    writeString(out, info.getType().name());
+    writeString(out, info.getEncoding().toString());
+    out.writeFloat(info.getSampleRate());
+    out.writeInt(info.getSampleSizeInBits());
+    out.writeInt(info.getChannels());
+    out.writeInt(info.getFrameSize());
+    out.writeFloat(info.getFrameRate());
+    out.writeByte(info.isBigEndian() ? 1 : 0);
+    out.writeLong(info.getDuration().toNanos());
+    out.writeLong(info.getLongFrameCount());
+
+    out.writeInt(info.getIssues().size());
+    for (AudioIssue issue : info.getIssues()) {
+      writeString(out, issue.getType().name());
+      out.writeLong(issue.getLocation());
+      writeString(out, issue.getCause() != null ? messageOf(issue.getCause()) : null);
+      Map<String, Serializable> metas = issue.getMetas();
+      out.writeInt(metas != null ? metas.size() : -1);
+      if(metas != null) {
+        for (Map.Entry<String, Serializable> meta : metas.entrySet()) {
+          writeString(out, meta.getKey());
+          writeString(out, String.valueOf(meta.getValue()));
+        }
+      }
+    }
+
+    CRC32 crc = new CRC32();
+    int length = baos.size() - Integer.BYTES;
+    crc.update(baos.toByteArray(), Integer.BYTES, length); // toByteArray copies, but records are small
+    out.writeInt((int) crc.getValue());
+
+    ByteBuffer record = ByteBuffer.wrap(baos.toByteArray());
+    record.putInt(0, length);
+    return record;
+  }
+
+  /**
+   * AudioFormatException messages get the location and name appended, which {@link #readIssue} adds back
+   */
+  private static String messageOf(Throwable cause) {
+    String message = cause.getMessage();
+    if(cause instanceof AudioFormatException afe && message != null) {
+      String suffix = " at " + afe.getLocation() + ": " + afe.getName();
+      if(message.endsWith(suffix)) {
+        message = message.substring(0, message.length() - suffix.length());
+      }
+    }
+    return message;
+  }
+
+  private static CachedAudioInfo toCached(String path, AudioFormatEx infos) {
+    return new CachedAudioInfo(path, infos.getType(), infos.getEncoding(), infos.getSampleRate(), infos.getSampleSizeInBits(), infos.getChannels(),
+        infos.getFrameSize(), infos.getFrameRate(), infos.isBigEndian(), infos.getDuration(), infos.getLongFrameCount(), infos.getIssues());
+  }
+
+  private static void writeString(DataOutputStream out, String s) throws IOException {
+    if(s == null) {
+      out.writeInt(-1);
+    } else {
+      byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+      out.writeInt(bytes.length);
+      out.write(bytes);
+    }
+  }
+
+  private static String readString(ByteBuffer bb) {
+    int length = bb.getInt();
+    if(length < 0) {
+      return null;
+    }
+    byte[] bytes = new byte[length];
+    bb.get(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+}
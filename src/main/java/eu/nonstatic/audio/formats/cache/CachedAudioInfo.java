@@ -0,0 +1,46 @@
+/**
+ * Audiolib
+ * Copyright (C) 2022 NonStatic
+ *
+ * This file is part of audiolib.
+ * Audiolib is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *  is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License along with . If not, see <https://www.gnu.org/licenses/>.
+ */
+package eu.nonstatic.audio.formats.cache;
+
+import eu.nonstatic.audio.AudioFileType;
+import eu.nonstatic.audio.AudioIssue;
+import eu.nonstatic.audio.formats.AudioFormatEx;
+import java.time.Duration;
+import java.util.List;
+import lombok.Getter;
+
+/**
+ * The common infos of a file as an {@link AudioInfoCache} gives them back, whatever its type.
+ * Format specific properties (eg: Vorbis block sizes, MPEG frame index) aren't kept.
+ */
+@Getter
+public class CachedAudioInfo extends AudioFormatEx {
+
+  private final String name;
+  private final AudioFileType type;
+  private final Duration duration;
+  private final long longFrameCount;
+  private final List<AudioIssue> issues;
+
+  public CachedAudioInfo(String name, AudioFileType type, Encoding encoding, float sampleRate, int sampleSizeInBits, int channels, int frameSize, float frameRate, boolean bigEndian,
+      Duration duration, long longFrameCount, List<AudioIssue> issues) {
+    super(encoding, sampleRate, sampleSizeInBits, channels, frameSize, frameRate, bigEndian);
+    this.name = name;
+    this.type = type;
+    this.duration = duration;
+    this.longFrameCount = longFrameCount;
+    this.issues = List.copyOf(issues);
+  }
+
+  @Override
+  public int getFrameCount() {
+    return (int) Math.min(longFrameCount, Integer.MAX_VALUE);
+  }
+}
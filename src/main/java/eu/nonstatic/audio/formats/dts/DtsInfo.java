@@ -22,10 +22,10 @@ public class DtsInfo extends AudioFormatEx {
 
   private final String name;
   private final short waveFormat;
-  private final int audioSize;
+  private final long audioSize;
   private final Duration duration;
 
-  public DtsInfo(String name, short waveFormat, int channels, float sampleRate, int sampleSizeInBits, int audioSize, Duration duration) {
+  public DtsInfo(String name, short waveFormat, int channels, float sampleRate, int sampleSizeInBits, long audioSize, Duration duration) {
     super(ENCODING, sampleRate,
         sampleSizeInBits, channels, sampleSizeInBits/8, sampleRate, false);
     this.name = name;
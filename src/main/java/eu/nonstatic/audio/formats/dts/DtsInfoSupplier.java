@@ -25,7 +25,7 @@ public class DtsInfoSupplier implements AudioInfoSupplier<DtsInfo> {
 
   @Override
   public DtsInfo getInfos(InputStream is, String name) throws AudioInfoException, IOException {
-    AudioInputStream ais = new AudioInputStream(is, name);
+    AudioInputStream ais = AudioInputStream.of(is, name);
 
     ais.mark(4);
     if(WaveInfoSupplier.isRiff(ais)) {
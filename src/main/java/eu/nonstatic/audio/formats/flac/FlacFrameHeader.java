@@ -0,0 +1,157 @@
+/**
+ * Audiolib
+ * Copyright (C) 2022 NonStatic
+ *
+ * This file is part of audiolib.
+ * Audiolib is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *  is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License along with . If not, see <https://www.gnu.org/licenses/>.
+ */
+package eu.nonstatic.audio.formats.flac;
+
+/**
+ * Frame header decoding, reused from one candidate to the next so that a scan doesn't allocate.
+ * <a href="https://xiph.org/flac/format.html#frame_header">...</a>
+ */
+final class FlacFrameHeader {
+
+  static final int MAX_LENGTH = 16; // sync+flags 4, coded number 7, block size 2, sample rate 2, crc 1
+
+  private static final int[] CRC8_TABLE = new int[256];
+
+  static {
+    for (int i = 0; i < 256; i++) {
+      int crc = i;
+      for (int bit = 0; bit < 8; bit++) {
+        crc = (crc & 0x80) != 0 ? (crc << 1) ^ 0x07 : crc << 1;
+      }
+      CRC8_TABLE[i] = crc & 0xff;
+    }
+  }
+
+  boolean variableBlockSize;
+  long number; // frame number when the block size is fixed, first sample number when variable
+  int blockSize;
+
+  /**
+   * Decodes the header at offset, rejecting reserved values and bad CRC-8s
+   * @param end where the available bytes end
+   * @return whether there is a valid header there
+   */
+  boolean decode(byte[] b, int offset, int end) {
+    if(end - offset < 6 || b[offset] != (byte) 0xff || (b[offset + 1] & 0xfe) != 0xf8) { // 14 bits of sync and a 0 reserved bit
+      return false;
+    }
+    boolean variable = (b[offset + 1] & 0x1) != 0;
+    int blockSizeBits = (b[offset + 2] >> 4) & 0xf;
+    int sampleRateBits = b[offset + 2] & 0xf;
+    int channelBits = (b[offset + 3] >> 4) & 0xf;
+    int sampleSizeBits = (b[offset + 3] >> 1) & 0x7;
+    if(blockSizeBits == 0 || sampleRateBits == 0xf || channelBits > 10 || sampleSizeBits == 3 || (b[offset + 3] & 0x1) != 0) {
+      return false;
+    }
+
+    int p = offset + 4;
+    int first = b[p++] & 0xff;
+    int extra;
+    long value;
+    if(first < 0x80) {
+      extra = 0;
+      value = first;
+    } else if((first & 0xe0) == 0xc0) {
+      extra = 1;
+      value = first & 0x1f;
+    } else if((first & 0xf0) == 0xe0) {
+      extra = 2;
+      value = first & 0x0f;
+    } else if((first & 0xf8) == 0xf0) {
+      extra = 3;
+      value = first & 0x07;
+    } else if((first & 0xfc) == 0xf8) {
+      extra = 4;
+      value = first & 0x03;
+    } else if((first & 0xfe) == 0xfc) {
+      extra = 5;
+      value = first & 0x01;
+    } else if(first == 0xfe && variable) { // 36 bit sample numbers only, frame numbers are 31 bits at most
+      extra = 6;
+      value = 0;
+    } else {
+      return false;
+    }
+    if(p + extra > end) {
+      return false;
+    }
+    for (int i = 0; i < extra; i++) {
+      int c = b[p++] & 0xff;
+      if((c & 0xc0) != 0x80) {
+        return false;
+      }
+      value = (value << 6) | (c & 0x3f);
+    }
+
+    int size;
+    if(blockSizeBits == 1) {
+      size = 192;
+    } else if(blockSizeBits <= 5) {
+      size = 576 << (blockSizeBits - 2);
+    } else if(blockSizeBits == 6) {
+      if(p + 1 > end) {
+        return false;
+      }
+      size = (b[p++] & 0xff) + 1;
+    } else if(blockSizeBits == 7) {
+      if(p + 2 > end) {
+        return false;
+      }
+      size = ((b[p] & 0xff) << 8 | (b[p + 1] & 0xff)) + 1;
+      p += 2;
+    } else {
+      size = 256 << (blockSizeBits - 8);
+    }
+
+    if(sampleRateBits == 12) {
+      p++;
+    } else if(sampleRateBits == 13 || sampleRateBits == 14) {
+      p += 2;
+    }
+    if(p + 1 > end || crc8(b, offset, p) != (b[p] & 0xff)) {
+      return false;
+    }
+
+    this.variableBlockSize = variable;
+    this.number = value;
+    this.blockSize = size;
+    return true;
+  }
+
+  /**
+   * @return whether this header is the one right after the other
+   */
+  boolean follows(FlacFrameHeader previous) {
+    return variableBlockSize == previous.variableBlockSize
+        && number == (variableBlockSize ? previous.number + previous.blockSize : previous.number + 1);
+  }
+
+  /**
+   * @param fixedBlockSize the stream's block size, all frames but the last having it when it's fixed
+   * @return the samples up to the end of this frame
+   */
+  long samplesUpToEnd(int fixedBlockSize) {
+    return (variableBlockSize ? number : number * fixedBlockSize) + blockSize;
+  }
+
+  void copy(FlacFrameHeader other) {
+    this.variableBlockSize = other.variableBlockSize;
+    this.number = other.number;
+    this.blockSize = other.blockSize;
+  }
+
+  private static int crc8(byte[] b, int from, int to) {
+    int crc = 0;
+    for (int i = from; i < to; i++) {
+      crc = CRC8_TABLE[(crc ^ b[i]) & 0xff];
+    }
+    return crc;
+  }
+}
@@ -22,13 +22,15 @@ public class FlacInfo extends AudioFormatEx {
 
   private final String name;
   private final int frameCount;
+  private final FlacSeekTable seekTable;
 
   @Builder
-  public FlacInfo(String name, int channels, float sampleRate, int sampleSizeInBits, int frameCount) {
+  public FlacInfo(String name, int channels, float sampleRate, int sampleSizeInBits, int frameCount, FlacSeekTable seekTable) {
     super(ENCODING, sampleRate,
         sampleSizeInBits, channels, -1, -1.f, false);
     this.name = name;
     this.frameCount = frameCount;
+    this.seekTable = seekTable != null ? seekTable : FlacSeekTable.EMPTY;
   }
 
   @Override
@@ -18,18 +18,25 @@ import eu.nonstatic.audio.formats.AudioInfoSupplier;
 import java.io.EOFException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import lombok.extern.slf4j.Slf4j;
 
 @Slf4j
 public class FlacInfoSupplier implements AudioInfoSupplier<FlacInfo> {
 
+  private static final byte[] FLAC_ID = "fLaC".getBytes(StandardCharsets.US_ASCII);
   private static final int STREAMINFO_BLOCK_TYPE = 0;
+  private static final int SEEKTABLE_BLOCK_TYPE = 3;
+  private static final int SEEK_POINT_SIZE = 18;
+  private static final long PLACEHOLDER_SEEK_POINT = 0xFFFFFFFFFFFFFFFFL;
+  private static final int SCAN_BLOCK_SIZE = 64 * 1024;
+  private static final int TAIL_SCAN_SIZE = 64 * 1024;
 
   /**
    * <a href="https://xiph.org/flac/format.html#metadata_block_streaminfo">...</a>
    */
   public FlacInfo getInfos(InputStream is, String name) throws IOException, AudioInfoException {
-    AudioInputStream ais = new AudioInputStream(is, name);
+    AudioInputStream ais = AudioInputStream.of(is, name);
     try {
       checkHeader(ais);
       return readInfos(ais);
@@ -40,35 +47,169 @@ public class FlacInfoSupplier implements AudioInfoSupplier<FlacInfo> {
     }
   }
 
+  @Override
+  public int getRangeReadAhead() {
+    return 4 * 1024; // "fLaC", STREAMINFO and usually SEEKTABLE come first, bigger blocks such as pictures are skipped without being fetched
+  }
+
   private void checkHeader(AudioInputStream ais) throws AudioFormatException, IOException {
     long location = ais.location();
-    if (!"fLaC".equals(ais.readString(4))) {
+    if (!ais.readMagic(FLAC_ID)) {
       throw new AudioFormatException(ais.getName(), location, AudioFileType.FLAC, "No FLAC header");
     }
   }
 
+  /**
+   * Walks all metadata blocks, keeping the SEEKTABLE's points on the way, the first frame coming right after the last block.
+   * When STREAMINFO doesn't know the total samples (streamed or live encodings), the frame headers tell it.
+   */
   private FlacInfo readInfos(AudioInputStream ais) throws AudioFormatException, IOException {
     long location = ais.location();
-    int blockType = ais.readStrict() & 0x7;
-    if (blockType == STREAMINFO_BLOCK_TYPE) {
-      ais.skipNBytes(3); // length
-      ais.skipNBytes(10);
-      long samplingInfo = ais.read64bitBE();
-
-      int samplingRate = (int) (samplingInfo >> 44);
-      int numChannels = (((int) (samplingInfo >> 41)) & 0x7) + 1;
-      int sampleSizeInBits = (((int) (samplingInfo >> 36)) & 0x1F) + 1;
-      long totalSamples = (samplingInfo & 0xFFFFFFFFFL);
-
-      return FlacInfo.builder()
-          .name(ais.getName())
-          .sampleRate(samplingRate)
-          .channels((short)numChannels)
-          .sampleSizeInBits((short)sampleSizeInBits)
-          .frameCount((int)totalSamples)
-          .build();
-    } else {
+    int blockHeader = ais.readStrict();
+    if ((blockHeader & 0x7f) != STREAMINFO_BLOCK_TYPE) {
       throw new AudioFormatException(ais.getName(), location, AudioFileType.FLAC, "STREAMINFO block not found");
     }
+    int length = ais.read24bitBE();
+    ais.skipNBytes(2); // min block size
+    int maxBlockSize = ais.read16bitBE() & 0xffff;
+    ais.skipNBytes(3); // min frame size
+    int maxFrameSize = ais.read24bitBE();
+    long samplingInfo = ais.read64bitBE();
+    ais.skipNBytes(length - 18L); // md5
+
+    int samplingRate = (int) (samplingInfo >> 44);
+    int numChannels = (((int) (samplingInfo >> 41)) & 0x7) + 1;
+    int sampleSizeInBits = (((int) (samplingInfo >> 36)) & 0x1F) + 1;
+    long totalSamples = (samplingInfo & 0xFFFFFFFFFL);
+
+    FlacSeekTable.Builder seekTable = null;
+    try {
+      boolean last = (blockHeader & 0x80) != 0;
+      while (!last) {
+        blockHeader = ais.readStrict();
+        last = (blockHeader & 0x80) != 0;
+        length = ais.read24bitBE();
+        if ((blockHeader & 0x7f) == SEEKTABLE_BLOCK_TYPE && seekTable == null) {
+          seekTable = readSeekTable(ais, samplingRate, length);
+        } else {
+          ais.skipNBytes(length); // pictures and such aren't even read on seekable streams
+        }
+      }
+    } catch (EOFException e) {
+      if (totalSamples == 0) {
+        throw e;
+      }
+      log.warn("Metadata blocks cut short at {}: {}", ais.location(), ais.getName());
+    }
+
+    long firstFrameLocation = ais.location();
+    if (totalSamples == 0) {
+      totalSamples = scanSamples(ais, firstFrameLocation, maxBlockSize, maxFrameSize);
+      log.debug("No total samples in STREAMINFO, {} from the frame headers: {}", totalSamples, ais.getName());
+    }
+
+    return FlacInfo.builder()
+        .name(ais.getName())
+        .sampleRate(samplingRate)
+        .channels((short)numChannels)
+        .sampleSizeInBits((short)sampleSizeInBits)
+        .frameCount((int)totalSamples)
+        .seekTable(seekTable != null ? seekTable.build(firstFrameLocation) : FlacSeekTable.EMPTY)
+        .build();
+  }
+
+  /**
+   * <a href="https://xiph.org/flac/format.html#metadata_block_seektable">...</a>
+   */
+  private static FlacSeekTable.Builder readSeekTable(AudioInputStream ais, int sampleRate, int length) throws IOException {
+    int points = length / SEEK_POINT_SIZE;
+    FlacSeekTable.Builder builder = new FlacSeekTable.Builder(sampleRate, points);
+    for (int i = 0; i < points; i++) {
+      long sample = ais.read64bitBE();
+      long offset = ais.read64bitBE();
+      int frameSamples = ais.read16bitBE() & 0xffff;
+      if (sample != PLACEHOLDER_SEEK_POINT) {
+        builder.add(sample, offset, frameSamples);
+      }
+    }
+    ais.skipNBytes(length - (long) points * SEEK_POINT_SIZE);
+    return builder;
+  }
+
+  /**
+   * On a seekable stream only the tail is scanned, as the last frame is enough, unless there's no frame header in there.
+   * Otherwise all frame headers are scanned till the end.
+   */
+  private static long scanSamples(AudioInputStream ais, long firstFrameLocation, int fixedBlockSize, int maxFrameSize) throws IOException {
+    if (ais.isSeekable()) {
+      long window = Math.max(TAIL_SCAN_SIZE, 2L * maxFrameSize + FlacFrameHeader.MAX_LENGTH); // room for 2 frames to chain
+      long from = Math.max(firstFrameLocation, ais.size() - window);
+      ais.seek(from);
+      FrameScan scan = new FrameScan();
+      scan.scan(ais);
+      if (scan.found() || from == firstFrameLocation) {
+        return scan.samples(fixedBlockSize);
+      }
+      ais.seek(firstFrameLocation);
+    }
+    FrameScan scan = new FrameScan();
+    scan.scan(ais);
+    return scan.samples(fixedBlockSize);
+  }
+
+  /**
+   * Keeps the last valid frame header and the last one following another, which rules out most false syncs in the frames data
+   * since their CRC-8 only rejects 255 out of 256.
+   */
+  private static final class FrameScan {
+    private final FlacFrameHeader current = new FlacFrameHeader();
+    private final FlacFrameHeader lastValid = new FlacFrameHeader();
+    private final FlacFrameHeader lastChained = new FlacFrameHeader();
+    private boolean hasValid;
+    private boolean hasChained;
+
+    private void scan(AudioInputStream ais) throws IOException {
+      byte[] block = new byte[SCAN_BLOCK_SIZE];
+      int kept = 0;
+      while (true) {
+        int read = ais.readNBytes(block, kept, block.length - kept);
+        int end = kept + read;
+        boolean eof = end < block.length;
+        int limit = eof ? end - 1 : end - FlacFrameHeader.MAX_LENGTH; // candidates before limit have all their bytes, or all there is
+        for (int i = 0; i < limit; i++) {
+          if (block[i] == (byte) 0xff && (block[i + 1] & 0xfe) == 0xf8 && current.decode(block, i, end)) {
+            add();
+          }
+        }
+        if (eof) {
+          return;
+        }
+        kept = end - limit;
+        System.arraycopy(block, limit, block, 0, kept);
+      }
+    }
+
+    private void add() {
+      if ((hasValid && current.follows(lastValid)) || (hasChained && current.follows(lastChained))) {
+        lastChained.copy(current);
+        hasChained = true;
+      }
+      lastValid.copy(current);
+      hasValid = true;
+    }
+
+    private boolean found() {
+      return hasValid;
+    }
+
+    private long samples(int fixedBlockSize) {
+      if (hasChained) {
+        return lastChained.samplesUpToEnd(fixedBlockSize);
+      } else if (hasValid) {
+        return lastValid.samplesUpToEnd(fixedBlockSize);
+      } else {
+        return 0;
+      }
+    }
   }
 }
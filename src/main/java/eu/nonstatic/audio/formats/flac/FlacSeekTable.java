@@ -0,0 +1,112 @@
+/**
+ * Audiolib
+ * Copyright (C) 2022 NonStatic
+ *
+ * This file is part of audiolib.
+ * Audiolib is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *  is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License along with . If not, see <https://www.gnu.org/licenses/>.
+ */
+package eu.nonstatic.audio.formats.flac;
+
+import java.io.Serializable;
+import java.time.Duration;
+import java.util.Arrays;
+import lombok.Getter;
+
+/**
+ * The SEEKTABLE block's seek points, placeholders excluded, to seek a time position without scanning frames.
+ * <a href="https://xiph.org/flac/format.html#metadata_block_seektable">...</a>
+ */
+public final class FlacSeekTable implements Serializable {
+
+  private static final long serialVersionUID = 1L;
+
+  static final FlacSeekTable EMPTY = new FlacSeekTable(0, 0, new long[0], new long[0], new int[0]);
+
+  @Getter
+  private final int sampleRate;
+  @Getter
+  private final long firstFrameLocation; // seek point offsets are relative to it
+  private final long[] samples; // first sample of each target frame
+  private final long[] offsets;
+  private final int[] frameSamples;
+
+  private FlacSeekTable(int sampleRate, long firstFrameLocation, long[] samples, long[] offsets, int[] frameSamples) {
+    this.sampleRate = sampleRate;
+    this.firstFrameLocation = firstFrameLocation;
+    this.samples = samples;
+    this.offsets = offsets;
+    this.frameSamples = frameSamples;
+  }
+
+  /**
+   * @return the number of seek points
+   */
+  public int size() {
+    return samples.length;
+  }
+
+  public long sampleAt(int i) {
+    return samples[i];
+  }
+
+  /**
+   * @return the stream location of the target frame of the i-th seek point
+   */
+  public long offsetAt(int i) {
+    return firstFrameLocation + offsets[i];
+  }
+
+  public int frameSamplesAt(int i) {
+    return frameSamples[i];
+  }
+
+  /**
+   * @return the position of the last seek point at or before the sample, -1 if there's none
+   */
+  public int indexOf(long sample) {
+    int i = Arrays.binarySearch(samples, sample);
+    return i >= 0 ? i : -i - 2; // insertion point - 1
+  }
+
+  /**
+   * @return the stream location of the last seek point at or before the sample, the first frame's if there's none
+   */
+  public long offsetOf(long sample) {
+    int i = indexOf(sample);
+    return i >= 0 ? offsetAt(i) : firstFrameLocation;
+  }
+
+  public long offsetOf(Duration time) {
+    return offsetOf(time.getSeconds() * sampleRate + (long) time.getNano() * sampleRate / 1_000_000_000L);
+  }
+
+
+  static final class Builder {
+
+    private final int sampleRate;
+    private int size;
+    private final long[] samples;
+    private final long[] offsets;
+    private final int[] frameSamples;
+
+    Builder(int sampleRate, int capacity) {
+      this.sampleRate = sampleRate;
+      this.samples = new long[capacity];
+      this.offsets = new long[capacity];
+      this.frameSamples = new int[capacity];
+    }
+
+    void add(long sample, long offset, int samplesInFrame) {
+      samples[size] = sample;
+      offsets[size] = offset;
+      frameSamples[size] = samplesInFrame;
+      size++;
+    }
+
+    FlacSeekTable build(long firstFrameLocation) {
+      return new FlacSeekTable(sampleRate, firstFrameLocation, Arrays.copyOf(samples, size), Arrays.copyOf(offsets, size), Arrays.copyOf(frameSamples, size));
+    }
+  }
+}
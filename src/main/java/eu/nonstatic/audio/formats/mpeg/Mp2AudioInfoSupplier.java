@@ -15,4 +15,16 @@ public class Mp2AudioInfoSupplier extends MpegAudioInfoSupplier {
   public Mp2AudioInfoSupplier() {
     super(AudioFileType.MP2);
   }
+
+  public Mp2AudioInfoSupplier(Mode mode) {
+    super(AudioFileType.MP2, mode);
+  }
+
+  public Mp2AudioInfoSupplier(Mode mode, int frameIndexInterval) {
+    super(AudioFileType.MP2, mode, frameIndexInterval);
+  }
+
+  public Mp2AudioInfoSupplier(Mode mode, int frameIndexInterval, long resyncBudget) {
+    super(AudioFileType.MP2, mode, frameIndexInterval, resyncBudget);
+  }
 }
@@ -15,4 +15,16 @@ public class Mp3AudioInfoSupplier extends MpegAudioInfoSupplier {
   public Mp3AudioInfoSupplier() {
     super(AudioFileType.MP3);
   }
+
+  public Mp3AudioInfoSupplier(Mode mode) {
+    super(AudioFileType.MP3, mode);
+  }
+
+  public Mp3AudioInfoSupplier(Mode mode, int frameIndexInterval) {
+    super(AudioFileType.MP3, mode, frameIndexInterval);
+  }
+
+  public Mp3AudioInfoSupplier(Mode mode, int frameIndexInterval, long resyncBudget) {
+    super(AudioFileType.MP3, mode, frameIndexInterval, resyncBudget);
+  }
 }
@@ -14,17 +14,30 @@ import static java.util.Map.entry;
 import eu.nonstatic.audio.AudioFileType;
 import eu.nonstatic.audio.AudioInputStream;
 import eu.nonstatic.audio.AudioIssue;
+import eu.nonstatic.audio.ChannelAudioInputStream;
+import eu.nonstatic.audio.MappedAudioInputStream;
+import eu.nonstatic.audio.SyncScanner;
 import eu.nonstatic.audio.formats.AudioFormatException;
 import eu.nonstatic.audio.formats.AudioInfoException;
 import eu.nonstatic.audio.formats.AudioInfoSupplier;
+import eu.nonstatic.audio.formats.mpeg.MpegInfo.DurationMethod;
 import java.io.EOFException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import lombok.Getter;
 import lombok.NonNull;
 import lombok.extern.slf4j.Slf4j;
@@ -169,14 +182,86 @@ public abstract class MpegAudioInfoSupplier implements AudioInfoSupplier<MpegInf
       MODE_MONO, (short)1
   );
 
-  private static final int LAYER_I_SAMPLES_PER_FRAME = 384;
-  private static final int LAYER_II_OR_III_SAMPLES_PER_FRAME = 1152;
+  // Flat versions of the maps above for the frame walk, 0 meaning invalid
+  private static final int[] BIT_RATES = toTable(MPEG_BIT_RATE_MAP, 0x100); // by bitRateKey(header)
+  private static final int[] SAMPLING_RATES = new int[0x10]; // by samplingRateKey(header)
+  private static final short[] CHANNELS = toTable(MPEG_MODE_CHANNEL_MAP); // by channel mode
+  private static final int[] SAMPLES_PER_FRAME = new int[4]; // by layer
+
+  static {
+    SAMPLES_PER_FRAME[MPEG_LAYER_I] = 384;
+    SAMPLES_PER_FRAME[MPEG_LAYER_II] = 1152;
+    SAMPLES_PER_FRAME[MPEG_LAYER_III] = 1152;
+    MPEG_SAMPLING_RATE_MAP.forEach((version, rates) -> rates.forEach((index, rate) -> SAMPLING_RATES[version << 2 | index] = rate));
+  }
+
+  private static final byte[] ID3V2_TAG = "ID3".getBytes(StandardCharsets.US_ASCII);
+  private static final byte[] XING_TAG = "Xing".getBytes(StandardCharsets.US_ASCII);
+  private static final byte[] INFO_TAG = "Info".getBytes(StandardCharsets.US_ASCII);
+  private static final byte[] VBRI_TAG = "VBRI".getBytes(StandardCharsets.US_ASCII);
+
+  private static final int XING_FRAMES_FLAG = 0x1;
+  private static final int XING_BYTES_FLAG = 0x2;
+  private static final int XING_TOC_FLAG = 0x4;
+  private static final int XING_QUALITY_FLAG = 0x8;
+  private static final int XING_TOC_SIZE = 100;
+  private static final int LAME_TAG_SIZE = 36;
+  private static final int LAME_DELAY_OFFSET = 21; // from the encoder version
+  private static final int VBRI_OFFSET = 32; // after the frame header, whatever the version and mode
+  private static final int VBRI_SIZE = 26; // without the TOC
+  private static final int MAX_FRAME_LENGTH = 8192; // more than any Layer I/II/III frame
+
+  private static final byte[] ID3V1_TAG = "TAG".getBytes(StandardCharsets.US_ASCII);
+  private static final byte[] APE_TAG = "APETAGEX".getBytes(StandardCharsets.US_ASCII);
+  private static final byte[] LYRICS3V2_END = "LYRICS200".getBytes(StandardCharsets.US_ASCII);
+  private static final int ID3V1_SIZE = 128;
+  private static final int APE_FOOTER_SIZE = 32;
+  private static final int LYRICS3V2_FOOTER_SIZE = 15; // 6 digits size + LYRICS200
+
+  private static final int ESTIMATE_FRAMES = 16; // read at the beginning
+  private static final int ESTIMATE_PROBES = 4; // spread through the rest of the file
+  private static final int ESTIMATE_RESYNC_BYTES = 2 * MAX_FRAME_LENGTH; // per probe
+
+  static final long MIN_RANGE_SIZE = 1024 * 1024; // below that, a parallel walk isn't worth the threads
 
 
   private final AudioFileType type;
+  private final Mode mode;
+  private final int frameIndexInterval; // 0: no index
+  private final long resyncBudget; // total bytes skipped before giving up on a file
+  private final SyncScanner.Sync frameSync = new FrameSync();
 
   protected MpegAudioInfoSupplier(AudioFileType type) {
+    this(type, Mode.VBR_HEADER);
+  }
+
+  protected MpegAudioInfoSupplier(AudioFileType type, @NonNull Mode mode) {
+    this(type, mode, 0);
+  }
+
+  /**
+   * @param frameIndexInterval when positive, every frame gets walked through whatever the mode,
+   *                           so as to build a {@link MpegFrameIndex} of every frameIndexInterval-th frame
+   */
+  protected MpegAudioInfoSupplier(AudioFileType type, @NonNull Mode mode, int frameIndexInterval) {
+    this(type, mode, frameIndexInterval, Long.MAX_VALUE);
+  }
+
+  /**
+   * @param resyncBudget how many bytes may be skipped in total while looking for frames after corrupted ones,
+   *                     so that a hopeless file fails fast instead of being scanned till its end
+   */
+  protected MpegAudioInfoSupplier(AudioFileType type, @NonNull Mode mode, int frameIndexInterval, long resyncBudget) {
+    if(frameIndexInterval < 0) {
+      throw new IllegalArgumentException("Frame index interval cannot be negative: " + frameIndexInterval);
+    }
+    if(resyncBudget < 0) {
+      throw new IllegalArgumentException("Resync budget cannot be negative: " + resyncBudget);
+    }
     this.type = type;
+    this.mode = mode;
+    this.frameIndexInterval = frameIndexInterval;
+    this.resyncBudget = resyncBudget;
   }
 
   /**
@@ -189,8 +274,56 @@ public abstract class MpegAudioInfoSupplier implements AudioInfoSupplier<MpegInf
    * We're assuming there is no weird sync/alignment issue
    */
   public MpegInfo getInfos(InputStream is, String name) throws AudioInfoException, IOException {
+    return getInfos(is, name, -1);
+  }
+
+  /**
+   * Large files are mapped when all their frames get walked, see {@link MappedAudioInputStream#open(Path)}
+   */
+  @Override
+  public MpegInfo getInfos(Path file) throws AudioInfoException, IOException {
+    String name = file.toString();
+    try(AudioInputStream ais = openForWalk(file)) {
+      return getInfos(ais, name, null, 1, null, -1);
+    }
+  }
+
+  /**
+   * Same as {@link #getInfos(InputStream, String)}, for a stream whose length is known to the caller.
+   * A VBR header announcing its byte count is only trusted when that can be checked against the length.
+   * @param length of the whole stream, -1 if unknown
+   */
+  public MpegInfo getInfos(InputStream is, String name, long length) throws AudioInfoException, IOException {
+    return getInfos(AudioInputStream.of(is, name), name, null, 1, null, length);
+  }
+
+  /**
+   * Same as {@link #getInfos(Path)}, but when the frames have to be walked, the file is split in byte ranges walked in parallel.
+   * Each range but the first starts at the first confirmed frame sync it contains, and is walked till the next range.
+   * When a range doesn't start where the previous one led, it's walked again from there, so that the result is exactly the sequential one.
+   * This falls back on the sequential walk for small files, when building a frame index, or with a resync budget.
+   * The ranges are walked by a pool shared by all suppliers, whose idle threads don't outlive a minute.
+   * @param parallelism number of ranges, and of threads walking them
+   */
+  public MpegInfo getInfos(Path file, int parallelism) throws AudioInfoException, IOException {
+    return getInfos(file, parallelism, SharedWalkers.EXECUTOR);
+  }
+
+  /**
+   * Same as {@link #getInfos(Path, int)}, the ranges being walked by the caller's executor, which is left running.
+   * Since this waits for the walks, it mustn't itself run on a bounded executor having fewer threads than ranges to spare.
+   */
+  public MpegInfo getInfos(Path file, int parallelism, ExecutorService executor) throws AudioInfoException, IOException {
+    if(parallelism < 1) {
+      throw new IllegalArgumentException("Parallelism must be positive: " + parallelism);
+    }
+    String name = file.toString();
+    try(AudioInputStream ais = openForWalk(file)) {
+      return getInfos(ais, name, file, parallelism, executor, -1);
+    }
+  }
 
-    AudioInputStream ais = new AudioInputStream(is, name);
+  private MpegInfo getInfos(AudioInputStream ais, String name, Path file, int parallelism, ExecutorService executor, long length) throws AudioInfoException, IOException {
     try {
       findData(ais);
       skipID3v2(ais);
@@ -200,13 +333,185 @@ public abstract class MpegAudioInfoSupplier implements AudioInfoSupplier<MpegInf
     // Let it fail as an IOException as long as we haven't reached frames
 
     long framesLocation = ais.location();
-    FrameInfos frameInfos = new FrameInfos();
-    while(!readFramesWithResync(ais, frameInfos));
+    FrameDetails firstFrame = peekFirstFrame(ais);
+    VbrHeader vbrHeader = firstFrame != null ? firstFrame.vbrHeader : null;
+    boolean walk = walksFrames();
+    long size = ais.size() >= 0 ? ais.size() : length;
+    if(vbrHeader != null && !walk && isVbrHeaderUsable(vbrHeader, size >= 0 ? size - ais.location() : -1)) {
+      return getInfos(name, firstFrame);
+    }
+    if(firstFrame != null && !walk && mode == Mode.ESTIMATE && ais.isSeekable()) {
+      MpegInfo estimatedInfo = estimateCbr(ais, name, firstFrame, framesLocation);
+      if(estimatedInfo != null) {
+        return estimatedInfo;
+      }
+      ais.seek(framesLocation);
+    }
+
+    FrameInfos frameInfos;
+    int ranges = (int) Math.min(parallelism, (ais.size() - framesLocation) / MIN_RANGE_SIZE);
+    if(file != null && ranges > 1 && frameIndexInterval == 0 && resyncBudget == Long.MAX_VALUE) {
+      frameInfos = walkInParallel(ais, file, framesLocation, ranges, executor);
+    } else {
+      frameInfos = new FrameInfos(frameIndexInterval);
+      walk(ais, frameInfos, Long.MAX_VALUE);
+    }
 
     if(frameInfos.isEmpty()) {
       throw new AudioInfoException(name, AudioIssue.format(new AudioFormatException(name, framesLocation, type, "Could not find a single frame")));
     }
-    return new MpegInfo(name, type, frameInfos.channelsCounts, frameInfos.sampleCounts, frameInfos.audioIssues);
+    if(vbrHeader != null && mode == Mode.VERIFY) {
+      verify(vbrHeader, frameInfos, framesLocation);
+    }
+    MpegFrameIndex frameIndex = frameInfos.frameIndex != null ? frameInfos.frameIndex.build() : null;
+    return new MpegInfo(name, type, frameInfos.getChannelsCounts(), frameInfos.getSampleCounts(), frameInfos.audioIssues, DurationMethod.FRAME_WALK, vbrHeader, frameIndex);
+  }
+
+  /**
+   * The header frame is counted in, the same way the walk does, so that both give the same duration.
+   */
+  private MpegInfo getInfos(String name, FrameDetails firstFrame) {
+    long frames = firstFrame.vbrHeader.frames() + 1;
+    Map<Integer, Long> sampleCounts = new HashMap<>();
+    sampleCounts.put(firstFrame.sampleRate, frames * firstFrame.sampleCount);
+    Map<Short, Integer> channelsCounts = new HashMap<>();
+    channelsCounts.put(firstFrame.numChannels, (int) frames);
+    return new MpegInfo(name, type, channelsCounts, sampleCounts, new ArrayList<>(), DurationMethod.VBR_HEADER, firstFrame.vbrHeader);
+  }
+
+  /**
+   * A header without frame count is of no use, and one announcing more bytes than there are means a truncated file:
+   * only the walk can tell what's really there. So does one announcing bytes that can't be counted.
+   * @param remaining bytes from the header frame on, -1 if unknown
+   */
+  private static boolean isVbrHeaderUsable(VbrHeader vbrHeader, long remaining) {
+    return vbrHeader.frames() >= 0
+        && (vbrHeader.bytes() < 0 || (remaining >= 0 && remaining >= vbrHeader.bytes()));
+  }
+
+  /**
+   * Reads the first frames, then a couple of them at a few probes spread through the file.
+   * If they all share the same bitrate, the duration is extrapolated from the size of the audio data, tags excluded.
+   * Whatever the file size, this reads at most the tags' footers plus
+   * ESTIMATE_FRAMES + ESTIMATE_PROBES * (2 + ESTIMATE_RESYNC_BYTES / MAX_FRAME_LENGTH) frames.
+   * @return null when the stream doesn't look CBR
+   */
+  private MpegInfo estimateCbr(AudioInputStream ais, String name, FrameDetails firstFrame, long framesLocation) throws IOException {
+    try {
+      long audioEnd = findAudioEnd(ais);
+      long audioSize = audioEnd - framesLocation;
+
+      ais.seek(framesLocation);
+      for (int i = 0; i < ESTIMATE_FRAMES; i++) {
+        FrameDetails details = readFrame(ais);
+        if (details == null || !isSameBitRate(firstFrame, details)) {
+          return null; // a file this short is no big deal to walk
+        }
+      }
+
+      for (int probe = 1; probe <= ESTIMATE_PROBES; probe++) {
+        long probeLocation = framesLocation + audioSize * probe / (ESTIMATE_PROBES + 1);
+        if (probeLocation > ais.location()) {
+          ais.seek(probeLocation);
+        }
+        FrameDetails details = findFrame(ais);
+        if (details == null || !isSameBitRate(firstFrame, details)) {
+          return null;
+        }
+      }
+
+      double bytesPerFrame = firstFrame.sampleCount * firstFrame.bitRate * 125.0 / firstFrame.sampleRate; // 125 = 1000 bits/kbit / 8 bits/byte
+      long frames = Math.round(audioSize / bytesPerFrame);
+      Map<Integer, Long> sampleCounts = new HashMap<>();
+      sampleCounts.put(firstFrame.sampleRate, frames * firstFrame.sampleCount);
+      Map<Short, Integer> channelsCounts = new HashMap<>();
+      channelsCounts.put(firstFrame.numChannels, (int) frames);
+      return new MpegInfo(name, type, channelsCounts, sampleCounts, new ArrayList<>(), DurationMethod.CBR_ESTIMATE, firstFrame.vbrHeader);
+    } catch (MalformedFrameException | EOFException e) {
+      return null;
+    }
+  }
+
+  /**
+   * Syncs on the first frame header followed by another one of the same bitrate, within ESTIMATE_RESYNC_BYTES.
+   * Candidates are found by the {@link SyncScanner}, only the ones it confirms are read as frames.
+   * @return the first of both frames, or null if none was found
+   */
+  private FrameDetails findFrame(AudioInputStream ais) throws IOException {
+    long end = ais.location() + ESTIMATE_RESYNC_BYTES;
+    while (SyncScanner.scan(ais, frameSync, end - ais.location()) >= 0) {
+      long candidate = ais.location();
+      try {
+        FrameDetails details = readFrame(ais);
+        FrameDetails next = details != null ? readFrame(ais) : null;
+        if (next != null && isSameBitRate(details, next)) {
+          return details;
+        }
+      } catch (MalformedFrameException e) {
+        // the next header had the sync, not a sound bitrate
+      }
+      ais.seek(candidate + 1);
+    }
+    return null;
+  }
+
+  private static boolean isSameBitRate(FrameDetails expected, FrameDetails actual) {
+    return expected.bitRate == actual.bitRate
+        && expected.sampleRate == actual.sampleRate
+        && expected.layer == actual.layer
+        && expected.numChannels == actual.numChannels;
+  }
+
+  /**
+   * Locates the end of the audio data, ahead of the ID3v1, APEv2 and Lyrics3v2 tags
+   * <a href="https://wiki.hydrogenaud.io/index.php?title=APEv2_specification">...</a>
+   * <a href="https://id3.org/Lyrics3v2">...</a>
+   */
+  static long findAudioEnd(AudioInputStream ais) throws IOException {
+    long end = ais.size();
+    if (end >= ID3V1_SIZE) {
+      ais.seek(end - ID3V1_SIZE);
+      if (ais.readMagic(ID3V1_TAG)) {
+        end -= ID3V1_SIZE;
+      }
+    }
+
+    boolean found;
+    do { // APE and Lyrics3 tags come in no particular order
+      found = false;
+      if (end >= APE_FOOTER_SIZE) {
+        ais.seek(end - APE_FOOTER_SIZE);
+        if (ais.readMagic(APE_TAG)) {
+          ais.read32bitLE(); // version
+          long tagSize = ais.read32bitLE() & 0xFFFFFFFFL; // items and footer
+          ais.read32bitLE(); // item count
+          int flags = ais.read32bitLE();
+          end -= tagSize + ((flags & 0x80000000) != 0 ? APE_FOOTER_SIZE : 0); // header, same size as the footer
+          found = true;
+        }
+      }
+      if (end >= LYRICS3V2_FOOTER_SIZE) {
+        ais.seek(end - LYRICS3V2_FOOTER_SIZE);
+        String size = ais.readString(6);
+        if (ais.readMagic(LYRICS3V2_END)) {
+          try {
+            end -= Long.parseLong(size) + LYRICS3V2_FOOTER_SIZE;
+            found = true;
+          } catch (NumberFormatException e) {
+            log.warn("Unreadable Lyrics3 size {} in {}", size, ais.getName());
+          }
+        }
+      }
+    } while (found && end > 0);
+    return Math.max(end, 0);
+  }
+
+  private static void verify(VbrHeader vbrHeader, FrameInfos frameInfos, long framesLocation) {
+    long frames = frameInfos.frameCount;
+    if(vbrHeader.frames() >= 0 && vbrHeader.frames() + 1 != frames) {
+      String message = String.format("%s header announces %d frames, found %d", vbrHeader.type(), vbrHeader.frames() + 1, frames);
+      frameInfos.addIssue(AudioIssue.other(framesLocation, Map.of(AudioIssue.META_MESSAGE, message)));
+    }
   }
 
   private void findData(AudioInputStream ais) throws IOException {
@@ -219,8 +524,7 @@ public abstract class MpegAudioInfoSupplier implements AudioInfoSupplier<MpegInf
 
   void skipID3v2(AudioInputStream ais) throws IOException {
     ais.mark(3);
-    String tag2 = ais.readString(3);
-    if ("ID3".equals(tag2)) {
+    if (ais.readMagic(ID3V2_TAG)) {
       ais.readStrict(); // minorVersion
       ais.readStrict(); // revVersion
       int flags = ais.readStrict();
@@ -235,22 +539,144 @@ public abstract class MpegAudioInfoSupplier implements AudioInfoSupplier<MpegInf
     }
   }
 
-  private boolean readFramesWithResync(AudioInputStream ais, FrameInfos frameInfos) throws IOException {
+  /**
+   * Walks the frames, resyncing whenever needed, until a frame or a resync gets to end
+   * @return true when the walk is over for good (EOF, trailing tags or spent budget), false when it merely got to end
+   */
+  private boolean walk(AudioInputStream ais, FrameInfos frameInfos, long end) throws IOException {
+    while (ais.location() < end) {
+      if (readFramesWithResync(ais, frameInfos, end)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private FrameInfos walkInParallel(AudioInputStream ais, Path file, long framesLocation, int ranges, ExecutorService executor) throws IOException {
+    long[] bounds = new long[ranges + 1];
+    for (int i = 0; i < ranges; i++) {
+      bounds[i] = framesLocation + (ais.size() - framesLocation) * i / ranges;
+    }
+    bounds[ranges] = Long.MAX_VALUE; // the last one goes on till the walk is over
+
+    List<Future<RangeWalk>> rangeWalks = new ArrayList<>(ranges);
+    try {
+      for (int i = 0; i < ranges; i++) {
+        long start = bounds[i];
+        long end = bounds[i + 1];
+        boolean first = i == 0;
+        rangeWalks.add(executor.submit(() -> walkRange(file, ais.getName(), start, end, first)));
+      }
+
+      FrameInfos frameInfos = new FrameInfos(0);
+      long location = framesLocation;
+      for (int i = 0; i < ranges; i++) {
+        RangeWalk rangeWalk = get(rangeWalks.get(i));
+        if (rangeWalk.start() != location) { // a false sync, or a range all resynced over: the sequential walk would go from location
+          log.debug("Range {} starts at {} instead of {}, walking it again", i, rangeWalk.start(), location);
+          ais.seek(location);
+          FrameInfos rangeInfos = new FrameInfos(0);
+          boolean over = walk(ais, rangeInfos, bounds[i + 1]);
+          rangeWalk = new RangeWalk(location, ais.location(), over, rangeInfos);
+        }
+        frameInfos.merge(rangeWalk.frameInfos());
+        if (rangeWalk.over()) {
+          break;
+        }
+        location = rangeWalk.next();
+      }
+      return frameInfos;
+    } finally {
+      rangeWalks.forEach(rangeWalk -> rangeWalk.cancel(true)); // no-op for those done, the others are of no use anymore
+    }
+  }
+
+  /**
+   * Lazily created, daemon threads: walking ranges must not keep the JVM alive
+   */
+  private static final class SharedWalkers {
+    private static final ExecutorService EXECUTOR = new ThreadPoolExecutor(0, Integer.MAX_VALUE, 1, TimeUnit.MINUTES, new SynchronousQueue<>(), runnable -> {
+      Thread thread = new Thread(runnable, "mpeg-range-walker");
+      thread.setDaemon(true);
+      return thread;
+    });
+  }
+
+  private boolean walksFrames() {
+    return mode == Mode.VERIFY || frameIndexInterval > 0;
+  }
+
+  private AudioInputStream openForWalk(Path file) throws IOException {
+    return walksFrames() ? MappedAudioInputStream.open(file) : ChannelAudioInputStream.open(file);
+  }
+
+  private RangeWalk walkRange(Path file, String name, long start, long end, boolean first) throws IOException {
+    try (AudioInputStream ais = MappedAudioInputStream.open(file)) {
+      ais.seek(start);
+      if (!first) {
+        try {
+          if (SyncScanner.scan(ais, frameSync, end - start - 1) < 0) {
+            return RangeWalk.NONE;
+          }
+        } catch (EOFException e) {
+          return RangeWalk.NONE;
+        }
+      }
+      long from = ais.location();
+      FrameInfos frameInfos = new FrameInfos(0);
+      boolean over = walk(ais, frameInfos, end);
+      log.debug("Range {}-{} of {} walked from {} to {}", start, end, name, from, ais.location());
+      return new RangeWalk(from, ais.location(), over, frameInfos);
+    }
+  }
+
+  private static RangeWalk get(Future<RangeWalk> future) throws IOException {
+    try {
+      return future.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while walking frames");
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof IOException ioe) {
+        throw ioe;
+      } else if (e.getCause() instanceof RuntimeException re) {
+        throw re;
+      } else {
+        throw new IllegalStateException(e.getCause());
+      }
+    }
+  }
+
+  /**
+   * @param start where the walk started, -1 if no frame sync was found in the range
+   * @param next where the walk got to, at or after the range end unless over
+   */
+  private record RangeWalk(long start, long next, boolean over, FrameInfos frameInfos) {
+    static final RangeWalk NONE = new RangeWalk(-1, -1, false, null);
+  }
+
+  private boolean readFramesWithResync(AudioInputStream ais, FrameInfos frameInfos, long end) throws IOException {
     boolean stop = false;
 
     try {
-      readFrames(ais, frameInfos); // reads till a frame is malformed, or EOF
+      if (readFrames(ais, frameInfos, end)) { // reads till a frame is malformed, or EOF, or end is reached
+        return false;
+      }
 
       if (isEndOfFileAhead(ais)) {
         stop = true;
       } else {
         long locationBeforeResync = ais.location();
-        int skipped = resync(ais);
+        long skipped = SyncScanner.scan(ais, frameSync, resyncBudget - frameInfos.resynced);
         if(skipped >= 0) {
+          frameInfos.resynced += skipped;
           frameInfos.addIssue(AudioIssue.sync(locationBeforeResync, skipped));
           log.info("Resync after skipping {} bytes", skipped);
         } else {
           stop = true;
+          String message = String.format("No sync found within the %d bytes resync budget", resyncBudget);
+          frameInfos.addIssue(AudioIssue.other(locationBeforeResync, Map.of(AudioIssue.META_MESSAGE, message)));
+          log.warn("{}: {}", message, ais.getName());
         }
       }
     } catch(EOFException e) {
@@ -263,16 +689,171 @@ public abstract class MpegAudioInfoSupplier implements AudioInfoSupplier<MpegInf
     return stop;
   }
 
-  private void readFrames(AudioInputStream ais, FrameInfos frameInfos) throws IOException {
+  /**
+   * @return true if it stopped right after a frame reaching end, false if what comes next has to be resynced over
+   */
+  private boolean readFrames(AudioInputStream ais, FrameInfos frameInfos, long end) throws IOException {
     try {
-      FrameDetails frameDetails;
-      while ((frameDetails = readFrame(ais)) != null) {
-        frameInfos.appendFrame(frameDetails);
+      while (walkFrame(ais, frameInfos)) {
+        if (ais.location() >= end) {
+          return true;
+        }
       }
     } catch(MalformedFrameException e) {
       log.warn("Frame is malformed at {}, will seek till next one", e.getLocation());
       frameInfos.addIssue(AudioIssue.format(e));
     }
+    return false;
+  }
+
+  /**
+   * Looks for a Xing/Info or VBRI header in the first frame, then goes back to where it was
+   * @return the first frame's details, or null if there's no valid frame to begin with
+   */
+  FrameDetails peekFirstFrame(AudioInputStream ais) throws IOException {
+    ais.mark(MAX_FRAME_LENGTH);
+    try {
+      long headerLocation = ais.location();
+      int header = readHeader(ais);
+      if (!isMpegFrame(header)) {
+        return null;
+      }
+      FrameDetails details = decodeHeader(ais, header, headerLocation);
+      if (details.layer == MPEG_LAYER_III) {
+        ByteBuffer frame = ByteBuffer.wrap(ais.readNBytes(details.frameLength - 4)); // may be short on EOF, parsing checks
+        details.vbrHeader = readVbrHeader(frame, details, header);
+      }
+      return details;
+    } catch(MalformedFrameException | EOFException e) {
+      return null;
+    } finally {
+      ais.reset();
+    }
+  }
+
+  /**
+   * @param frame the frame's content after its header
+   */
+  private static VbrHeader readVbrHeader(ByteBuffer frame, FrameDetails details, int header) {
+    int sideInfoLength;
+    if (details.version == MPEG_VERSION_1) {
+      sideInfoLength = details.numChannels == 1 ? 17 : 32;
+    } else {
+      sideInfoLength = details.numChannels == 1 ? 9 : 17;
+    }
+    boolean crc = ((header >> 16) & 0x1) == 0;
+    VbrHeader vbrHeader = readXingHeader(frame, sideInfoLength + (crc ? 2 : 0));
+    return vbrHeader != null ? vbrHeader : readVbriHeader(frame);
+  }
+
+  /**
+   * <a href="http://gabriel.mp3-tech.org/mp3infotag.html">...</a>
+   */
+  private static VbrHeader readXingHeader(ByteBuffer frame, int offset) {
+    VbrHeader.Type vbrType;
+    if (matches(frame, offset, XING_TAG)) {
+      vbrType = VbrHeader.Type.XING;
+    } else if (matches(frame, offset, INFO_TAG)) {
+      vbrType = VbrHeader.Type.INFO;
+    } else {
+      return null;
+    }
+
+    int pos = offset + XING_TAG.length;
+    if (frame.limit() < pos + 4) {
+      return null;
+    }
+    int flags = frame.getInt(pos);
+    pos += 4;
+    int fieldsLength = ((flags & XING_FRAMES_FLAG) != 0 ? 4 : 0)
+        + ((flags & XING_BYTES_FLAG) != 0 ? 4 : 0)
+        + ((flags & XING_TOC_FLAG) != 0 ? XING_TOC_SIZE : 0)
+        + ((flags & XING_QUALITY_FLAG) != 0 ? 4 : 0);
+    if (frame.limit() < pos + fieldsLength) {
+      return null;
+    }
+
+    long frames = -1;
+    long bytes = -1;
+    int[] toc = null;
+    if ((flags & XING_FRAMES_FLAG) != 0) {
+      frames = frame.getInt(pos) & 0xFFFFFFFFL;
+      pos += 4;
+    }
+    if ((flags & XING_BYTES_FLAG) != 0) {
+      bytes = frame.getInt(pos) & 0xFFFFFFFFL;
+      pos += 4;
+    }
+    if ((flags & XING_TOC_FLAG) != 0) {
+      toc = new int[XING_TOC_SIZE];
+      for (int i = 0; i < XING_TOC_SIZE; i++) {
+        toc[i] = frame.get(pos + i) & 0xFF;
+      }
+      pos += XING_TOC_SIZE;
+    }
+    if ((flags & XING_QUALITY_FLAG) != 0) {
+      pos += 4;
+    }
+
+    // LAME extension, also written by libavcodec
+    String encoder = null;
+    int delay = -1;
+    int padding = -1;
+    if (frame.limit() >= pos + LAME_TAG_SIZE) {
+      String version = new String(frame.array(), pos, 9, StandardCharsets.US_ASCII).trim();
+      if (version.startsWith("LAME") || version.startsWith("Lav") || version.startsWith("L3.99")) {
+        encoder = version;
+        int delays = (frame.get(pos + LAME_DELAY_OFFSET) & 0xFF) << 16
+            | (frame.get(pos + LAME_DELAY_OFFSET + 1) & 0xFF) << 8
+            | (frame.get(pos + LAME_DELAY_OFFSET + 2) & 0xFF);
+        delay = delays >> 12;
+        padding = delays & 0xFFF;
+      }
+    }
+    return new VbrHeader(vbrType, frames, bytes, toc, 0, encoder, delay, padding);
+  }
+
+  /**
+   * <a href="https://www.codeproject.com/Articles/8295/MPEG-Audio-Frame-Header#VBRIHeader">...</a>
+   */
+  private static VbrHeader readVbriHeader(ByteBuffer frame) {
+    if (!matches(frame, VBRI_OFFSET, VBRI_TAG) || frame.limit() < VBRI_OFFSET + VBRI_SIZE) {
+      return null;
+    }
+    long bytes = frame.getInt(VBRI_OFFSET + 10) & 0xFFFFFFFFL;
+    long frames = frame.getInt(VBRI_OFFSET + 14) & 0xFFFFFFFFL;
+    int entries = frame.getShort(VBRI_OFFSET + 18) & 0xFFFF;
+    int scale = frame.getShort(VBRI_OFFSET + 20) & 0xFFFF;
+    int entrySize = frame.getShort(VBRI_OFFSET + 22) & 0xFFFF;
+    int framesPerEntry = frame.getShort(VBRI_OFFSET + 24) & 0xFFFF;
+
+    int[] toc = null;
+    int tocOffset = VBRI_OFFSET + VBRI_SIZE;
+    if (entries > 0 && entrySize >= 1 && entrySize <= 4 && framesPerEntry > 0 && frame.limit() >= tocOffset + entries * entrySize) {
+      toc = new int[entries];
+      long offset = 0;
+      for (int i = 0; i < entries; i++) {
+        long entry = 0;
+        for (int b = 0; b < entrySize; b++) {
+          entry = (entry << 8) | (frame.get(tocOffset + i * entrySize + b) & 0xFF);
+        }
+        offset += entry * scale;
+        toc[i] = (int) offset; // cumulated, so that it is the end offset of each entry
+      }
+    }
+    return new VbrHeader(VbrHeader.Type.VBRI, frames, bytes, toc, framesPerEntry, null, -1, -1);
+  }
+
+  private static boolean matches(ByteBuffer frame, int offset, byte[] tag) {
+    if (frame.limit() < offset + tag.length) {
+      return false;
+    }
+    for (int i = 0; i < tag.length; i++) {
+      if (frame.get(offset + i) != tag[i]) {
+        return false;
+      }
+    }
+    return true;
   }
 
   /**
@@ -296,61 +877,166 @@ public abstract class MpegAudioInfoSupplier implements AudioInfoSupplier<MpegInf
       return null;
     }
 
+    FrameDetails details = decodeHeader(ais, header, headerLocation);
+    details.location = headerLocation;
+
+    //No, we're not going to retry and get as much data as possible in case of an EOF
+    ais.skipNBytes((long)details.frameLength - 4); // 4 is the header we've already read
+    return details;
+  }
+
+  /**
+   * Same as readFrame, but accumulating straight into the counters: no allocation at all
+   * @return false if what's read looks like no frame
+   */
+  boolean walkFrame(AudioInputStream ais, FrameInfos frameInfos) throws MalformedFrameException, IOException {
+    ais.mark(4);
+
+    long headerLocation = ais.location();
+    int header;
+    try {
+      header = readHeader(ais);
+      if (!isMpegFrame(header)) {
+        ais.reset();
+        return false;
+      }
+    } catch(EOFException e) { // Means we reached the EOF just after the end of the previous frame. Our job is done.
+      return false;
+    }
+
+    int bitRate = bitRate(ais, header, headerLocation);
+    int samplingRateKey = samplingRateKey(ais, header, headerLocation);
+    int layer = (header >> 17) & 0x3;
+    int sampleCount = samplesPerFrame(ais, layer, headerLocation);
+    int frameLength = frameLength(layer, bitRate, SAMPLING_RATES[samplingRateKey], (header >> 9) & 0x1);
+
+    ais.skipNBytes((long)frameLength - 4); // 4 is the header we've already read
+    frameInfos.appendFrame(headerLocation, samplingRateKey, CHANNELS[(header >> 6) & 0x3], sampleCount);
+    return true;
+  }
+
+  private FrameDetails decodeHeader(AudioInputStream ais, int header, long headerLocation) throws MalformedFrameException {
     FrameDetails details = new FrameDetails();
 
     details.version = (header >> 19) & 0x3; // 00: MPEG Version 2.5, 01: reserved, 10: MPEG Version 2 (ISO/IEC 13818-3), 11: MPEG Version 1 (ISO/IEC 11172-3)
     details.layer = (header >> 17) & 0x3; // 00: reserved, 01: Layer III, 10: Layer II, 11: Layer I
     // ((header >> 16) & 0x1) == 0; // protection
-    int samplingIndex = ((header >> 10) & 0x3);
     int padding = ((header >> 9) & 0x1);
-    int channelIndex = ((header >> 6) & 0x3); // 00: Stereo, 01: Joint stereo (Stereo), 10: Dual channel (Stereo), 11: Single channel (Mono)
-    details.numChannels = Optional.ofNullable(MPEG_MODE_CHANNEL_MAP.get(channelIndex))
-        .orElseThrow(() -> new MalformedFrameException(ais.getName(), headerLocation, "Cannot compute channel number"));
+    details.numChannels = CHANNELS[(header >> 6) & 0x3]; // 00: Stereo, 01: Joint stereo (Stereo), 10: Dual channel (Stereo), 11: Single channel (Mono)
+    details.bitRate = bitRate(ais, header, headerLocation);
+    details.sampleRate = SAMPLING_RATES[samplingRateKey(ais, header, headerLocation)];
+    details.sampleCount = samplesPerFrame(ais, details.layer, headerLocation);
+    details.frameLength = frameLength(details.layer, details.bitRate, details.sampleRate, padding);
+    return details;
+  }
+
+  /**
+   * bitrate index (bits 12-15), version 1 or 2/2.5 (bit 19) and layer (bits 17-18)
+   */
+  private static int bitRateKey(int header) {
+    return ((header >> 16) & 0x0E) | ((header >> 8) & 0xF0);
+  }
+
+  /**
+   * version (bits 19-20) and sampling rate index (bits 10-11)
+   */
+  private static int samplingRateKey(int header) {
+    return ((header >> 17) & 0x0C) | ((header >> 10) & 0x3);
+  }
 
-    int bitRateKey = ((header >> 16) & 0x0E) | ((header >> 8) & 0xF0);
-    Integer bitRate = MPEG_BIT_RATE_MAP.get(bitRateKey);
-    if (bitRate == null) { // free
+  private int bitRate(AudioInputStream ais, int header, long headerLocation) throws MalformedFrameException {
+    int bitRate = BIT_RATES[bitRateKey(header)];
+    if (bitRate == 0) { // free
       int bitRateIndex = ((header >> 12) & 0xF);
       throw new MalformedFrameException(ais.getName(), headerLocation, "Cannot handle bitrate for index " + Integer.toHexString(bitRateIndex));
     }
-    details.bitRate = bitRate;
+    return bitRate;
+  }
 
-    int sampleRate = Optional.ofNullable(MPEG_SAMPLING_RATE_MAP.get(details.version))
-        .map(map -> map.get(samplingIndex))
-        .orElseThrow(() -> new MalformedFrameException(ais.getName(), headerLocation, "Cannot compute sampling rate"));
-    details.sampleRate = sampleRate;
+  private int samplingRateKey(AudioInputStream ais, int header, long headerLocation) throws MalformedFrameException {
+    int samplingRateKey = samplingRateKey(header);
+    if (SAMPLING_RATES[samplingRateKey] == 0) {
+      throw new MalformedFrameException(ais.getName(), headerLocation, "Cannot compute sampling rate");
+    }
+    return samplingRateKey;
+  }
 
-    switch (details.layer) {
-      case MPEG_LAYER_I:
-        details.frameLength = ((12 * bitRate * 1000) / sampleRate + padding) * 4;
-        details.sampleCount = LAYER_I_SAMPLES_PER_FRAME;
-        break;
-      case MPEG_LAYER_II, MPEG_LAYER_III:
-        details.frameLength = (144 * bitRate * 1000) / sampleRate + padding;
-        details.sampleCount = LAYER_II_OR_III_SAMPLES_PER_FRAME;
-        break;
-      default:
-        throw new MalformedFrameException(ais.getName(), headerLocation, "Layer 0x00");
+  private int samplesPerFrame(AudioInputStream ais, int layer, long headerLocation) throws MalformedFrameException {
+    int sampleCount = SAMPLES_PER_FRAME[layer];
+    if (sampleCount == 0) {
+      throw new MalformedFrameException(ais.getName(), headerLocation, "Layer 0x00");
     }
+    return sampleCount;
+  }
 
-    //No, we're not going to retry and get as much data as possible in case of an EOF
-    ais.skipNBytes((long)details.frameLength - 4); // 4 is the header we've already read
-    return details;
+  private static int frameLength(int layer, int bitRate, int sampleRate, int padding) {
+    if (layer == MPEG_LAYER_I) {
+      return ((12 * bitRate * 1000) / sampleRate + padding) * 4;
+    } else {
+      return (144 * bitRate * 1000) / sampleRate + padding;
+    }
+  }
+
+  private static int[] toTable(Map<Integer, Integer> map, int size) {
+    int[] table = new int[size];
+    map.forEach((key, value) -> table[key] = value);
+    return table;
+  }
+
+  private static short[] toTable(Map<Integer, Short> map) {
+    short[] table = new short[map.size()];
+    map.forEach((key, value) -> table[key] = value);
+    return table;
   }
 
   private static int readHeader(AudioInputStream ais) throws IOException {
     return ais.read32bitBE();
   }
 
-  private int resync(AudioInputStream ais) throws IOException {
-    for(int skipped = 0; ; skipped++) {
-      ais.mark(4);
-      int header = readHeader(ais);
-      ais.reset();
-      if (isMpegFrame(header)) {
-        return skipped;
-      } else {
-        ais.skipNBytes(1);
+  /**
+   * A frame sync is confirmed by a next frame of the same version, layer and sampling rate, by a trailing tag, or by EOF
+   */
+  private final class FrameSync implements SyncScanner.Sync {
+
+    @Override
+    public byte lead() {
+      return (byte) 0xFF;
+    }
+
+    @Override
+    public int length() {
+      return 4; // whole header
+    }
+
+    @Override
+    public boolean matches(byte[] block, int offset) {
+      return (block[offset + 1] & 0xE0) == 0xE0;
+    }
+
+    @Override
+    public boolean confirm(AudioInputStream ais) throws IOException {
+      ais.mark(MAX_FRAME_LENGTH + 4);
+      try {
+        FrameDetails details = readFrame(ais);
+        if (details == null) {
+          return false;
+        }
+        int next = readHeader(ais);
+        if (isMpegFrame(next)) {
+          return details.version == ((next >> 19) & 0x3)
+              && details.layer == ((next >> 17) & 0x3)
+              && details.sampleRate == SAMPLING_RATES[samplingRateKey(next)];
+        } else {
+          return (next >>> 8) == 0x544147 // TAG
+              || next == 0x41504554 // APET(AGEX)
+              || next == 0x4C595249; // LYRI(CSBEGIN)
+        }
+      } catch (MalformedFrameException e) {
+        return false;
+      } catch (EOFException e) { // last frame, complete or not, the walk will tell
+        return true;
+      } finally {
+        ais.reset();
       }
     }
   }
@@ -364,7 +1050,7 @@ public abstract class MpegAudioInfoSupplier implements AudioInfoSupplier<MpegInf
   }
 
   private static boolean isEndOfFileAhead(AudioInputStream ais) throws IOException {
-    if (ais.available() >= 8) {
+    if (ais.remaining() >= 8) {
       String tag = ais.readString(8);
       return tag.startsWith("TAG") // ID3v1 tag
           || tag.startsWith("LYRICSBE") // seems to be a LYRIGSBEGIN sequence with 3-char tags followed by 5-char sizes (in ascii!) and finishing in LYRICS200
@@ -399,21 +1085,72 @@ public abstract class MpegAudioInfoSupplier implements AudioInfoSupplier<MpegInf
     int sampleRate;
     int sampleCount;
     int frameLength;
+    VbrHeader vbrHeader; // only looked for in the first frame
+    long location;
   }
 
+  /**
+   * Primitive counters, turned into maps only once the walk is over
+   */
   static class FrameInfos {
 
-    final Map<Integer, Long> sampleCounts = new HashMap<>();
-    final Map<Short, Integer> channelsCounts = new HashMap<>();
+    final long[] sampleCounts = new long[SAMPLING_RATES.length]; // by samplingRateKey
+    final int[] channelsCounts = new int[3]; // by number of channels
+    long frameCount;
+    long resynced; // bytes skipped
     final List<AudioIssue> audioIssues = new ArrayList<>();
+    final MpegFrameIndex.Builder frameIndex;
 
-    void appendFrame(FrameDetails details) {
-      sampleCounts.compute(details.sampleRate, (sampleRate, sampleCount) -> (sampleCount == null ? 0 : sampleCount) + details.sampleCount);
-      channelsCounts.compute(details.numChannels, (numChannels, channelsCount) -> (channelsCount == null ? 1 : channelsCount+1));
+    FrameInfos(int frameIndexInterval) {
+      this.frameIndex = frameIndexInterval > 0 ? new MpegFrameIndex.Builder(frameIndexInterval) : null;
+    }
+
+    void appendFrame(long location, int samplingRateKey, short numChannels, int sampleCount) {
+      sampleCounts[samplingRateKey] += sampleCount;
+      channelsCounts[numChannels]++;
+      frameCount++;
+      if(frameIndex != null) {
+        frameIndex.add(location, sampleCount, SAMPLING_RATES[samplingRateKey]);
+      }
+    }
+
+    Map<Integer, Long> getSampleCounts() {
+      Map<Integer, Long> map = new HashMap<>();
+      for (int key = 0; key < sampleCounts.length; key++) {
+        if (sampleCounts[key] != 0) {
+          map.merge(SAMPLING_RATES[key], sampleCounts[key], Long::sum);
+        }
+      }
+      return map;
+    }
+
+    Map<Short, Integer> getChannelsCounts() {
+      Map<Short, Integer> map = new HashMap<>();
+      for (short numChannels = 0; numChannels < channelsCounts.length; numChannels++) {
+        if (channelsCounts[numChannels] != 0) {
+          map.put(numChannels, channelsCounts[numChannels]);
+        }
+      }
+      return map;
     }
 
     boolean isEmpty() {
-      return sampleCounts.isEmpty();
+      return frameCount == 0;
+    }
+
+    /**
+     * Appends what comes next in the stream
+     */
+    void merge(FrameInfos next) {
+      for (int key = 0; key < sampleCounts.length; key++) {
+        sampleCounts[key] += next.sampleCounts[key];
+      }
+      for (int numChannels = 0; numChannels < channelsCounts.length; numChannels++) {
+        channelsCounts[numChannels] += next.channelsCounts[numChannels];
+      }
+      frameCount += next.frameCount;
+      resynced += next.resynced;
+      audioIssues.addAll(next.audioIssues);
     }
 
     void addIssue(@NonNull AudioIssue issue) {
@@ -426,4 +1163,10 @@ public abstract class MpegAudioInfoSupplier implements AudioInfoSupplier<MpegInf
       super(name, location, type, message);
     }
   }
+
+  public enum Mode {
+    VBR_HEADER, // trust the Xing/Info or VBRI header when there's one, else walk through every frame
+    VERIFY,     // always walk through every frame, reporting any disagreement with the header as an issue
+    ESTIMATE    // same as VBR_HEADER, but without a header, seekable CBR streams get their duration extrapolated from a few frames
+  }
 }
@@ -0,0 +1,138 @@
+/**
+ * Audiolib
+ * Copyright (C) 2022 NonStatic
+ *
+ * This file is part of audiolib.
+ * Audiolib is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *  is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License along with . If not, see <https://www.gnu.org/licenses/>.
+ */
+package eu.nonstatic.audio.formats.mpeg;
+
+import java.io.Serializable;
+import java.time.Duration;
+import java.util.Arrays;
+import lombok.Getter;
+
+/**
+ * Frame locations gathered while walking through an MPEG stream, to seek a time position without scanning again.
+ * Only every interval-th frame is kept, so that multi-hour files remain small: a lookup lands at most interval-1 frames
+ * before the wanted sample.
+ * Samples are counted at the sampling rate of the first frame, streams changing it midway will get approximate lookups.
+ */
+public final class MpegFrameIndex implements Serializable {
+
+  private static final long serialVersionUID = 1L;
+
+  @Getter
+  private final int sampleRate;
+  @Getter
+  private final int interval;
+  @Getter
+  private final long frameCount;
+  @Getter
+  private final long sampleCount;
+  private final long[] offsets; // stream location of each indexed frame
+  private final long[] samples; // samples before each indexed frame
+
+  private MpegFrameIndex(int sampleRate, int interval, long frameCount, long sampleCount, long[] offsets, long[] samples) {
+    this.sampleRate = sampleRate;
+    this.interval = interval;
+    this.frameCount = frameCount;
+    this.sampleCount = sampleCount;
+    this.offsets = offsets;
+    this.samples = samples;
+  }
+
+  /**
+   * @return the number of indexed frames
+   */
+  public int size() {
+    return offsets.length;
+  }
+
+  public long offsetAt(int i) {
+    return offsets[i];
+  }
+
+  public long sampleAt(int i) {
+    return samples[i];
+  }
+
+  /**
+   * @return the position of the last indexed frame starting at or before the sample, -1 if the index is empty
+   */
+  public int indexOf(long sample) {
+    if (offsets.length == 0) {
+      return -1;
+    }
+    int i = Arrays.binarySearch(samples, sample);
+    if (i < 0) {
+      i = -i - 2; // insertion point - 1
+    } else {
+      while (i > 0 && samples[i - 1] == sample) { // empty frames share the same sample count
+        i--;
+      }
+    }
+    return Math.max(i, 0);
+  }
+
+  /**
+   * @return the stream location of the last indexed frame starting at or before the sample, -1 if the index is empty
+   */
+  public long offsetOf(long sample) {
+    int i = indexOf(sample);
+    return i >= 0 ? offsets[i] : -1;
+  }
+
+  /**
+   * @return the stream location of the last indexed frame starting at or before the time position, -1 if the index is empty
+   */
+  public long offsetOf(Duration time) {
+    return offsetOf(toSamples(time));
+  }
+
+  long toSamples(Duration time) {
+    return time.getSeconds() * sampleRate + (long) time.getNano() * sampleRate / 1_000_000_000L;
+  }
+
+
+  static final class Builder {
+
+    private final int interval;
+    private int sampleRate;
+    private long frameCount;
+    private long sampleCount;
+    private int size;
+    private long[] offsets = new long[64];
+    private long[] samples = new long[64];
+
+    Builder(int interval) {
+      if (interval < 1) {
+        throw new IllegalArgumentException("Interval must be at least 1: " + interval);
+      }
+      this.interval = interval;
+    }
+
+    void add(long offset, int frameSamples, int frameSampleRate) {
+      if (frameCount == 0) {
+        sampleRate = frameSampleRate;
+      }
+      if (frameCount % interval == 0) {
+        if (size == offsets.length) {
+          offsets = Arrays.copyOf(offsets, size * 2);
+          samples = Arrays.copyOf(samples, size * 2);
+        }
+        offsets[size] = offset;
+        samples[size] = sampleCount;
+        size++;
+      }
+      frameCount++;
+      sampleCount += frameSamples;
+    }
+
+    MpegFrameIndex build() {
+      return new MpegFrameIndex(sampleRate, interval, frameCount, sampleCount, Arrays.copyOf(offsets, size), Arrays.copyOf(samples, size));
+    }
+  }
+}
@@ -36,8 +36,24 @@ public final class MpegInfo extends AudioFormatEx {
   @Getter
   private final boolean incomplete; // Sync errors don't have any effect on this flag. true if the file unexpectedly reached EOF
   private final List<AudioIssue> issues;
+  @Getter
+  private final DurationMethod durationMethod;
+  @Getter
+  private final VbrHeader vbrHeader; // null if there is none
+  @Getter
+  private final MpegFrameIndex frameIndex; // null unless asked for
 
   public MpegInfo(String name, AudioFileType type, Map<Short, Integer> channelsCount, Map<Integer, Long> sampleCounts, List<AudioIssue> issues) {
+    this(name, type, channelsCount, sampleCounts, issues, DurationMethod.FRAME_WALK, null);
+  }
+
+  public MpegInfo(String name, AudioFileType type, Map<Short, Integer> channelsCount, Map<Integer, Long> sampleCounts, List<AudioIssue> issues,
+                  DurationMethod durationMethod, VbrHeader vbrHeader) {
+    this(name, type, channelsCount, sampleCounts, issues, durationMethod, vbrHeader, null);
+  }
+
+  public MpegInfo(String name, AudioFileType type, Map<Short, Integer> channelsCount, Map<Integer, Long> sampleCounts, List<AudioIssue> issues,
+                  DurationMethod durationMethod, VbrHeader vbrHeader, MpegFrameIndex frameIndex) {
     super(new Encoding(type.name()), approxSampleRate(sampleCounts),
             -1, approxNumChannels(channelsCount), -1, frameRate(channelsCount, sampleCounts), true);
     this.name = name;
@@ -46,6 +62,9 @@ public final class MpegInfo extends AudioFormatEx {
     this.sampleCounts = Collections.unmodifiableMap(sampleCounts);
     this.incomplete = issues.stream().anyMatch(issue -> Type.EOF.equals(issue.getType()));
     this.issues = Collections.unmodifiableList(issues);
+    this.durationMethod = durationMethod;
+    this.vbrHeader = vbrHeader;
+    this.frameIndex = frameIndex;
   }
 
   @Override
@@ -81,8 +100,21 @@ public final class MpegInfo extends AudioFormatEx {
         .orElse(0);
   }
 
+  /**
+   * @return true when the duration is an extrapolation, not an exact count of samples
+   */
+  public boolean isEstimated() {
+    return durationMethod == DurationMethod.CBR_ESTIMATE;
+  }
+
   @Override
   public List<AudioIssue> getIssues() {
       return issues;
   }
-}
\ No newline at end of file
+
+  public enum DurationMethod {
+    FRAME_WALK, // every frame was read
+    VBR_HEADER, // the Xing/Info or VBRI header's frame count was trusted
+    CBR_ESTIMATE // extrapolated from the audio data size, after a few frames sharing the same bitrate
+  }
+}
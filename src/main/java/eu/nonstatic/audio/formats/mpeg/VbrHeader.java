@@ -0,0 +1,87 @@
+/**
+ * Audiolib
+ * Copyright (C) 2022 NonStatic
+ *
+ * This file is part of audiolib.
+ * Audiolib is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *  is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License along with . If not, see <https://www.gnu.org/licenses/>.
+ */
+package eu.nonstatic.audio.formats.mpeg;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * What an encoder wrote in the first frame of a Layer III stream, to save players from scanning it.
+ * <a href="https://www.codeproject.com/Articles/8295/MPEG-Audio-Frame-Header#XINGHeader">...</a>
+ * <a href="http://gabriel.mp3-tech.org/mp3infotag.html">...</a>
+ * <a href="https://www.codeproject.com/Articles/8295/MPEG-Audio-Frame-Header#VBRIHeader">...</a>
+ *
+ * @param type which header was found
+ * @param frames number of audio frames, the header frame excluded, -1 if absent
+ * @param bytes number of bytes of the stream, the header frame included, -1 if absent
+ * @param toc XING: 100 entries, each being the position at the i-th percent of the duration, as a 1/256 fraction of bytes.
+ *            VBRI: byte offsets of each entry relative to the header frame, every framesPerTocEntry frames. null if absent.
+ * @param framesPerTocEntry VBRI only
+ * @param encoder the LAME (or compatible) encoder version, null if absent
+ * @param encoderDelay samples to skip at the beginning, from the LAME tag, -1 if absent
+ * @param encoderPadding samples to skip at the end, from the LAME tag, -1 if absent
+ */
+public record VbrHeader(Type type, long frames, long bytes, int[] toc, int framesPerTocEntry,
+                        String encoder, int encoderDelay, int encoderPadding) implements Serializable {
+
+  /**
+   * @param fraction of the duration, between 0 and 1
+   * @return an approximate byte offset from the header frame, -1 when it can't be told
+   */
+  public long byteOffset(double fraction) {
+    if (toc == null || bytes < 0 || toc.length == 0) {
+      return -1;
+    }
+    double clamped = Math.min(Math.max(fraction, 0.0), 1.0);
+    if (type == Type.VBRI) {
+      double entry = clamped * frames / framesPerTocEntry;
+      int index = (int) Math.min(entry, toc.length - 1.0);
+      long from = index == 0 ? 0 : toc[index - 1];
+      long to = toc[index];
+      return from + Math.round((to - from) * (entry - index));
+    } else {
+      double percent = clamped * 100.0;
+      int index = (int) Math.min(percent, 99.0);
+      double from = toc[index];
+      double to = index < 99 ? toc[index + 1] : 256.0;
+      return Math.round((from + (to - from) * (percent - index)) * bytes / 256.0);
+    }
+  }
+
+  /**
+   * The TOC is compared by content, as the record's own equals would compare array references
+   */
+  @Override
+  public boolean equals(Object o) {
+    return o instanceof VbrHeader other
+        && type == other.type && frames == other.frames && bytes == other.bytes && Arrays.equals(toc, other.toc)
+        && framesPerTocEntry == other.framesPerTocEntry && Objects.equals(encoder, other.encoder)
+        && encoderDelay == other.encoderDelay && encoderPadding == other.encoderPadding;
+  }
+
+  @Override
+  public int hashCode() {
+    return 31 * Objects.hash(type, frames, bytes, framesPerTocEntry, encoder, encoderDelay, encoderPadding) + Arrays.hashCode(toc);
+  }
+
+  @Override
+  public String toString() {
+    return "VbrHeader[type=" + type + ", frames=" + frames + ", bytes=" + bytes + ", toc=" + Arrays.toString(toc)
+        + ", framesPerTocEntry=" + framesPerTocEntry + ", encoder=" + encoder
+        + ", encoderDelay=" + encoderDelay + ", encoderPadding=" + encoderPadding + "]";
+  }
+
+  public enum Type {
+    XING, // VBR
+    INFO, // Same as Xing, for CBR
+    VBRI  // Fraunhofer
+  }
+}
@@ -27,8 +27,10 @@ public enum OggCodec {
   OPUS(Type.AUDIO),     // https://wiki.xiph.org/OpusFAQ
   PCM(Type.AUDIO),
   PNG(Type.IMAGE),
+  SKELETON(Type.METADATA), // https://wiki.xiph.org/Ogg_Skeleton_4
   SPEEX(Type.AUDIO),    // https://wiki.xiph.org/Speex
-  YUV4MPEG(Type.VIDEO);
+  YUV4MPEG(Type.VIDEO),
+  UNKNOWN(Type.UNKNOWN);
 
   private final Type type;
 
@@ -41,6 +43,8 @@ public enum OggCodec {
     VIDEO,
     IMAGE,
     OVERLAY, // karaoke, lyrics...
-    MARKUP   // deprecated codec enabling textual search in an ogg file
+    MARKUP,  // deprecated codec enabling textual search in an ogg file
+    METADATA, // about the other streams
+    UNKNOWN
   }
 }
@@ -24,4 +24,13 @@ public interface OggCodecReader<I extends OggInfo> {
   I readBos(AudioInputStream ais, int serialNumber, PacketSegment segment) throws UnsupportedCodecException, MalformedPacketException, IOException;
 
   void readPacket(AudioInputStream ais, I oggInfo, OggPage page, PacketSegment next) throws MalformedPacketException, IOException;
+
+  /**
+   * Called before the segments of a page are handed one by one to {@link #readPacket}, so that a page known to carry data packets only
+   * can be skipped at once. It has to account for the same as reading the page packet per packet would.
+   * @return true if the page's body was skipped, false to have its packets read
+   */
+  default boolean skipPage(AudioInputStream ais, I oggInfo, OggPage page) throws IOException {
+    return false;
+  }
 }
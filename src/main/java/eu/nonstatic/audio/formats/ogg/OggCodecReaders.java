@@ -10,7 +10,9 @@
 package eu.nonstatic.audio.formats.ogg;
 
 import eu.nonstatic.audio.AudioInputStream;
-import eu.nonstatic.audio.formats.ogg.OggInfoSupplier.UnsupportedCodecException;
+import eu.nonstatic.audio.formats.ogg.codec.FlacCodecReader;
+import eu.nonstatic.audio.formats.ogg.codec.OpusCodecReader;
+import eu.nonstatic.audio.formats.ogg.codec.PassThroughCodecReader;
 import eu.nonstatic.audio.formats.ogg.codec.VorbisCodecReader;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
@@ -19,16 +21,23 @@ import java.util.Map;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
+import lombok.extern.slf4j.Slf4j;
 
+@Slf4j
 public class OggCodecReaders {
 
   private OggCodecReaders() {}
 
   private static final Map<OggCodec, OggCodecReader<?>> SUPPORTED_READERS = Stream.of(
-    new VorbisCodecReader()
+    new VorbisCodecReader(),
+    new OpusCodecReader(),
+    new FlacCodecReader()
     // add more here as needed
   ).collect(Collectors.toMap(OggCodecReader::getCodec, Function.identity()));
 
+  // anything else is skipped page by page
+  private static final OggCodecReader<?> PASS_THROUGH_READER = new PassThroughCodecReader();
+
 
   public static final int MAX_HEADER_SIZE = SUPPORTED_READERS.values()
       .stream()
@@ -41,28 +50,31 @@ public class OggCodecReaders {
     return SUPPORTED_READERS.get(codec) != null;
   }
 
-  public static OggCodecReader get(OggCodec codec) throws UnsupportedCodecException {
+  /**
+   * @return the codec's reader, or the pass-through one, which is what the stream of an unsupported codec got at its bos
+   */
+  public static OggCodecReader get(OggCodec codec) {
     OggCodecReader<?> reader = SUPPORTED_READERS.get(codec);
-    if(reader != null) {
-      return reader;
-    } else { // isn't supposed to happen since we are only getting back readers for existing ogg infos
-      throw new UnsupportedCodecException(null, -1, -1, "Unsupported requested codec: " + codec);
-    }
+    return reader != null ? reader : PASS_THROUGH_READER;
   }
 
-  public static OggCodecReader get(AudioInputStream ais, int serialNumber) throws IOException, UnsupportedCodecException {
-    long location = ais.location();
+  /**
+   * @return the reader whose header starts the bos packet, the stream being past that header,
+   * else the pass-through reader, the stream being left at the packet's start
+   */
+  public static OggCodecReader get(AudioInputStream ais, int serialNumber) throws IOException {
     ais.mark(MAX_HEADER_SIZE);
     byte[] paddedHeader = ais.readNBytes(MAX_HEADER_SIZE);
+    ais.reset();
 
     for (OggCodecReader<?> reader : SUPPORTED_READERS.values()) {
       byte[] codecHeader = reader.getHeader();
       if (Arrays.equals(codecHeader, 0, codecHeader.length, paddedHeader, 0, codecHeader.length)) {
-        ais.reset();
         ais.skipNBytes(codecHeader.length);
         return reader;
       }
     }
-    throw new UnsupportedCodecException(ais.getName(), location, serialNumber, "Unrecognized header: " + new String(paddedHeader, StandardCharsets.US_ASCII));
+    log.info("Unsupported header in stream with serial {}: {}", serialNumber, new String(paddedHeader, StandardCharsets.US_ASCII));
+    return PASS_THROUGH_READER;
   }
 }
@@ -0,0 +1,79 @@
+/**
+ * Audiolib
+ * Copyright (C) 2022 NonStatic
+ *
+ * This file is part of audiolib.
+ * Audiolib is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *  is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License along with . If not, see <https://www.gnu.org/licenses/>.
+ */
+package eu.nonstatic.audio.formats.ogg;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+
+/**
+ * The Ogg page CRC-32: polynomial 0x04c11db7, not reflected, 0 as initial value and no final xor,
+ * computed over the whole page with its checksum field zeroed.
+ * <a href="https://xiph.org/ogg/doc/framing.html">...</a>
+ * Slice-by-8: 8 bytes per iteration, through 8 lookup tables, as in
+ * <a href="https://create.stephan-brumme.com/crc32/#slicing-by-8-overview">...</a>
+ */
+final class OggCrc {
+
+  private static final int POLYNOMIAL = 0x04c11db7;
+  private static final int[][] TABLES = new int[8][256];
+  private static final VarHandle INT_BE = MethodHandles.byteArrayViewVarHandle(int[].class, ByteOrder.BIG_ENDIAN);
+
+  static {
+    int[] table0 = TABLES[0];
+    for (int i = 0; i < 256; i++) {
+      int crc = i << 24;
+      for (int bit = 0; bit < 8; bit++) {
+        crc = (crc & 0x80000000) != 0 ? (crc << 1) ^ POLYNOMIAL : crc << 1;
+      }
+      table0[i] = crc;
+    }
+    for (int t = 1; t < TABLES.length; t++) {
+      for (int i = 0; i < 256; i++) {
+        int previous = TABLES[t - 1][i];
+        TABLES[t][i] = (previous << 8) ^ table0[previous >>> 24];
+      }
+    }
+  }
+
+  private OggCrc() {}
+
+  static int checksum(byte[] bytes, int offset, int length) {
+    return update(0, bytes, offset, length);
+  }
+
+  static int update(int crc, byte[] bytes, int offset, int length) {
+    int[] t0 = TABLES[0], t1 = TABLES[1], t2 = TABLES[2], t3 = TABLES[3];
+    int[] t4 = TABLES[4], t5 = TABLES[5], t6 = TABLES[6], t7 = TABLES[7];
+    int i = offset;
+    int end = offset + length;
+    for (; i <= end - 8; i += 8) {
+      int high = crc ^ (int) INT_BE.get(bytes, i);
+      int low = (int) INT_BE.get(bytes, i + 4);
+      crc = t7[high >>> 24] ^ t6[(high >>> 16) & 0xff] ^ t5[(high >>> 8) & 0xff] ^ t4[high & 0xff]
+          ^ t3[low >>> 24] ^ t2[(low >>> 16) & 0xff] ^ t1[(low >>> 8) & 0xff] ^ t0[low & 0xff];
+    }
+    for (; i < end; i++) {
+      crc = (crc << 8) ^ t0[((crc >>> 24) ^ bytes[i]) & 0xff];
+    }
+    return crc;
+  }
+
+  /**
+   * One byte at a time, for reference
+   */
+  static int updateBytewise(int crc, byte[] bytes, int offset, int length) {
+    int[] t0 = TABLES[0];
+    for (int i = offset; i < offset + length; i++) {
+      crc = (crc << 8) ^ t0[((crc >>> 24) ^ bytes[i]) & 0xff];
+    }
+    return crc;
+  }
+}
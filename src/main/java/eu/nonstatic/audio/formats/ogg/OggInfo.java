@@ -12,6 +12,7 @@ package eu.nonstatic.audio.formats.ogg;
 import eu.nonstatic.audio.AudioFileType;
 import eu.nonstatic.audio.AudioIssue;
 import eu.nonstatic.audio.formats.AudioFormatEx;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -69,6 +70,13 @@ public abstract class OggInfo extends AudioFormatEx implements Cloneable {
   }
   public abstract boolean isEmpty();
 
+  /**
+   * @return the granule position the given time from the start of the stream is at, granules being samples unless the codec says otherwise
+   */
+  public long getGranulePos(Duration time) {
+    return firstGranule + Math.round(time.toNanos() * (double) getSampleRate() / 1_000_000_000.0);
+  }
+
 
   @Override
   public OggInfo clone() {
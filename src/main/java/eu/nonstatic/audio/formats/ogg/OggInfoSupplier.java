@@ -12,6 +12,9 @@ package eu.nonstatic.audio.formats.ogg;
 import eu.nonstatic.audio.AudioFileType;
 import eu.nonstatic.audio.AudioInputStream;
 import eu.nonstatic.audio.AudioIssue;
+import eu.nonstatic.audio.ChannelAudioInputStream;
+import eu.nonstatic.audio.MappedAudioInputStream;
+import eu.nonstatic.audio.SyncScanner;
 import eu.nonstatic.audio.formats.AudioFormatException;
 import eu.nonstatic.audio.formats.AudioInfoException;
 import eu.nonstatic.audio.formats.AudioInfoSupplier;
@@ -19,20 +22,78 @@ import eu.nonstatic.audio.formats.ogg.OggCodec.Type;
 import java.io.EOFException;
 import java.io.IOException;
 import java.io.InputStream;
-import java.util.ArrayList;
-import java.util.Iterator;
-import java.util.List;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
-import lombok.Builder;
 import lombok.Getter;
+import lombok.NonNull;
 import lombok.extern.slf4j.Slf4j;
 
 @Slf4j
 public class OggInfoSupplier implements AudioInfoSupplier<OggInfo> {
 
-  private static final String OGG_PAGE_TAG = "OggS";
-  private static final int OGG_PAGE_TAG_LENGTH = OGG_PAGE_TAG.length();
+  private static final byte[] OGG_PAGE_TAG = "OggS".getBytes(StandardCharsets.US_ASCII);
+  static final int OGG_PAGE_TAG_LENGTH = OGG_PAGE_TAG.length;
   private static final int OGG_VERSION = 0;
+  private static final int OGG_PAGE_HEADER_LENGTH = 27; // up to the lacing values
+  private static final int OGG_MAX_SEGMENTS = 255;
+  private static final int OGG_MAX_PAGE_SIZE = OGG_PAGE_HEADER_LENGTH + OGG_MAX_SEGMENTS + OGG_MAX_SEGMENTS * 255; // header, lacing values, body
+  private static final int OGG_FIRST_PAGE_FLAG = 0x2;
+  static final long OGG_NO_GRANULE = -1; // no packet finishes on the page
+
+  private static final int TAIL_SIZE = 64 * 1024; // a whole page, plus some
+  private static final int MAX_TAIL_SIZE = 16 * TAIL_SIZE; // for interleaved streams, beyond that the walk will do
+
+  public enum Mode {
+    /**
+     * When the source is seekable, reads the bos pages at the head, then the last granule position of each audio stream from the tail.
+     * Falls back on the walk if the tail doesn't end with a sound chain of pages.
+     */
+    LAST_PAGE,
+    /**
+     * Walks every page and packet, which is the only way to report corruption, and to get the bit count
+     */
+    VERIFY,
+    /**
+     * Walks the same, also checking every page's CRC, mismatches being reported as {@link AudioIssue.Type#CHECKSUM} issues
+     */
+    CHECKSUM
+  }
+
+  private final Mode mode;
+  private final long resyncBudget; // total bytes skipped before giving up on a file
+
+  public OggInfoSupplier() {
+    this(Mode.LAST_PAGE);
+  }
+
+  public OggInfoSupplier(@NonNull Mode mode) {
+    this(mode, Long.MAX_VALUE);
+  }
+
+  public OggInfoSupplier(long resyncBudget) {
+    this(Mode.LAST_PAGE, resyncBudget);
+  }
+
+  /**
+   * @param resyncBudget how many bytes may be skipped in total while looking for pages after corrupted ones,
+   *                     so that a hopeless file fails fast instead of being scanned till its end
+   */
+  public OggInfoSupplier(@NonNull Mode mode, long resyncBudget) {
+    if(resyncBudget < 0) {
+      throw new IllegalArgumentException("Resync budget cannot be negative: " + resyncBudget);
+    }
+    this.mode = mode;
+    this.resyncBudget = resyncBudget;
+  }
 
   /**
    * <a href="https://cloudinary.com/guides/video-formats/ogg-format-an-in-depth-look#ogg-2">...</a>
@@ -72,10 +133,28 @@ public class OggInfoSupplier implements AudioInfoSupplier<OggInfo> {
     }
   }
 
+  /**
+   * Large files are mapped when all their pages get checked, see {@link MappedAudioInputStream#open(Path)}
+   */
+  @Override
+  public OggInfo getInfos(Path file) throws AudioInfoException, IOException {
+    try(AudioInputStream ais = mode == Mode.CHECKSUM ? MappedAudioInputStream.open(file) : ChannelAudioInputStream.open(file)) {
+      return getInfos(ais, file.toString());
+    }
+  }
+
   public OggStreamsInfos getStreamsInfos(InputStream is, String name) throws AudioFormatException, IOException {
-    AudioInputStream ais = new AudioInputStream(is, name);
-    OggStreamsInfos streamsInfos = new OggStreamsInfos();
-    while(!readPagesWithResync(ais, streamsInfos));
+    AudioInputStream ais = AudioInputStream.of(is, name);
+    OggStreamsInfos streamsInfos = null;
+    if(mode == Mode.LAST_PAGE && ais.isSeekable()) {
+      streamsInfos = readHeadAndTail(ais);
+    }
+    if(streamsInfos == null) {
+      streamsInfos = new OggStreamsInfos();
+      OggPage page = new OggPage();
+      byte[] pageBuffer = mode == Mode.CHECKSUM ? new byte[OGG_MAX_PAGE_SIZE] : null;
+      while(!readPagesWithResync(ais, streamsInfos, page, pageBuffer));
+    }
     streamsInfos.incomplete = streamsInfos.incomplete || streamsInfos.stream().anyMatch(OggInfo::isIncomplete);
     if (streamsInfos.isEmpty()) {
       throw new AudioFormatException(name, 0, AudioFileType.OGG, "Could not find a single page");
@@ -83,22 +162,130 @@ public class OggInfoSupplier implements AudioInfoSupplier<OggInfo> {
     return streamsInfos;
   }
 
-  private boolean readPagesWithResync(AudioInputStream ais, OggStreamsInfos streamsInfos) throws AudioFormatException, IOException {
+  /**
+   * Bos pages all come first, so that's what's read at the head. Then the tail is read backwards, page by page,
+   * each one having to end where the next begins, till every audio stream got its last granule position.
+   * @return null when the walk has to be done, the stream being back at its original location
+   */
+  private OggStreamsInfos readHeadAndTail(AudioInputStream ais) throws IOException {
+    long start = ais.location();
+    OggStreamsInfos streamsInfos = new OggStreamsInfos();
+    try {
+      OggPage page = new OggPage();
+      while(isFirstPageAhead(ais) && readPage(ais, streamsInfos, page, null));
+    } catch(AudioFormatException | EOFException e) {
+      ais.seek(start);
+      return null;
+    }
+
+    Map<Integer, Long> lastGranules = findLastGranules(ais, streamsInfos, streamsInfos.getOggInfos(Type.AUDIO).keySet(), ais.location());
+    if(streamsInfos.isEmpty() || lastGranules == null) {
+      ais.seek(start);
+      return null;
+    }
+    lastGranules.forEach((serialNumber, granulePos) -> streamsInfos.get(serialNumber).updateGranulePos(granulePos));
+    return streamsInfos;
+  }
+
+  private static boolean isFirstPageAhead(AudioInputStream ais) throws IOException {
+    ais.mark(OGG_PAGE_TAG_LENGTH + 2);
+    try {
+      return readCapturePattern(ais)
+          && ais.readStrict() == OGG_VERSION
+          && (ais.readStrict() & OGG_FIRST_PAGE_FLAG) != 0;
+    } catch(EOFException e) {
+      return false;
+    } finally {
+      ais.reset();
+    }
+  }
+
+  /**
+   * @param streamsInfos the streams announced at the head
+   * @param serialNumbers of the audio streams whose last granule position is looked for
+   * @param headEnd where the tail search has to stop
+   * @return serial number => last granule position of every audio stream,
+   * null if the tail isn't made of sound pages up to a stream's last one, if some stream has no granule position after the head,
+   * or if the tail holds a stream the head didn't announce, as a chained file does: the walk then tells about every stream
+   */
+  private static Map<Integer, Long> findLastGranules(AudioInputStream ais, OggStreamsInfos streamsInfos, Set<Integer> serialNumbers, long headEnd) throws IOException {
+    long size = ais.size();
+    for (int tailSize = TAIL_SIZE; tailSize <= MAX_TAIL_SIZE; tailSize *= 2) {
+      long tailStart = Math.max(headEnd, size - tailSize);
+      ais.seek(tailStart);
+      byte[] tail = ais.readNBytesStrict((int) (size - tailStart));
+      ByteBuffer bb = ByteBuffer.wrap(tail).order(ByteOrder.LITTLE_ENDIAN);
+
+      Map<Integer, Long> lastGranules = new HashMap<>();
+      int nextPage = tail.length; // a page is sound when it ends right where the next one begins
+      for (int i = tail.length - OGG_PAGE_HEADER_LENGTH; i >= 0 && lastGranules.size() < serialNumbers.size(); i--) {
+        if (tail[i] == OGG_PAGE_TAG[0] && pageEnd(tail, i) == nextPage) {
+          nextPage = i;
+          long granulePos = bb.getLong(i + 6);
+          int serialNumber = bb.getInt(i + 14);
+          if (!streamsInfos.contains(serialNumber)) {
+            log.debug("Stream {} isn't announced at the head of {}, walking", serialNumber, ais.getName());
+            return null;
+          } else if (granulePos != OGG_NO_GRANULE && serialNumbers.contains(serialNumber)) {
+            lastGranules.putIfAbsent(serialNumber, granulePos);
+          }
+        }
+      }
+
+      if (nextPage == tail.length) { // not even a last page: truncated or trailing garbage, which only the walk can tell about
+        return null;
+      } else if (lastGranules.size() == serialNumbers.size()) {
+        return lastGranules;
+      } else if (tailStart == headEnd) { // some stream has no granule position at all after the head
+        return null;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * @return the offset right after the page at offset in block, -1 if it doesn't look like a page or doesn't fit in
+   */
+  private static int pageEnd(byte[] block, int offset) {
+    if (!Arrays.equals(block, offset, offset + OGG_PAGE_TAG_LENGTH, OGG_PAGE_TAG, 0, OGG_PAGE_TAG_LENGTH)
+        || block[offset + 4] != OGG_VERSION || (block[offset + 5] & ~0x7) != 0) {
+      return -1;
+    }
+    int pageSegments = block[offset + 26] & 0xff;
+    int end = offset + OGG_PAGE_HEADER_LENGTH + pageSegments;
+    if (end > block.length) {
+      return -1;
+    }
+    for (int i = offset + OGG_PAGE_HEADER_LENGTH; i < offset + OGG_PAGE_HEADER_LENGTH + pageSegments; i++) {
+      end += block[i] & 0xff;
+    }
+    return end <= block.length ? end : -1;
+  }
+
+  /**
+   * @param page reused for every page read
+   * @param pageBuffer to check the pages' CRC, null not to
+   */
+  private boolean readPagesWithResync(AudioInputStream ais, OggStreamsInfos streamsInfos, OggPage page, byte[] pageBuffer) throws AudioFormatException, IOException {
     boolean stop = false;
 
     try {
-      readPages(ais, streamsInfos); // reads till a page is malformed, or EOF
+      readPages(ais, streamsInfos, page, pageBuffer); // reads till a page is malformed, or EOF
 
       if (isEndOfFileAhead(ais)) {
         stop = true;
       } else {
         long locationBeforeResync = ais.location();
-        int skipped = findPage(ais);
+        long skipped = SyncScanner.scan(ais, PAGE_SYNC, resyncBudget - streamsInfos.resynced);
         if(skipped >= 0) {
+          streamsInfos.resynced += skipped;
           streamsInfos.addIssue(AudioIssue.sync(locationBeforeResync, skipped));
           log.info("Resync after skipping {} bytes", skipped);
         } else {
           stop = true;
+          String message = String.format("No sync found within the %d bytes resync budget", resyncBudget);
+          streamsInfos.addIssue(AudioIssue.other(locationBeforeResync, Map.of(AudioIssue.META_MESSAGE, message)));
+          log.warn("{}: {}", message, ais.getName());
         }
       }
     } catch(EOFException e) { // either from a page decoding or from a resync
@@ -111,9 +298,9 @@ public class OggInfoSupplier implements AudioInfoSupplier<OggInfo> {
     return stop;
   }
 
-  private void readPages(AudioInputStream ais, OggStreamsInfos streamsInfos) throws AudioFormatException, IOException {
+  private void readPages(AudioInputStream ais, OggStreamsInfos streamsInfos, OggPage page, byte[] pageBuffer) throws AudioFormatException, IOException {
     try {
-      while (readPage(ais, streamsInfos)) {
+      while (readPage(ais, streamsInfos, page, pageBuffer)) {
         /* nothing */
       }
     } catch (MalformedPageException e) {
@@ -135,17 +322,18 @@ public class OggInfoSupplier implements AudioInfoSupplier<OggInfo> {
   /**
    * @param ais
    * @param streamsInfos
+   * @param page filled with what's read, overwriting the previous page
+   * @param pageBuffer to check the page's CRC, null not to
    * @return false if there is not a page at the stream's location
    * @throws UnsupportedCodecException
    * @throws IOException read error or EOF while skipping over a page
    */
-  private boolean readPage(AudioInputStream ais, OggStreamsInfos streamsInfos)
+  private boolean readPage(AudioInputStream ais, OggStreamsInfos streamsInfos, OggPage page, byte[] pageBuffer)
       throws MalformedPageException, MalformedPacketException, UnsupportedCodecException, IOException {
     ais.mark(OGG_PAGE_TAG_LENGTH);
 
     try {
-      String pattern = readCapturePattern(ais);
-      if (!isOggCapturePattern(pattern)) {
+      if (!readCapturePattern(ais)) {
         ais.reset();
         return false;
       }
@@ -154,38 +342,23 @@ public class OggInfoSupplier implements AudioInfoSupplier<OggInfo> {
     }
 
     long location = ais.location();
-    int oggVersion = ais.readStrict();
-    if(oggVersion != OGG_VERSION) {
-      throw new MalformedPageException(ais.getName(), location, "Unrecognized Ogg version: " + oggVersion);
+    if(pageBuffer != null) {
+      checkPage(ais, streamsInfos, pageBuffer);
     }
-    int headerType = ais.readStrict();
-
-    OggPage page = OggPage.builder()
-        .oggVersion(oggVersion)
-        .headerType(headerType)
-        .freshPacket((headerType & 0x1) == 0)
-        .firstPage((headerType & 0x2) != 0) // bos: beginning of stream, means we're expecting an ident packet next
-        .lastPage((headerType & 0x4) != 0) // eos: end of stream, means there shouldn't be any page after it
-
-        .granulePos(ais.read64bitLE())
-        .serialNumber(ais.read32bitLE())
-
-        .pageSeqNumber(ais.read32bitLE())
-        .checksum(ais.read32bitLE())
-        .build();
-
-
-    Iterator<OggPage.PacketSegment> segmentIterator = readPacketSizes(ais).iterator();
+    readPageHeader(ais, page);
     int serialNumber = page.serialNumber;
+    int segment = 0;
     OggCodecReader reader;
     OggInfo oggInfo;
     if(page.firstPage) {
       if (streamsInfos.contains(serialNumber)) {
         throw new MalformedPacketException(ais.getName(), location, serialNumber, "Serial Number declared twice: " + serialNumber);
+      } else if (page.segmentCount == 0) {
+        throw new MalformedPacketException(ais.getName(), location, serialNumber, "Empty bos page");
       }
       reader = OggCodecReaders.get(ais, serialNumber);
       log.info("Stream with serial {} uses the {} codec", serialNumber, reader.getCodec());
-      oggInfo = reader.readBos(ais, serialNumber, segmentIterator.next());
+      oggInfo = reader.readBos(ais, serialNumber, page.segment(segment++));
       streamsInfos.put(serialNumber, oggInfo);
     } else {
       oggInfo = streamsInfos.get(serialNumber);
@@ -196,11 +369,14 @@ public class OggInfoSupplier implements AudioInfoSupplier<OggInfo> {
       }
     }
 
-    oggInfo.updateGranulePos(page.granulePos);
-
     try {
-      while (segmentIterator.hasNext()) {
-        reader.readPacket(ais, oggInfo, page, segmentIterator.next());
+      if (segment > 0 || !reader.skipPage(ais, oggInfo, page)) {
+        for (; segment < page.segmentCount; segment++) {
+          reader.readPacket(ais, oggInfo, page, page.segment(segment));
+        }
+      }
+      if (page.granulePos != OGG_NO_GRANULE) { // only once the page is complete, a truncated one not reaching its granule
+        oggInfo.updateGranulePos(page.granulePos);
       }
       if (page.lastPage) { // create a reader.readEos method if needed
         oggInfo.incomplete = false;
@@ -212,75 +388,208 @@ public class OggInfoSupplier implements AudioInfoSupplier<OggInfo> {
     return true;
   }
 
-  private static List<OggPage.PacketSegment> readPacketSizes(AudioInputStream ais) throws IOException {
+  /**
+   * Reads the page header, right after the capture pattern, up to its body
+   * @param page filled with what's read, overwriting the previous page
+   */
+  static void readPageHeader(AudioInputStream ais, OggPage page) throws MalformedPageException, IOException {
+    long location = ais.location();
+    int oggVersion = ais.readStrict();
+    if(oggVersion != OGG_VERSION) {
+      throw new MalformedPageException(ais.getName(), location, "Unrecognized Ogg version: " + oggVersion);
+    }
+    int headerType = ais.readStrict();
+
+    page.oggVersion = oggVersion;
+    page.headerType = headerType;
+    page.freshPacket = (headerType & 0x1) == 0;
+    page.firstPage = (headerType & 0x2) != 0; // bos: beginning of stream, means we're expecting an ident packet next
+    page.lastPage = (headerType & 0x4) != 0; // eos: end of stream, means there shouldn't be any page after it
+
+    page.granulePos = ais.read64bitLE();
+    page.serialNumber = ais.read32bitLE();
+
+    page.pageSeqNumber = ais.read32bitLE();
+    page.checksum = ais.read32bitLE();
+
+    readPacketSizes(ais, page);
+  }
+
+  /**
+   * Reads the whole page ahead, capture pattern excluded, then goes back to where it was.
+   * A page too short for its lacing values is left to the actual reading to report.
+   */
+  private static void checkPage(AudioInputStream ais, OggStreamsInfos streamsInfos, byte[] page) throws IOException {
+    long location = ais.location() - OGG_PAGE_TAG_LENGTH;
+    ais.mark(OGG_MAX_PAGE_SIZE);
+    try {
+      System.arraycopy(OGG_PAGE_TAG, 0, page, 0, OGG_PAGE_TAG_LENGTH);
+      int length = OGG_PAGE_HEADER_LENGTH;
+      if (ais.readNBytes(page, OGG_PAGE_TAG_LENGTH, length - OGG_PAGE_TAG_LENGTH) < length - OGG_PAGE_TAG_LENGTH) {
+        return;
+      }
+      int pageSegments = page[OGG_PAGE_HEADER_LENGTH - 1] & 0xff;
+      if (ais.readNBytes(page, length, pageSegments) < pageSegments) {
+        return;
+      }
+      int bodySize = 0;
+      for (int i = length; i < length + pageSegments; i++) {
+        bodySize += page[i] & 0xff;
+      }
+      length += pageSegments;
+      if (ais.readNBytes(page, length, bodySize) < bodySize) {
+        return;
+      }
+      length += bodySize;
+
+      int expected = (page[22] & 0xff) | (page[23] & 0xff) << 8 | (page[24] & 0xff) << 16 | (page[25] & 0xff) << 24;
+      Arrays.fill(page, 22, 26, (byte) 0);
+      int actual = OggCrc.checksum(page, 0, length);
+      if (actual != expected) {
+        log.warn("Page checksum mismatch at {}: {}", location, ais.getName());
+        streamsInfos.checksumMismatches++;
+        streamsInfos.addIssue(AudioIssue.checksum(location, expected & 0xffffffffL, actual & 0xffffffffL));
+      }
+    } finally {
+      ais.reset();
+    }
+  }
+
+  /**
+   * Fills the page's segment sizes from its lacing values, a trailing segment being unfinished when its packet goes on in the next page
+   */
+  private static void readPacketSizes(AudioInputStream ais, OggPage page) throws IOException {
     int pageSegments = ais.readStrict();
-    List<OggPage.PacketSegment> segments = new ArrayList<>();
+    int[] segmentSizes = page.segmentSizes;
+    int segmentCount = 0;
+    int bodySize = 0;
     int packetSize = 0;
     int lacingValue;
     for (int i = 0; i < pageSegments; i++) {
       lacingValue = ais.readStrict();
       packetSize += lacingValue;
       if(lacingValue < 255) { // packet lacing completed
-        segments.add(new OggPage.PacketSegment(packetSize, true));
+        segmentSizes[segmentCount++] = packetSize;
+        bodySize += packetSize;
         packetSize = 0;
       }
     }
+    page.lastSegmentFinished = packetSize == 0;
     if(packetSize > 0) {
-      segments.add(new OggPage.PacketSegment(packetSize, false));
+      segmentSizes[segmentCount++] = packetSize;
+      bodySize += packetSize;
     }
-    return segments;
+    page.segmentCount = segmentCount;
+    page.bodySize = bodySize;
   }
 
-  private static String readCapturePattern(AudioInputStream ais) throws IOException {
-    return ais.readString(OGG_PAGE_TAG_LENGTH);
+  private static boolean readCapturePattern(AudioInputStream ais) throws IOException {
+    return ais.readMagic(OGG_PAGE_TAG);
   }
 
   private boolean isEndOfFileAhead(AudioInputStream ais) throws IOException {
-    return ais.available() == 0;
+    return ais.remaining() == 0;
   }
 
-  private int findPage(AudioInputStream ais) throws IOException {
-    for(int skipped = 0; ; skipped++) {
-      ais.mark(OGG_PAGE_TAG_LENGTH);
-      String pattern = readCapturePattern(ais);
-      if (isOggCapturePattern(pattern)) {
-        ais.reset();
-        return skipped;
-      } else {
-        ais.skipNBytes(1);
-      }
+  /**
+   * A capture pattern is confirmed by a consistent page header followed by another capture pattern, or by EOF
+   */
+  static final SyncScanner.Sync PAGE_SYNC = new SyncScanner.Sync() {
+
+    @Override
+    public byte lead() {
+      return OGG_PAGE_TAG[0];
     }
-  }
 
+    @Override
+    public int length() {
+      return OGG_PAGE_TAG_LENGTH;
+    }
 
-  private boolean isOggCapturePattern(String header) {
-    return OGG_PAGE_TAG.equals(header);
-  }
+    @Override
+    public boolean matches(byte[] block, int offset) {
+      return Arrays.equals(block, offset, offset + OGG_PAGE_TAG_LENGTH, OGG_PAGE_TAG, 0, OGG_PAGE_TAG_LENGTH);
+    }
+
+    @Override
+    public boolean confirm(AudioInputStream ais) throws IOException {
+      ais.mark(OGG_MAX_PAGE_SIZE + OGG_PAGE_TAG_LENGTH);
+      try {
+        ais.skipNBytes(OGG_PAGE_TAG_LENGTH);
+        if (ais.readStrict() != OGG_VERSION || (ais.readStrict() & ~0x7) != 0) { // only 3 header type flags
+          return false;
+        }
+        ais.skipNBytes(20); // granule pos, serial number, page sequence number, checksum
+        int pageSegments = ais.readStrict();
+        int bodySize = 0;
+        for (int i = 0; i < pageSegments; i++) {
+          bodySize += ais.readStrict();
+        }
+        ais.skipNBytes(bodySize);
+        return readCapturePattern(ais);
+      } catch (EOFException e) { // last page, complete or not, the walk will tell
+        return true;
+      } finally {
+        ais.reset();
+      }
+    }
+  };
 
 
 
-  @Getter @Builder
+  /**
+   * A single instance is reused for every page of a walk, so are its segment sizes and the segment handed to the codec readers:
+   * none of them is to be kept past the reader's call.
+   */
+  @Getter
   public static final class OggPage {
 
-    final int oggVersion;
-    final int headerType;
-    final boolean freshPacket;
-    final boolean firstPage;
-    final boolean lastPage;
+    int oggVersion;
+    int headerType;
+    boolean freshPacket;
+    boolean firstPage;
+    boolean lastPage;
+
+    long granulePos;
+    int serialNumber;
+    int pageSeqNumber;
+    int checksum;
+
+    int segmentCount;
+    int bodySize; // sum of the segment sizes
+    @Getter(AccessLevel.NONE)
+    final int[] segmentSizes = new int[OGG_MAX_SEGMENTS];
+    @Getter(AccessLevel.NONE)
+    boolean lastSegmentFinished;
+    @Getter(AccessLevel.NONE)
+    private final PacketSegment segment = new PacketSegment(0, false, false);
+
+    public int getSegmentSize(int index) {
+      return segmentSizes[Objects.checkIndex(index, segmentCount)];
+    }
 
-    final long granulePos;
-    final int serialNumber;
-    final int pageSeqNumber;
-    final int checksum;
-    final List<PacketSegment> segments;
+    /**
+     * @return false when the segment's packet goes on in the next page
+     */
+    public boolean isSegmentFinished(int index) {
+      return Objects.checkIndex(index, segmentCount) < segmentCount - 1 || lastSegmentFinished;
+    }
+
+    PacketSegment segment(int index) {
+      segment.size = segmentSizes[index];
+      segment.finished = isSegmentFinished(index);
+      segment.continued = index == 0 && !freshPacket;
+      return segment;
+    }
 
 
     @Getter
     @AllArgsConstructor
     public static final class PacketSegment {
 
-      final int size;
-      final boolean finished;
+      int size;
+      boolean finished;
+      boolean continued; // the rest of a packet begun in a previous page
     }
   }
 
@@ -0,0 +1,214 @@
+/**
+ * Audiolib
+ * Copyright (C) 2022 NonStatic
+ *
+ * This file is part of audiolib.
+ * Audiolib is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *  is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License along with . If not, see <https://www.gnu.org/licenses/>.
+ */
+package eu.nonstatic.audio.formats.ogg;
+
+import static eu.nonstatic.audio.formats.ogg.OggInfoSupplier.OGG_NO_GRANULE;
+import static eu.nonstatic.audio.formats.ogg.OggInfoSupplier.OGG_PAGE_TAG_LENGTH;
+import static eu.nonstatic.audio.formats.ogg.OggInfoSupplier.PAGE_SYNC;
+
+import eu.nonstatic.audio.AudioInputStream;
+import eu.nonstatic.audio.SyncScanner;
+import eu.nonstatic.audio.formats.ogg.OggCodec.Type;
+import eu.nonstatic.audio.formats.ogg.OggInfoSupplier.MalformedPageException;
+import eu.nonstatic.audio.formats.ogg.OggInfoSupplier.OggPage;
+import java.io.EOFException;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.TreeMap;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Finds the page a given time lies in by bisecting on granule positions, as libvorbisfile's ov_pcm_seek_page does
+ * <a href="https://github.com/xiph/vorbis/blob/master/lib/vorbisfile.c">...</a>
+ * The range gets narrowed, by interpolation or halving, till it's small enough to be walked page by page.
+ * Every page met on the way is kept in a small per stream index, so that later seeks start from narrower bounds.
+ * Only for seekable streams. Not thread safe.
+ */
+@Slf4j
+public class OggSeeker {
+
+  private static final int LINEAR_SCAN_SIZE = 8 * 1024;
+  private static final int MAX_INDEX_SIZE = 32;
+
+  private final AudioInputStream ais;
+  private final OggStreamsInfos streamsInfos;
+  private final Map<Integer, NavigableMap<Long, SeekPoint>> indexes = new HashMap<>(); // serial number => granule position => page
+  private final OggPage page = new OggPage(); // reused for every page header read
+
+  // number of positioned page reads so far, the cost of seeking
+  @Getter
+  private int readCount;
+
+
+  /**
+   * @param streamsInfos of that very stream, see {@link OggInfoSupplier#getStreamsInfos}
+   */
+  public OggSeeker(@NonNull AudioInputStream ais, @NonNull OggStreamsInfos streamsInfos) {
+    if (!ais.isSeekable()) {
+      throw new IllegalArgumentException("Stream is not seekable: " + ais.getName());
+    }
+    this.ais = ais;
+    this.streamsInfos = streamsInfos;
+  }
+
+  /**
+   * Seeks in the first audio stream that has pages and a sample rate, the one {@link OggInfoSupplier#getInfos} picks
+   * (a passed through one, like Speex, has neither)
+   */
+  public Optional<SeekPoint> seek(Duration time) throws IOException {
+    int serialNumber = streamsInfos.stream()
+        .filter(oggInfo -> oggInfo.getCodec().getType() == Type.AUDIO && isTimed(oggInfo))
+        .findFirst()
+        .orElseThrow(() -> new IllegalStateException("No audio stream with pages and a sample rate to seek by time in: " + ais.getName()))
+        .getSerialNumber();
+    return seek(serialNumber, time);
+  }
+
+  public Optional<SeekPoint> seek(int serialNumber, Duration time) throws IOException {
+    OggInfo oggInfo = streamsInfos.get(serialNumber);
+    if (oggInfo == null) {
+      throw new IllegalArgumentException("Unknown serial number: " + serialNumber);
+    } else if (!isTimed(oggInfo)) {
+      throw new IllegalArgumentException("Stream " + serialNumber + " (" + oggInfo.getCodec() + ") can't be seeked by time, seek by granule position instead");
+    }
+    return seekGranule(serialNumber, oggInfo.getGranulePos(time));
+  }
+
+  private static boolean isTimed(OggInfo oggInfo) {
+    return !oggInfo.isEmpty() && oggInfo.getSampleRate() > 0;
+  }
+
+  /**
+   * @return the first page of the stream whose granule position reaches the target, which is the page the packet holding that sample ends in,
+   * empty if the stream ends before
+   */
+  public Optional<SeekPoint> seekGranule(int serialNumber, long granulePos) throws IOException {
+    NavigableMap<Long, SeekPoint> index = indexes.computeIfAbsent(serialNumber, k -> new TreeMap<>());
+    OggInfo oggInfo = streamsInfos.get(serialNumber);
+
+    // pages before begin are all short of the target, the one at end (best) reaches it
+    Entry<Long, SeekPoint> lower = index.lowerEntry(granulePos);
+    Entry<Long, SeekPoint> ceiling = index.ceilingEntry(granulePos);
+    long begin = lower != null ? lower.getValue().end : 0;
+    long beginGranule = lower != null ? lower.getKey() : oggInfo.firstGranule;
+    long end = ceiling != null ? ceiling.getValue().location : ais.size();
+    long endGranule = ceiling != null ? ceiling.getKey() : oggInfo.lastGranule; // may not be known, or be short of the target
+    SeekPoint best = ceiling != null ? ceiling.getValue() : null;
+
+    boolean interpolate = true;
+    while (end - begin > LINEAR_SCAN_SIZE) {
+      long range = end - begin;
+      long probe = interpolate ? interpolate(begin, beginGranule, end, endGranule, granulePos) : begin + range / 2;
+      SeekPoint page = nextPage(serialNumber, probe, end);
+      if (page == null) { // nothing from that stream in the upper part
+        end = probe;
+      } else if (page.granulePos < granulePos) {
+        begin = page.end;
+        beginGranule = page.granulePos;
+      } else {
+        end = page.location;
+        endGranule = page.granulePos;
+        best = page;
+      }
+      interpolate = (end - begin) * 2 <= range; // else the guess was poor, bisecting once gets us back on track
+    }
+
+    for (SeekPoint page = nextPage(serialNumber, begin, end); page != null; page = nextPage(serialNumber, page.end, end)) {
+      if (page.granulePos >= granulePos) {
+        best = page;
+        break;
+      }
+    }
+    log.debug("Seek to granule {} of stream {} in {}: {}", granulePos, serialNumber, ais.getName(), best);
+    return Optional.ofNullable(best);
+  }
+
+  /**
+   * Like libvorbisfile, guesses where the target is out of the granule positions at both ends, the bitrate being roughly constant,
+   * and lands a little before, to rather find the page preceding the target's. Plain bisection when the end's granule isn't known.
+   */
+  private static long interpolate(long begin, long beginGranule, long end, long endGranule, long granulePos) {
+    long range = end - begin;
+    if (endGranule <= granulePos || endGranule <= beginGranule) {
+      return begin + range / 2;
+    }
+    long guess = begin + (long) ((double) (granulePos - beginGranule) * range / (endGranule - beginGranule)) - LINEAR_SCAN_SIZE / 2;
+    return Math.max(begin, Math.min(end - LINEAR_SCAN_SIZE, guess));
+  }
+
+  /**
+   * @return the next page of the stream with a granule position, starting between from and until, null if there's none
+   */
+  private SeekPoint nextPage(int serialNumber, long from, long until) throws IOException {
+    if (from >= until) {
+      return null;
+    }
+    NavigableMap<Long, SeekPoint> index = indexes.get(serialNumber);
+    readCount++;
+    long location = from;
+    try {
+      while (location < until) {
+        ais.seek(location);
+        long skipped = SyncScanner.scan(ais, PAGE_SYNC, until - location - 1);
+        if (skipped < 0) {
+          return null;
+        }
+        location += skipped;
+
+        ais.skipNBytes(OGG_PAGE_TAG_LENGTH);
+        OggInfoSupplier.readPageHeader(ais, page);
+        long pageEnd = ais.location() + page.bodySize;
+
+        if (page.serialNumber == serialNumber && page.granulePos != OGG_NO_GRANULE) {
+          SeekPoint seekPoint = new SeekPoint(location, pageEnd, page.granulePos);
+          addToIndex(index, seekPoint);
+          return seekPoint;
+        }
+        location = pageEnd;
+      }
+    } catch (EOFException e) { // truncated page
+      log.debug("EOF while looking for a page from {}: {}", from, ais.getName());
+    } catch (MalformedPageException e) { // the sync checks the version already
+      log.debug("Malformed page while looking for a page from {}: {}", from, ais.getName());
+    }
+    return null;
+  }
+
+  /**
+   * When full, the neighbour closest to the new page makes room, so that the index stays spread over the stream
+   */
+  private static void addToIndex(NavigableMap<Long, SeekPoint> index, SeekPoint page) {
+    if (index.size() >= MAX_INDEX_SIZE && !index.containsKey(page.granulePos)) {
+      Entry<Long, SeekPoint> lower = index.lowerEntry(page.granulePos);
+      Entry<Long, SeekPoint> higher = index.higherEntry(page.granulePos);
+      if (higher == null || (lower != null && page.location - lower.getValue().location < higher.getValue().location - page.location)) {
+        index.remove(lower.getKey());
+      } else {
+        index.remove(higher.getKey());
+      }
+    }
+    index.put(page.granulePos, page);
+  }
+
+
+  /**
+   * @param location where the page starts
+   * @param end where the page ends, the next one starting there
+   * @param granulePos of the last packet finishing in the page
+   */
+  public record SeekPoint(long location, long end, long granulePos) {}
+}
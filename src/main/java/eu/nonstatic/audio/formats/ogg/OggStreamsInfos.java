@@ -23,6 +23,11 @@ public final class OggStreamsInfos implements Iterable<OggInfo> {
   // serial number => infos
   private final Map<Integer, OggInfo> oggInfos = new LinkedHashMap<>(); // linked cause we'll be getting the first audio stream later on
   final List<AudioIssue> issues = new ArrayList<>(); // location => bytes skipped
+  long resynced; // bytes skipped
+
+  // pages whose CRC didn't match, when checked
+  @Getter
+  int checksumMismatches;
 
   void addIssue(@NonNull AudioIssue issue) {
     issues.add(issue);
@@ -0,0 +1,91 @@
+/**
+ * Audiolib
+ * Copyright (C) 2022 NonStatic
+ *
+ * This file is part of audiolib.
+ * Audiolib is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *  is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License along with . If not, see <https://www.gnu.org/licenses/>.
+ */
+package eu.nonstatic.audio.formats.ogg.codec;
+
+import eu.nonstatic.audio.AudioInputStream;
+import eu.nonstatic.audio.formats.ogg.OggCodec;
+import eu.nonstatic.audio.formats.ogg.OggCodecReader;
+import eu.nonstatic.audio.formats.ogg.OggInfoSupplier.MalformedPacketException;
+import eu.nonstatic.audio.formats.ogg.OggInfoSupplier.OggPage;
+import eu.nonstatic.audio.formats.ogg.OggInfoSupplier.UnsupportedCodecException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * The first packet wraps the native FLAC signature and STREAMINFO block, then come metadata blocks and frames, one per packet.
+ * <a href="https://xiph.org/flac/ogg_mapping.html">...</a>
+ */
+public class FlacCodecReader implements OggCodecReader<OggFlacInfo> {
+
+  private static final byte[] HEADER_BYTES = ByteBuffer.allocate(5)
+      .put((byte) 0x7f)
+      .put("FLAC".getBytes(StandardCharsets.US_ASCII))
+      .array();
+  private static final byte[] FLAC_ID = "fLaC".getBytes(StandardCharsets.US_ASCII);
+  private static final int MAPPING_MAJOR_VERSION = 1;
+  private static final int STREAMINFO_BLOCK_TYPE = 0;
+  private static final int BOS_PACKET_LENGTH = 51;
+
+  @Override
+  public OggCodec getCodec() {
+    return OggCodec.FLAC;
+  }
+
+  @Override
+  public byte[] getHeader() {
+    return HEADER_BYTES;
+  }
+
+  /**
+   * <a href="https://xiph.org/flac/format.html#metadata_block_streaminfo">...</a>
+   */
+  @Override
+  public OggFlacInfo readBos(AudioInputStream ais, int serialNumber, OggPage.PacketSegment segment)
+      throws UnsupportedCodecException, MalformedPacketException, IOException {
+    long location = ais.location();
+    int majorVersion = ais.readStrict();
+    int minorVersion = ais.readStrict();
+    if(majorVersion != MAPPING_MAJOR_VERSION) {
+      throw new UnsupportedCodecException(ais.getName(), location, serialNumber, "Unsupported FLAC mapping version: " + majorVersion + '.' + minorVersion);
+    }
+    ais.read16bitBE(); // number of header packets, 0 meaning unknown
+
+    location = ais.location();
+    if(!ais.readMagic(FLAC_ID) || (ais.readStrict() & 0x7f) != STREAMINFO_BLOCK_TYPE) {
+      throw new MalformedPacketException(ais.getName(), location, serialNumber, "STREAMINFO block not found");
+    }
+    ais.skipNBytes(3); // length
+    ais.skipNBytes(10); // block sizes, frame sizes
+    long samplingInfo = ais.read64bitBE();
+    ais.skipNBytes(16); // MD5
+    ais.skipNBytes((long) segment.getSize() - BOS_PACKET_LENGTH);
+
+    int sampleRate = (int) (samplingInfo >> 44);
+    int channels = (((int) (samplingInfo >> 41)) & 0x7) + 1;
+    int sampleSizeInBits = (((int) (samplingInfo >> 36)) & 0x1F) + 1;
+    long totalSamples = samplingInfo & 0xFFFFFFFFFL;
+    return new OggFlacInfo(ais.getName(), serialNumber, majorVersion << 8 | minorVersion, sampleRate, channels, sampleSizeInBits, totalSamples);
+  }
+
+  /**
+   * Metadata blocks or frames, the granule positions tell more than they would
+   */
+  @Override
+  public void readPacket(AudioInputStream ais, OggFlacInfo info, OggPage page, OggPage.PacketSegment segment) throws IOException {
+    ais.skipNBytes(segment.getSize());
+  }
+
+  @Override
+  public boolean skipPage(AudioInputStream ais, OggFlacInfo info, OggPage page) throws IOException {
+    ais.skipNBytes(page.getBodySize());
+    return true;
+  }
+}
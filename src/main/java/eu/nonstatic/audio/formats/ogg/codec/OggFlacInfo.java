@@ -0,0 +1,56 @@
+/**
+ * Audiolib
+ * Copyright (C) 2022 NonStatic
+ *
+ * This file is part of audiolib.
+ * Audiolib is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *  is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License along with . If not, see <https://www.gnu.org/licenses/>.
+ */
+package eu.nonstatic.audio.formats.ogg.codec;
+
+import eu.nonstatic.audio.formats.ogg.OggCodec;
+import eu.nonstatic.audio.formats.ogg.OggInfo;
+import java.time.Duration;
+import javax.sound.sampled.AudioFormat;
+import lombok.Getter;
+
+/**
+ * Granule positions are sample numbers, and the STREAMINFO block may also tell the total.
+ */
+@Getter
+public class OggFlacInfo extends OggInfo {
+
+  private static final AudioFormat.Encoding ENCODING = new AudioFormat.Encoding("FLAC");
+
+  private final int mappingVersion; // major << 8 | minor
+  private final long totalSamples; // 0 if unknown
+
+  public OggFlacInfo(String name, int serialNumber, int mappingVersion, int sampleRate, int channels, int sampleSizeInBits, long totalSamples) {
+    super(name, ENCODING, sampleRate, sampleSizeInBits, channels, -1, -1, false, serialNumber);
+    this.mappingVersion = mappingVersion;
+    this.totalSamples = totalSamples;
+  }
+
+  @Override
+  public OggCodec getCodec() {
+    return OggCodec.FLAC;
+  }
+
+  public boolean isEmpty() {
+    return lastGranule == firstGranule && totalSamples == 0;
+  }
+
+  /**
+   * Out of the granule positions, else of the STREAMINFO's total samples when no page told anything
+   */
+  @Override
+  public Duration getDuration() {
+    long samples = lastGranule - firstGranule;
+    if(samples <= 0) {
+      samples = totalSamples;
+    }
+    double seconds = samples / (double) getSampleRate();
+    return Duration.ofNanos(Math.round(seconds * 1_000_000_000.0));
+  }
+}
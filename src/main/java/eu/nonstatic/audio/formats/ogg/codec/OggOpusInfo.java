@@ -0,0 +1,65 @@
+/**
+ * Audiolib
+ * Copyright (C) 2022 NonStatic
+ *
+ * This file is part of audiolib.
+ * Audiolib is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *  is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License along with . If not, see <https://www.gnu.org/licenses/>.
+ */
+package eu.nonstatic.audio.formats.ogg.codec;
+
+import eu.nonstatic.audio.formats.ogg.OggCodec;
+import eu.nonstatic.audio.formats.ogg.OggInfo;
+import java.time.Duration;
+import javax.sound.sampled.AudioFormat;
+import lombok.Getter;
+
+/**
+ * Granule positions are always 48kHz samples, whatever the input sample rate was, and include the pre-skip.
+ */
+@Getter
+public class OggOpusInfo extends OggInfo {
+
+  private static final AudioFormat.Encoding ENCODING = new AudioFormat.Encoding("OPUS");
+  public static final int GRANULE_RATE = 48000;
+
+  private final int version;
+  private final int preSkip; // samples at 48kHz to drop at the start
+  private final int inputSampleRate; // just informational
+  private final short outputGain; // Q7.8 dB
+  private final int channelMappingFamily;
+
+  public OggOpusInfo(String name, int serialNumber, int version, int channels, int preSkip, int inputSampleRate, short outputGain, int channelMappingFamily) {
+    super(name, ENCODING, GRANULE_RATE, -1, channels, -1, -1, false, serialNumber);
+    this.version = version;
+    this.preSkip = preSkip;
+    this.inputSampleRate = inputSampleRate;
+    this.outputGain = outputGain;
+    this.channelMappingFamily = channelMappingFamily;
+  }
+
+  @Override
+  public OggCodec getCodec() {
+    return OggCodec.OPUS;
+  }
+
+  public boolean isEmpty() {
+    return lastGranule == firstGranule;
+  }
+
+  /**
+   * <a href="https://datatracker.ietf.org/doc/html/rfc7845#section-4.1">...</a>
+   */
+  @Override
+  public Duration getDuration() {
+    long samples = Math.max(0, lastGranule - firstGranule - preSkip);
+    double seconds = samples / (double) GRANULE_RATE;
+    return Duration.ofNanos(Math.round(seconds * 1_000_000_000.0));
+  }
+
+  @Override
+  public long getGranulePos(Duration time) {
+    return super.getGranulePos(time) + preSkip;
+  }
+}
@@ -0,0 +1,47 @@
+/**
+ * Audiolib
+ * Copyright (C) 2022 NonStatic
+ *
+ * This file is part of audiolib.
+ * Audiolib is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *  is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License along with . If not, see <https://www.gnu.org/licenses/>.
+ */
+package eu.nonstatic.audio.formats.ogg.codec;
+
+import eu.nonstatic.audio.formats.ogg.OggCodec;
+import eu.nonstatic.audio.formats.ogg.OggInfo;
+import java.time.Duration;
+import javax.sound.sampled.AudioFormat;
+
+/**
+ * A logical stream which was only walked over. Its granule positions are codec specific, so there's no telling any duration out of them.
+ */
+public class OggPassThroughInfo extends OggInfo {
+
+  private static final AudioFormat.Encoding ENCODING = new AudioFormat.Encoding("UNKNOWN");
+
+  private final OggCodec codec;
+
+  public OggPassThroughInfo(String name, int serialNumber, OggCodec codec) {
+    super(name, ENCODING, -1, -1, -1, -1, -1, false, serialNumber);
+    this.codec = codec;
+  }
+
+  @Override
+  public OggCodec getCodec() {
+    return codec;
+  }
+
+  /**
+   * Always, so that it never gets picked as the audio stream of a file
+   */
+  public boolean isEmpty() {
+    return true;
+  }
+
+  @Override
+  public Duration getDuration() {
+    return Duration.ZERO;
+  }
+}
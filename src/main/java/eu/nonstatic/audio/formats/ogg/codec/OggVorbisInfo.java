@@ -12,6 +12,7 @@ package eu.nonstatic.audio.formats.ogg.codec;
 import eu.nonstatic.audio.AudioIssue;
 import eu.nonstatic.audio.formats.ogg.OggCodec;
 import eu.nonstatic.audio.formats.ogg.OggInfo;
+import java.io.ByteArrayOutputStream;
 import java.time.Duration;
 import javax.sound.sampled.AudioFormat;
 import lombok.Builder;
@@ -24,6 +25,15 @@ public class OggVorbisInfo extends OggInfo {
   private static final AudioFormat.Encoding ENCODING = new AudioFormat.Encoding("VORBISENC");
 
   private long bitCount; // channels/bitRate/sampleRate => bits
+  private long sampleCount; // out of the audio packets' block sizes
+  private int previousBlockSize; // 0 before the first audio packet
+  private boolean[] modeBlockFlags; // from the setup header, null if it couldn't be read
+  private int modeBits;
+
+  boolean setupRead; // from there on, only audio packets are expected
+  int continuedPacketType = VorbisCodecReader.NO_PACKET; // packet going on in the next page
+  int continuedBlockSize; // of the audio packet going on in the next page
+  ByteArrayOutputStream setupHeader; // while it spans pages
 
   @Getter
   private final SamplingDetails samplingDetails;
@@ -44,18 +54,74 @@ public class OggVorbisInfo extends OggInfo {
     bitCount += 8L * bytes;
   }
 
+  void setModeBlockFlags(boolean[] modeBlockFlags) {
+    this.modeBlockFlags = modeBlockFlags;
+    this.modeBits = 32 - Integer.numberOfLeadingZeros(modeBlockFlags.length - 1); // ilog(modes - 1)
+  }
+
+  int getModeCount() {
+    return modeBlockFlags != null ? modeBlockFlags.length : 0;
+  }
+
+  /**
+   * <a href="https://xiph.org/vorbis/doc/Vorbis_I_spec.html#x1-720004.3">...</a>
+   * @param firstByte of an audio packet: packet type bit, then mode number
+   * @return the packet's block size, 0 if unknown
+   */
+  int blockSize(int firstByte) {
+    int mode = (firstByte >> 1) & ((1 << modeBits) - 1);
+    if(modeBlockFlags == null || mode >= modeBlockFlags.length) {
+      return 0;
+    }
+    return modeBlockFlags[mode] ? samplingDetails.blockSize1 : samplingDetails.blockSize0;
+  }
+
+  /**
+   * A packet decodes into the overlap of the previous window's right half and its own left half,
+   * so the very first one doesn't give any sample <a href="https://xiph.org/vorbis/doc/Vorbis_I_spec.html#x1-720004.3">...</a>
+   */
+  void appendPacket(int blockSize) {
+    if(blockSize > 0) {
+      if(previousBlockSize > 0) {
+        sampleCount += (previousBlockSize + blockSize) / 4;
+      }
+      previousBlockSize = blockSize;
+    }
+  }
+
+  /**
+   * Samples the audio packets read decode into, which may be slightly more than the last granule position tells,
+   * the last page being allowed to trim the last packet.
+   * @return -1 unless the pages were walked, see {@link eu.nonstatic.audio.formats.ogg.OggInfoSupplier.Mode#VERIFY}
+   */
+  public long getSampleCount() {
+    return modeBlockFlags != null ? sampleCount : -1;
+  }
+
+  /**
+   * Data packets are only counted in when walking, else there are granule positions beyond the bos page's
+   */
   public boolean isEmpty() {
-    return bitCount == 0;
+    return bitCount == 0 && lastGranule == firstGranule;
   }
 
+  /**
+   * Out of the granule positions, unless the stream is incomplete and counting samples goes further:
+   * the last page may be truncated, or not be an end of stream one.
+   */
   @Override
   public Duration getDuration() {
-    double seconds = (lastGranule - firstGranule) / (double) samplingDetails.sampleRate;
+    long samples = lastGranule - firstGranule;
+    if(incomplete) {
+      samples = Math.max(samples, getSampleCount());
+    }
+    double seconds = samples / (double) samplingDetails.sampleRate;
     return Duration.ofNanos(Math.round(seconds * 1_000_000_000.0));
   }
 
   /**
-   * Approximate, as the bitRate is mostly informational
+   * Approximate, as the bitRate is mostly informational.
+   * Zero unless the pages were walked, see {@link eu.nonstatic.audio.formats.ogg.OggInfoSupplier.Mode#VERIFY}
    */
   public Duration getBitCountDuration() {
     double seconds = bitCount / (double) samplingDetails.bitRate;
@@ -74,5 +140,7 @@ public class OggVorbisInfo extends OggInfo {
     private short channels;
     private int bitRate; // just a hint as the doc says
     private int sampleRate;
+    private int blockSize0;
+    private int blockSize1;
   }
 }
@@ -0,0 +1,73 @@
+/**
+ * Audiolib
+ * Copyright (C) 2022 NonStatic
+ *
+ * This file is part of audiolib.
+ * Audiolib is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *  is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License along with . If not, see <https://www.gnu.org/licenses/>.
+ */
+package eu.nonstatic.audio.formats.ogg.codec;
+
+import eu.nonstatic.audio.AudioInputStream;
+import eu.nonstatic.audio.formats.ogg.OggCodec;
+import eu.nonstatic.audio.formats.ogg.OggCodecReader;
+import eu.nonstatic.audio.formats.ogg.OggInfoSupplier.OggPage;
+import eu.nonstatic.audio.formats.ogg.OggInfoSupplier.UnsupportedCodecException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Only the identification header matters: the duration comes from the granule positions, minus the pre-skip.
+ * <a href="https://datatracker.ietf.org/doc/html/rfc7845">...</a>
+ */
+public class OpusCodecReader implements OggCodecReader<OggOpusInfo> {
+
+  private static final byte[] HEADER_BYTES = "OpusHead".getBytes(StandardCharsets.US_ASCII);
+  private static final int ID_HEADER_LENGTH = 19; // without the channel mapping table
+  private static final int MAJOR_VERSION_MASK = 0xf0;
+
+  @Override
+  public OggCodec getCodec() {
+    return OggCodec.OPUS;
+  }
+
+  @Override
+  public byte[] getHeader() {
+    return HEADER_BYTES;
+  }
+
+  /**
+   * <a href="https://datatracker.ietf.org/doc/html/rfc7845#section-5.1">...</a>
+   */
+  @Override
+  public OggOpusInfo readBos(AudioInputStream ais, int serialNumber, OggPage.PacketSegment segment) throws UnsupportedCodecException, IOException {
+    long location = ais.location();
+    int version = ais.readStrict();
+    if((version & MAJOR_VERSION_MASK) != 0) { // minor versions are meant to stay compatible
+      throw new UnsupportedCodecException(ais.getName(), location, serialNumber, "Unsupported Opus version: " + version);
+    }
+    int channels = ais.readStrict();
+    int preSkip = ais.read16bitLE() & 0xffff;
+    int inputSampleRate = ais.read32bitLE();
+    short outputGain = ais.read16bitLE();
+    int channelMappingFamily = ais.readStrict();
+    ais.skipNBytes((long) segment.getSize() - ID_HEADER_LENGTH); // channel mapping table, if any
+
+    return new OggOpusInfo(ais.getName(), serialNumber, version, channels, preSkip, inputSampleRate, outputGain, channelMappingFamily);
+  }
+
+  /**
+   * Comment header or audio, there's nothing to get from them
+   */
+  @Override
+  public void readPacket(AudioInputStream ais, OggOpusInfo info, OggPage page, OggPage.PacketSegment segment) throws IOException {
+    ais.skipNBytes(segment.getSize());
+  }
+
+  @Override
+  public boolean skipPage(AudioInputStream ais, OggOpusInfo info, OggPage page) throws IOException {
+    ais.skipNBytes(page.getBodySize());
+    return true;
+  }
+}
@@ -0,0 +1,107 @@
+/**
+ * Audiolib
+ * Copyright (C) 2022 NonStatic
+ *
+ * This file is part of audiolib.
+ * Audiolib is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *  is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License along with . If not, see <https://www.gnu.org/licenses/>.
+ */
+package eu.nonstatic.audio.formats.ogg.codec;
+
+import eu.nonstatic.audio.AudioInputStream;
+import eu.nonstatic.audio.formats.ogg.OggCodec;
+import eu.nonstatic.audio.formats.ogg.OggCodecReader;
+import eu.nonstatic.audio.formats.ogg.OggInfoSupplier.OggPage;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+
+/**
+ * For the logical streams no other reader knows of: the bos packet only tells which codec it is, when it can,
+ * and every other page is skipped as a whole, at the cost of its header.
+ * <a href="https://wiki.xiph.org/MIMETypesCodecs">...</a>
+ */
+public class PassThroughCodecReader implements OggCodecReader<OggPassThroughInfo> {
+
+  private static final Map<OggCodec, byte[]> MAGICS = new LinkedHashMap<>();
+  static {
+    MAGICS.put(OggCodec.THEORA, magic(0x80, "theora"));
+    MAGICS.put(OggCodec.SKELETON, magic(-1, "fishead\0"));
+    MAGICS.put(OggCodec.SPEEX, magic(-1, "Speex   "));
+    MAGICS.put(OggCodec.CELT, magic(-1, "CELT    "));
+    MAGICS.put(OggCodec.KATE, magic(0x80, "kate\0\0\0"));
+    MAGICS.put(OggCodec.DIRAC, magic(-1, "BBCD\0"));
+    MAGICS.put(OggCodec.DAALA, magic(0x80, "daala"));
+    MAGICS.put(OggCodec.CMML, magic(-1, "CMML\0\0\0\0"));
+    MAGICS.put(OggCodec.MIDI, magic(-1, "OggMIDI\0"));
+    MAGICS.put(OggCodec.PCM, magic(-1, "PCM     "));
+    MAGICS.put(OggCodec.YUV4MPEG, magic(-1, "YUV4MPEG"));
+    MAGICS.put(OggCodec.PNG, magic(0x89, "PNG"));
+    MAGICS.put(OggCodec.JNG, magic(0x8b, "JNG"));
+    MAGICS.put(OggCodec.MNG, magic(0x8a, "MNG"));
+  }
+
+  private static final int MAX_MAGIC_SIZE = MAGICS.values()
+      .stream()
+      .mapToInt(magic -> magic.length)
+      .max().orElse(0);
+
+  private static byte[] magic(int first, String text) {
+    byte[] textBytes = text.getBytes(StandardCharsets.US_ASCII);
+    if(first < 0) {
+      return textBytes;
+    } else {
+      byte[] magic = new byte[textBytes.length + 1];
+      magic[0] = (byte) first;
+      System.arraycopy(textBytes, 0, magic, 1, textBytes.length);
+      return magic;
+    }
+  }
+
+  @Override
+  public OggCodec getCodec() {
+    return OggCodec.UNKNOWN;
+  }
+
+  /**
+   * Matches nothing, this reader is what's left when no other one matched
+   */
+  @Override
+  public byte[] getHeader() {
+    return new byte[0];
+  }
+
+  /**
+   * @param segment of the bos packet, the stream being at its very start
+   */
+  @Override
+  public OggPassThroughInfo readBos(AudioInputStream ais, int serialNumber, OggPage.PacketSegment segment) throws IOException {
+    byte[] start = ais.readNBytesStrict(Math.min(MAX_MAGIC_SIZE, segment.getSize()));
+    ais.skipNBytes((long) segment.getSize() - start.length);
+
+    OggCodec codec = OggCodec.UNKNOWN;
+    for (Entry<OggCodec, byte[]> entry : MAGICS.entrySet()) {
+      byte[] magic = entry.getValue();
+      if (start.length >= magic.length && Arrays.equals(magic, 0, magic.length, start, 0, magic.length)) {
+        codec = entry.getKey();
+        break;
+      }
+    }
+    return new OggPassThroughInfo(ais.getName(), serialNumber, codec);
+  }
+
+  @Override
+  public void readPacket(AudioInputStream ais, OggPassThroughInfo info, OggPage page, OggPage.PacketSegment segment) throws IOException {
+    ais.skipNBytes(segment.getSize());
+  }
+
+  @Override
+  public boolean skipPage(AudioInputStream ais, OggPassThroughInfo info, OggPage page) throws IOException {
+    ais.skipNBytes(page.getBodySize());
+    return true;
+  }
+}
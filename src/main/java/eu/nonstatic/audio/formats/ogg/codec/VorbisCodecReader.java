@@ -17,6 +17,7 @@ import eu.nonstatic.audio.formats.ogg.OggInfoSupplier.MalformedPacketException;
 import eu.nonstatic.audio.formats.ogg.OggInfoSupplier.OggPage;
 import eu.nonstatic.audio.formats.ogg.OggInfoSupplier.UnsupportedCodecException;
 import eu.nonstatic.audio.formats.ogg.codec.OggVorbisInfo.SamplingDetails;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
@@ -29,6 +30,12 @@ public class VorbisCodecReader implements OggCodecReader<OggVorbisInfo> {
   private static final int PACKET_TYPE_IDENT =   1<<0 | PACKET_TYPE_DATA_MASK; // 1
   private static final int PACKET_TYPE_COMMENT = 1<<1 | PACKET_TYPE_DATA_MASK; // 3
   private static final int PACKET_TYPE_SETUP =   1<<2 | PACKET_TYPE_DATA_MASK; // 5
+  private static final int PACKET_TYPE_AUDIO = 0; // any even type actually
+  static final int NO_PACKET = -1;
+
+  private static final int MODE_BITS = 1 + 16 + 16 + 8; // blockflag, windowtype, transformtype, mapping
+  private static final int MODE_COUNT_BITS = 6;
+  private static final int MAX_MODES = 1 << MODE_COUNT_BITS;
 
   public static final String VORBIS_MAGIC = "vorbis";
   private static final byte[] VORBIS_MAGIC_BYTES = VORBIS_MAGIC.getBytes(StandardCharsets.US_ASCII);
@@ -73,11 +80,20 @@ public class VorbisCodecReader implements OggCodecReader<OggVorbisInfo> {
 
   @Override
   public void readPacket(AudioInputStream ais, OggVorbisInfo info, OggPage page, OggPage.PacketSegment segment) throws MalformedPacketException, IOException {
+    if(segment.isContinued()) {
+      readContinuedPacket(ais, info, segment);
+      return;
+    }
+
+    if(segment.getSize() == 0) { // a lost packet, nothing to decode there
+      return;
+    }
+
     long location = ais.location();
     int packetType = ais.readStrict();
 
     if((packetType & PACKET_TYPE_DATA_MASK) == 0) {
-      readDataPacket(ais, info, segment);
+      readDataPacket(ais, info, packetType, segment);
     } else {
       // A comment or setup packet follow an identification packet, we are not checking here if they are all present or in order
       checkVorbisMagic(ais, info.getSerialNumber());
@@ -85,10 +101,10 @@ public class VorbisCodecReader implements OggCodecReader<OggVorbisInfo> {
         case PACKET_TYPE_IDENT:
           throw new IllegalStateException("Ident packet already exists");
         case PACKET_TYPE_COMMENT:
-          readCommentPacket(ais, segment);
+          readCommentPacket(ais, info, segment);
           break;
         case PACKET_TYPE_SETUP:
-          readSetupPacket(ais, segment);
+          readSetupPacket(ais, info, segment);
           break;
         default:
           throw new MalformedPacketException(ais.getName(), location, info.getSerialNumber(), "unknown packet type: " + packetType);
@@ -96,12 +112,90 @@ public class VorbisCodecReader implements OggCodecReader<OggVorbisInfo> {
     }
   }
 
+  /**
+   * The rest of a packet which didn't fit in the previous page. When that page was lost, it is accounted for as audio data.
+   */
+  private static void readContinuedPacket(AudioInputStream ais, OggVorbisInfo info, OggPage.PacketSegment segment) throws IOException {
+    int size = segment.getSize();
+    switch(info.continuedPacketType) {
+      case PACKET_TYPE_SETUP:
+        info.setupHeader.write(ais.readNBytesStrict(size));
+        break;
+      case PACKET_TYPE_COMMENT:
+        ais.skipNBytes(size);
+        break;
+      default:
+        ais.skipNBytes(size);
+        info.appendBytes(size);
+        break;
+    }
 
-  private void readDataPacket(AudioInputStream ais, OggVorbisInfo info, OggPage.PacketSegment segment) throws IOException {
-    // TODO for more duration accuracy we could use blocksize mumbo jumbo https://xiph.org/vorbis/doc/Vorbis_I_spec.html#x1-720004.3
+    if(segment.isFinished()) {
+      if(info.continuedPacketType == PACKET_TYPE_SETUP) {
+        setupRead(info);
+      } else if(info.continuedPacketType == PACKET_TYPE_AUDIO) {
+        info.appendPacket(info.continuedBlockSize);
+      }
+      info.continuedPacketType = NO_PACKET;
+    }
+  }
+
+  /**
+   * Once the setup header is read, every packet is an audio one <a href="https://xiph.org/vorbis/doc/Vorbis_I_spec.html#x1-610004.2">...</a>
+   * so a page starting with a fresh packet is only made of them: its body is skipped at once, minus the packet type bytes it would have read.
+   * Only the first byte of each packet matters to get its block size, and only when there are several modes:
+   * they're peeked at when the stream has the whole body at hand, else read on the way.
+   * A page that may be truncated is still read packet per packet, for the bytes counted in to be the same up to the EOF.
+   */
+  @Override
+  public boolean skipPage(AudioInputStream ais, OggVorbisInfo info, OggPage page) throws IOException {
+    int bodySize = page.getBodySize();
+    if(!info.setupRead || !page.isFreshPacket() || ais.remaining() < bodySize) {
+      return false;
+    }
+
+    int segmentCount = page.getSegmentCount();
+    int packetCount = 0;
+    if(info.getModeCount() > 1 && ais.peek(bodySize - 1) < 0) { // mode bits needed, but they're not all at hand
+      for (int i = 0; i < segmentCount; i++) {
+        int size = page.getSegmentSize(i);
+        if(size > 0) {
+          appendAudioPacket(info, info.blockSize(ais.readStrict()), page.isSegmentFinished(i));
+          ais.skipNBytes(size - PACKET_TYPE_LENGTH);
+          packetCount++;
+        }
+      }
+    } else {
+      boolean modeBits = info.getModeCount() > 1;
+      for (int i = 0, offset = 0; i < segmentCount; offset += page.getSegmentSize(i++)) {
+        if(page.getSegmentSize(i) > 0) {
+          appendAudioPacket(info, info.blockSize(modeBits ? ais.peek(offset) : PACKET_TYPE_AUDIO), page.isSegmentFinished(i));
+          packetCount++;
+        }
+      }
+      ais.skipNBytes(bodySize);
+    }
+    info.appendBytes(bodySize - packetCount * PACKET_TYPE_LENGTH);
+    return true;
+  }
+
+  private static void readDataPacket(AudioInputStream ais, OggVorbisInfo info, int packetType, OggPage.PacketSegment segment) throws IOException {
     int dataLength = segment.getSize() - PACKET_TYPE_LENGTH;
     ais.skipNBytes(dataLength);
     info.appendBytes(dataLength);
+    appendAudioPacket(info, info.blockSize(packetType), segment.isFinished());
+  }
+
+  /**
+   * A packet only gives samples once it's complete, which may be in a later page
+   */
+  private static void appendAudioPacket(OggVorbisInfo info, int blockSize, boolean finished) {
+    if(finished) {
+      info.appendPacket(blockSize);
+    } else {
+      info.continuedPacketType = PACKET_TYPE_AUDIO;
+      info.continuedBlockSize = blockSize;
+    }
   }
 
   private static void checkVorbisMagic(AudioInputStream ais, int serialNumber) throws IOException, MalformedPacketException {
@@ -127,7 +221,7 @@ public class VorbisCodecReader implements OggCodecReader<OggVorbisInfo> {
     short numChannels = (short) ais.readStrict();
     int sampleRate = ais.read32bitLE();
     int bitRate = computeBitRate(ais.read32bitLE(), ais.read32bitLE(), ais.read32bitLE());
-    readBlockSizes(ais.readStrict()); // blockSizes
+    int blockSizes = ais.readStrict();
     ais.readStrict(); // framingFlag
 
     return SamplingDetails.builder()
@@ -135,6 +229,8 @@ public class VorbisCodecReader implements OggCodecReader<OggVorbisInfo> {
         .channels(numChannels)
         .sampleRate(sampleRate)
         .bitRate(bitRate)
+        .blockSize0(1 << (blockSizes & 0x0f))
+        .blockSize1(1 << (blockSizes >> 4))
         .build();
   }
 
@@ -154,11 +250,15 @@ public class VorbisCodecReader implements OggCodecReader<OggVorbisInfo> {
     }
   }
 
-  private static int[] readBlockSizes(int blockSizes) {
-    return new int[]{ blockSizes & 0x0f, blockSizes & 0xf0 };
-  }
-
-  private static void readCommentPacket(AudioInputStream ais, OggPage.PacketSegment segment) throws IOException {
+  /**
+   * A comment header spanning pages is just skipped, there's nothing we need in there
+   */
+  private static void readCommentPacket(AudioInputStream ais, OggVorbisInfo info, OggPage.PacketSegment segment) throws IOException {
+    if(!segment.isFinished()) {
+      ais.skipNBytes((long)segment.getSize() - HEADER_LENGTH);
+      info.continuedPacketType = PACKET_TYPE_COMMENT;
+      return;
+    }
     long startLocation = ais.location() - HEADER_LENGTH;
 
     int vendorLength = ais.read32bitLE();
@@ -173,7 +273,80 @@ public class VorbisCodecReader implements OggCodecReader<OggVorbisInfo> {
     ais.skipNBytes(segment.getSize() - (ais.location() - startLocation));
   }
 
-  private void readSetupPacket(AudioInputStream ais,OggPage.PacketSegment segment) throws IOException {
-    ais.skipNBytes((long)segment.getSize() - HEADER_LENGTH);
+  /**
+   * The setup header is kept till complete, usually spanning a few pages, for its mode table
+   */
+  private static void readSetupPacket(AudioInputStream ais, OggVorbisInfo info, OggPage.PacketSegment segment) throws IOException {
+    info.setupHeader = new ByteArrayOutputStream();
+    info.setupHeader.write(ais.readNBytesStrict(segment.getSize() - HEADER_LENGTH));
+    if(segment.isFinished()) {
+      setupRead(info);
+    } else {
+      info.continuedPacketType = PACKET_TYPE_SETUP;
+    }
+  }
+
+  private static void setupRead(OggVorbisInfo info) {
+    boolean[] modeBlockFlags = readModeBlockFlags(info.setupHeader.toByteArray());
+    if(modeBlockFlags != null) {
+      info.setModeBlockFlags(modeBlockFlags);
+    }
+    info.setupHeader = null;
+    info.setupRead = true;
+  }
+
+  /**
+   * The mode table closes the setup header, right before the framing bit, but codebooks, floors, residues and mappings come first
+   * and decoding them is a lot of work just to get there. So it's read backwards, the way
+   * <a href="https://github.com/FFmpeg/FFmpeg/blob/master/libavcodec/vorbis_parser.c">...</a> does:
+   * each mode is 41 bits, with zero window and transform types and a mapping number below 64,
+   * and they are preceded by their count minus one on 6 bits. The longest series of modes matching the count is kept.
+   * Bits being packed LSB first, reading backwards gives each field MSB first.
+   * @param setup setup header after the packet type and magic
+   * @return the block flag of each mode, null if no mode table was found
+   */
+  static boolean[] readModeBlockFlags(byte[] setup) {
+    int position = setup.length * 8 - 1;
+    while(position >= 0 && readBitsBackwards(setup, position, 1) == 0) { // padding till the framing bit
+      position--;
+    }
+    int modesEnd = --position;
+
+    int modeCount = 0;
+    int matchingModeCount = 0;
+    while(position + 1 >= MODE_BITS && modeCount < MAX_MODES) {
+      if(readBitsBackwards(setup, position, 8) >= MAX_MODES // mapping
+          || readBitsBackwards(setup, position - 8, 16) != 0 // transformtype
+          || readBitsBackwards(setup, position - 24, 16) != 0) { // windowtype
+        break;
+      }
+      position -= MODE_BITS;
+      modeCount++;
+      if(position + 1 >= MODE_COUNT_BITS && readBitsBackwards(setup, position, MODE_COUNT_BITS) + 1 == modeCount) {
+        matchingModeCount = modeCount;
+      }
+    }
+    if(matchingModeCount == 0) {
+      return null;
+    }
+
+    boolean[] modeBlockFlags = new boolean[matchingModeCount];
+    position = modesEnd;
+    for (int i = matchingModeCount - 1; i >= 0; i--) {
+      position -= MODE_BITS - 1;
+      modeBlockFlags[i] = readBitsBackwards(setup, position--, 1) != 0;
+    }
+    return modeBlockFlags;
+  }
+
+  /**
+   * @param position of the first bit to read, next ones being below it
+   */
+  private static int readBitsBackwards(byte[] bytes, int position, int count) {
+    int value = 0;
+    for (int i = position; i > position - count; i--) {
+      value = (value << 1) | ((bytes[i >> 3] >> (i & 7)) & 1);
+    }
+    return value;
   }
 }
@@ -23,16 +23,18 @@ public final class WaveInfo extends AudioFormatEx {
   private final @NonNull String name;
   private final short format;
   private final Short subFormat;
-  private final int audioSize;
+  private final long audioSize;
+  private final long dataLocation; // of the first sample
 
   @Builder
-  public WaveInfo(@NonNull String name, short format, Short subFormat, int channels, float sampleRate, int sampleSizeInBits, int audioSize) {
+  public WaveInfo(@NonNull String name, short format, Short subFormat, int channels, float sampleRate, int sampleSizeInBits, long audioSize, long dataLocation) {
     super(getEncoding(format, subFormat, sampleSizeInBits), sampleRate, sampleSizeInBits, channels,
             (sampleSizeInBits * channels)/8, sampleRate, false);
     this.name = name;
     this.format = format;
     this.subFormat = subFormat;
     this.audioSize = audioSize;
+    this.dataLocation = dataLocation;
   }
 
   @Override
@@ -45,6 +47,16 @@ public final class WaveInfo extends AudioFormatEx {
     return Duration.ofMillis(Math.round((audioSize * 8 * 1000.0) / (channels * sampleRate * sampleSizeInBits)));
   }
 
+  @Override
+  public long getLongFrameCount() {
+    return frameSize > 0 ? audioSize / frameSize : Math.round(getDuration().toNanos() * (double) sampleRate / NANOS_PER_SECOND);
+  }
+
+  @Override
+  public int getFrameCount() {
+    return (int) Math.min(getLongFrameCount(), Integer.MAX_VALUE);
+  }
+
   private static Encoding getEncoding(short format, Short subFormat, int sampleSizeInBits) {
     WaveFormat waveFormat = WaveFormat.ofValue(format);
     return switch (waveFormat) {
@@ -19,23 +19,36 @@ import eu.nonstatic.audio.formats.wave.WaveInfo.WaveInfoBuilder;
 import java.io.EOFException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import lombok.extern.slf4j.Slf4j;
 
 @Slf4j
 public class WaveInfoSupplier implements AudioInfoSupplier<WaveInfo> {
 
+  private static final String RIFF_ID = "RIFF";
+  private static final String RF64_ID = "RF64";
+  private static final String BW64_ID = "BW64";
+  private static final byte[] WAVE_ID = "WAVE".getBytes(StandardCharsets.US_ASCII);
+  private static final byte[] DS64_ID = "ds64".getBytes(StandardCharsets.US_ASCII);
+  private static final long SIZE_IN_DS64 = 0xFFFFFFFFL; // 32-bit size standing for the ds64 one
+
   /**
    * <a href="https://www-mmsp.ece.mcgill.ca/Documents/AudioFormats/WAVE/WAVE.html">...</a>
    */
   public WaveInfo getInfos(InputStream is, String name) throws IOException, AudioInfoException {
-    AudioInputStream ais = new AudioInputStream(is, name);
+    AudioInputStream ais = AudioInputStream.of(is, name);
     return getInfos(ais);
   }
 
+  @Override
+  public int getRangeReadAhead() {
+    return 4 * 1024; // fmt and the data chunk header usually follow RIFF, other chunks are skipped without being fetched
+  }
+
   public WaveInfo getInfos(AudioInputStream ais) throws IOException, AudioInfoException {
     try {
-      int nbChunks = checkHeader(ais);
-      return readDetails(ais, nbChunks);
+      Header header = checkHeader(ais);
+      return readDetails(ais, header);
     } catch(AudioFormatException e) {
       throw new AudioInfoException(e);
     } catch (EOFException e) {
@@ -43,29 +56,62 @@ public class WaveInfoSupplier implements AudioInfoSupplier<WaveInfo> {
     }
   }
 
+  /**
+   * RIFF, or its 64-bit variants RF64 (EBU Tech 3306) and BW64 (ITU-R BS.2088)
+   */
   public static boolean isRiff(AudioInputStream ais) throws IOException {
-    return "RIFF".equals(ais.readString(4));
+    String id = ais.readString(4);
+    return RIFF_ID.equals(id) || RF64_ID.equals(id) || BW64_ID.equals(id);
   }
 
-  private int checkHeader(AudioInputStream ais) throws AudioFormatException, IOException {
+  private Header checkHeader(AudioInputStream ais) throws AudioFormatException, IOException {
     long location = ais.location();
-    if (!isRiff(ais)) {
+    String id = ais.readString(4);
+    boolean rf64 = RF64_ID.equals(id) || BW64_ID.equals(id);
+    if (!rf64 && !RIFF_ID.equals(id)) {
       throw new AudioFormatException(ais.getName(), location, AudioFileType.WAVE, "No RIFF header");
     }
 
     location = ais.location();
-    int nbChunks = ais.read32bitLE() - 4;
-    if (!"WAVE".equals(ais.readString(4))) {
+    long riffSize = ais.read32bitLE() & 0xFFFFFFFFL;
+    if (!ais.readMagic(WAVE_ID)) {
       throw new AudioFormatException(ais.getName(), location, AudioFileType.WAVE, "No WAVE id");
     }
-    return nbChunks;
+
+    long dataSize = -1;
+    if (rf64) {
+      location = ais.location();
+      if (!ais.readMagic(DS64_ID)) {
+        throw new AudioFormatException(ais.getName(), location, AudioFileType.WAVE, "No ds64 chunk");
+      }
+      long ckSize = ais.read32bitLE() & 0xFFFFFFFFL;
+      ais.chunk(ckSize);
+      long ds64RiffSize = ais.read64bitLE();
+      dataSize = ais.read64bitLE();
+      ais.skipChunk(); // sample count, only needed for non-PCM, then the table of other chunk sizes
+      skipPadding(ais, ckSize);
+      if (riffSize == SIZE_IN_DS64) {
+        riffSize = ds64RiffSize;
+      }
+    }
+    return new Header(riffSize - 4, dataSize);
   }
 
-  private WaveInfo readDetails(AudioInputStream ais, int nbChunks) throws AudioFormatException, IOException {
+  /**
+   * @param nbChunks as per the RIFF size
+   * @param ds64DataSize the data size held by an RF64/BW64 ds64 chunk, -1 for a plain RIFF
+   */
+  private record Header(long nbChunks, long ds64DataSize) {}
+
+  /**
+   * Sizes are unsigned 32 bits, or 64 bits from ds64, and chunks not needed are skipped, not read,
+   * so that multi-gigabyte files only cost their headers.
+   */
+  private WaveInfo readDetails(AudioInputStream ais, Header header) throws AudioFormatException, IOException {
     WaveInfoBuilder builder = WaveInfo.builder().name(ais.getName());
-    for (int c = 0; c < nbChunks; c++) {
+    for (long c = 0; c < header.nbChunks(); c++) {
       String ckName = ais.readString(4);
-      int ckSize = ais.read32bitLE(); // 16: no cbSize/extension; 18: 16 + cbSize == 0; 40: 16 + cbSize == 22 + extension (22 bytes)
+      long ckSize = ais.read32bitLE() & 0xFFFFFFFFL; // 16: no cbSize/extension; 18: 16 + cbSize == 0; 40: 16 + cbSize == 22 + extension (22 bytes)
       ais.chunk(ckSize);
 
       if ("fmt ".equals(ckName)) {
@@ -84,13 +130,24 @@ public class WaveInfoSupplier implements AudioInfoSupplier<WaveInfo> {
         } else {
           ais.skipChunk();
         }
+        skipPadding(ais, ckSize);
       } else if ("data".equals(ckName)) {
-        builder.audioSize(ckSize);
+        builder.audioSize(ckSize == SIZE_IN_DS64 && header.ds64DataSize() >= 0 ? header.ds64DataSize() : ckSize);
+        builder.dataLocation(ais.location());
         return builder.build();
       } else {
-        ais.skipNBytes(ckSize);
+        ais.skipNBytes(ckSize + (ckSize & 1));
       }
     }
     throw new AudioFormatException(ais.getName(), ais.location(), AudioFileType.WAVE, "No data chunk");
   }
+
+  /**
+   * Chunks are word aligned
+   */
+  private static void skipPadding(AudioInputStream ais, long ckSize) throws IOException {
+    if ((ckSize & 1) != 0) {
+      ais.skipNBytes(1);
+    }
+  }
 }
@@ -16,6 +16,7 @@ import lombok.extern.slf4j.Slf4j;
 public class XmInfoSupplier implements AudioInfoSupplier<XmInfo> {
 
   protected static final String XM_HEADER = "Extended Module: ";
+  private static final byte[] XM_HEADER_BYTES = XM_HEADER.getBytes(StandardCharsets.US_ASCII);
   private static final int MODULE_NAME_LENGTH = 20;
   private static final int MODULE_PADDING_VALUE = 0x00;
   private static final int TRACKER_NAME_LENGTH = 20;
@@ -31,7 +32,7 @@ public class XmInfoSupplier implements AudioInfoSupplier<XmInfo> {
    */
   @Override
   public XmInfo getInfos(InputStream is, String name) throws AudioInfoException, IOException {
-    AudioInputStream ais = new AudioInputStream(is, name);
+    AudioInputStream ais = AudioInputStream.of(is, name);
     try {
       return getInfos(ais);
     } catch(AudioFormatException e) {
@@ -41,8 +42,13 @@ public class XmInfoSupplier implements AudioInfoSupplier<XmInfo> {
     }
   }
 
+  @Override
+  public int getRangeReadAhead() {
+    return 1024; // the header fields read are within the first 80 bytes
+  }
+
   private XmInfo getInfos(AudioInputStream ais) throws IOException, AudioFormatException {
-    if(!ais.readString(XM_HEADER.length()).equals(XM_HEADER)) {
+    if(!ais.readMagic(XM_HEADER_BYTES)) {
       throw new AudioFormatException(ais.getName(), MODULE_PADDING_VALUE, AudioFileType.XM, "No XM header");
     }
 
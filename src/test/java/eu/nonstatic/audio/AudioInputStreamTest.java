@@ -11,8 +11,12 @@ package eu.nonstatic.audio;
 
 import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.io.ByteArrayInputStream;
+import java.io.EOFException;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
@@ -89,6 +93,18 @@ class AudioInputStreamTest {
     }
   }
 
+  @Test
+  void should_read_magic() throws IOException {
+    try(AudioInputStream ais = new AudioInputStream(new ByteArrayInputStream(INTEGRAL_DATA), "data")) {
+      assertTrue(ais.readMagic(new byte[]{(byte) 0xCA, (byte) 0xFE}));
+      assertEquals(2, ais.location());
+      assertFalse(ais.readMagic(new byte[]{(byte) 0xCA, (byte) 0xFE}));
+      assertEquals(4, ais.location()); // consumed anyway
+      assertEquals(0xDECAFACE, ais.read32bitBE());
+      assertThrows(EOFException.class, () -> ais.readMagic(new byte[]{0}));
+    }
+  }
+
   @Test
   void should_report_chunk_left() throws IOException {
     try(AudioInputStream ais = new AudioInputStream(new ByteArrayInputStream(INTEGRAL_DATA), "data")) {
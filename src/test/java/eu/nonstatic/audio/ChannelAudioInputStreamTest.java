@@ -0,0 +1,96 @@
+/**
+ * Audiolib
+ * Copyright (C) 2022 NonStatic
+ *
+ * This file is part of audiolib.
+ * Audiolib is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *  is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License along with . If not, see <https://www.gnu.org/licenses/>.
+ */
+package eu.nonstatic.audio;
+
+import static eu.nonstatic.audio.AudioInputStreamTest.INTEGRAL_DATA;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ChannelAudioInputStreamTest {
+
+  @TempDir
+  Path tempDir;
+
+  private SeekableByteChannel openChannel() throws IOException {
+    return FileChannel.open(Files.write(tempDir.resolve("data"), INTEGRAL_DATA));
+  }
+
+  @Test
+  void should_know_size() throws IOException {
+    try(AudioInputStream ais = new ChannelAudioInputStream(openChannel(), "data")) {
+      assertTrue(ais.isSeekable());
+      assertEquals(8, ais.size());
+      ais.read16bitBE();
+      assertEquals(6, ais.remaining());
+    }
+  }
+
+  @Test
+  void should_be_relative_to_channel_position() throws IOException {
+    SeekableByteChannel channel = openChannel();
+    channel.position(2);
+    try(AudioInputStream ais = new ChannelAudioInputStream(channel, "data")) {
+      assertEquals(6, ais.size());
+      assertEquals(0xBABEDECA, ais.read32bitBE());
+      ais.seek(0);
+      assertEquals(0, ais.location());
+      assertEquals((short)0xBABE, ais.read16bitBE());
+    }
+  }
+
+  @Test
+  void should_seek() throws IOException {
+    try(AudioInputStream ais = new ChannelAudioInputStream(openChannel(), "data")) {
+      ais.seek(6);
+      assertEquals(6, ais.location());
+      assertEquals((short)0xFACE, ais.read16bitBE());
+      ais.seek(1); // backwards, within the buffer
+      assertEquals(0xFEBABEDE, ais.read32bitBE());
+      ais.mark(8);
+      ais.seek(8);
+      assertEquals(-1, ais.markedAt());
+      assertEquals(-1, ais.read());
+      assertThrows(EOFException.class, () -> ais.seek(9));
+    }
+  }
+
+  @Test
+  void should_skip() throws IOException {
+    try(AudioInputStream ais = new ChannelAudioInputStream(openChannel(), "data")) {
+      assertEquals(5, ais.skip(5));
+      assertEquals((short)0xCAFA, ais.read16bitBE());
+      assertEquals(1, ais.skip(10));
+      assertEquals(8, ais.location());
+      assertEquals(0, ais.remaining());
+    }
+  }
+
+  @Test
+  void should_seek_forward_only_when_not_seekable() throws IOException {
+    try(AudioInputStream ais = new AudioInputStream(new ByteArrayInputStream(INTEGRAL_DATA), "data")) {
+      assertEquals(-1, ais.size());
+      ais.seek(4);
+      assertEquals(0xDECAFACE, ais.read32bitBE());
+      assertThrows(IOException.class, () -> ais.seek(0));
+      assertThrows(EOFException.class, () -> ais.seek(9));
+    }
+  }
+}
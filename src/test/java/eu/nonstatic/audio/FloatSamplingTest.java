@@ -0,0 +1,64 @@
+/**
+ * Audiolib
+ * Copyright (C) 2022 NonStatic
+ *
+ * This file is part of audiolib.
+ * Audiolib is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *  is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License along with . If not, see <https://www.gnu.org/licenses/>.
+ */
+package eu.nonstatic.audio;
+
+import static eu.nonstatic.audio.SamplingTest.FORMAT_44100_16_MONO;
+import static eu.nonstatic.audio.SamplingTest.FORMAT_44100_16_STEREO;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import eu.nonstatic.timecode.TimeCode;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.time.Duration;
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioFormat.Encoding;
+import javax.sound.sampled.AudioInputStream;
+import org.junit.jupiter.api.Test;
+
+class FloatSamplingTest {
+
+  @Test
+  void should_validate() {
+    assertThrows(IllegalArgumentException.class, () -> new FloatSampling(new float[]{0, 0, 0}, -1, 1, FORMAT_44100_16_MONO));
+    assertThrows(IllegalArgumentException.class, () -> new FloatSampling(new float[]{0, 0, 0}, 1, 3, FORMAT_44100_16_MONO));
+    assertThrows(IllegalArgumentException.class, () -> new FloatSampling(new float[]{0, 0, 0}, 1, 2, new AudioFormat(Encoding.ALAW, 44100f, 16, 2, 4, 44100f, false)));
+  }
+
+  @Test
+  void should_decode_16_bits_exactly() throws IOException {
+    byte[] data = {
+        (byte) 0x00, (byte) 0x40, (byte) 0x00, (byte) 0xC0, // 16384, -16384
+        (byte) 0xFF, (byte) 0x7F, (byte) 0x00, (byte) 0x80  // 32767, -32768
+    };
+    try (AudioInputStream ais = new AudioInputStream(new ByteArrayInputStream(data), FORMAT_44100_16_STEREO, data.length / 4)) {
+      FloatSampling sampling = FloatSampling.mono(ais);
+      assertArrayEquals(new float[]{0f, -0.5f / 32768}, sampling.samples());
+      assertEquals(1, sampling.channels());
+    }
+  }
+
+  @Test
+  void should_slice_as_sampling_does() {
+    Sampling sampling = new Sampling(new double[100_000], FORMAT_44100_16_MONO);
+    FloatSampling floatSampling = new FloatSampling(new float[100_000], FORMAT_44100_16_MONO);
+
+    Sampling slice = sampling.slice(new TimeCode(0, 0, 10), Duration.ofMillis(500));
+    FloatSampling floatSlice = floatSampling.slice(new TimeCode(0, 0, 10), Duration.ofMillis(500));
+    assertEquals(slice.start(), floatSlice.start());
+    assertEquals(slice.length(), floatSlice.length());
+
+    slice = sampling.slice(new TimeCode(0, 0, 10), new TimeCode(0, 0, 20));
+    floatSlice = floatSampling.slice(new TimeCode(0, 0, 10), new TimeCode(0, 0, 20));
+    assertEquals(slice.start(), floatSlice.start());
+    assertEquals(slice.length(), floatSlice.length());
+  }
+}
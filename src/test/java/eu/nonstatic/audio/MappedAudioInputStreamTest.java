@@ -0,0 +1,177 @@
+/**
+ * Audiolib
+ * Copyright (C) 2022 NonStatic
+ *
+ * This file is part of audiolib.
+ * Audiolib is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *  is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License along with . If not, see <https://www.gnu.org/licenses/>.
+ */
+package eu.nonstatic.audio;
+
+import static eu.nonstatic.audio.AudioInputStreamTest.INTEGRAL_DATA;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import eu.nonstatic.audio.formats.AudioInfo;
+import eu.nonstatic.audio.formats.AudioInfoSupplier;
+import eu.nonstatic.audio.formats.flac.FlacInfoSupplier;
+import eu.nonstatic.audio.formats.mpeg.Mp3AudioInfoSupplier;
+import eu.nonstatic.audio.formats.ogg.OggInfoSupplier;
+import eu.nonstatic.audio.formats.wave.WaveInfoSupplier;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class MappedAudioInputStreamTest implements AudioTestBase {
+
+  @TempDir
+  Path tempDir;
+
+  private Path dataFile() throws IOException {
+    return Files.write(tempDir.resolve("data"), INTEGRAL_DATA);
+  }
+
+  @Test
+  void should_read_primitives() throws IOException {
+    try(AudioInputStream ais = new MappedAudioInputStream(dataFile())) {
+      assertEquals((short)0xFECA, ais.read16bitLE());
+      assertEquals((long)0xBABEDE, ais.read24bitBE());
+      assertEquals(5, ais.location());
+      assertEquals(3, ais.available());
+      assertThrows(EOFException.class, ais::read32bitLE);
+      assertEquals(8, ais.location()); // whatever was left got consumed
+      assertEquals(-1, ais.read());
+    }
+
+    try(AudioInputStream ais = new MappedAudioInputStream(dataFile())) {
+      assertEquals(0xCAFEBABEDECAFACEL, ais.read64bitBE());
+    }
+  }
+
+  @Test
+  void should_read_magic() throws IOException {
+    try(AudioInputStream ais = new MappedAudioInputStream(dataFile())) {
+      assertTrue(ais.readMagic(new byte[]{(byte) 0xCA, (byte) 0xFE}));
+      assertFalse(ais.readMagic(new byte[]{(byte) 0xCA, (byte) 0xFE}));
+      assertEquals(4, ais.location());
+    }
+  }
+
+  @Test
+  void should_peek() throws IOException {
+    try(AudioInputStream ais = new MappedAudioInputStream(dataFile())) {
+      ais.skipNBytes(2);
+      assertEquals(0xBA, ais.peek(0));
+      assertEquals(0xCE, ais.peek(5));
+      assertEquals(-1, ais.peek(6));
+      assertEquals(2, ais.location());
+    }
+  }
+
+  @Test
+  void should_mark_skip_and_reset() throws IOException {
+    try(AudioInputStream ais = new MappedAudioInputStream(dataFile())) {
+      ais.read();
+      ais.mark(1); // no read limit on a mapping
+      ais.skipNBytes(4);
+      assertEquals(5, ais.location());
+      assertArrayEquals(new byte[]{(byte) 0xCA, (byte) 0xFA, (byte) 0xCE}, ais.readNBytes(10));
+      ais.reset();
+      assertEquals(-1, ais.markedAt());
+      assertEquals(1, ais.location());
+      assertEquals(7, ais.skip(20));
+      assertThrows(EOFException.class, () -> ais.skipNBytes(1));
+    }
+  }
+
+  @Test
+  void should_seek() throws IOException {
+    try(AudioInputStream ais = new MappedAudioInputStream(dataFile())) {
+      assertEquals(8, ais.size());
+      ais.seek(4);
+      assertEquals(0xDECAFACE, ais.read32bitBE());
+      assertEquals(0, ais.remaining());
+      ais.seek(0);
+      assertEquals((short)0xCAFE, ais.read16bitBE());
+      assertThrows(EOFException.class, () -> ais.seek(9));
+    }
+  }
+
+  @Test
+  void should_chunk() throws IOException {
+    try(AudioInputStream ais = new MappedAudioInputStream(dataFile())) {
+      ais.read16bitBE();
+      ais.chunk(4);
+      ais.read16bitBE();
+      assertEquals(2, ais.chunkLeft());
+      ais.skipChunk();
+      assertEquals(6, ais.location());
+      assertEquals(-1, ais.chunkedAt());
+    }
+  }
+
+  @Test
+  void should_fail_when_closed() throws IOException {
+    AudioInputStream ais = new MappedAudioInputStream(dataFile());
+    ais.close();
+    assertThrows(IOException.class, ais::read);
+  }
+
+  @Test
+  void should_be_reused_by_suppliers() throws IOException {
+    try(AudioInputStream ais = new MappedAudioInputStream(dataFile())) {
+      assertSame(ais, AudioInputStream.of(ais, "data"));
+      ais.read();
+      assertTrue(AudioInputStream.of(ais, "data") instanceof UnsynchronizedAudioInputStream);
+    }
+  }
+
+  @Test
+  void should_map_only_large_files() throws IOException {
+    try(AudioInputStream ais = MappedAudioInputStream.open(dataFile())) {
+      assertInstanceOf(ChannelAudioInputStream.class, ais);
+    }
+
+    Path large = tempDir.resolve("large");
+    try(RandomAccessFile raf = new RandomAccessFile(large.toFile(), "rw")) {
+      raf.setLength(MappedAudioInputStream.MIN_MAPPED_SIZE);
+    }
+    try(AudioInputStream ais = MappedAudioInputStream.open(large)) {
+      assertInstanceOf(MappedAudioInputStream.class, ais);
+    }
+  }
+
+  @Test
+  void should_give_same_infos_as_streams() throws Exception {
+    assertSameInfos(new Mp3AudioInfoSupplier(), MP3_NAME);
+    assertSameInfos(new OggInfoSupplier(), OGG_NAME);
+    assertSameInfos(new FlacInfoSupplier(), FLAC_NAME);
+    assertSameInfos(new WaveInfoSupplier(), WAVE_NAME);
+  }
+
+  private void assertSameInfos(AudioInfoSupplier<?> supplier, String name) throws Exception {
+    Path file = AudioTestBase.copyFileContents(getClass().getResource(name), tempDir.resolve(name.substring(1).replace('/', '_')));
+    AudioInfo mapped;
+    try(AudioInputStream ais = new MappedAudioInputStream(file)) {
+      mapped = supplier.getInfos(ais, name);
+    }
+    AudioInfo streamed;
+    try(InputStream is = getClass().getResourceAsStream(name)) {
+      streamed = supplier.getInfos(is, name);
+    }
+    assertEquals(streamed.getDuration(), mapped.getDuration());
+    assertEquals(streamed.getSampleRate(), mapped.getSampleRate());
+    assertEquals(streamed.getIssues().size(), mapped.getIssues().size());
+  }
+}
@@ -0,0 +1,76 @@
+/**
+ * Audiolib
+ * Copyright (C) 2022 NonStatic
+ *
+ * This file is part of audiolib.
+ * Audiolib is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *  is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License along with . If not, see <https://www.gnu.org/licenses/>.
+ */
+package eu.nonstatic.audio;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import eu.nonstatic.audio.formats.AudioFormatEx;
+import eu.nonstatic.audio.formats.AudioInfoException;
+import eu.nonstatic.audio.formats.AudioInfoSupplier;
+import eu.nonstatic.audio.formats.aiff.AiffInfoSupplier;
+import eu.nonstatic.audio.formats.ape.ApeInfoSupplier;
+import eu.nonstatic.audio.formats.flac.FlacInfoSupplier;
+import eu.nonstatic.audio.formats.wave.WaveInfoSupplier;
+import eu.nonstatic.audio.formats.xm.XmInfoSupplier;
+import java.io.IOException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class RangeAudioInputStreamTest implements AudioTestBase {
+
+  @TempDir
+  Path tempDir;
+
+  @Test
+  void should_read_one_range_per_fill() throws IOException {
+    byte[] data = new byte[10_000];
+    for (int i = 0; i < data.length; i++) {
+      data[i] = (byte) i;
+    }
+    Path file = Files.write(tempDir.resolve("data"), data);
+    try(LatencyRangeReader reader = new LatencyRangeReader(new FileRangeReader(file), Duration.ZERO);
+        AudioInputStream ais = new RangeAudioInputStream(reader, "data", 1024)) {
+      assertEquals(10_000, ais.size());
+      assertEquals(0x00010203, ais.read32bitBE());
+      assertEquals(0x04050607, ais.read32bitBE());
+      assertEquals(1, reader.getRoundTrips());
+
+      ais.skipNBytes(5000); // past the buffer, nothing fetched
+      assertEquals(1, reader.getRoundTrips());
+      assertEquals((byte) 5008, (byte) ais.read());
+      assertEquals(2, reader.getRoundTrips());
+      assertEquals(2048, reader.getBytesRead());
+    }
+  }
+
+  @Test
+  void should_read_headers_in_few_ranges() throws IOException, AudioInfoException {
+    assertEquals(1, roundTrips(new FlacInfoSupplier(), FLAC_URL, "music.flac"));
+    assertEquals(1, roundTrips(new ApeInfoSupplier(), APE_URL, "music.ape"));
+    assertEquals(1, roundTrips(new XmInfoSupplier(), XM_URL, "music.xm"));
+    assertTrue(roundTrips(new WaveInfoSupplier(), WAVE_URL, "music.wav") <= 2);
+    assertTrue(roundTrips(new AiffInfoSupplier(), AIFC_URL, "music.aifc") <= 2); // SSND comes after COMM, past the first range
+  }
+
+  private long roundTrips(AudioInfoSupplier<?> supplier, URL url, String name) throws IOException, AudioInfoException {
+    Path file = AudioTestBase.copyFileContents(url, tempDir.resolve(name));
+    try(LatencyRangeReader reader = new LatencyRangeReader(new FileRangeReader(file), Duration.ofMillis(1))) {
+      AudioFormatEx infos = supplier.getInfos(reader, name);
+      assertEquals(supplier.getInfos(file).getDuration(), infos.getDuration());
+      assertTrue(reader.getBytesRead() <= 2L * supplier.getRangeReadAhead());
+      return reader.getRoundTrips();
+    }
+  }
+}
@@ -0,0 +1,134 @@
+/**
+ * Audiolib
+ * Copyright (C) 2022 NonStatic
+ *
+ * This file is part of audiolib.
+ * Audiolib is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *  is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License along with . If not, see <https://www.gnu.org/licenses/>.
+ */
+package eu.nonstatic.audio;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import edu.princeton.cs.algs4.Complex;
+import eu.nonstatic.timecode.TimeCode;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioFormat.Encoding;
+import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.UnsupportedAudioFileException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class SampleSourceTest {
+
+  static final AudioFormat FORMAT_44100_16_MONO =
+      new AudioFormat(Encoding.PCM_SIGNED, 44100f, 16, 1, 2, 44100f, false);
+
+  @Test
+  void should_hand_over_fixed_size_blocks() throws IOException {
+    double[] samples = ramp(10);
+    List<Integer> lengths = new ArrayList<>();
+    List<Double> firsts = new ArrayList<>();
+    try (SampleSource source = SampleSource.of(new Sampling(samples, 2, 7, FORMAT_44100_16_MONO))) {
+      source.blocks(3, (block, len) -> {
+        lengths.add(len);
+        firsts.add(block[0]);
+      });
+    }
+    assertEquals(List.of(3, 3, 1), lengths);
+    assertEquals(List.of(2.0, 5.0, 8.0), firsts);
+  }
+
+  @Test
+  void should_slice_like_sampling() throws IOException {
+    double[] samples = ramp(100_000);
+    Sampling sampling = new Sampling(samples, FORMAT_44100_16_MONO);
+    Sampling expected = sampling.slice(new TimeCode(0, 0, 10), Duration.ofMillis(500));
+
+    try (SampleSource slice = SampleSource.of(sampling).slice(new TimeCode(0, 0, 10), Duration.ofMillis(500))) {
+      double[] buffer = new double[30_000];
+      int read = slice.readFully(buffer, 0, buffer.length);
+      assertEquals(expected.length(), read);
+      assertArrayEquals(Arrays.copyOfRange(samples, expected.start(), expected.start() + expected.length()), Arrays.copyOf(buffer, read));
+    }
+  }
+
+  @Test
+  void should_stream_like_sampling_mono() throws IOException {
+    AudioFormat format = new AudioFormat(Encoding.PCM_SIGNED, 48000f, 24, 2, 6, 48000f, false);
+    byte[] data = new byte[6 * 10_000];
+    for (int i = 0; i < data.length; i++) {
+      data[i] = (byte) (i * 31);
+    }
+    Sampling sampling = Sampling.mono(new AudioInputStream(new ByteArrayInputStream(data), format, 10_000));
+
+    try (SampleSource source = SampleSource.of(new AudioInputStream(new ByteArrayInputStream(data), format, 10_000))) {
+      assertEquals(48000f, source.sampleRate());
+      assertEquals(100, source.skip(100));
+      double[] buffer = new double[20_000];
+      int read = source.readFully(buffer, 0, buffer.length);
+      assertEquals(9_900, read);
+      assertArrayEquals(Arrays.copyOfRange(sampling.samples(), 100, 10_000), Arrays.copyOf(buffer, read));
+      assertEquals(-1, source.read(buffer, 0, 1));
+    }
+  }
+
+  @Test
+  void should_read_mapped_wave_in_place(@TempDir Path dir) throws IOException, UnsupportedAudioFileException {
+    ByteBuffer bb = ByteBuffer.allocate(44 + 8).order(ByteOrder.LITTLE_ENDIAN)
+        .put("RIFF".getBytes()).putInt(36 + 8).put("WAVE".getBytes())
+        .put("fmt ".getBytes()).putInt(16)
+        .putShort((short) 1).putShort((short) 1).putInt(8000).putInt(16000).putShort((short) 2).putShort((short) 16)
+        .put("data".getBytes()).putInt(8)
+        .putShort((short) 0x1000).putShort((short) 0x2000).putShort((short) 0x3000).putShort((short) 0x4000);
+    Path file = Files.write(dir.resolve("ramp.wav"), bb.array());
+
+    try (SampleSource source = SampleSource.of(file)) {
+      assertEquals(8000f, source.sampleRate());
+      assertEquals(2, source.skip(2));
+      double[] buffer = new double[4];
+      assertEquals(2, source.read(buffer, 0, 4));
+      assertArrayEquals(new double[]{0.375, 0.5, 0, 0}, buffer);
+      assertEquals(0, source.skip(1));
+    }
+  }
+
+  @Test
+  void should_slide_windows_like_the_whole_array() throws IOException {
+    double[] samples = new double[1024]; // whole windows only, the FFT taking powers of 2
+    for (int i = 0; i < samples.length; i++) {
+      samples[i] = Math.sin(i * 0.3);
+    }
+    AudioAnalyzer analyzer = new AudioAnalyzer(128);
+    Complex[][] expected = analyzer.fftSliding(samples);
+
+    List<Complex[]> windows = new ArrayList<>();
+    try (SampleSource source = SampleSource.of(new Sampling(samples, FORMAT_44100_16_MONO))) {
+      analyzer.fftSliding(source, windows::add);
+    }
+    assertEquals(expected.length, windows.size());
+    for (int w = 0; w < expected.length; w++) {
+      assertEquals(Arrays.toString(expected[w]), Arrays.toString(windows.get(w)));
+    }
+  }
+
+  private static double[] ramp(int length) {
+    double[] samples = new double[length];
+    for (int i = 0; i < length; i++) {
+      samples[i] = i;
+    }
+    return samples;
+  }
+}
@@ -17,13 +17,20 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
 import eu.nonstatic.timecode.TimeCode;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
 import javax.sound.sampled.AudioFormat;
 import javax.sound.sampled.AudioFormat.Encoding;
 import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.AudioSystem;
+import javax.sound.sampled.UnsupportedAudioFileException;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 class SamplingTest {
 
@@ -61,6 +68,19 @@ class SamplingTest {
     }
   }
 
+  @Test
+  void should_close_plain_pcm_stream() throws IOException {
+    AtomicBoolean closed = new AtomicBoolean();
+    InputStream is = new ByteArrayInputStream(new byte[8]) {
+      @Override
+      public void close() {
+        closed.set(true);
+      }
+    };
+    Sampling.mono(new AudioInputStream(is, FORMAT_44100_16_STEREO, 2));
+    assertTrue(closed.get());
+  }
+
   @Test
   void should_reuse_input_stream_when_input_is_already_mono() throws IOException {
     byte[] data = {(byte) 0x00, (byte) 0x40, (byte) 0x00, (byte) 0xC0}; // 16384, -16384
@@ -86,6 +106,48 @@ class SamplingTest {
     }
   }
 
+  @Test
+  void should_keep_24_bits_precision() throws IOException {
+    AudioFormat format = new AudioFormat(Encoding.PCM_SIGNED, 48000f, 24, 2, 6, 48000f, true);
+    byte[] data = {
+        0x00, 0x00, 0x01, 0x00, 0x00, 0x03, // 1, 3
+        (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x7F, (byte) 0xFF, (byte) 0xFF // -1, 8388607
+    };
+    try (AudioInputStream ais = new AudioInputStream(new ByteArrayInputStream(data), format, 2)) {
+      Sampling sampling = Sampling.mono(ais);
+      assertArrayEquals(new double[]{2 / 8388608.0, 8388606 / 2 / 8388608.0}, sampling.samples());
+      assertEquals(48000f, sampling.sampleRate());
+      assertEquals(1, sampling.channels());
+      assertEquals(16, sampling.format().getSampleSizeInBits());
+    }
+  }
+
+  @Test
+  void should_center_unsigned_8_bits() throws IOException {
+    AudioFormat format = new AudioFormat(Encoding.PCM_UNSIGNED, 8000f, 8, 1, 1, 8000f, false);
+    byte[] data = {(byte) 0x80, (byte) 0xC0, 0x00};
+    try (AudioInputStream ais = new AudioInputStream(new ByteArrayInputStream(data), format, AudioSystem.NOT_SPECIFIED)) {
+      assertArrayEquals(new double[]{0.0, 0.5, -1.0}, Sampling.mono(ais).samples());
+    }
+  }
+
+  @Test
+  void should_decode_wave_file_natively(@TempDir Path dir) throws IOException, UnsupportedAudioFileException {
+    Path alien = Files.writeString(dir.resolve("alien.wav"), "not audio at all");
+    assertThrows(UnsupportedAudioFileException.class, () -> Sampling.mono(alien)); // not ours, so AudioSystem's
+
+    ByteBuffer bb = ByteBuffer.allocate(44 + 8).order(ByteOrder.LITTLE_ENDIAN)
+        .put("RIFF".getBytes()).putInt(36 + 8).put("WAVE".getBytes())
+        .put("fmt ".getBytes()).putInt(16)
+        .putShort((short) 1).putShort((short) 2).putInt(22050).putInt(22050 * 4).putShort((short) 4).putShort((short) 16)
+        .put("data".getBytes()).putInt(8)
+        .putShort((short) 100).putShort((short) 300).putShort((short) -100).putShort((short) -300);
+    Path file = Files.write(dir.resolve("pcm.wav"), bb.array());
+    Sampling sampling = Sampling.mono(file);
+    assertArrayEquals(new double[]{200 / 32768.0, -200 / 32768.0}, sampling.samples());
+    assertEquals(22050f, sampling.sampleRate());
+  }
+
   @Test
   void should_span_the_whole_array_by_default() {
     double[] samples = {0.1, 0.2, 0.3};
@@ -0,0 +1,129 @@
+/**
+ * Audiolib
+ * Copyright (C) 2022 NonStatic
+ *
+ * This file is part of audiolib.
+ * Audiolib is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *  is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License along with . If not, see <https://www.gnu.org/licenses/>.
+ */
+package eu.nonstatic.audio;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import eu.nonstatic.audio.SyncScanner.Sync;
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import org.junit.jupiter.api.Test;
+
+class SyncScannerTest {
+
+  /**
+   * "SY" followed by the offset of the next sync, relative to it, 0 meaning none
+   */
+  static final Sync SYNC = new Sync() {
+    @Override
+    public byte lead() {
+      return 'S';
+    }
+
+    @Override
+    public int length() {
+      return 2;
+    }
+
+    @Override
+    public boolean matches(byte[] block, int offset) {
+      return block[offset + 1] == 'Y';
+    }
+
+    @Override
+    public boolean confirm(AudioInputStream ais) throws IOException {
+      ais.mark(256);
+      try {
+        ais.skipNBytes(2);
+        int next = ais.readStrict();
+        if (next == 0) {
+          return true;
+        }
+        ais.skipNBytes(next - 3L);
+        return ais.readStrict() == 'S' && ais.readStrict() == 'Y';
+      } catch (EOFException e) {
+        return false;
+      } finally {
+        ais.reset();
+      }
+    }
+  };
+
+  @Test
+  void should_find_byte() {
+    byte[] block = new byte[40];
+    assertEquals(-1, SyncScanner.indexOf(block, (byte) 0xFF, 0, block.length));
+    block[3] = (byte) 0xFF;
+    block[17] = (byte) 0xFF;
+    block[39] = (byte) 0xFF;
+    assertEquals(3, SyncScanner.indexOf(block, (byte) 0xFF, 0, block.length));
+    assertEquals(17, SyncScanner.indexOf(block, (byte) 0xFF, 4, block.length));
+    assertEquals(39, SyncScanner.indexOf(block, (byte) 0xFF, 18, block.length));
+    assertEquals(-1, SyncScanner.indexOf(block, (byte) 0xFF, 18, 39));
+    assertEquals(0, SyncScanner.indexOf(block, (byte) 0, 0, block.length));
+  }
+
+  @Test
+  void should_not_be_fooled_by_borrows() {
+    byte[] block = {0x01, 0x00, 0x01, 0x00, 0x00, 0x00, 0x00, 0x00}; // 0x01 - 0x01 borrows from the next byte
+    assertEquals(0, SyncScanner.indexOf(block, (byte) 0x01, 0, block.length));
+    assertEquals(2, SyncScanner.indexOf(block, (byte) 0x01, 1, block.length));
+  }
+
+  @Test
+  void should_skip_false_syncs() throws IOException {
+    byte[] data = new byte[40_000]; // more than a block
+    put(data, 100, 50); // points at garbage
+    put(data, 30_000, 10);
+    put(data, 30_010, 0);
+    data[20_000] = 'S'; // pattern doesn't match
+
+    try (AudioInputStream ais = new UnsynchronizedAudioInputStream(new ByteArrayInputStream(data), "data")) {
+      ais.skipNBytes(1);
+      assertEquals(29_999, SyncScanner.scan(ais, SYNC, Long.MAX_VALUE));
+      assertEquals(30_000, ais.location());
+      assertEquals('S', ais.read());
+    }
+  }
+
+  @Test
+  void should_stay_within_budget() throws IOException {
+    byte[] data = new byte[1000];
+    put(data, 500, 0);
+
+    try (AudioInputStream ais = new UnsynchronizedAudioInputStream(new ByteArrayInputStream(data), "data")) {
+      assertEquals(-1, SyncScanner.scan(ais, SYNC, 499));
+      assertEquals(500, ais.location());
+    }
+    try (AudioInputStream ais = new UnsynchronizedAudioInputStream(new ByteArrayInputStream(data), "data")) {
+      assertEquals(500, SyncScanner.scan(ais, SYNC, 500));
+      assertEquals(500, ais.location());
+    }
+  }
+
+  @Test
+  void should_throw_eof() throws IOException {
+    byte[] data = new byte[1000];
+    data[999] = 'S';
+
+    try (AudioInputStream ais = new UnsynchronizedAudioInputStream(new ByteArrayInputStream(data), "data")) {
+      assertThrows(EOFException.class, () -> SyncScanner.scan(ais, SYNC, Long.MAX_VALUE));
+      assertEquals(1000, ais.location());
+    }
+  }
+
+  private static void put(byte[] data, int offset, int next) {
+    data[offset] = 'S';
+    data[offset + 1] = 'Y';
+    data[offset + 2] = (byte) next;
+  }
+}
@@ -0,0 +1,117 @@
+/**
+ * Audiolib
+ * Copyright (C) 2022 NonStatic
+ *
+ * This file is part of audiolib.
+ * Audiolib is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *  is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License along with . If not, see <https://www.gnu.org/licenses/>.
+ */
+package eu.nonstatic.audio;
+
+import static eu.nonstatic.audio.AudioInputStreamTest.INTEGRAL_DATA;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import org.junit.jupiter.api.Test;
+
+class UnsynchronizedAudioInputStreamTest {
+
+  @Test
+  void should_read_primitives() throws IOException {
+    try(AudioInputStream ais = new UnsynchronizedAudioInputStream(new ByteArrayInputStream(INTEGRAL_DATA), "data")) {
+      assertEquals((short)0xFECA, ais.read16bitLE());
+      assertEquals((short)0xBABE, ais.read16bitBE());
+      assertEquals(0xCEFACADE, ais.read32bitLE());
+      assertEquals(8, ais.location());
+      assertThrows(EOFException.class, ais::read16bitBE);
+    }
+  }
+
+  @Test
+  void should_read_across_buffer_boundaries() throws IOException {
+    // 3 bytes buffer: every multibyte read has to refill midway
+    try(AudioInputStream ais = new UnsynchronizedAudioInputStream(new ByteArrayInputStream(INTEGRAL_DATA), "data", 3)) {
+      assertEquals((short)0xCAFE, ais.read16bitBE());
+      assertEquals(0xBABEDECA, ais.read32bitBE());
+      assertEquals(6, ais.location());
+      assertTrue(ais.readMagic(new byte[]{(byte) 0xFA, (byte) 0xCE}));
+      assertEquals(8, ais.location());
+      assertEquals(-1, ais.read());
+    }
+
+    try(AudioInputStream ais = new UnsynchronizedAudioInputStream(new ByteArrayInputStream(INTEGRAL_DATA), "data", 3)) {
+      assertEquals(0xCAFEBABEDECAFACEL, ais.read64bitBE());
+    }
+  }
+
+  @Test
+  void should_read_magic() throws IOException {
+    try(AudioInputStream ais = new UnsynchronizedAudioInputStream(new ByteArrayInputStream(INTEGRAL_DATA), "data")) {
+      assertFalse(ais.readMagic(new byte[]{(byte) 0xCA, (byte) 0xFF}));
+      assertEquals(2, ais.location());
+      assertTrue(ais.readMagic(new byte[]{(byte) 0xBA, (byte) 0xBE}));
+      assertEquals(4, ais.location());
+    }
+  }
+
+  @Test
+  void should_peek_at_buffered_bytes_only() throws IOException {
+    try(AudioInputStream ais = new UnsynchronizedAudioInputStream(new ByteArrayInputStream(INTEGRAL_DATA), "data", 3)) {
+      assertEquals(-1, ais.peek(0)); // nothing buffered yet
+      assertEquals(0xCA, ais.read());
+      assertEquals(0xFE, ais.peek(0));
+      assertEquals(0xBA, ais.peek(1));
+      assertEquals(-1, ais.peek(2));
+      assertEquals(1, ais.location());
+    }
+  }
+
+  @Test
+  void should_mark_and_reset_across_refills() throws IOException {
+    try(AudioInputStream ais = new UnsynchronizedAudioInputStream(new ByteArrayInputStream(INTEGRAL_DATA), "data", 2)) {
+      ais.read();
+      ais.mark(6);
+      assertEquals(1, ais.markedAt());
+      assertArrayEquals(new byte[]{(byte) 0xFE, (byte) 0xBA, (byte) 0xBE, (byte) 0xDE, (byte) 0xCA}, ais.readNBytes(5));
+      assertEquals(6, ais.location());
+      ais.reset();
+      assertEquals(-1, ais.markedAt());
+      assertEquals(1, ais.location());
+      assertEquals(0xFEBABEDE, ais.read32bitBE());
+    }
+  }
+
+  @Test
+  void should_provide_location() throws IOException {
+    try(AudioInputStream ais = new UnsynchronizedAudioInputStream(new ByteArrayInputStream(INTEGRAL_DATA), "data", 4)) {
+      assertEquals(3, ais.skip(3));
+      assertEquals(3, ais.location());
+      ais.skipNBytes(3);
+      assertEquals(6, ais.location());
+      assertEquals(2, ais.read(new byte[4]));
+      assertEquals(8, ais.location());
+      assertEquals(-1, ais.read(new byte[4]));
+      assertEquals(8, ais.location());
+    }
+  }
+
+  @Test
+  void should_report_chunk_left() throws IOException {
+    try(AudioInputStream ais = new UnsynchronizedAudioInputStream(new ByteArrayInputStream(INTEGRAL_DATA), "data")) {
+      ais.read16bitBE();
+      ais.chunk(4);
+      ais.read32bitBE();
+      assertEquals(0, ais.chunkLeft());
+      ais.read();
+      assertEquals(-1, ais.chunkLeft());
+      assertEquals(-1, ais.chunkedAt());
+    }
+  }
+}
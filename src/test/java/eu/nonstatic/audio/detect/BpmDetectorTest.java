@@ -4,6 +4,11 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import eu.nonstatic.audio.FloatSampling;
+import eu.nonstatic.audio.SampleSource;
+import eu.nonstatic.audio.Sampling;
+import java.io.IOException;
+import javax.sound.sampled.AudioFormat;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.ValueSource;
@@ -40,6 +45,46 @@ class BpmDetectorTest {
         "Clean click track should yield unambiguous tempo, got salience " + salience);
   }
 
+  @Test
+  void streamsToTheSameResultAsTheWholeArray() throws IOException {
+    float sampleRate = 44100f;
+    double[] samples = new double[(int) (sampleRate * 8)];
+    int beatInterval = (int) (sampleRate * 60.0 / 128);
+    for (int pos = 0; pos < samples.length; pos += beatInterval) {
+      for (int i = 0; i < 300 && (pos + i) < samples.length; i++) {
+        samples[pos + i] = Math.sin(i * 0.05) * 0.8;
+      }
+    }
+
+    Bpm expected = BPM_DETECTOR.detect(samples, sampleRate);
+    Sampling sampling = new Sampling(samples, new AudioFormat(sampleRate, 16, 1, true, false));
+    try (SampleSource source = SampleSource.of(sampling)) {
+      assertEquals(expected, BPM_DETECTOR.detect(source));
+    }
+  }
+
+  @Test
+  void floatSamplesGiveTheSameTempo() {
+    float sampleRate = 44100f;
+    double[] samples = new double[(int) (sampleRate * 8)];
+    int beatInterval = (int) (sampleRate * 60.0 / 128);
+    for (int pos = 0; pos < samples.length; pos += beatInterval) {
+      for (int i = 0; i < 300 && (pos + i) < samples.length; i++) {
+        samples[pos + i] = Math.sin(i * 0.05) * 0.8;
+      }
+    }
+    float[] floats = new float[samples.length];
+    for (int i = 0; i < samples.length; i++) {
+      floats[i] = (float) samples[i];
+    }
+
+    Bpm expected = BPM_DETECTOR.detect(samples, sampleRate);
+    Bpm actual = BPM_DETECTOR.detect(new FloatSampling(floats, new AudioFormat(sampleRate, 16, 1, true, false)));
+    assertEquals(expected.estimate(), actual.estimate(), 0.01);
+    assertEquals(expected.periodicity(), actual.periodicity(), 1e-4);
+    assertEquals(expected.salience(), actual.salience(), 1e-4);
+  }
+
   @Test
   void throwsOnInsufficientBeats() {
     double[] samples = new double[44100];
@@ -146,4 +146,31 @@ class EnergyDetectorTest {
 
     assertArrayEquals(new double[]{1.0, 1.0, 1.0, 1.0}, envelope, 1e-12);
   }
+
+  @Test
+  void envelopeFedByBlocksMatchesWholeArray() {
+    double[] samples = new double[10_000];
+    for (int i = 0; i < samples.length; i++) {
+      samples[i] = Math.sin(i * 0.01) * (i % 3000) / 3000.0;
+    }
+
+    EnergyDetector.Envelope envelope = detector.envelope();
+    for (int off = 0; off < samples.length; off += 777) {
+      envelope.add(samples, off, Math.min(777, samples.length - off));
+    }
+    assertArrayEquals(detector.energyEnvelope(samples), envelope.toArray());
+  }
+
+  @Test
+  void floatEnvelopeAndOnsetsMatchDoubleOnes() {
+    double[] samples = new double[20_000];
+    float[] floats = new float[samples.length];
+    for (int i = 0; i < samples.length; i++) {
+      samples[i] = Math.sin(i * 0.01) * (i % 5000 < 400 ? 0.9 : 0.05);
+      floats[i] = (float) samples[i];
+    }
+
+    assertArrayEquals(detector.energyEnvelope(samples), detector.energyEnvelope(floats), 1e-6);
+    assertEquals(detector.detectOnsets(samples), detector.detectOnsets(floats));
+  }
 }
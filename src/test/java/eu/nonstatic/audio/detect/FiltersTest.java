@@ -223,6 +223,47 @@ class FiltersTest {
 
 
 
+  @Test
+  void floatFiltersStayCloseToDoubleOnes() {
+    double[] samples = new double[SAMPLES];
+    for (int i = 0; i < SAMPLES; i++) {
+      samples[i] = 0.5 * Math.sin(2 * Math.PI * 80 * i / SAMPLE_RATE) + 0.3 * Math.sin(2 * Math.PI * 5000 * i / SAMPLE_RATE);
+    }
+    float[] floats = toFloats(samples);
+
+    assertClose(Filters.IIR.lowPass(samples, SAMPLE_RATE, 150), Filters.IIR.lowPass(floats, SAMPLE_RATE, 150));
+    assertClose(Filters.IIR.highPass(samples, SAMPLE_RATE, 1000), Filters.IIR.highPass(floats, SAMPLE_RATE, 1000));
+    assertClose(Filters.IIR.bandPass(samples, SAMPLE_RATE, 500, 2000), Filters.IIR.bandPass(floats, SAMPLE_RATE, 500, 2000));
+    assertClose(Filters.IIR.bandStop(samples, SAMPLE_RATE, 500, 2000), Filters.IIR.bandStop(floats, SAMPLE_RATE, 500, 2000));
+    assertClose(Filters.RBJ.lowPass(samples, SAMPLE_RATE, 150, BUTTERWORTH_Q), Filters.RBJ.lowPass(floats, SAMPLE_RATE, 150, BUTTERWORTH_Q));
+    assertClose(Filters.RBJ.highPass(samples, SAMPLE_RATE, 1000, BUTTERWORTH_Q), Filters.RBJ.highPass(floats, SAMPLE_RATE, 1000, BUTTERWORTH_Q));
+    assertClose(Filters.RBJ.bandPass(samples, SAMPLE_RATE, 1000, 1.0), Filters.RBJ.bandPass(floats, SAMPLE_RATE, 1000, 1.0));
+    assertClose(Filters.RBJ.bandStop(samples, SAMPLE_RATE, 1000, 2.0), Filters.RBJ.bandStop(floats, SAMPLE_RATE, 1000, 2.0));
+  }
+
+  @Test
+  void floatFiltersHonourTheRange() {
+    float[] samples = toFloats(sine(440, 0.5));
+    float[] whole = Filters.IIR.lowPass(Arrays.copyOfRange(samples, 1000, 5000), SAMPLE_RATE, 1000);
+    assertArrayEquals(whole, Filters.IIR.lowPass(samples, 1000, 4000, SAMPLE_RATE, 1000));
+  }
+
+  private static float[] toFloats(double[] samples) {
+    float[] floats = new float[samples.length];
+    for (int i = 0; i < samples.length; i++) {
+      floats[i] = (float) samples[i];
+    }
+    return floats;
+  }
+
+  // Inputs rounded to float and outputs stored as float: some 1e-7 relative, well within 1e-5 absolute
+  private static void assertClose(double[] expected, float[] actual) {
+    assertEquals(expected.length, actual.length);
+    for (int i = 0; i < expected.length; i++) {
+      assertEquals(expected[i], actual[i], 1e-5, "sample " + i);
+    }
+  }
+
   private static double[] sine(double frequency, double amplitude) {
     double[] samples = new double[SAMPLES];
     for (int i = 0; i < SAMPLES; i++) {
@@ -2,12 +2,16 @@ package eu.nonstatic.audio.detect;
 
 import static eu.nonstatic.audio.detect.Mode.MAJOR;
 import static eu.nonstatic.audio.detect.Mode.MINOR;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
 import eu.nonstatic.audio.AudioTestBase;
+import eu.nonstatic.audio.SampleSource;
+import eu.nonstatic.audio.Sampling;
 import java.io.IOException;
+import javax.sound.sampled.AudioFormat;
 import javax.sound.sampled.UnsupportedAudioFileException;
 import org.junit.jupiter.api.Test;
 
@@ -65,6 +69,21 @@ class KeyDetectorTest implements AudioTestBase {
     assertEquals(MAJOR, key.mode(), "expected major, got " + key);
   }
 
+  @Test
+  void streamsToTheSameChromaAsTheWholeArray() throws IOException {
+    double[] samples = sine(220.00, 3.0, 277.18, 329.63);
+    Sampling sampling = new Sampling(samples, new AudioFormat(SAMPLE_RATE, 16, 1, true, false));
+
+    KeyDetector.ChromaAccumulator accumulator = DETECTOR.accumulator(SAMPLE_RATE);
+    try (SampleSource source = SampleSource.of(sampling)) {
+      source.blocks(1000, accumulator); // not a multiple of the window
+    }
+    assertArrayEquals(DETECTOR.chroma(samples, SAMPLE_RATE), accumulator.chroma());
+    try (SampleSource source = SampleSource.of(sampling)) {
+      assertEquals(DETECTOR.detect(samples, SAMPLE_RATE), DETECTOR.detect(source));
+    }
+  }
+
   @Test
   void throwsOnSilence() {
     double[] silence = new double[(int) SAMPLE_RATE]; // 1 second of zeros
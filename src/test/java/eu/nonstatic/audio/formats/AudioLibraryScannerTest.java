@@ -0,0 +1,225 @@
+/**
+ * Audiolib
+ * Copyright (C) 2022 NonStatic
+ *
+ * This file is part of audiolib.
+ * Audiolib is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *  is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License along with . If not, see <https://www.gnu.org/licenses/>.
+ */
+package eu.nonstatic.audio.formats;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import eu.nonstatic.audio.AudioFileType;
+import eu.nonstatic.audio.AudioTestBase;
+import eu.nonstatic.audio.formats.AudioLibraryScanner.ScanStats;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.NonWritableChannelException;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class AudioLibraryScannerTest implements AudioTestBase {
+
+  @TempDir
+  Path root;
+
+  @Test
+  void should_scan_tree() throws IOException {
+    Path album = Files.createDirectories(root.resolve("artist/album"));
+    AudioTestBase.copyFileContents(FLAC_URL, album.resolve("01.flac"));
+    AudioTestBase.copyFileContents(FLAC_URL, album.resolve("02.mp3")); // mislabelled
+    AudioTestBase.copyFileContents(WAVE_URL, album.resolve("03.wav"));
+    AudioTestBase.copyFileContents(OGG_URL, root.resolve("artist/single.ogg"));
+    Files.writeString(album.resolve("04.mp3"), "NOPE, nothing here");
+    Files.writeString(album.resolve("cover.txt"), "not even looked at");
+
+    Map<Path, AudioFileType> scanned = new ConcurrentHashMap<>();
+    Map<Path, Exception> failed = new ConcurrentHashMap<>();
+    ScanStats stats = new AudioLibraryScanner(2).scan(root, new AudioLibraryScanner.Listener() {
+      @Override
+      public void scanned(Path file, AudioFormatEx infos) {
+        scanned.put(file, infos.getType());
+      }
+
+      @Override
+      public void failed(Path file, Exception e) {
+        failed.put(file, e);
+      }
+    });
+
+    assertEquals(Map.of(
+        album.resolve("01.flac"), AudioFileType.FLAC,
+        album.resolve("02.mp3"), AudioFileType.FLAC,
+        album.resolve("03.wav"), AudioFileType.WAVE,
+        root.resolve("artist/single.ogg"), AudioFileType.OGG), scanned);
+    assertEquals(1, failed.size());
+    assertInstanceOf(AudioInfoException.class, failed.get(album.resolve("04.mp3")));
+
+    assertEquals(4, stats.files());
+    assertEquals(1, stats.failures());
+    assertEquals(2, stats.formats().get(AudioFileType.FLAC).files());
+    assertEquals(2 * Files.size(album.resolve("01.flac")), stats.formats().get(AudioFileType.FLAC).bytes());
+    assertEquals(1, stats.formats().get(AudioFileType.OGG).files());
+    assertTrue(stats.formats().get(AudioFileType.WAVE).bytesPerSecond() > 0);
+  }
+
+  @Test
+  void should_finish_handed_over_files_when_the_walk_fails() throws IOException {
+    AudioTestBase.copyFileContents(FLAC_URL, root.resolve("01.flac"));
+    AudioTestBase.copyFileContents(FLAC_URL, root.resolve("02.flac"));
+    AtomicInteger filtered = new AtomicInteger();
+    Predicate<Path> failingFilter = file -> {
+      if(filtered.incrementAndGet() > 1) {
+        throw new IllegalStateException("walk failure");
+      }
+      return true;
+    };
+
+    List<Path> scanned = new CopyOnWriteArrayList<>();
+    AudioLibraryScanner scanner = new AudioLibraryScanner(2, failingFilter);
+    assertThrows(IllegalStateException.class, () -> scanner.scan(root, new AudioLibraryScanner.Listener() {
+      @Override
+      public void scanned(Path file, AudioFormatEx infos) {
+        sleep(200); // still busy when the walk fails
+        scanned.add(file);
+      }
+
+      @Override
+      public void failed(Path file, Exception e) {
+        throw new AssertionError(e);
+      }
+    }));
+    assertEquals(1, scanned.size());
+  }
+
+  @Test
+  void should_have_as_many_reads_in_flight_as_permits() throws IOException {
+    for (int i = 0; i < 8; i++) {
+      AudioTestBase.copyFileContents(FLAC_URL, root.resolve(i + ".flac"));
+    }
+    assertEquals(1, maxReadsInFlight(1));
+    int reads = maxReadsInFlight(4);
+    assertTrue(reads > 1 && reads <= 4, () -> "reads in flight: " + reads);
+  }
+
+  private int maxReadsInFlight(int concurrency) throws IOException {
+    AtomicInteger inFlight = new AtomicInteger();
+    AtomicInteger maxInFlight = new AtomicInteger();
+    AudioLibraryScanner scanner = new AudioLibraryScanner(concurrency, file -> true,
+        file -> new SlowChannel(FileChannel.open(file, StandardOpenOption.READ), inFlight, maxInFlight));
+    ScanStats stats = scanner.scan(root, new AudioLibraryScanner.Listener() {
+      @Override
+      public void scanned(Path file, AudioFormatEx infos) {}
+
+      @Override
+      public void failed(Path file, Exception e) {
+        throw new AssertionError(e);
+      }
+    });
+    assertEquals(8, stats.files());
+    return maxInFlight.get();
+  }
+
+  @Test
+  void should_pick_virtual_threads_at_runtime() throws Exception {
+    ExecutorService executor = ScanExecutors.newExecutor(2);
+    try {
+      String thread = executor.submit(() -> Thread.currentThread().toString()).get();
+      assertEquals(Runtime.version().feature() >= 21, thread.startsWith("VirtualThread"), thread);
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  void should_fail_on_bad_concurrency() {
+    assertThrows(IllegalArgumentException.class, () -> new AudioLibraryScanner(0));
+  }
+
+  private static void sleep(long millis) {
+    try {
+      Thread.sleep(millis);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  /**
+   * Each read takes a while, as it would from a slow disk or a network share
+   */
+  private static final class SlowChannel implements SeekableByteChannel {
+    private final SeekableByteChannel channel;
+    private final AtomicInteger inFlight;
+    private final AtomicInteger maxInFlight;
+
+    private SlowChannel(SeekableByteChannel channel, AtomicInteger inFlight, AtomicInteger maxInFlight) {
+      this.channel = channel;
+      this.inFlight = inFlight;
+      this.maxInFlight = maxInFlight;
+    }
+
+    @Override
+    public int read(ByteBuffer dst) throws IOException {
+      maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+      try {
+        sleep(20);
+        return channel.read(dst);
+      } finally {
+        inFlight.decrementAndGet();
+      }
+    }
+
+    @Override
+    public int write(ByteBuffer src) {
+      throw new NonWritableChannelException();
+    }
+
+    @Override
+    public long position() throws IOException {
+      return channel.position();
+    }
+
+    @Override
+    public SeekableByteChannel position(long newPosition) throws IOException {
+      channel.position(newPosition);
+      return this;
+    }
+
+    @Override
+    public long size() throws IOException {
+      return channel.size();
+    }
+
+    @Override
+    public SeekableByteChannel truncate(long size) {
+      throw new NonWritableChannelException();
+    }
+
+    @Override
+    public boolean isOpen() {
+      return channel.isOpen();
+    }
+
+    @Override
+    public void close() throws IOException {
+      channel.close();
+    }
+  }
+}
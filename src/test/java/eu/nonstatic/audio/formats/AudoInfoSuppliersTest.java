@@ -9,17 +9,28 @@
  */
 package eu.nonstatic.audio.formats;
 
+import eu.nonstatic.audio.AudioFileType;
+import eu.nonstatic.audio.AudioInputStream;
+import eu.nonstatic.audio.AudioTestBase;
 import eu.nonstatic.audio.formats.aiff.AiffInfoSupplier;
 import eu.nonstatic.audio.formats.flac.FlacInfoSupplier;
 import eu.nonstatic.audio.formats.mpeg.Mp2AudioInfoSupplier;
 import eu.nonstatic.audio.formats.mpeg.Mp3AudioInfoSupplier;
 import eu.nonstatic.audio.formats.wave.WaveInfoSupplier;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
 import org.junit.jupiter.api.Test;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
-class AudoInfoSuppliersTest {
+class AudoInfoSuppliersTest implements AudioTestBase {
 
   @Test
   void should_select_supplier_by_filename() {
@@ -59,4 +70,77 @@ class AudoInfoSuppliersTest {
     IllegalArgumentException iae2 = assertThrows(IllegalArgumentException.class, () -> AudioInfoSuppliers.getByExtension(null));
     assertEquals("No AudioFileType available for extension: null", iae2.getMessage());
   }
+
+  @Test
+  void should_detect_type_by_content() throws IOException {
+    assertEquals(Optional.of(AudioFileType.AIFF), detect(AIFF_URL));
+    assertEquals(Optional.of(AudioFileType.AIFF), detect(AIFC_URL));
+    assertEquals(Optional.of(AudioFileType.WAVE), detect(WAVE_URL));
+    assertEquals(Optional.of(AudioFileType.MP2), detect(MP2_URL));
+    assertEquals(Optional.of(AudioFileType.MP3), detect(MP3_URL));
+    assertEquals(Optional.of(AudioFileType.FLAC), detect(FLAC_URL));
+    assertEquals(Optional.of(AudioFileType.OGG), detect(OGG_URL));
+    assertEquals(Optional.of(AudioFileType.APE), detect(APE_URL));
+    assertEquals(Optional.of(AudioFileType.XM), detect(XM_URL));
+  }
+
+  @Test
+  void should_detect_type_past_id3v2_and_padding() throws IOException {
+    ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    baos.write(new byte[]{'I', 'D', '3', 4, 0, 0, 0, 0, 0, 5});
+    baos.write(new byte[5]); // tag body
+    baos.write(new byte[7]); // padding
+    baos.write("fLaC".getBytes(StandardCharsets.US_ASCII));
+
+    AudioInputStream ais = AudioInputStream.of(new ByteArrayInputStream(baos.toByteArray()), "music.mp3");
+    assertEquals(Optional.of(AudioFileType.FLAC), AudioInfoSuppliers.detect(ais));
+    assertEquals(22, ais.location());
+  }
+
+  @Test
+  void should_detect_type_past_padding_larger_than_a_block() throws IOException {
+    byte[] bytes = new byte[1500 + 4];
+    System.arraycopy("OggS".getBytes(StandardCharsets.US_ASCII), 0, bytes, 1500, 4);
+
+    AudioInputStream ais = AudioInputStream.of(new ByteArrayInputStream(bytes), "music.mp3");
+    assertEquals(Optional.of(AudioFileType.OGG), AudioInfoSuppliers.detect(ais));
+    assertEquals(1500, ais.location());
+  }
+
+  @Test
+  void should_not_read_zero_filled_file_to_its_end() throws IOException {
+    AudioInputStream ais = AudioInputStream.of(new ByteArrayInputStream(new byte[1024 * 1024]), "music.wav");
+    assertEquals(Optional.empty(), AudioInfoSuppliers.detect(ais));
+    assertTrue(ais.location() <= 4096, () -> "skipped " + ais.location());
+  }
+
+  @Test
+  void should_not_detect_type() throws IOException {
+    AudioInputStream ais = AudioInputStream.of(new ByteArrayInputStream("NOPE, nothing here".getBytes(StandardCharsets.US_ASCII)), "music.wav");
+    assertEquals(Optional.empty(), AudioInfoSuppliers.detect(ais));
+    assertEquals(0, ais.location());
+  }
+
+  @Test
+  void should_give_infos_despite_extension() throws IOException, AudioInfoException {
+    try(InputStream is = FLAC_URL.openStream()) {
+      assertEquals(AudioFileType.FLAC, AudioInfoSuppliers.getInfos(is, "/tmp/music.mp3").getType());
+    }
+    try(InputStream is = WAVE_URL.openStream()) {
+      assertEquals(AudioFileType.WAVE, AudioInfoSuppliers.getInfos(is, "/tmp/music.ogg").getType());
+    }
+  }
+
+  @Test
+  void should_fail_on_unrecognized_content() {
+    ByteArrayInputStream bais = new ByteArrayInputStream("NOPE, nothing here".getBytes(StandardCharsets.US_ASCII));
+    AudioInfoException aie = assertThrows(AudioInfoException.class, () -> AudioInfoSuppliers.getInfos(bais, "whatever"));
+    assertEquals("Unrecognized content at 0: whatever", aie.getIssues().get(0).getCause().getMessage());
+  }
+
+  private static Optional<AudioFileType> detect(URL url) throws IOException {
+    try(InputStream is = url.openStream()) {
+      return AudioInfoSuppliers.detect(AudioInputStream.of(is, url.getPath()));
+    }
+  }
 }
@@ -0,0 +1,136 @@
+/**
+ * Audiolib
+ * Copyright (C) 2022 NonStatic
+ *
+ * This file is part of audiolib.
+ * Audiolib is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *  is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License along with . If not, see <https://www.gnu.org/licenses/>.
+ */
+package eu.nonstatic.audio.formats;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import eu.nonstatic.audio.formats.PcmView.SampleType;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class PcmViewTest {
+
+  private static final byte[] RATE_44100 = {0x40, 0x0E, (byte) 0xAC, 0x44, 0, 0, 0, 0, 0, 0}; // 80 bit extended
+
+  @TempDir
+  Path dir;
+
+  @Test
+  void should_view_wave_24_bits_stereo() throws IOException, AudioInfoException {
+    ByteBuffer bb = ByteBuffer.allocate(44 + 12).order(ByteOrder.LITTLE_ENDIAN)
+        .put("RIFF".getBytes()).putInt(36 + 12).put("WAVE".getBytes())
+        .put("fmt ".getBytes()).putInt(16)
+        .putShort((short) 1).putShort((short) 2).putInt(44100).putInt(44100 * 6).putShort((short) 6).putShort((short) 24)
+        .put("data".getBytes()).putInt(12);
+    put24LE(bb, 0x7FFFFF); put24LE(bb, -0x800000);
+    put24LE(bb, 1); put24LE(bb, -1);
+    Path file = Files.write(dir.resolve("pcm.wav"), bb.array());
+
+    PcmView view = PcmView.open(file);
+    assertEquals(SampleType.SIGNED_24, view.getSampleType());
+    assertEquals(ByteOrder.LITTLE_ENDIAN, view.getByteOrder());
+    assertEquals(2, view.getFrameCount());
+    assertEquals(6, view.getFrameStride());
+    assertEquals(3, view.getChannelStride());
+    assertEquals(0x7FFFFF, view.getInt(0, 0));
+    assertEquals(-0x800000, view.getInt(0, 1));
+    assertEquals(1, view.getInt(1, 0));
+    assertEquals(-1, view.getInt(1, 1));
+    assertEquals(-1.0, view.getDouble(0, 1));
+
+    float[] right = new float[4];
+    assertEquals(2, view.read(1, 0, right, 0, right.length));
+    assertEquals(-1f, right[0]);
+    assertEquals(-1f / 0x800000, right[1]);
+    assertThrows(IndexOutOfBoundsException.class, () -> view.getInt(2, 0));
+  }
+
+  @Test
+  void should_view_aifc_sowt_with_ssnd_after_comm() throws IOException, AudioInfoException {
+    ByteBuffer bb = ByteBuffer.allocate(12 + 8 + 22 + 8 + 8 + 2 + 6)
+        .put("FORM".getBytes()).putInt(0).put("AIFC".getBytes())
+        .put("COMM".getBytes()).putInt(22)
+        .putShort((short) 1).putInt(3).putShort((short) 16).put(RATE_44100).put("sowt".getBytes())
+        .put("SSND".getBytes()).putInt(8 + 2 + 6)
+        .putInt(2).putInt(0) // offset, block size
+        .putShort((short) 0) // skipped by the offset
+        .order(ByteOrder.LITTLE_ENDIAN)
+        .putShort((short) 0x4000).putShort((short) -2).putShort(Short.MIN_VALUE);
+    Path file = Files.write(dir.resolve("sowt.aifc"), bb.array());
+
+    PcmView view = PcmView.open(file);
+    assertEquals(SampleType.SIGNED_16, view.getSampleType());
+    assertEquals(ByteOrder.LITTLE_ENDIAN, view.getByteOrder());
+    assertEquals(3, view.getFrameCount());
+    assertEquals(0.5f, view.getFloat(0, 0));
+    assertEquals(-2, view.getInt(1, 0));
+    assertEquals(-1.0, view.getDouble(2, 0));
+  }
+
+  @Test
+  void should_view_aiff_float_with_ssnd_before_comm() throws IOException, AudioInfoException {
+    ByteBuffer bb = ByteBuffer.allocate(12 + 8 + 8 + 8 + 8 + 22)
+        .put("FORM".getBytes()).putInt(0).put("AIFC".getBytes())
+        .put("SSND".getBytes()).putInt(8 + 8)
+        .putInt(0).putInt(0)
+        .putFloat(0.25f).putFloat(-0.75f)
+        .put("COMM".getBytes()).putInt(22)
+        .putShort((short) 2).putInt(1).putShort((short) 32).put(RATE_44100).put("fl32".getBytes());
+    Path file = Files.write(dir.resolve("float.aifc"), bb.array());
+
+    PcmView view = PcmView.open(file);
+    assertEquals(SampleType.FLOAT_32, view.getSampleType());
+    assertEquals(1, view.getFrameCount());
+    assertEquals(0.25, view.getDouble(0, 0));
+    assertEquals(-0.75f, view.getFloat(0, 1));
+    assertThrows(IllegalStateException.class, () -> view.getInt(0, 0));
+  }
+
+  @Test
+  void should_clamp_truncated_data() throws IOException, AudioInfoException {
+    ByteBuffer bb = ByteBuffer.allocate(44 + 3).order(ByteOrder.LITTLE_ENDIAN)
+        .put("RIFF".getBytes()).putInt(36 + 1000).put("WAVE".getBytes())
+        .put("fmt ".getBytes()).putInt(16)
+        .putShort((short) 1).putShort((short) 1).putInt(8000).putInt(8000).putShort((short) 1).putShort((short) 8)
+        .put("data".getBytes()).putInt(1000)
+        .put((byte) 0x80).put((byte) 0xFF).put((byte) 0x00);
+    Path file = Files.write(dir.resolve("truncated.wav"), bb.array());
+
+    PcmView view = PcmView.open(file);
+    assertEquals(SampleType.UNSIGNED_8, view.getSampleType());
+    assertEquals(3, view.getFrameCount());
+    assertEquals(0, view.getInt(0, 0));
+    assertEquals(127, view.getInt(1, 0));
+    assertEquals(-128, view.getInt(2, 0));
+  }
+
+  @Test
+  void should_refuse_compressed_samples() throws IOException {
+    ByteBuffer bb = ByteBuffer.allocate(44).order(ByteOrder.LITTLE_ENDIAN)
+        .put("RIFF".getBytes()).putInt(36).put("WAVE".getBytes())
+        .put("fmt ".getBytes()).putInt(16)
+        .putShort((short) 6).putShort((short) 1).putInt(8000).putInt(8000).putShort((short) 1).putShort((short) 8) // A-law
+        .put("data".getBytes()).putInt(0);
+    Path file = Files.write(dir.resolve("alaw.wav"), bb.array());
+
+    AudioInfoException aie = assertThrows(AudioInfoException.class, () -> PcmView.open(file));
+    assertEquals(1, aie.getIssues().size());
+  }
+
+  private static void put24LE(ByteBuffer bb, int value) {
+    bb.put((byte) value).put((byte) (value >> 8)).put((byte) (value >> 16));
+  }
+}
@@ -0,0 +1,173 @@
+/**
+ * Audiolib
+ * Copyright (C) 2022 NonStatic
+ *
+ * This file is part of audiolib.
+ * Audiolib is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *  is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License along with . If not, see <https://www.gnu.org/licenses/>.
+ */
+package eu.nonstatic.audio.formats.cache;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import eu.nonstatic.audio.AudioFileType;
+import eu.nonstatic.audio.AudioTestBase;
+import eu.nonstatic.audio.formats.AudioFormatEx;
+import eu.nonstatic.audio.formats.AudioInfoException;
+import eu.nonstatic.audio.formats.flac.FlacInfo;
+import eu.nonstatic.audio.formats.flac.FlacInfoSupplier;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class AudioInfoCacheTest implements AudioTestBase {
+
+  @TempDir
+  Path dir;
+
+  @Test
+  void should_give_cached_infos_after_reopen() throws IOException, AudioInfoException {
+    Path flac = AudioTestBase.copyFileContents(FLAC_URL, dir.resolve("music.flac"));
+    Path cacheFile = dir.resolve("infos.cache");
+
+    AudioFormatEx parsed;
+    try(AudioInfoCache cache = AudioInfoCache.open(cacheFile, 100, Duration.ofDays(30))) {
+      parsed = cache.get(flac);
+      assertInstanceOf(FlacInfo.class, parsed);
+      assertInstanceOf(CachedAudioInfo.class, cache.get(flac)); // now a lookup
+    }
+
+    try(AudioInfoCache cache = AudioInfoCache.open(cacheFile, 100, Duration.ofDays(30))) {
+      assertEquals(1, cache.size());
+      AudioFormatEx cached = cache.get(flac);
+      assertInstanceOf(CachedAudioInfo.class, cached);
+      assertEquals(flac.toAbsolutePath().toString(), cached.getName());
+      assertEquals(AudioFileType.FLAC, cached.getType());
+      assertEquals(parsed.getDuration(), cached.getDuration());
+      assertEquals(parsed.getFrameCount(), cached.getFrameCount());
+      assertEquals(parsed.getSampleRate(), cached.getSampleRate());
+      assertEquals(parsed.getChannels(), cached.getChannels());
+      assertEquals(parsed.getSampleSizeInBits(), cached.getSampleSizeInBits());
+      assertEquals(parsed.getEncoding(), cached.getEncoding());
+    }
+  }
+
+  @Test
+  void should_parse_again_when_changed() throws IOException, AudioInfoException {
+    Path flac = AudioTestBase.copyFileContents(FLAC_URL, dir.resolve("music.flac"));
+    try(AudioInfoCache cache = AudioInfoCache.open(dir.resolve("infos.cache"), 100, Duration.ofDays(30))) {
+      cache.get(flac);
+      Files.setLastModifiedTime(flac, FileTime.from(Instant.now().plusSeconds(60)));
+      assertInstanceOf(FlacInfo.class, cache.get(flac));
+    }
+  }
+
+  @Test
+  void should_evict_least_recently_used() throws IOException, AudioInfoException {
+    Path flac1 = AudioTestBase.copyFileContents(FLAC_URL, dir.resolve("1.flac"));
+    Path flac2 = AudioTestBase.copyFileContents(FLAC_URL, dir.resolve("2.flac"));
+    Path flac3 = AudioTestBase.copyFileContents(FLAC_URL, dir.resolve("3.flac"));
+    try(AudioInfoCache cache = AudioInfoCache.open(dir.resolve("infos.cache"), 2, Duration.ofDays(30))) {
+      cache.get(flac1);
+      cache.get(flac2);
+      cache.get(flac1);
+      cache.get(flac3); // evicts 2
+      assertEquals(2, cache.size());
+      assertInstanceOf(CachedAudioInfo.class, cache.get(flac1));
+      assertInstanceOf(FlacInfo.class, cache.get(flac2));
+    }
+  }
+
+  @Test
+  void should_drop_torn_record() throws IOException, AudioInfoException {
+    Path flac1 = AudioTestBase.copyFileContents(FLAC_URL, dir.resolve("1.flac"));
+    Path flac2 = AudioTestBase.copyFileContents(FLAC_URL, dir.resolve("2.flac"));
+    Path cacheFile = dir.resolve("infos.cache");
+    try(AudioInfoCache cache = AudioInfoCache.open(cacheFile, 100, Duration.ofDays(30))) {
+      cache.get(flac1);
+    }
+    long firstRecordEnd = Files.size(cacheFile);
+    try(AudioInfoCache cache = AudioInfoCache.open(cacheFile, 100, Duration.ofDays(30))) {
+      cache.get(flac2); // appended
+    }
+    long size = Files.size(cacheFile);
+    try(FileChannel ch = FileChannel.open(cacheFile, StandardOpenOption.WRITE)) {
+      ch.truncate(size - 3); // as if the last write didn't make it
+    }
+
+    try(AudioInfoCache cache = AudioInfoCache.open(cacheFile, 100, Duration.ofDays(30))) {
+      assertEquals(1, cache.size());
+      assertEquals(firstRecordEnd, Files.size(cacheFile));
+      assertInstanceOf(CachedAudioInfo.class, cache.get(flac1));
+      assertInstanceOf(FlacInfo.class, cache.get(flac2));
+    }
+  }
+
+  @Test
+  void should_not_rewrite_on_hits() throws IOException, AudioInfoException {
+    Path flac = AudioTestBase.copyFileContents(FLAC_URL, dir.resolve("music.flac"));
+    Path cacheFile = dir.resolve("infos.cache");
+    try(AudioInfoCache cache = AudioInfoCache.open(cacheFile, 100, Duration.ofDays(30))) {
+      cache.get(flac);
+    }
+    byte[] bytes = Files.readAllBytes(cacheFile);
+
+    try(AudioInfoCache cache = AudioInfoCache.open(cacheFile, 100, Duration.ofDays(30))) {
+      assertInstanceOf(CachedAudioInfo.class, cache.get(flac));
+    }
+    assertArrayEquals(bytes, Files.readAllBytes(cacheFile));
+  }
+
+  @Test
+  void should_record_again_entries_about_to_expire() throws IOException, AudioInfoException, InterruptedException {
+    Path flac = AudioTestBase.copyFileContents(FLAC_URL, dir.resolve("music.flac"));
+    Path cacheFile = dir.resolve("infos.cache");
+    try(AudioInfoCache cache = AudioInfoCache.open(cacheFile, 100, Duration.ofSeconds(4))) {
+      cache.get(flac);
+      Thread.sleep(2500); // past half of maxAge, with room to spare before it
+      assertInstanceOf(CachedAudioInfo.class, cache.get(flac));
+      Thread.sleep(2000); // past maxAge since parsed
+    }
+
+    try(AudioInfoCache cache = AudioInfoCache.open(cacheFile, 100, Duration.ofSeconds(4))) {
+      assertEquals(1, cache.size());
+    }
+  }
+
+  @Test
+  void should_start_over_on_foreign_file() throws IOException {
+    Path cacheFile = Files.writeString(dir.resolve("infos.cache"), "NOPE, not a cache");
+    try(AudioInfoCache cache = AudioInfoCache.open(cacheFile, 100, Duration.ofDays(30))) {
+      assertEquals(0, cache.size());
+    }
+  }
+
+  @Test
+  void should_cache_through_supplier() throws IOException, AudioInfoException {
+    Path flac = AudioTestBase.copyFileContents(FLAC_URL, dir.resolve("music.flac"));
+    try(AudioInfoCache cache = AudioInfoCache.open(dir.resolve("infos.cache"), 100, Duration.ofDays(30))) {
+      FlacInfoSupplier supplier = new FlacInfoSupplier();
+      AudioFormatEx parsed = cache.cached(supplier).getInfos(flac);
+      AudioFormatEx cached = cache.cached(supplier).getInfos(flac.toFile());
+      assertInstanceOf(FlacInfo.class, parsed);
+      assertInstanceOf(CachedAudioInfo.class, cached);
+      assertSame(cached, cache.get(flac, new FlacInfoSupplier()));
+
+      assertInstanceOf(FlacInfo.class, cache.get(flac)); // by content, not what the supplier gave
+      assertNotSame(cached, cache.get(flac));
+      assertEquals(2, cache.size());
+    }
+  }
+}
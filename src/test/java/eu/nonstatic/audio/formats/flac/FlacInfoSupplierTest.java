@@ -23,13 +23,19 @@ import java.io.ByteArrayInputStream;
 import java.io.EOFException;
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.Duration;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 class FlacInfoSupplierTest implements AudioTestBase {
 
   FlacInfoSupplier infoSupplier = new FlacInfoSupplier();
 
+  @TempDir
+  Path tempDir;
+
   @Test
   void should_give_infos() throws IOException, AudioInfoException {
     FlacInfo flacInfo = infoSupplier.getInfos(FLAC_URL.openStream(), FLAC_NAME);
@@ -82,4 +88,89 @@ class FlacInfoSupplierTest implements AudioTestBase {
     assertEquals(4, issue.getLocation());
     assertEquals(EOFException.class, issue.getCause().getClass());
   }
+
+  @Test
+  void should_scan_frames_when_no_total_samples() throws IOException, AudioInfoException {
+    byte[] flac = unknownLengthFlac();
+    FlacInfo streamed = infoSupplier.getInfos(new ByteArrayInputStream(flac), "streamed.flac");
+    assertEquals(4 * 4096 + 1000, streamed.getFrameCount());
+
+    Path file = Files.write(tempDir.resolve("streamed.flac"), flac);
+    FlacInfo mapped = infoSupplier.getInfos(file);
+    assertEquals(4 * 4096 + 1000, mapped.getFrameCount());
+    assertEquals(Duration.ofMillis(394L), mapped.getDuration());
+  }
+
+  @Test
+  void should_scan_the_tail_only_of_large_files() throws IOException, AudioInfoException {
+    byte[] flac = unknownLengthFlac(60); // 72000 bytes of frames, over the 64KB tail window
+    Path file = Files.write(tempDir.resolve("large.flac"), flac);
+    FlacInfo mapped = infoSupplier.getInfos(file);
+    assertEquals(59 * 4096 + 1000, mapped.getFrameCount());
+
+    FlacInfo streamed = infoSupplier.getInfos(new ByteArrayInputStream(flac), "large.flac");
+    assertEquals(59 * 4096 + 1000, streamed.getFrameCount());
+  }
+
+  @Test
+  void should_read_seek_table() throws IOException, AudioInfoException {
+    FlacInfo flacInfo = infoSupplier.getInfos(new ByteArrayInputStream(unknownLengthFlac()), "streamed.flac");
+    FlacSeekTable seekTable = flacInfo.getSeekTable();
+    assertEquals(1, seekTable.size()); // the placeholder isn't kept
+    assertEquals(8192, seekTable.sampleAt(0));
+    assertEquals(4096, seekTable.frameSamplesAt(0));
+    long firstFrame = 4 + 4 + 34 + 4 + 2 * 18 + 4 + 100;
+    assertEquals(firstFrame, seekTable.getFirstFrameLocation());
+    assertEquals(firstFrame + 2 * 1200, seekTable.offsetOf(10000));
+    assertEquals(firstFrame, seekTable.offsetOf(8191));
+  }
+
+  private static byte[] unknownLengthFlac() {
+    return unknownLengthFlac(5);
+  }
+
+  /**
+   * STREAMINFO without total samples, a SEEKTABLE, PADDING, then fixed block size frames of 1200 bytes the last one holding 1000 samples
+   * @param frames up to 127, their numbers being coded in one byte
+   */
+  private static byte[] unknownLengthFlac(int frames) {
+    ByteBuffer bb = ByteBuffer.allocate(4 + 4 + 34 + 4 + 2 * 18 + 4 + 100 + frames * 1200)
+        .put("fLaC".getBytes())
+        .putInt(34) // STREAMINFO
+        .putShort((short) 4096).putShort((short) 4096)
+        .put(new byte[6]) // frame sizes unknown
+        .putLong(44100L << 44 | 1L << 41 | 15L << 36) // stereo 16 bits, 0 total samples
+        .put(new byte[16]) // md5
+        .putInt(3 << 24 | 2 * 18) // SEEKTABLE
+        .putLong(8192).putLong(2 * 1200).putShort((short) 4096)
+        .putLong(-1).putLong(0).putShort((short) 0) // placeholder
+        .putInt(0x81 << 24 | 100) // last, PADDING
+        .put(new byte[100]);
+    for (int i = 0; i < frames; i++) {
+      int start = bb.position();
+      boolean last = i == frames - 1;
+      bb.put((byte) 0xff).put((byte) 0xf8) // fixed block size
+          .put((byte) ((last ? 0x7 : 0xc) << 4 | 0x9)) // 16 bit block size at the end or 4096, 44.1kHz
+          .put((byte) 0x18) // stereo, 16 bits
+          .put((byte) i); // frame number
+      if (last) {
+        bb.putShort((short) (1000 - 1));
+      }
+      bb.put(crc8(bb.array(), start, bb.position()));
+      bb.position(start + 1200); // zeroed subframes
+    }
+    return bb.array();
+  }
+
+  private static byte crc8(byte[] b, int from, int to) {
+    int crc = 0;
+    for (int i = from; i < to; i++) {
+      crc ^= b[i] & 0xff;
+      for (int bit = 0; bit < 8; bit++) {
+        crc = (crc & 0x80) != 0 ? (crc << 1) ^ 0x07 : crc << 1;
+      }
+      crc &= 0xff;
+    }
+    return (byte) crc;
+  }
 }
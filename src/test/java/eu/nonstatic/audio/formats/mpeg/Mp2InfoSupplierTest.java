@@ -11,16 +11,32 @@ package eu.nonstatic.audio.formats.mpeg;
 
 import eu.nonstatic.audio.AudioFileType;
 import eu.nonstatic.audio.formats.AudioInfoException;
+import eu.nonstatic.audio.AudioInputStream;
 import eu.nonstatic.audio.AudioTestBase;
+import eu.nonstatic.audio.ChannelAudioInputStream;
+import eu.nonstatic.audio.formats.mpeg.MpegAudioInfoSupplier.Mode;
+import eu.nonstatic.audio.formats.mpeg.MpegInfo.DurationMethod;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.Duration;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class Mp2InfoSupplierTest implements AudioTestBase {
 
+  @TempDir
+  Path tempDir;
+
   @Test
   void should_give_infos() throws IOException, AudioInfoException {
     MpegInfo mpegInfo = new Mp2AudioInfoSupplier().getInfos(MP2_URL.openStream(), MP2_NAME);
@@ -29,5 +45,57 @@ class Mp2InfoSupplierTest implements AudioTestBase {
     assertEquals(Duration.ofNanos(11102040816L), mpegInfo.getDuration());
   }
 
+  @Test
+  void should_estimate_cbr_duration() throws IOException, AudioInfoException {
+    Path file = AudioTestBase.copyFileContents(MP2_URL, tempDir.resolve("cbr.mp2"));
+    MpegInfo walkInfo = new Mp2AudioInfoSupplier().getInfos(file);
+    MpegInfo estimatedInfo = new Mp2AudioInfoSupplier(Mode.ESTIMATE).getInfos(file);
+
+    assertEquals(DurationMethod.FRAME_WALK, walkInfo.getDurationMethod());
+    assertFalse(walkInfo.isEstimated());
+    assertEquals(DurationMethod.CBR_ESTIMATE, estimatedInfo.getDurationMethod());
+    assertTrue(estimatedInfo.isEstimated());
+    assertEquals(walkInfo.getDuration(), estimatedInfo.getDuration());
+    assertEquals(walkInfo.getSampleRate(), estimatedInfo.getSampleRate());
+    assertEquals(walkInfo.getChannels(), estimatedInfo.getChannels());
+  }
+
+  @Test
+  void should_estimate_without_trailing_tags() throws IOException, AudioInfoException {
+    byte[] audio;
+    try(InputStream is = MP2_URL.openStream()) {
+      audio = is.readAllBytes();
+    }
+    byte[] lyrics = "LYRICSBEGININD0000200ETT00005Hello000034LYRICS200".getBytes(StandardCharsets.US_ASCII);
+    ByteBuffer ape = ByteBuffer.allocate(64).order(ByteOrder.LITTLE_ENDIAN); // header and footer, no item
+    for(int i = 0; i < 2; i++) {
+      ape.put("APETAGEX".getBytes(StandardCharsets.US_ASCII)).putInt(2000).putInt(32).putInt(0).putInt(0x80000000 | (i == 0 ? 0x20000000 : 0)).putLong(0);
+    }
+    byte[] id3v1 = new byte[128];
+    id3v1[0] = 'T'; id3v1[1] = 'A'; id3v1[2] = 'G';
+
+    Path file = tempDir.resolve("tagged.mp2");
+    try(OutputStream os = Files.newOutputStream(file)) {
+      os.write(audio);
+      os.write(ape.array());
+      os.write(lyrics);
+      os.write(id3v1);
+    }
+
+    try(AudioInputStream ais = ChannelAudioInputStream.open(file)) {
+      assertEquals(audio.length, MpegAudioInfoSupplier.findAudioEnd(ais)); // a tag size off by a few bytes would only be lost in the rounding to frames
+    }
+    MpegInfo estimatedInfo = new Mp2AudioInfoSupplier(Mode.ESTIMATE).getInfos(file);
+    assertTrue(estimatedInfo.isEstimated());
+    assertEquals(Duration.ofNanos(11102040816L), estimatedInfo.getDuration());
+  }
+
+  @Test
+  void should_not_estimate_unseekable_stream() throws IOException, AudioInfoException {
+    MpegInfo mpegInfo = new Mp2AudioInfoSupplier(Mode.ESTIMATE).getInfos(MP2_URL.openStream(), MP2_NAME);
+    assertEquals(DurationMethod.FRAME_WALK, mpegInfo.getDurationMethod());
+    assertEquals(Duration.ofNanos(11102040816L), mpegInfo.getDuration());
+  }
+
   // Please refer to Mp3InfoSupplierTest for all other exceptional test cases
 }
@@ -14,15 +14,27 @@ import eu.nonstatic.audio.AudioIssue.Type;
 import eu.nonstatic.audio.formats.AudioFormatException;
 import eu.nonstatic.audio.formats.AudioInfoException;
 import eu.nonstatic.audio.formats.mpeg.MpegAudioInfoSupplier.FrameDetails;
+import eu.nonstatic.audio.formats.mpeg.MpegAudioInfoSupplier.FrameInfos;
+import eu.nonstatic.audio.formats.mpeg.MpegAudioInfoSupplier.Mode;
+import eu.nonstatic.audio.formats.mpeg.MpegInfo.DurationMethod;
 import org.junit.jupiter.api.Test;
 
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.EOFException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.ByteBuffer;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.Duration;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -38,6 +50,67 @@ class Mp3InfoSupplierTest implements AudioTestBase {
     assertEquals(44100.f, mpegInfo.getSampleRate());
   }
 
+  @Test
+  void should_give_infos_from_channel() throws IOException, AudioInfoException {
+    Path file = AudioTestBase.copyFileContents(MP3_URL, Files.createTempFile("audiolib", ".mp3"));
+    try(SeekableByteChannel channel = Files.newByteChannel(file)) {
+      MpegInfo mpegInfo = new Mp3AudioInfoSupplier().getInfos(channel, MP3_NAME);
+      assertEquals(Duration.ofNanos(11154285714L), mpegInfo.getDuration());
+      assertTrue(channel.isOpen());
+    } finally {
+      Files.delete(file);
+    }
+  }
+
+  @Test
+  void should_walk_in_parallel_like_sequentially() throws IOException, AudioInfoException {
+    byte[] bytes;
+    try(InputStream is = MP3_URL.openStream()) {
+      bytes = is.readAllBytes();
+    }
+
+    ByteArrayOutputStream bos = new ByteArrayOutputStream();
+    bos.write(bytes);
+    Random random = new Random(42);
+    for (int i = 0; i < 24; i++) { // about 5MB
+      byte[] garbage = new byte[random.nextInt(5000)];
+      random.nextBytes(garbage);
+      bos.write(garbage);
+      bos.write(bytes, 45 + 1000 * i, bytes.length - 45 - 1000 * i - 7 * i); // from some frame's middle to some other's
+    }
+    ByteBuffer bb = ByteBuffer.wrap(bos.toByteArray());
+    int rangeStart = 45 + (bb.capacity() - 45) / 2; // where the third of 4 ranges starts
+    bb.putInt(rangeStart, 0xFFFB9064); // a false sync within some frame, confirmed by another one
+    bb.putInt(rangeStart + 417, 0xFFFB9064);
+
+    Path file = Files.createTempFile("audiolib", ".mp3");
+    Files.write(file, bb.array());
+
+    try {
+      MpegAudioInfoSupplier infoSupplier = new Mp3AudioInfoSupplier(Mode.VERIFY);
+      MpegInfo sequential = infoSupplier.getInfos(file);
+      MpegInfo parallel = infoSupplier.getInfos(file, 4);
+
+      assertTrue(sequential.getIssues().size() > 24);
+      assertEquals(sequential.getDuration(), parallel.getDuration());
+      assertEquals(sequential.getFrameRate(), parallel.getFrameRate());
+      assertEquals(sequential.isIncomplete(), parallel.isIncomplete());
+      assertEquals(sequential.getIssues().toString(), parallel.getIssues().toString());
+
+      ExecutorService executor = Executors.newFixedThreadPool(4);
+      try {
+        MpegInfo pooled = infoSupplier.getInfos(file, 4, executor);
+        assertEquals(sequential.getDuration(), pooled.getDuration());
+        assertEquals(sequential.getIssues().toString(), pooled.getIssues().toString());
+        assertFalse(executor.isShutdown()); // still the caller's
+      } finally {
+        executor.shutdown();
+      }
+    } finally {
+      Files.delete(file);
+    }
+  }
+
   @Test
   void should_handle_truncated_file() {
     MpegAudioInfoSupplier infoSupplier = new Mp3AudioInfoSupplier();
@@ -134,6 +207,28 @@ class Mp3InfoSupplierTest implements AudioTestBase {
     }
   }
 
+  @Test
+  void should_give_up_resync_beyond_budget() throws IOException, AudioInfoException {
+    byte[] bytes;
+    try(InputStream is = MP3_URL.openStream()) {
+      bytes = is.readAllBytes();
+    }
+
+    int split = 1515, missing = 50;
+    ByteBuffer bb = ByteBuffer.allocate(bytes.length - missing);
+    bb.put(bytes, 0, split);
+    bb.put(bytes, split+missing, bytes.length - missing - split);
+
+    MpegInfo infos = new Mp3AudioInfoSupplier(Mode.VBR_HEADER, 0, 358).getInfos(new ByteArrayInputStream(bb.array()), MP3_NAME + ":outofsynch");
+    List<AudioIssue> issues = infos.getIssues();
+    assertEquals(1, issues.size());
+    AudioIssue issue = issues.get(0);
+    assertEquals(Type.OTHER, issue.getType());
+    assertEquals(1930, issue.getLocation()); // next frame is 359 bytes away
+    assertEquals("No sync found within the 358 bytes resync budget", issue.getMeta(AudioIssue.META_MESSAGE));
+    assertTrue(infos.getDuration().compareTo(Duration.ofSeconds(1)) < 0);
+  }
+
   @Test
   void should_give_mp3_infos_on_out_of_synch_incomplete_file() throws IOException, AudioInfoException {
     byte[] bytes;
@@ -173,7 +268,7 @@ class Mp3InfoSupplierTest implements AudioTestBase {
       bytes = is.readAllBytes();
     }
 
-    MpegAudioInfoSupplier infoSupplier = new Mp3AudioInfoSupplier();
+    MpegAudioInfoSupplier infoSupplier = new Mp3AudioInfoSupplier(Mode.VERIFY); // the Xing header alone won't tell
     AudioInputStream aisComplete = new AudioInputStream(new ByteArrayInputStream(bytes), MP3_NAME + ":complete");
     infoSupplier.skipID3v2(aisComplete);
     long framesLocation = aisComplete.location();
@@ -199,6 +294,138 @@ class Mp3InfoSupplierTest implements AudioTestBase {
     assertEquals(Type.SYNC, issues.get(1).getType());
   }
 
+  @Test
+  void should_use_vbr_header() throws IOException, AudioInfoException {
+    byte[] bytes;
+    try(InputStream is = MP3_URL.openStream()) {
+      bytes = is.readAllBytes();
+    }
+    MpegInfo mpegInfo = new Mp3AudioInfoSupplier().getInfos(new ByteArrayInputStream(bytes), MP3_NAME, bytes.length);
+    assertEquals(DurationMethod.VBR_HEADER, mpegInfo.getDurationMethod());
+    VbrHeader vbrHeader = mpegInfo.getVbrHeader();
+    assertEquals(VbrHeader.Type.XING, vbrHeader.type());
+    assertEquals(426, vbrHeader.frames());
+    assertEquals(210424, vbrHeader.bytes());
+    assertEquals(100, vbrHeader.toc().length);
+    assertEquals("Lavc58.35", vbrHeader.encoder());
+    assertEquals(576, vbrHeader.encoderDelay());
+    assertEquals(1408, vbrHeader.encoderPadding());
+    assertEquals(0, vbrHeader.byteOffset(0));
+    assertEquals(210424, vbrHeader.byteOffset(1));
+  }
+
+  @Test
+  void should_compare_vbr_headers_by_content() throws IOException, AudioInfoException {
+    VbrHeader vbrHeader = new Mp3AudioInfoSupplier(Mode.VERIFY).getInfos(MP3_URL.openStream(), MP3_NAME).getVbrHeader();
+    VbrHeader copy = new VbrHeader(vbrHeader.type(), vbrHeader.frames(), vbrHeader.bytes(), vbrHeader.toc().clone(),
+        vbrHeader.framesPerTocEntry(), vbrHeader.encoder(), vbrHeader.encoderDelay(), vbrHeader.encoderPadding());
+    assertEquals(vbrHeader, copy);
+    assertEquals(vbrHeader.hashCode(), copy.hashCode());
+    assertEquals(vbrHeader.toString(), copy.toString());
+    assertTrue(vbrHeader.toString().contains("toc=[0, "));
+
+    copy.toc()[50]++;
+    assertNotEquals(vbrHeader, copy);
+  }
+
+  @Test
+  void should_walk_when_vbr_header_bytes_cannot_be_checked() throws IOException, AudioInfoException {
+    byte[] bytes;
+    try(InputStream is = MP3_URL.openStream()) {
+      bytes = is.readAllBytes();
+    }
+    MpegInfo mpegInfo = new Mp3AudioInfoSupplier().getInfos(new ByteArrayInputStream(bytes), MP3_NAME); // unknown length
+    assertEquals(DurationMethod.FRAME_WALK, mpegInfo.getDurationMethod());
+    assertEquals(new Mp3AudioInfoSupplier().getInfos(new ByteArrayInputStream(bytes), MP3_NAME, bytes.length).getDuration(), mpegInfo.getDuration());
+  }
+
+  @Test
+  void should_give_same_infos_when_verifying() throws IOException, AudioInfoException {
+    byte[] bytes;
+    try(InputStream is = MP3_URL.openStream()) {
+      bytes = is.readAllBytes();
+    }
+    MpegInfo headerInfo = new Mp3AudioInfoSupplier().getInfos(new ByteArrayInputStream(bytes), MP3_NAME, bytes.length);
+    assertEquals(DurationMethod.VBR_HEADER, headerInfo.getDurationMethod());
+    MpegInfo walkInfo = new Mp3AudioInfoSupplier(Mode.VERIFY).getInfos(MP3_URL.openStream(), MP3_NAME);
+    assertEquals(DurationMethod.FRAME_WALK, walkInfo.getDurationMethod());
+    assertEquals(headerInfo.getDuration(), walkInfo.getDuration());
+    assertEquals(headerInfo.getSampleRate(), walkInfo.getSampleRate());
+    assertEquals(headerInfo.getChannels(), walkInfo.getChannels());
+    assertEquals(headerInfo.getFrameRate(), walkInfo.getFrameRate());
+    assertTrue(walkInfo.getIssues().isEmpty());
+    assertEquals(VbrHeader.Type.XING, walkInfo.getVbrHeader().type());
+  }
+
+  @Test
+  void should_walk_when_vbr_header_announces_more_bytes() throws IOException, AudioInfoException {
+    byte[] bytes;
+    try(InputStream is = MP3_URL.openStream()) {
+      bytes = is.readAllBytes();
+    }
+    MpegInfo mpegInfo = new Mp3AudioInfoSupplier().getInfos(new ByteArrayInputStream(bytes, 0, bytes.length - 50), MP3_NAME, bytes.length - 50);
+    assertEquals(DurationMethod.FRAME_WALK, mpegInfo.getDurationMethod());
+    assertTrue(mpegInfo.isIncomplete());
+  }
+
+  @Test
+  void should_report_vbr_header_mismatch_when_verifying() throws IOException, AudioInfoException {
+    byte[] bytes;
+    try(InputStream is = MP3_URL.openStream()) {
+      bytes = is.readAllBytes();
+    }
+    ByteBuffer.wrap(bytes).putInt(0x59, 500); // Xing frame count
+    MpegInfo mpegInfo = new Mp3AudioInfoSupplier(Mode.VERIFY).getInfos(new ByteArrayInputStream(bytes), MP3_NAME);
+    List<AudioIssue> issues = mpegInfo.getIssues();
+    assertEquals(1, issues.size());
+    assertEquals(Type.OTHER, issues.get(0).getType());
+    assertEquals(45, issues.get(0).getLocation());
+    assertEquals("XING header announces 501 frames, found 427", issues.get(0).getMeta(AudioIssue.META_MESSAGE));
+  }
+
+  @Test
+  void should_walk_vbr_file_without_header_when_estimating() throws IOException, AudioInfoException {
+    byte[] bytes;
+    try(InputStream is = MP3_URL.openStream()) {
+      bytes = is.readAllBytes();
+    }
+    bytes[0x54] = 'x'; // no more Xing tag
+    Path file = Files.write(Files.createTempFile("audiolib", ".mp3"), bytes);
+    try {
+      MpegInfo mpegInfo = new Mp3AudioInfoSupplier(Mode.ESTIMATE).getInfos(file);
+      assertEquals(DurationMethod.FRAME_WALK, mpegInfo.getDurationMethod());
+      assertNull(mpegInfo.getVbrHeader());
+      assertEquals(Duration.ofNanos(11154285714L), mpegInfo.getDuration());
+    } finally {
+      Files.delete(file);
+    }
+  }
+
+  @Test
+  void should_walk_frames_like_reading_them() throws IOException, AudioFormatException {
+    MpegAudioInfoSupplier infoSupplier = new Mp3AudioInfoSupplier();
+    Map<Integer, Long> sampleCounts = new HashMap<>();
+    Map<Short, Integer> channelsCounts = new HashMap<>();
+    try (AudioInputStream ais = new AudioInputStream(MP3_URL.openStream(), MP3_NAME)) {
+      infoSupplier.skipID3v2(ais);
+      FrameDetails frameDetails;
+      while ((frameDetails = infoSupplier.readFrame(ais)) != null) {
+        sampleCounts.merge(frameDetails.sampleRate, (long) frameDetails.sampleCount, Long::sum);
+        channelsCounts.merge(frameDetails.numChannels, 1, Integer::sum);
+      }
+    }
+
+    FrameInfos frameInfos = new FrameInfos(0);
+    try (AudioInputStream ais = new AudioInputStream(MP3_URL.openStream(), MP3_NAME)) {
+      infoSupplier.skipID3v2(ais);
+      while (infoSupplier.walkFrame(ais, frameInfos));
+    }
+
+    assertEquals(427, frameInfos.frameCount);
+    assertEquals(sampleCounts, frameInfos.getSampleCounts());
+    assertEquals(channelsCounts, frameInfos.getChannelsCounts());
+  }
+
   @Test
   void should_encode_synch_safe_bytes() {
     assertArrayEquals(new byte[]{9, -74, 100, 119}, MpegAudioInfoSupplier.toSynchSafeBytes(19772023));
@@ -0,0 +1,96 @@
+/**
+ * Audiolib
+ * Copyright (C) 2022 NonStatic
+ *
+ * This file is part of audiolib.
+ * Audiolib is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *  is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License along with . If not, see <https://www.gnu.org/licenses/>.
+ */
+package eu.nonstatic.audio.formats.mpeg;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import eu.nonstatic.audio.AudioTestBase;
+import eu.nonstatic.audio.formats.AudioInfoException;
+import eu.nonstatic.audio.formats.mpeg.MpegAudioInfoSupplier.Mode;
+import eu.nonstatic.audio.formats.mpeg.MpegInfo.DurationMethod;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.time.Duration;
+import org.junit.jupiter.api.Test;
+
+class MpegFrameIndexTest implements AudioTestBase {
+
+  @Test
+  void should_index_every_frame() throws IOException, AudioInfoException {
+    MpegInfo mpegInfo = new Mp3AudioInfoSupplier(Mode.VBR_HEADER, 1).getInfos(MP3_URL.openStream(), MP3_NAME);
+    assertEquals(DurationMethod.FRAME_WALK, mpegInfo.getDurationMethod()); // indexing needs the walk
+
+    MpegFrameIndex index = mpegInfo.getFrameIndex();
+    assertEquals(427, index.size());
+    assertEquals(427, index.getFrameCount());
+    assertEquals(427 * 1152, index.getSampleCount());
+    assertEquals(44100, index.getSampleRate());
+    assertEquals(45, index.offsetAt(0)); // right after the ID3v2 tag
+    assertEquals(1152, index.sampleAt(1));
+
+    assertEquals(45, index.offsetOf(0));
+    assertEquals(45, index.offsetOf(1151));
+    assertEquals(index.offsetAt(1), index.offsetOf(1152));
+    assertEquals(index.offsetAt(426), index.offsetOf(Long.MAX_VALUE));
+    assertEquals(index.offsetAt(38), index.offsetOf(Duration.ofSeconds(1))); // 44100/1152 = 38.28
+  }
+
+  @Test
+  void should_decimate() throws IOException, AudioInfoException {
+    MpegFrameIndex full = new Mp3AudioInfoSupplier(Mode.VBR_HEADER, 1).getInfos(MP3_URL.openStream(), MP3_NAME).getFrameIndex();
+    MpegFrameIndex decimated = new Mp3AudioInfoSupplier(Mode.VBR_HEADER, 10).getInfos(MP3_URL.openStream(), MP3_NAME).getFrameIndex();
+
+    assertEquals(43, decimated.size());
+    assertEquals(10, decimated.getInterval());
+    assertEquals(full.getSampleCount(), decimated.getSampleCount());
+    for (int i = 0; i < decimated.size(); i++) {
+      assertEquals(full.offsetAt(i * 10), decimated.offsetAt(i));
+      assertEquals(full.sampleAt(i * 10), decimated.sampleAt(i));
+    }
+    assertEquals(full.offsetAt(30), decimated.offsetOf(Duration.ofSeconds(1)));
+  }
+
+  @Test
+  void should_not_index_by_default() throws IOException, AudioInfoException {
+    assertNull(new Mp3AudioInfoSupplier().getInfos(MP3_URL.openStream(), MP3_NAME).getFrameIndex());
+  }
+
+  @Test
+  void should_serialize() throws IOException, AudioInfoException, ClassNotFoundException {
+    MpegFrameIndex index = new Mp3AudioInfoSupplier(Mode.VBR_HEADER, 4).getInfos(MP3_URL.openStream(), MP3_NAME).getFrameIndex();
+
+    ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    try(ObjectOutputStream oos = new ObjectOutputStream(baos)) {
+      oos.writeObject(index);
+    }
+    MpegFrameIndex copy;
+    try(ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(baos.toByteArray()))) {
+      copy = (MpegFrameIndex) ois.readObject();
+    }
+    assertNotNull(copy);
+    assertEquals(index.size(), copy.size());
+    assertEquals(index.getSampleCount(), copy.getSampleCount());
+    assertEquals(index.offsetOf(Duration.ofSeconds(5)), copy.offsetOf(Duration.ofSeconds(5)));
+  }
+
+  @Test
+  void should_handle_empty_index() {
+    MpegFrameIndex index = new MpegFrameIndex.Builder(1).build();
+    assertEquals(0, index.size());
+    assertEquals(-1, index.offsetOf(0));
+    assertThrows(IllegalArgumentException.class, () -> new MpegFrameIndex.Builder(0));
+  }
+}
@@ -0,0 +1,38 @@
+/**
+ * Audiolib
+ * Copyright (C) 2022 NonStatic
+ *
+ * This file is part of audiolib.
+ * Audiolib is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *  is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License along with . If not, see <https://www.gnu.org/licenses/>.
+ */
+package eu.nonstatic.audio.formats.ogg;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+class OggCrcTest {
+
+  @Test
+  void should_compute_crc() {
+    byte[] check = "123456789".getBytes(StandardCharsets.US_ASCII);
+    assertEquals(0x89A1897F, OggCrc.checksum(check, 0, check.length)); // CRC-32/POSIX check value, without its final xor
+  }
+
+  @Test
+  void should_slice_like_bytewise() {
+    byte[] bytes = new byte[1000];
+    new Random(42).nextBytes(bytes);
+    for (int offset = 0; offset < 9; offset++) {
+      for (int length = 0; length < bytes.length - offset; length += 37) {
+        assertEquals(OggCrc.updateBytewise(0, bytes, offset, length), OggCrc.checksum(bytes, offset, length));
+      }
+    }
+    int crc = OggCrc.update(0, bytes, 0, 123);
+    assertEquals(OggCrc.checksum(bytes, 0, 1000), OggCrc.update(crc, bytes, 123, 877));
+  }
+}
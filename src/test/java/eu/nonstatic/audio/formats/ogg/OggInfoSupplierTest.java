@@ -14,17 +14,31 @@ import eu.nonstatic.audio.formats.AudioFormatException;
 import eu.nonstatic.audio.formats.AudioInfoException;
 import eu.nonstatic.audio.AudioIssue;
 import eu.nonstatic.audio.AudioIssue.Type;
+import eu.nonstatic.audio.AudioInputStream;
 import eu.nonstatic.audio.AudioTestBase;
+import eu.nonstatic.audio.ChannelAudioInputStream;
 import eu.nonstatic.audio.FaultyStream;
+import eu.nonstatic.audio.formats.ogg.OggInfoSupplier.Mode;
+import eu.nonstatic.audio.formats.ogg.codec.OggFlacInfo;
+import eu.nonstatic.audio.formats.ogg.codec.OggOpusInfo;
+import eu.nonstatic.audio.formats.ogg.codec.OggVorbisInfo;
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.EOFException;
+import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.Duration;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
@@ -46,6 +60,227 @@ class OggInfoSupplierTest implements AudioTestBase {
     assertEquals(44100.f, oggInfo.getSampleRate());
   }
 
+  @Test
+  void should_give_infos_from_last_page(@TempDir Path tempDir) throws IOException, AudioInfoException {
+    Path file = AudioTestBase.copyFileContents(OGG_URL, tempDir.resolve("example.ogg"));
+
+    OggVorbisInfo lastPageInfo = (OggVorbisInfo) new OggInfoSupplier().getInfos(file);
+    assertEquals(Duration.ofNanos(6104036281L), lastPageInfo.getDuration());
+    assertEquals(Duration.ZERO, lastPageInfo.getBitCountDuration()); // data packets weren't read
+    assertEquals(-1, lastPageInfo.getSampleCount());
+    assertEquals(1, lastPageInfo.getIssues().size()); // bos
+
+    OggVorbisInfo walkedInfo = (OggVorbisInfo) new OggInfoSupplier(Mode.VERIFY).getInfos(file);
+    assertEquals(lastPageInfo.getDuration(), walkedInfo.getDuration());
+    assertTrue(walkedInfo.getBitCountDuration().compareTo(Duration.ZERO) > 0);
+  }
+
+  @Test
+  void should_count_the_same_when_skipping_whole_pages() throws IOException, AudioFormatException {
+    byte[] bytes = OGG_URL.openStream().readAllBytes();
+    OggInfoSupplier infoSupplier = new OggInfoSupplier(Mode.VERIFY);
+    OggStreamsInfos skipped = infoSupplier.getStreamsInfos(new ByteArrayInputStream(bytes), OGG_NAME);
+
+    // trickling, nothing is known to be left ahead, so every packet is read one by one
+    InputStream trickling = new FilterInputStream(new ByteArrayInputStream(bytes)) {
+      @Override
+      public int read(byte[] b, int off, int len) throws IOException {
+        return super.read(b, off, Math.min(len, 1));
+      }
+
+      @Override
+      public int available() {
+        return 0;
+      }
+    };
+    OggStreamsInfos read = infoSupplier.getStreamsInfos(trickling, OGG_NAME);
+
+    OggVorbisInfo skippedInfo = (OggVorbisInfo) skipped.stream().findFirst().orElseThrow();
+    OggVorbisInfo readInfo = (OggVorbisInfo) read.stream().findFirst().orElseThrow();
+    assertEquals(Duration.ofNanos(4968706837L), readInfo.getBitCountDuration());
+    assertEquals(readInfo.getBitCountDuration(), skippedInfo.getBitCountDuration());
+    assertEquals(readInfo.getDuration(), skippedInfo.getDuration());
+    assertEquals(readInfo.getIssues().toString(), skippedInfo.getIssues().toString());
+    assertEquals(read.getIssues().toString(), skipped.getIssues().toString());
+  }
+
+  @Test
+  void should_count_samples_from_block_sizes() throws IOException, AudioInfoException {
+    OggVorbisInfo walkedInfo = (OggVorbisInfo) new OggInfoSupplier(Mode.VERIFY).getInfos(OGG_URL.openStream(), OGG_NAME);
+    assertEquals(269888, walkedInfo.getSampleCount()); // the last page trims it down to 269188
+    assertEquals(269188, walkedInfo.getLastGranule());
+    assertEquals(Duration.ofNanos(6104036281L), walkedInfo.getDuration());
+
+    byte[] bytes = OGG_URL.openStream().readAllBytes();
+    int incompleteLength = bytes.length - 50000; // some packets after the last complete page, which has granule 134208
+    OggVorbisInfo incompleteInfo = (OggVorbisInfo) new OggInfoSupplier().getInfos(new ByteArrayInputStream(bytes, 0, incompleteLength), OGG_NAME);
+    assertTrue(incompleteInfo.isIncomplete());
+    assertEquals(134208, incompleteInfo.getLastGranule());
+    assertEquals(135232, incompleteInfo.getSampleCount());
+    assertEquals(Duration.ofNanos(3066485261L), incompleteInfo.getDuration());
+  }
+
+  @Test
+  void should_walk_when_last_page_is_truncated(@TempDir Path tempDir) throws IOException, AudioInfoException {
+    byte[] bytes;
+    try(InputStream is = OGG_URL.openStream()) {
+      bytes = is.readAllBytes();
+    }
+    Path file = tempDir.resolve("incomplete.ogg");
+    Files.write(file, Arrays.copyOf(bytes, bytes.length - 50000));
+
+    OggInfo infos = new OggInfoSupplier().getInfos(file);
+    assertTrue(infos.isIncomplete());
+    assertEquals(2, infos.getIssues().size()); // bos and EOF
+    assertEquals("AudioIssue EOF at 54793", infos.getIssues().get(1).toString());
+  }
+
+  @Test
+  void should_walk_chained_streams(@TempDir Path tempDir) throws IOException, AudioInfoException, AudioFormatException {
+    int opusSerial = 0x4f505553;
+    byte[] head = ByteBuffer.allocate(11).order(ByteOrder.LITTLE_ENDIAN)
+        .put((byte) 1).put((byte) 1).putShort((short) 0).putInt(48000).putShort((short) 0).put((byte) 0)
+        .array();
+    ByteArrayOutputStream bos = new ByteArrayOutputStream();
+    try(InputStream is = OGG_URL.openStream()) {
+      bos.writeBytes(is.readAllBytes());
+    }
+    OggPages.writePage(bos, opusSerial, 0x2, 0, 0, List.of(OggPages.packet("OpusHead", head)));
+    OggPages.writePage(bos, opusSerial, 0x0, 0, 1, List.of(OggPages.packet("OpusTags", new byte[8])));
+    OggPages.writePage(bos, opusSerial, 0x4, 48000, 2, List.of(new byte[300], new byte[300]));
+    Path file = tempDir.resolve("chained.ogg");
+    Files.write(file, bos.toByteArray());
+
+    // the second chain isn't announced at the head, its last page mustn't be taken for the first one's
+    OggStreamsInfos streamsInfos;
+    try(AudioInputStream ais = ChannelAudioInputStream.open(file)) {
+      streamsInfos = new OggInfoSupplier().getStreamsInfos(ais, OGG_NAME);
+    }
+    assertEquals(2, streamsInfos.size());
+    OggInfo vorbisInfo = streamsInfos.stream().filter(info -> info.getCodec() == OggCodec.VORBIS).findFirst().orElseThrow();
+    assertEquals(Duration.ofNanos(6104036281L), vorbisInfo.getDuration());
+    assertEquals(Duration.ofSeconds(1), streamsInfos.get(opusSerial).getDuration());
+  }
+
+  @Test
+  void should_give_opus_infos() throws IOException, AudioInfoException {
+    int serialNumber = 0x4f505553;
+    byte[] head = ByteBuffer.allocate(11).order(ByteOrder.LITTLE_ENDIAN)
+        .put((byte) 1) // version
+        .put((byte) 2) // channels
+        .putShort((short) 312) // pre-skip
+        .putInt(44100) // input sample rate
+        .putShort((short) 0) // gain
+        .put((byte) 0) // mapping family
+        .array();
+    ByteArrayOutputStream bos = new ByteArrayOutputStream();
+    OggPages.writePage(bos, serialNumber, 0x2, 0, 0, List.of(OggPages.packet("OpusHead", head)));
+    OggPages.writePage(bos, serialNumber, 0x0, 0, 1, List.of(OggPages.packet("OpusTags", new byte[8])));
+    OggPages.writePage(bos, serialNumber, 0x0, 48000, 2, List.of(new byte[300], new byte[300]));
+    OggPages.writePage(bos, serialNumber, 0x4, 96312, 3, List.of(new byte[300], new byte[300]));
+
+    OggOpusInfo opusInfo = (OggOpusInfo) new OggInfoSupplier().getInfos(new ByteArrayInputStream(bos.toByteArray()), "opus");
+    assertEquals(OggCodec.OPUS, opusInfo.getCodec());
+    assertEquals(2, opusInfo.getChannels());
+    assertEquals(48000.f, opusInfo.getSampleRate());
+    assertEquals(44100, opusInfo.getInputSampleRate());
+    assertEquals(312, opusInfo.getPreSkip());
+    assertEquals(Duration.ofSeconds(2), opusInfo.getDuration());
+    assertEquals(48312, opusInfo.getGranulePos(Duration.ofSeconds(1)));
+    assertFalse(opusInfo.isIncomplete());
+  }
+
+  @Test
+  void should_give_ogg_flac_infos() throws IOException, AudioInfoException {
+    int serialNumber = 0x464c4143;
+    ByteArrayOutputStream bos = new ByteArrayOutputStream();
+    OggPages.writePage(bos, serialNumber, 0x2, 0, 0, List.of(oggFlacBos(0)));
+    OggPages.writePage(bos, serialNumber, 0x0, 0, 1, List.of(new byte[] {(byte) 0x84, 0, 0, 0})); // last, empty, VORBIS_COMMENT
+    OggPages.writePage(bos, serialNumber, 0x0, 44100, 2, List.of(new byte[500], new byte[500]));
+    OggPages.writePage(bos, serialNumber, 0x4, 88200, 3, List.of(new byte[500], new byte[500]));
+
+    OggFlacInfo flacInfo = (OggFlacInfo) new OggInfoSupplier().getInfos(new ByteArrayInputStream(bos.toByteArray()), "flac");
+    assertEquals(OggCodec.FLAC, flacInfo.getCodec());
+    assertEquals(44100.f, flacInfo.getSampleRate());
+    assertEquals(2, flacInfo.getChannels());
+    assertEquals(16, flacInfo.getSampleSizeInBits());
+    assertEquals(0x100, flacInfo.getMappingVersion());
+    assertEquals(Duration.ofSeconds(2), flacInfo.getDuration());
+
+    // no audio page, but STREAMINFO tells the total samples
+    bos.reset();
+    OggPages.writePage(bos, serialNumber, 0x2, 0, 0, List.of(oggFlacBos(132300)));
+    OggPages.writePage(bos, serialNumber, 0x4, 0, 1, List.of(new byte[] {(byte) 0x84, 0, 0, 0}));
+    flacInfo = (OggFlacInfo) new OggInfoSupplier().getInfos(new ByteArrayInputStream(bos.toByteArray()), "flac");
+    assertEquals(132300, flacInfo.getTotalSamples());
+    assertEquals(Duration.ofSeconds(3), flacInfo.getDuration());
+  }
+
+  private static byte[] oggFlacBos(long totalSamples) {
+    long samplingInfo = 44100L << 44 | 1L << 41 | 15L << 36 | totalSamples; // 2 channels, 16 bits
+    return ByteBuffer.allocate(51)
+        .put((byte) 0x7f).put("FLAC".getBytes(StandardCharsets.US_ASCII))
+        .put((byte) 1).put((byte) 0) // mapping version
+        .putShort((short) 1) // header packets
+        .put("fLaC".getBytes(StandardCharsets.US_ASCII))
+        .put((byte) 0).put((byte) 0).put((byte) 0).put((byte) 34) // STREAMINFO
+        .putShort((short) 4096).putShort((short) 4096) // block sizes
+        .put(new byte[6]) // frame sizes
+        .putLong(samplingInfo)
+        .put(new byte[16]) // MD5
+        .array();
+  }
+
+  @Test
+  void should_pass_through_unknown_streams(@TempDir Path tempDir) throws IOException, AudioInfoException, AudioFormatException {
+    int theoraSerial = 0x7468656f;
+    int unknownSerial = 0x3f3f3f3f;
+    ByteArrayOutputStream bos = new ByteArrayOutputStream();
+    OggPages.writePage(bos, theoraSerial, 0x2, 0, 0, List.of(OggPages.packet("\u0080theora", new byte[35])));
+    OggPages.writePage(bos, unknownSerial, 0x2, 0, 0, List.of(OggPages.packet("whatever", new byte[20])));
+    try(InputStream is = OGG_URL.openStream()) {
+      bos.writeBytes(is.readAllBytes());
+    }
+    OggPages.writePage(bos, unknownSerial, 0x4, 12345, 1, List.of(new byte[600]));
+    OggPages.writePage(bos, theoraSerial, 0x4, 150, 1, List.of(new byte[1000], new byte[2000]));
+    byte[] bytes = bos.toByteArray();
+
+    OggStreamsInfos streamsInfos = new OggInfoSupplier().getStreamsInfos(new ByteArrayInputStream(bytes), OGG_NAME);
+    assertEquals(3, streamsInfos.size());
+    assertFalse(streamsInfos.isIncomplete());
+    assertEquals(OggCodec.THEORA, streamsInfos.get(theoraSerial).getCodec());
+    assertEquals(OggCodec.UNKNOWN, streamsInfos.get(unknownSerial).getCodec());
+
+    OggInfo walkedInfo = new OggInfoSupplier().getInfos(new ByteArrayInputStream(bytes), OGG_NAME);
+    assertEquals(OggCodec.VORBIS, walkedInfo.getCodec());
+    assertEquals(Duration.ofNanos(6104036281L), walkedInfo.getDuration());
+
+    Path file = tempDir.resolve("mixed.ogg");
+    Files.write(file, bytes);
+    OggInfo lastPageInfo = new OggInfoSupplier().getInfos(file);
+    assertEquals(Duration.ofNanos(6104036281L), lastPageInfo.getDuration());
+  }
+
+  @Test
+  void should_check_pages_crc() throws IOException, AudioFormatException {
+    byte[] bytes;
+    try(InputStream is = OGG_URL.openStream()) {
+      bytes = is.readAllBytes();
+    }
+    OggInfoSupplier infoSupplier = new OggInfoSupplier(Mode.CHECKSUM);
+    assertEquals(0, infoSupplier.getStreamsInfos(new ByteArrayInputStream(bytes), OGG_NAME).getChecksumMismatches());
+
+    bytes[30000] ^= 0x10; // within the fourth page's body
+    OggStreamsInfos streamsInfos = infoSupplier.getStreamsInfos(new ByteArrayInputStream(bytes), OGG_NAME + ":bitrot");
+    assertEquals(1, streamsInfos.getChecksumMismatches());
+    List<AudioIssue> issues = streamsInfos.getIssues();
+    assertEquals(1, issues.size());
+    assertEquals(Type.CHECKSUM, issues.get(0).getType());
+    assertEquals(20997, issues.get(0).getLocation());
+
+    assertEquals(0, new OggInfoSupplier(Mode.VERIFY).getStreamsInfos(new ByteArrayInputStream(bytes), OGG_NAME + ":bitrot").getChecksumMismatches());
+  }
+
   @Test
   void should_handle_truncated_file_no_page() throws IOException {
     byte[] bytes;
@@ -141,8 +376,8 @@ class OggInfoSupplierTest implements AudioTestBase {
       AudioIssue issue = issues.get(1);
       assertEquals(Type.SYNC, issue.getType());
       assertEquals(4382, issue.getLocation());
-      assertEquals(3313L, issue.getMeta(AudioIssue.META_SKIPPED));
-      assertEquals("AudioIssue SYNC at 4382, {skipped=3313}", issue.toString());
+      assertEquals(16565L, issue.getMeta(AudioIssue.META_SKIPPED)); // next page at 20947
+      assertEquals("AudioIssue SYNC at 4382, {skipped=16565}", issue.toString());
 
       assertEquals(fullDuration, infos.getDuration()); // same duration as the complete one because of the granule position
     }
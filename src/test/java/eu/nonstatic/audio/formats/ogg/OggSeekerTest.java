@@ -0,0 +1,105 @@
+/**
+ * Audiolib
+ * Copyright (C) 2022 NonStatic
+ *
+ * This file is part of audiolib.
+ * Audiolib is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *  is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License along with . If not, see <https://www.gnu.org/licenses/>.
+ */
+package eu.nonstatic.audio.formats.ogg;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import eu.nonstatic.audio.AudioInputStream;
+import eu.nonstatic.audio.AudioTestBase;
+import eu.nonstatic.audio.MappedAudioInputStream;
+import eu.nonstatic.audio.formats.AudioFormatException;
+import eu.nonstatic.audio.formats.ogg.OggSeeker.SeekPoint;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class OggSeekerTest implements AudioTestBase {
+
+  @TempDir
+  Path tempDir;
+
+  @Test
+  void should_seek_by_bisection() throws IOException, AudioFormatException {
+    Path file = AudioTestBase.copyFileContents(OGG_URL, tempDir.resolve("example.ogg"));
+    try (AudioInputStream ais = new MappedAudioInputStream(file)) {
+      OggSeeker seeker = new OggSeeker(ais, new OggInfoSupplier().getStreamsInfos(ais, OGG_NAME));
+
+      // granule 132300, the page ending at 89152 being short of it
+      SeekPoint seekPoint = seeker.seek(Duration.ofSeconds(3)).orElseThrow();
+      assertEquals(new SeekPoint(37508, 54106, 134208), seekPoint);
+      assertTrue(seeker.getReadCount() <= 4, () -> "reads: " + seeker.getReadCount());
+
+      // granule 44100, just past the page ending at 44096
+      assertEquals(new SeekPoint(20997, 37508, 89152), seeker.seek(Duration.ofSeconds(1)).orElseThrow());
+      assertEquals(new SeekPoint(0, 58, 0), seeker.seek(Duration.ZERO).orElseThrow());
+      assertFalse(seeker.seek(Duration.ofSeconds(7)).isPresent()); // the stream lasts 6.1s
+    }
+  }
+
+  @Test
+  void should_seek_faster_with_the_index() throws IOException, AudioFormatException {
+    Path file = AudioTestBase.copyFileContents(OGG_URL, tempDir.resolve("example.ogg"));
+    try (AudioInputStream ais = new MappedAudioInputStream(file)) {
+      OggSeeker seeker = new OggSeeker(ais, new OggInfoSupplier().getStreamsInfos(ais, OGG_NAME));
+
+      SeekPoint seekPoint = seeker.seek(Duration.ofSeconds(5)).orElseThrow();
+      int firstReads = seeker.getReadCount();
+
+      assertEquals(seekPoint, seeker.seek(Duration.ofSeconds(5)).orElseThrow());
+      assertEquals(firstReads, seeker.getReadCount()); // the index already holds the pages around the target
+    }
+  }
+
+  @Test
+  void should_seek_in_the_first_timed_audio_stream() throws IOException, AudioFormatException {
+    int speexSerial = 0x53504558;
+    ByteArrayOutputStream bos = new ByteArrayOutputStream();
+    OggPages.writePage(bos, speexSerial, 0x2, 0, 0, List.of(OggPages.packet("Speex   ", new byte[72])));
+    try (InputStream is = OGG_URL.openStream()) {
+      bos.writeBytes(is.readAllBytes());
+    }
+    OggPages.writePage(bos, speexSerial, 0x4, 96000, 1, List.of(new byte[600]));
+    Path file = tempDir.resolve("speex_first.ogg");
+    Files.write(file, bos.toByteArray());
+
+    try (AudioInputStream ais = new MappedAudioInputStream(file)) {
+      OggStreamsInfos streamsInfos = new OggInfoSupplier().getStreamsInfos(ais, OGG_NAME);
+      assertEquals(OggCodec.SPEEX, streamsInfos.stream().findFirst().orElseThrow().getCodec()); // passed through, without sample rate
+      OggSeeker seeker = new OggSeeker(ais, streamsInfos);
+
+      assertEquals(134208, seeker.seek(Duration.ofSeconds(3)).orElseThrow().granulePos()); // in the Vorbis stream
+      assertThrows(IllegalArgumentException.class, () -> seeker.seek(speexSerial, Duration.ofSeconds(1)));
+      assertEquals(96000, seeker.seekGranule(speexSerial, 1).orElseThrow().granulePos());
+    }
+  }
+
+  @Test
+  void should_not_seek_without_timed_audio_stream() throws IOException, AudioFormatException {
+    ByteArrayOutputStream bos = new ByteArrayOutputStream();
+    OggPages.writePage(bos, 1, 0x2, 0, 0, List.of(OggPages.packet("Speex   ", new byte[72])));
+    OggPages.writePage(bos, 1, 0x4, 96000, 1, List.of(new byte[600]));
+    Path file = tempDir.resolve("speex.ogg");
+    Files.write(file, bos.toByteArray());
+
+    try (AudioInputStream ais = new MappedAudioInputStream(file)) {
+      OggSeeker seeker = new OggSeeker(ais, new OggInfoSupplier().getStreamsInfos(ais, OGG_NAME));
+      assertThrows(IllegalStateException.class, () -> seeker.seek(Duration.ofSeconds(1)));
+    }
+  }
+}
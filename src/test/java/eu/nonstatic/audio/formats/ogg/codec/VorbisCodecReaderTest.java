@@ -0,0 +1,75 @@
+/**
+ * Audiolib
+ * Copyright (C) 2022 NonStatic
+ *
+ * This file is part of audiolib.
+ * Audiolib is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *  is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License along with . If not, see <https://www.gnu.org/licenses/>.
+ */
+package eu.nonstatic.audio.formats.ogg.codec;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.Arrays;
+import org.junit.jupiter.api.Test;
+
+class VorbisCodecReaderTest {
+
+  @Test
+  void should_read_mode_block_flags() {
+    boolean[] blockFlags = {false, true, true, false, true};
+    assertArrayEquals(blockFlags, VorbisCodecReader.readModeBlockFlags(setupHeader(blockFlags, 0)));
+
+    boolean[] singleMode = {true};
+    assertArrayEquals(singleMode, VorbisCodecReader.readModeBlockFlags(setupHeader(singleMode, 0)));
+  }
+
+  @Test
+  void should_not_read_mode_block_flags_without_framing_bit() {
+    assertNull(VorbisCodecReader.readModeBlockFlags(new byte[32]));
+    assertNull(VorbisCodecReader.readModeBlockFlags(new byte[0]));
+  }
+
+  @Test
+  void should_not_read_mode_block_flags_after_bad_mode() {
+    // a window type other than 0 isn't a mode, nor what precedes it
+    assertNull(VorbisCodecReader.readModeBlockFlags(setupHeader(new boolean[] {false, true, true}, 1)));
+  }
+
+  /**
+   * What ends a setup header: some codebooks, floors, residues and mappings left as all ones,
+   * then the mode count and table, the framing bit and padding, bits packed LSB first.
+   */
+  private static byte[] setupHeader(boolean[] blockFlags, int lastWindowType) {
+    BitWriter bits = new BitWriter();
+    for (int i = 0; i < 5; i++) {
+      bits.write(0xff, 8);
+    }
+    bits.write(blockFlags.length - 1, 6);
+    for (int i = 0; i < blockFlags.length; i++) {
+      bits.write(blockFlags[i] ? 1 : 0, 1);
+      bits.write(i == blockFlags.length - 1 ? lastWindowType : 0, 16); // windowtype
+      bits.write(0, 16); // transformtype
+      bits.write(i % 2, 8); // mapping
+    }
+    bits.write(1, 1); // framing bit
+    return bits.toByteArray();
+  }
+
+  private static class BitWriter {
+    private byte[] bytes = new byte[64];
+    private int position;
+
+    void write(int value, int count) {
+      for (int i = 0; i < count; i++, position++) {
+        bytes[position >> 3] |= ((value >> i) & 1) << (position & 7);
+      }
+    }
+
+    byte[] toByteArray() {
+      return Arrays.copyOf(bytes, (position + 7) >> 3);
+    }
+  }
+}
@@ -14,6 +14,8 @@ import eu.nonstatic.audio.AudioIssue;
 import eu.nonstatic.audio.AudioIssue.Type;
 import eu.nonstatic.audio.AudioTestBase;
 import eu.nonstatic.audio.FaultyStream;
+import eu.nonstatic.audio.LatencyRangeReader;
+import eu.nonstatic.audio.RangeReader;
 import eu.nonstatic.audio.formats.AudioInfoException;
 import org.junit.jupiter.api.Test;
 
@@ -171,4 +173,96 @@ class WaveInfoSupplierTest implements AudioTestBase {
     assertEquals(16, issue.getLocation());
     assertEquals(EOFException.class, issue.getCause().getClass());
   }
+
+  @Test
+  void should_read_rf64_sizes_without_fetching_payloads() throws IOException, AudioInfoException {
+    long junkSize = 0xC0000000L; // beyond a signed int
+    long dataSize = 17_280_000_000L; // 1000 minutes of 48kHz 24 bit stereo
+
+    ByteBuffer head = ByteBuffer.allocate(12 + 8 + 28 + 8 + 16 + 8).order(ByteOrder.LITTLE_ENDIAN)
+      .put("RF64".getBytes())
+      .putInt(-1) // in ds64
+      .put("WAVE".getBytes())
+
+      .put("ds64".getBytes())
+      .putInt(28)
+      .putLong(4 + 8 + 28 + 8 + 16 + 8 + junkSize + 8 + dataSize) // RIFF size
+      .putLong(dataSize)
+      .putLong(dataSize / 6) // sample count
+      .putInt(0) // table length
+
+      .put("fmt ".getBytes())
+      .putInt(16)
+      .putShort(WaveFormat.PCM.getValue())
+      .putShort((short) 2)
+      .putInt(48000)
+      .putInt(288000)
+      .putShort((short) 6)
+      .putShort((short) 24)
+
+      .put("JUNK".getBytes())
+      .putInt((int) junkSize);
+    long dataLocation = head.capacity() + junkSize;
+    ByteBuffer dataHeader = ByteBuffer.allocate(8).order(ByteOrder.LITTLE_ENDIAN)
+      .put("data".getBytes())
+      .putInt(-1); // in ds64
+
+    RangeReader sparse = new RangeReader() { // the header, then zeroes but for the data chunk header
+      @Override
+      public long size() {
+        return dataLocation + 8 + dataSize;
+      }
+
+      @Override
+      public ByteBuffer read(long offset, int length) {
+        byte[] range = new byte[(int) Math.min(length, size() - offset)];
+        copy(head.array(), 0, range, offset);
+        copy(dataHeader.array(), dataLocation, range, offset);
+        return ByteBuffer.wrap(range);
+      }
+
+      private void copy(byte[] src, long srcLocation, byte[] range, long offset) {
+        long from = Math.max(srcLocation, offset);
+        long to = Math.min(srcLocation + src.length, offset + range.length);
+        if (from < to) {
+          System.arraycopy(src, (int) (from - srcLocation), range, (int) (from - offset), (int) (to - from));
+        }
+      }
+
+      @Override
+      public void close() {}
+    };
+
+    try (LatencyRangeReader reader = new LatencyRangeReader(sparse, Duration.ZERO)) {
+      WaveInfo waveInfo = infoSupplier.getInfos(reader, WAVE_NAME);
+      assertEquals(dataSize, waveInfo.getAudioSize());
+      assertEquals(2_880_000_000L, waveInfo.getLongFrameCount());
+      assertEquals(Integer.MAX_VALUE, waveInfo.getFrameCount());
+      assertEquals(Duration.ofMinutes(1000), waveInfo.getDuration());
+      assertEquals(2, reader.getRoundTrips()); // the headers, then the data chunk header past JUNK
+      assertTrue(reader.getBytesRead() <= 2L * infoSupplier.getRangeReadAhead());
+    }
+  }
+
+  @Test
+  void should_read_unsigned_data_size() throws IOException, AudioInfoException {
+    ByteBuffer bb = ByteBuffer.allocate(44).order(ByteOrder.LITTLE_ENDIAN)
+      .put("RIFF".getBytes())
+      .putInt(-1)
+      .put("WAVE".getBytes())
+      .put("fmt ".getBytes())
+      .putInt(16)
+      .putShort(WaveFormat.PCM.getValue())
+      .putShort((short) 2)
+      .putInt(44100)
+      .putInt(176400)
+      .putShort((short) 4)
+      .putShort((short) 16)
+      .put("data".getBytes())
+      .putInt(0xF0000000); // 3.75GB, beyond a signed int
+
+    WaveInfo waveInfo = infoSupplier.getInfos(new ByteArrayInputStream(bb.array()), WAVE_NAME);
+    assertEquals(0xF0000000L, waveInfo.getAudioSize());
+    assertEquals(0xF0000000L / 4, waveInfo.getLongFrameCount());
+  }
 }
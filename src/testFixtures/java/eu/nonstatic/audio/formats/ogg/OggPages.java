@@ -0,0 +1,59 @@
+/**
+ * Audiolib
+ * Copyright (C) 2022 NonStatic
+ *
+ * This file is part of audiolib.
+ * Audiolib is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any later version.
+ *  is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License along with . If not, see <https://www.gnu.org/licenses/>.
+ */
+package eu.nonstatic.audio.formats.ogg;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Writes hand-made pages, so that the codecs there isn't any sample file of can be tested, and benchmarks get their input
+ */
+final class OggPages {
+
+  private OggPages() {}
+
+  static byte[] packet(String magic, byte[] payload) {
+    byte[] magicBytes = magic.getBytes(StandardCharsets.ISO_8859_1);
+    return ByteBuffer.allocate(magicBytes.length + payload.length)
+        .put(magicBytes)
+        .put(payload)
+        .array();
+  }
+
+  static void writePage(ByteArrayOutputStream bos, int serialNumber, int headerType, long granulePos, int seq, List<byte[]> packets) {
+    ByteArrayOutputStream lacing = new ByteArrayOutputStream();
+    ByteArrayOutputStream body = new ByteArrayOutputStream();
+    for (byte[] packet : packets) {
+      int size = packet.length;
+      for (; size >= 255; size -= 255) {
+        lacing.write(255);
+      }
+      lacing.write(size);
+      body.writeBytes(packet);
+    }
+
+    ByteBuffer page = ByteBuffer.allocate(27 + lacing.size() + body.size()).order(ByteOrder.LITTLE_ENDIAN)
+        .put("OggS".getBytes(StandardCharsets.US_ASCII))
+        .put((byte) 0)
+        .put((byte) headerType)
+        .putLong(granulePos)
+        .putInt(serialNumber)
+        .putInt(seq)
+        .putInt(0) // checksum, for now
+        .put((byte) lacing.size())
+        .put(lacing.toByteArray())
+        .put(body.toByteArray());
+    page.putInt(22, OggCrc.checksum(page.array(), 0, page.capacity()));
+    bos.writeBytes(page.array());
+  }
+}